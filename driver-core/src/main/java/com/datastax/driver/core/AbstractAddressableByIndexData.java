@@ -39,6 +39,14 @@ abstract class AbstractAddressableByIndexData<T extends SettableByIndexData<T>>
         return (T) this;
     }
 
+    // Like AbstractData.setFixedSizeValue: serializes a fixed-size value from its bits, without the intermediary object
+    private T setFixedSizeValue(int i, int size, long high, long low) {
+        ByteBuffer bb = ByteBuffer.allocate(size);
+        AbstractData.putFixedSize(bb, size, high, low);
+        bb.flip();
+        return setValue(i, bb);
+    }
+
     @Override
     protected ByteBuffer getValue(int i) {
         return values[i];
@@ -104,11 +112,27 @@ abstract class AbstractAddressableByIndexData<T extends SettableByIndexData<T>>
         return setValue(i, codecFor(i, Date.class).serialize(v, protocolVersion));
     }
 
+    @Override
+    public T setTimestampMillis(int i, long v) {
+        TypeCodec<Date> codec = codecFor(i, Date.class);
+        if (codec == TypeCodec.timestamp())
+            return setFixedSizeValue(i, 8, 0, v);
+        return setValue(i, codec.serialize(new Date(v), protocolVersion));
+    }
+
     @Override
     public T setDate(int i, LocalDate v) {
         return setValue(i, codecFor(i, LocalDate.class).serialize(v, protocolVersion));
     }
 
+    @Override
+    public T setDaysSinceEpoch(int i, int v) {
+        TypeCodec<LocalDate> codec = codecFor(i, LocalDate.class);
+        if (codec == TypeCodec.date())
+            return setFixedSizeValue(i, 4, 0, CodecUtils.fromSignedToUnsignedInt(v));
+        return setValue(i, codec.serialize(LocalDate.fromDaysSinceEpoch(v), protocolVersion));
+    }
+
     @Override
     public T setTime(int i, long v) {
         TypeCodec<Long> codec = codecFor(i, Long.class);
@@ -172,6 +196,15 @@ abstract class AbstractAddressableByIndexData<T extends SettableByIndexData<T>>
         return setValue(i, codecFor(i, UUID.class).serialize(v, protocolVersion));
     }
 
+    @Override
+    public T setUUID(int i, long mostSigBits, long leastSigBits) {
+        TypeCodec<UUID> codec = codecFor(i, UUID.class);
+        // timeuuid values that are not type 1 UUIDs go through the codec, which rejects them
+        if (codec == TypeCodec.uuid() || codec == TypeCodec.timeUUID() && ((mostSigBits >> 12) & 0x0f) == 1)
+            return setFixedSizeValue(i, 16, mostSigBits, leastSigBits);
+        return setValue(i, codec.serialize(new UUID(mostSigBits, leastSigBits), protocolVersion));
+    }
+
     @Override
     public T setInet(int i, InetAddress v) {
         return setValue(i, codecFor(i, InetAddress.class).serialize(v, protocolVersion));
@@ -278,8 +311,8 @@ abstract class AbstractAddressableByIndexData<T extends SettableByIndexData<T>>
             if (!thisType.equals(thatType))
                 return false;
 
-            Object thisValue = this.codecFor(i).deserialize(this.values[i], this.protocolVersion);
-            Object thatValue = that.codecFor(i).deserialize(that.values[i], that.protocolVersion);
+            Object thisValue = this.codecFor(i).deserialize(this.getValue(i), this.protocolVersion);
+            Object thatValue = that.codecFor(i).deserialize(that.getValue(i), that.protocolVersion);
             if (!Objects.equal(thisValue, thatValue))
                 return false;
         }
@@ -291,7 +324,7 @@ abstract class AbstractAddressableByIndexData<T extends SettableByIndexData<T>>
         // Same as equals
         int hash = 31;
         for (int i = 0; i < values.length; i++)
-            hash += values[i] == null ? 1 : codecFor(i).deserialize(values[i], protocolVersion).hashCode();
+            hash += getValue(i) == null ? 1 : codecFor(i).deserialize(getValue(i), protocolVersion).hashCode();
         return hash;
     }
 }
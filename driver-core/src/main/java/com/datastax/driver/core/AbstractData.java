@@ -56,6 +56,47 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         return wrapped;
     }
 
+    protected <V> T setValue(int i, V value, TypeCodec<V> codec) {
+        return setValue(i, codec.serialize(value, protocolVersion));
+    }
+
+    /**
+     * Sets the {@code i}th value to a fixed-size value, given as the bits of its serialized form: {@code low} holds
+     * values of up to 8 bytes, {@code high} and {@code low} hold the first and last 8 bytes of 16-byte values.
+     * <p/>
+     * The setters of primitive values call this when the codec is a built-in codec, so that subclasses can store
+     * the value without allocating a buffer for it.
+     */
+    protected T setFixedSizeValue(int i, int size, long high, long low) {
+        ByteBuffer bb = ByteBuffer.allocate(size);
+        putFixedSize(bb, size, high, low);
+        bb.flip();
+        return setValue(i, bb);
+    }
+
+    static void putFixedSize(ByteBuffer target, int size, long high, long low) {
+        switch (size) {
+            case 1:
+                target.put((byte) low);
+                break;
+            case 2:
+                target.putShort((short) low);
+                break;
+            case 4:
+                target.putInt((int) low);
+                break;
+            case 8:
+                target.putLong(low);
+                break;
+            case 16:
+                target.putLong(high);
+                target.putLong(low);
+                break;
+            default:
+                throw new AssertionError("Unsupported size " + size);
+        }
+    }
+
     @Override
     protected ByteBuffer getValue(int i) {
         return values[i];
@@ -69,6 +110,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public T setBool(int i, boolean v) {
         TypeCodec<Boolean> codec = codecFor(i, Boolean.class);
+        if (codec == TypeCodec.cboolean())
+            return setFixedSizeValue(i, 1, 0, v ? 1 : 0);
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveBooleanCodec)
             bb = ((TypeCodec.PrimitiveBooleanCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -88,6 +131,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public T setByte(int i, byte v) {
         TypeCodec<Byte> codec = codecFor(i, Byte.class);
+        if (codec == TypeCodec.tinyInt())
+            return setFixedSizeValue(i, 1, 0, v);
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveByteCodec)
             bb = ((TypeCodec.PrimitiveByteCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -107,6 +152,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public T setShort(int i, short v) {
         TypeCodec<Short> codec = codecFor(i, Short.class);
+        if (codec == TypeCodec.smallInt())
+            return setFixedSizeValue(i, 2, 0, v);
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveShortCodec)
             bb = ((TypeCodec.PrimitiveShortCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -126,6 +173,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public T setInt(int i, int v) {
         TypeCodec<Integer> codec = codecFor(i, Integer.class);
+        if (codec == TypeCodec.cint())
+            return setFixedSizeValue(i, 4, 0, v);
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveIntCodec)
             bb = ((TypeCodec.PrimitiveIntCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -145,6 +194,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public T setLong(int i, long v) {
         TypeCodec<Long> codec = codecFor(i, Long.class);
+        if (codec == TypeCodec.bigint() || codec == TypeCodec.counter())
+            return setFixedSizeValue(i, 8, 0, v);
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveLongCodec)
             bb = ((TypeCodec.PrimitiveLongCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -163,7 +214,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setTimestamp(int i, Date v) {
-        return setValue(i, codecFor(i, Date.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, Date.class));
     }
 
     @Override
@@ -174,9 +225,25 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         return wrapped;
     }
 
+    @Override
+    public T setTimestampMillis(int i, long v) {
+        TypeCodec<Date> codec = codecFor(i, Date.class);
+        if (codec == TypeCodec.timestamp())
+            return setFixedSizeValue(i, 8, 0, v);
+        return setValue(i, new Date(v), codec);
+    }
+
+    @Override
+    public T setTimestampMillis(String name, long v) {
+        for (int i : getAllIndexesOf(name)) {
+            setTimestampMillis(i, v);
+        }
+        return wrapped;
+    }
+
     @Override
     public T setDate(int i, LocalDate v) {
-        return setValue(i, codecFor(i, LocalDate.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, LocalDate.class));
     }
 
     @Override
@@ -187,9 +254,27 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         return wrapped;
     }
 
+    @Override
+    public T setDaysSinceEpoch(int i, int v) {
+        TypeCodec<LocalDate> codec = codecFor(i, LocalDate.class);
+        if (codec == TypeCodec.date())
+            return setFixedSizeValue(i, 4, 0, CodecUtils.fromSignedToUnsignedInt(v));
+        return setValue(i, LocalDate.fromDaysSinceEpoch(v), codec);
+    }
+
+    @Override
+    public T setDaysSinceEpoch(String name, int v) {
+        for (int i : getAllIndexesOf(name)) {
+            setDaysSinceEpoch(i, v);
+        }
+        return wrapped;
+    }
+
     @Override
     public T setTime(int i, long v) {
         TypeCodec<Long> codec = codecFor(i, Long.class);
+        if (codec == TypeCodec.time())
+            return setFixedSizeValue(i, 8, 0, v);
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveLongCodec)
             bb = ((TypeCodec.PrimitiveLongCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -209,6 +294,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public T setFloat(int i, float v) {
         TypeCodec<Float> codec = codecFor(i, Float.class);
+        if (codec == TypeCodec.cfloat())
+            return setFixedSizeValue(i, 4, 0, Float.floatToRawIntBits(v));
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveFloatCodec)
             bb = ((TypeCodec.PrimitiveFloatCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -228,6 +315,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public T setDouble(int i, double v) {
         TypeCodec<Double> codec = codecFor(i, Double.class);
+        if (codec == TypeCodec.cdouble())
+            return setFixedSizeValue(i, 8, 0, Double.doubleToRawLongBits(v));
         ByteBuffer bb;
         if (codec instanceof TypeCodec.PrimitiveDoubleCodec)
             bb = ((TypeCodec.PrimitiveDoubleCodec) codec).serializeNoBoxing(v, protocolVersion);
@@ -246,7 +335,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setString(int i, String v) {
-        return setValue(i, codecFor(i, String.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, String.class));
     }
 
     @Override
@@ -259,7 +348,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setBytes(int i, ByteBuffer v) {
-        return setValue(i, codecFor(i, ByteBuffer.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, ByteBuffer.class));
     }
 
     @Override
@@ -286,7 +375,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setVarint(int i, BigInteger v) {
-        return setValue(i, codecFor(i, BigInteger.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, BigInteger.class));
     }
 
     @Override
@@ -299,7 +388,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setDecimal(int i, BigDecimal v) {
-        return setValue(i, codecFor(i, BigDecimal.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, BigDecimal.class));
     }
 
     @Override
@@ -312,7 +401,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setUUID(int i, UUID v) {
-        return setValue(i, codecFor(i, UUID.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, UUID.class));
     }
 
     @Override
@@ -323,9 +412,26 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         return wrapped;
     }
 
+    @Override
+    public T setUUID(int i, long mostSigBits, long leastSigBits) {
+        TypeCodec<UUID> codec = codecFor(i, UUID.class);
+        // timeuuid values that are not type 1 UUIDs go through the codec, which rejects them
+        if (codec == TypeCodec.uuid() || codec == TypeCodec.timeUUID() && ((mostSigBits >> 12) & 0x0f) == 1)
+            return setFixedSizeValue(i, 16, mostSigBits, leastSigBits);
+        return setValue(i, new UUID(mostSigBits, leastSigBits), codec);
+    }
+
+    @Override
+    public T setUUID(String name, long mostSigBits, long leastSigBits) {
+        for (int i : getAllIndexesOf(name)) {
+            setUUID(i, mostSigBits, leastSigBits);
+        }
+        return wrapped;
+    }
+
     @Override
     public T setInet(int i, InetAddress v) {
-        return setValue(i, codecFor(i, InetAddress.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, InetAddress.class));
     }
 
     @Override
@@ -355,17 +461,17 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     @SuppressWarnings("unchecked")
     public <E> T setList(int i, List<E> v) {
-        return setValue(i, codecFor(i).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i));
     }
 
     @Override
     public <E> T setList(int i, List<E> v, Class<E> elementsClass) {
-        return setValue(i, codecFor(i, TypeTokens.listOf(elementsClass)).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, TypeTokens.listOf(elementsClass)));
     }
 
     @Override
     public <E> T setList(int i, List<E> v, TypeToken<E> elementsType) {
-        return setValue(i, codecFor(i, TypeTokens.listOf(elementsType)).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, TypeTokens.listOf(elementsType)));
     }
 
     @Override
@@ -395,17 +501,17 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @SuppressWarnings("unchecked")
     @Override
     public <K, V> T setMap(int i, Map<K, V> v) {
-        return setValue(i, codecFor(i).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i));
     }
 
     @Override
     public <K, V> T setMap(int i, Map<K, V> v, Class<K> keysClass, Class<V> valuesClass) {
-        return setValue(i, codecFor(i, TypeTokens.mapOf(keysClass, valuesClass)).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, TypeTokens.mapOf(keysClass, valuesClass)));
     }
 
     @Override
     public <K, V> T setMap(int i, Map<K, V> v, TypeToken<K> keysType, TypeToken<V> valuesType) {
-        return setValue(i, codecFor(i, TypeTokens.mapOf(keysType, valuesType)).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, TypeTokens.mapOf(keysType, valuesType)));
     }
 
     @Override
@@ -435,17 +541,17 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     @SuppressWarnings("unchecked")
     public <E> T setSet(int i, Set<E> v) {
-        return setValue(i, codecFor(i).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i));
     }
 
     @Override
     public <E> T setSet(int i, Set<E> v, Class<E> elementsClass) {
-        return setValue(i, codecFor(i, TypeTokens.setOf(elementsClass)).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, TypeTokens.setOf(elementsClass)));
     }
 
     @Override
     public <E> T setSet(int i, Set<E> v, TypeToken<E> elementsType) {
-        return setValue(i, codecFor(i, TypeTokens.setOf(elementsType)).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, TypeTokens.setOf(elementsType)));
     }
 
     @Override
@@ -474,7 +580,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setUDTValue(int i, UDTValue v) {
-        return setValue(i, codecFor(i, UDTValue.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, UDTValue.class));
     }
 
     @Override
@@ -487,7 +593,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     @Override
     public T setTupleValue(int i, TupleValue v) {
-        return setValue(i, codecFor(i, TupleValue.class).serialize(v, protocolVersion));
+        return setValue(i, v, codecFor(i, TupleValue.class));
     }
 
     @Override
@@ -527,7 +633,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
     @Override
     public <V> T set(int i, V v, TypeCodec<V> codec) {
         checkType(i, codec.getCqlType().getName());
-        return setValue(i, codec.serialize(v, protocolVersion));
+        return setValue(i, v, codec);
     }
 
     @Override
@@ -573,8 +679,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
             if (!thisType.equals(thatType))
                 return false;
 
-            Object thisValue = this.codecFor(i).deserialize(this.values[i], this.protocolVersion);
-            Object thatValue = that.codecFor(i).deserialize(that.values[i], that.protocolVersion);
+            Object thisValue = this.codecFor(i).deserialize(this.getValue(i), this.protocolVersion);
+            Object thatValue = that.codecFor(i).deserialize(that.getValue(i), that.protocolVersion);
             if (!Objects.equal(thisValue, thatValue))
                 return false;
         }
@@ -586,7 +692,7 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         // Same as equals
         int hash = 31;
         for (int i = 0; i < values.length; i++)
-            hash += values[i] == null ? 1 : codecFor(i).deserialize(values[i], protocolVersion).hashCode();
+            hash += getValue(i) == null ? 1 : codecFor(i).deserialize(getValue(i), protocolVersion).hashCode();
         return hash;
     }
 }
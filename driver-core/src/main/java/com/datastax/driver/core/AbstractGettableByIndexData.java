@@ -165,6 +165,19 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         return codecFor(i, Date.class).deserialize(value, protocolVersion);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimestampMillis(int i) {
+        ByteBuffer value = getValue(i);
+        TypeCodec<Date> codec = codecFor(i, Date.class);
+        if (codec == TypeCodec.timestamp())
+            return TypeCodec.bigint().deserializeNoBoxing(value, protocolVersion);
+        Date date = codec.deserialize(value, protocolVersion);
+        return date == null ? 0L : date.getTime();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -174,6 +187,22 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         return codecFor(i, LocalDate.class).deserialize(value, protocolVersion);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDaysSinceEpoch(int i) {
+        ByteBuffer value = getValue(i);
+        TypeCodec<LocalDate> codec = codecFor(i, LocalDate.class);
+        if (codec == TypeCodec.date()) {
+            if (value == null || value.remaining() == 0)
+                return 0;
+            return CodecUtils.fromUnsignedToSignedInt(TypeCodec.cint().deserializeNoBoxing(value, protocolVersion));
+        }
+        LocalDate date = codec.deserialize(value, protocolVersion);
+        return date == null ? 0 : date.getDaysSinceEpoch();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -269,6 +298,38 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         return codecFor(i, UUID.class).deserialize(value, protocolVersion);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDMostSignificantBits(int i) {
+        return getUUIDBits(i, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDLeastSignificantBits(int i) {
+        return getUUIDBits(i, false);
+    }
+
+    private long getUUIDBits(int i, boolean mostSignificant) {
+        ByteBuffer value = getValue(i);
+        TypeCodec<UUID> codec = codecFor(i, UUID.class);
+        if (codec == TypeCodec.uuid() || codec == TypeCodec.timeUUID()) {
+            if (value == null || value.remaining() == 0)
+                return 0L;
+            if (value.remaining() != 16)
+                throw new InvalidTypeException("Invalid UUID value, expecting 16 bytes but got " + value.remaining());
+            return value.getLong(value.position() + (mostSignificant ? 0 : 8));
+        }
+        UUID uuid = codec.deserialize(value, protocolVersion);
+        if (uuid == null)
+            return 0L;
+        return mostSignificant ? uuid.getMostSignificantBits() : uuid.getLeastSignificantBits();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -103,6 +103,14 @@ public abstract class AbstractGettableData extends AbstractGettableByIndexData i
         return getTimestamp(getIndexOf(name));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimestampMillis(String name) {
+        return getTimestampMillis(getIndexOf(name));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -111,6 +119,14 @@ public abstract class AbstractGettableData extends AbstractGettableByIndexData i
         return getDate(getIndexOf(name));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDaysSinceEpoch(String name) {
+        return getDaysSinceEpoch(getIndexOf(name));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -183,6 +199,22 @@ public abstract class AbstractGettableData extends AbstractGettableByIndexData i
         return getUUID(getIndexOf(name));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDMostSignificantBits(String name) {
+        return getUUIDMostSignificantBits(getIndexOf(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDLeastSignificantBits(String name) {
+        return getUUIDLeastSignificantBits(getIndexOf(name));
+    }
+
     /**
      * {@inheritDoc}
      */
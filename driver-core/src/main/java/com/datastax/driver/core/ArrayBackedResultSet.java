@@ -29,6 +29,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Default implementation of a result set, backed by an ArrayDeque of ArrayList.
@@ -114,6 +115,14 @@ abstract class ArrayBackedResultSet implements ResultSet {
         return metadata;
     }
 
+    @Override
+    public ColumnarPage nextPageAsColumns(String... columns) {
+        return ColumnarPage.decode(metadata, pollPage(), columns);
+    }
+
+    // Removes and returns the remaining rows of the current page
+    abstract Collection<List<ByteBuffer>> pollPage();
+
     @Override
     public List<Row> all() {
         if (isExhausted())
@@ -192,6 +201,13 @@ abstract class ArrayBackedResultSet implements ResultSet {
             return rows.size();
         }
 
+        @Override
+        Collection<List<ByteBuffer>> pollPage() {
+            List<List<ByteBuffer>> page = new ArrayList<List<ByteBuffer>>(rows);
+            rows.clear();
+            return page;
+        }
+
         @Override
         public boolean isFullyFetched() {
             return true;
@@ -216,7 +232,7 @@ abstract class ArrayBackedResultSet implements ResultSet {
     private static class MultiPage extends ArrayBackedResultSet {
 
         private Queue<List<ByteBuffer>> currentPage;
-        private final Queue<Queue<List<ByteBuffer>>> nextPages = new ConcurrentLinkedQueue<Queue<List<ByteBuffer>>>();
+        private final Queue<Page> nextPages = new ConcurrentLinkedQueue<Page>();
 
         private final Deque<ExecutionInfo> infos = new LinkedBlockingDeque<ExecutionInfo>();
 
@@ -238,6 +254,13 @@ abstract class ArrayBackedResultSet implements ResultSet {
         private final SessionManager session;
         private final Statement statement;
 
+        // Prefetching settings (see QueryOptions#setPrefetchThreshold). A threshold of 0 disables prefetching.
+        private final int prefetchThreshold;
+        private final int maxPrefetchedPages;
+        private final long maxPrefetchedBytes;
+        // The size of the rows in nextPages. Only maintained if prefetching is enabled.
+        private final AtomicLong prefetchedBytes = new AtomicLong();
+
         private MultiPage(ColumnDefinitions metadata,
                           Token.Factory tokenFactory,
                           ProtocolVersion protocolVersion,
@@ -258,6 +281,12 @@ abstract class ArrayBackedResultSet implements ResultSet {
             this.fetchState = new FetchingState(pagingState, null);
             this.session = session;
             this.statement = statement;
+
+            QueryOptions queryOptions = session.configuration().getQueryOptions();
+            int threshold = statement.getPrefetchThreshold();
+            this.prefetchThreshold = threshold < 0 ? queryOptions.getPrefetchThreshold() : threshold;
+            this.maxPrefetchedPages = queryOptions.getMaxPrefetchedPages();
+            this.maxPrefetchedBytes = queryOptions.getMaxPrefetchedBytes();
         }
 
         @Override
@@ -269,14 +298,27 @@ abstract class ArrayBackedResultSet implements ResultSet {
         @Override
         public Row one() {
             prepareNextRow();
-            return ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, currentPage.poll());
+            Row row = ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, currentPage.poll());
+            if (prefetchThreshold > 0 && currentPage.size() < prefetchThreshold)
+                maybePrefetch();
+            return row;
+        }
+
+        @Override
+        Collection<List<ByteBuffer>> pollPage() {
+            prepareNextRow();
+            Queue<List<ByteBuffer>> page = currentPage;
+            currentPage = new ArrayDeque<List<ByteBuffer>>(0);
+            if (prefetchThreshold > 0)
+                maybePrefetch();
+            return page;
         }
 
         @Override
         public int getAvailableWithoutFetching() {
             int available = currentPage.size();
-            for (Queue<List<ByteBuffer>> page : nextPages)
-                available += page.size();
+            for (Page page : nextPages)
+                available += page.rows.size();
             return available;
         }
 
@@ -292,9 +334,11 @@ abstract class ArrayBackedResultSet implements ResultSet {
                 // Grab the current state now to get a consistent view in this iteration.
                 FetchingState fetchingState = this.fetchState;
 
-                Queue<List<ByteBuffer>> nextPage = nextPages.poll();
+                Page nextPage = nextPages.poll();
                 if (nextPage != null) {
-                    currentPage = nextPage;
+                    currentPage = nextPage.rows;
+                    if (prefetchThreshold > 0)
+                        prefetchedBytes.addAndGet(-nextPage.bytes);
                     continue;
                 }
                 if (fetchingState == null)
@@ -312,21 +356,48 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
         @Override
         public ListenableFuture<ResultSet> fetchMoreResults() {
-            return fetchMoreResults(this.fetchState);
+            ByteBuffer state;
+            SettableFuture<ResultSet> future;
+            // With prefetching, pages can be requested from both the client thread and the internal executor, so the
+            // state transition must be atomic to avoid requesting the same page twice
+            synchronized (this) {
+                FetchingState fetchState = this.fetchState;
+                if (fetchState == null)
+                    return Futures.<ResultSet>immediateFuture(this);
+
+                if (fetchState.inProgress != null)
+                    return fetchState.inProgress;
+
+                assert fetchState.nextStart != null;
+                state = fetchState.nextStart;
+                future = SettableFuture.create();
+                this.fetchState = new FetchingState(null, future);
+            }
+            return queryNextPage(state, future);
         }
 
-        private ListenableFuture<ResultSet> fetchMoreResults(FetchingState fetchState) {
-            if (fetchState == null)
-                return Futures.<ResultSet>immediateFuture(this);
-
-            if (fetchState.inProgress != null)
-                return fetchState.inProgress;
+        /**
+         * Requests the next page in the background, if there is one, no request is already in progress,
+         * and the prefetched pages are below the configured limits.
+         */
+        private void maybePrefetch() {
+            FetchingState fetchState = this.fetchState;
+            if (fetchState == null || fetchState.nextStart == null)
+                return;
+            if (nextPages.size() >= maxPrefetchedPages || prefetchedBytes.get() >= maxPrefetchedBytes)
+                return;
+            fetchMoreResults();
+        }
 
-            assert fetchState.nextStart != null;
-            ByteBuffer state = fetchState.nextStart;
-            SettableFuture<ResultSet> future = SettableFuture.create();
-            this.fetchState = new FetchingState(null, future);
-            return queryNextPage(state, future);
+        private long sizeOf(Queue<List<ByteBuffer>> rows) {
+            long bytes = 0;
+            for (List<ByteBuffer> row : rows) {
+                for (ByteBuffer value : row) {
+                    if (value != null)
+                        bytes += value.remaining();
+                }
+            }
+            return bytes;
         }
 
         private ListenableFuture<ResultSet> queryNextPage(ByteBuffer nextStart, final SettableFuture<ResultSet> future) {
@@ -356,7 +427,12 @@ abstract class ArrayBackedResultSet implements ResultSet {
                                     Responses.Result.Rows rows = (Responses.Result.Rows) rm;
                                     if (rows.metadata.pagingState != null)
                                         info = info.withPagingState(rows.metadata.pagingState, protocolVersion, codecRegistry).withStatement(statement);
-                                    MultiPage.this.nextPages.offer(rows.data);
+                                    long bytes = 0;
+                                    if (prefetchThreshold > 0) {
+                                        bytes = sizeOf(rows.data);
+                                        prefetchedBytes.addAndGet(bytes);
+                                    }
+                                    MultiPage.this.nextPages.offer(new Page(rows.data, bytes));
                                     MultiPage.this.fetchState = rows.metadata.pagingState == null ? null : new FetchingState(rows.metadata.pagingState, null);
                                 } else if (rm.kind == Responses.Result.Kind.VOID) {
                                     // We shouldn't really get a VOID message here but well, no harm in handling it I suppose
@@ -371,6 +447,16 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
                                 MultiPage.this.infos.offer(info);
                                 future.set(MultiPage.this);
+                                if (prefetchThreshold > 0 && maxPrefetchedPages > 1) {
+                                    // Keep prefetching until we reach the limits. Don't do it from here because
+                                    // we're on an I/O thread, and borrowing a connection may block.
+                                    session.executor().execute(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            maybePrefetch();
+                                        }
+                                    });
+                                }
                                 break;
                             case ERROR:
                                 future.setException(((Responses.Error) response).asException(connection.address));
@@ -435,6 +521,16 @@ abstract class ArrayBackedResultSet implements ResultSet {
                 this.inProgress = inProgress;
             }
         }
+
+        private static class Page {
+            final Queue<List<ByteBuffer>> rows;
+            final long bytes;
+
+            Page(Queue<List<ByteBuffer>> rows, long bytes) {
+                this.rows = rows;
+                this.bytes = bytes;
+            }
+        }
     }
 
     // This method checks the value of the "[applied]" column manually, to avoid instantiating an ArrayBackedRow
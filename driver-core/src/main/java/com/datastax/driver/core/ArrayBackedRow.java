@@ -16,6 +16,7 @@
 package com.datastax.driver.core;
 
 import com.datastax.driver.core.exceptions.DriverInternalError;
+import com.google.common.reflect.TypeToken;
 
 import java.nio.ByteBuffer;
 import java.util.List;
@@ -76,6 +77,23 @@ class ArrayBackedRow extends AbstractGettableData implements Row {
         return metadata.codecRegistry;
     }
 
+    // Use the codecs cached in the metadata, which is shared by all the rows of a page
+
+    @Override
+    protected <T> TypeCodec<T> codecFor(int i) {
+        return metadata.codecFor(i);
+    }
+
+    @Override
+    protected <T> TypeCodec<T> codecFor(int i, Class<T> javaClass) {
+        return metadata.codecFor(i, javaClass);
+    }
+
+    @Override
+    protected <T> TypeCodec<T> codecFor(int i, TypeToken<T> javaType) {
+        return metadata.codecFor(i, javaType);
+    }
+
     @Override
     protected int getIndexOf(String name) {
         return metadata.getFirstIdx(name);
@@ -17,6 +17,8 @@ package com.datastax.driver.core;
 
 import com.datastax.driver.core.exceptions.UnsupportedFeatureException;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.nio.ByteBuffer;
 import java.util.*;
@@ -34,6 +36,10 @@ import java.util.*;
  * <p/>
  * Setting a BatchStatement's serial consistency level is only supported with the
  * native protocol version 3 or higher (see {@link #setSerialConsistencyLevel(ConsistencyLevel)}).
+ * <p/>
+ * Cassandra rejects batches that exceed its {@code batch_size_fail_threshold_in_kb}. The size of a batch can be
+ * checked with {@link #getEncodedSize(ProtocolVersion, CodecRegistry)}, and an oversized batch can be split with
+ * {@link #split(int, ProtocolVersion, CodecRegistry)} or {@link #executeSplitAsync(Session, int)}.
  */
 public class BatchStatement extends Statement {
 
@@ -66,6 +72,11 @@ public class BatchStatement extends Statement {
     final Type batchType;
     private final List<Statement> statements = new ArrayList<Statement>();
 
+    // The encoded size of the first sizedStatements statements, computed incrementally by getEncodedSize
+    private ProtocolVersion sizedVersion;
+    private int sizedStatements;
+    private long encodedSize;
+
     /**
      * Creates a new {@code LOGGED} batch statement.
      */
@@ -84,26 +95,35 @@ public class BatchStatement extends Statement {
 
     IdAndValues getIdAndValues(ProtocolVersion protocolVersion, CodecRegistry codecRegistry) {
         IdAndValues idAndVals = new IdAndValues(statements.size());
-        for (Statement statement : statements) {
-            if (statement instanceof StatementWrapper)
-                statement = ((StatementWrapper) statement).getWrappedStatement();
-            if (statement instanceof RegularStatement) {
-                RegularStatement st = (RegularStatement) statement;
-                ByteBuffer[] vals = st.getValues(protocolVersion, codecRegistry);
-                String query = st.getQueryString();
-                idAndVals.ids.add(query);
-                idAndVals.values.add(vals == null ? Collections.<ByteBuffer>emptyList() : Arrays.asList(vals));
-            } else {
-                // We handle BatchStatement in add() so ...
-                assert statement instanceof BoundStatement;
-                BoundStatement st = (BoundStatement) statement;
-                idAndVals.ids.add(st.statement.getPreparedId().id);
-                idAndVals.values.add(Arrays.asList(st.wrapper.values));
-            }
-        }
+        for (Statement statement : statements)
+            addIdAndValues(statement, idAndVals, protocolVersion, codecRegistry);
         return idAndVals;
     }
 
+    private static void addIdAndValues(Statement statement, IdAndValues idAndVals, ProtocolVersion protocolVersion, CodecRegistry codecRegistry) {
+        if (statement instanceof StatementWrapper)
+            statement = ((StatementWrapper) statement).getWrappedStatement();
+        if (statement instanceof RegularStatement) {
+            RegularStatement st = (RegularStatement) statement;
+            ByteBuffer[] vals = st.getValues(protocolVersion, codecRegistry);
+            String query = st.getQueryString();
+            idAndVals.ids.add(query);
+            idAndVals.values.add(vals == null ? Collections.<ByteBuffer>emptyList() : Arrays.asList(vals));
+        } else {
+            // We handle BatchStatement in add() so ...
+            assert statement instanceof BoundStatement;
+            BoundStatement st = (BoundStatement) statement;
+            idAndVals.ids.add(st.statement.getPreparedId().id);
+            idAndVals.values.add(st.wrapper.requestValues());
+        }
+    }
+
+    private static int encodedSize(Statement statement, ProtocolVersion protocolVersion, CodecRegistry codecRegistry) {
+        IdAndValues idAndVals = new IdAndValues(1);
+        addIdAndValues(statement, idAndVals, protocolVersion, codecRegistry);
+        return Requests.Batch.sizeOfQuery(idAndVals.ids.get(0), idAndVals.values.get(0));
+    }
+
     /**
      * Adds a new statement to this batch.
      * <p/>
@@ -186,9 +206,135 @@ public class BatchStatement extends Statement {
      */
     public BatchStatement clear() {
         statements.clear();
+        sizedStatements = 0;
+        encodedSize = 0;
         return this;
     }
 
+    /**
+     * Returns the size of the statements of this batch once encoded in a request, that is their query strings (or
+     * prepared statement ids) and their serialized values.
+     * <p/>
+     * The size is computed incrementally: calling this method after adding new statements only serializes the new
+     * ones. The values of a statement must therefore not change once it has been added to the batch.
+     * <p/>
+     * This is an estimate of what Cassandra compares to its {@code batch_size_warn_threshold_in_kb} and
+     * {@code batch_size_fail_threshold_in_kb}: Cassandra measures the size of the resulting mutations, which also
+     * includes the primary key and column names of each row. Keep some margin below the server's thresholds.
+     *
+     * @param protocolVersion the protocol version that the batch will be sent with.
+     * @param codecRegistry   the codec registry to serialize the values of {@link RegularStatement}s with.
+     * @return the encoded size in bytes.
+     */
+    public long getEncodedSize(ProtocolVersion protocolVersion, CodecRegistry codecRegistry) {
+        if (protocolVersion != sizedVersion) {
+            sizedVersion = protocolVersion;
+            sizedStatements = 0;
+            encodedSize = 0;
+        }
+        for (; sizedStatements < statements.size(); sizedStatements++)
+            encodedSize += encodedSize(statements.get(sizedStatements), protocolVersion, codecRegistry);
+        return Requests.Batch.HEADER_SIZE + encodedSize;
+    }
+
+    /**
+     * Splits this batch into batches whose {@link #getEncodedSize(ProtocolVersion, CodecRegistry) encoded size}
+     * doesn't exceed the given size.
+     * <p/>
+     * Statements are grouped by partition (that is, by keyspace and
+     * {@link Statement#getRoutingKey(ProtocolVersion, CodecRegistry) routing key}): the statements of a partition are
+     * only split across several batches if they don't fit in a single one. Each resulting batch has the type and the
+     * options (consistency levels, timestamp, retry policy...) of this batch. A statement that exceeds the size on its
+     * own gets a batch of its own.
+     * <p/>
+     * Note that the atomicity of a {@link Type#LOGGED logged} batch only holds within each resulting batch.
+     *
+     * @param maxEncodedSize  the maximum encoded size of each batch, in bytes.
+     * @param protocolVersion the protocol version that the batches will be sent with.
+     * @param codecRegistry   the codec registry to serialize the values of {@link RegularStatement}s with.
+     * @return a list containing only this batch if it doesn't exceed {@code maxEncodedSize}, the resulting batches
+     * otherwise.
+     */
+    public List<BatchStatement> split(int maxEncodedSize, ProtocolVersion protocolVersion, CodecRegistry codecRegistry) {
+        if (getEncodedSize(protocolVersion, codecRegistry) <= maxEncodedSize)
+            return Collections.singletonList(this);
+
+        Map<List<Object>, List<Statement>> partitions = new LinkedHashMap<List<Object>, List<Statement>>();
+        for (Statement statement : statements) {
+            List<Object> key = Arrays.<Object>asList(statement.getKeyspace(), statement.getRoutingKey(protocolVersion, codecRegistry));
+            List<Statement> partition = partitions.get(key);
+            if (partition == null) {
+                partition = new ArrayList<Statement>();
+                partitions.put(key, partition);
+            }
+            partition.add(statement);
+        }
+
+        List<BatchStatement> batches = new ArrayList<BatchStatement>();
+        BatchStatement current = null;
+        long currentSize = 0;
+        for (List<Statement> partition : partitions.values()) {
+            long[] sizes = new long[partition.size()];
+            long partitionSize = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = encodedSize(partition.get(i), protocolVersion, codecRegistry);
+                partitionSize += sizes[i];
+            }
+            // Start a new batch if the partition doesn't fit in the current one
+            if (current != null && currentSize + partitionSize > maxEncodedSize)
+                current = null;
+            for (int i = 0; i < sizes.length; i++) {
+                if (current == null
+                        || (current.size() > 0 && currentSize + sizes[i] > maxEncodedSize)
+                        || current.size() >= 0xFFFF) {
+                    current = copyOptions(new BatchStatement(batchType));
+                    batches.add(current);
+                    currentSize = Requests.Batch.HEADER_SIZE;
+                }
+                current.add(partition.get(i));
+                currentSize += sizes[i];
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Executes this batch, split if it exceeds the given size.
+     * <p/>
+     * This batch is {@link #split(int, ProtocolVersion, CodecRegistry) split}, and the resulting batches are
+     * executed in parallel.
+     *
+     * @param session        the session to execute the batches with.
+     * @param maxEncodedSize the maximum encoded size of each batch, in bytes.
+     * @return a future on the results of the batches, in the order returned by
+     * {@link #split(int, ProtocolVersion, CodecRegistry)}. It fails if any of the batches fails.
+     */
+    public ListenableFuture<List<ResultSet>> executeSplitAsync(Session session, int maxEncodedSize) {
+        Configuration configuration = session.getCluster().getConfiguration();
+        ProtocolVersion protocolVersion = configuration.getProtocolOptions().getProtocolVersion();
+        if (protocolVersion == null) // not connected yet, values are encoded the same way by all recent versions
+            protocolVersion = ProtocolVersion.NEWEST_SUPPORTED;
+        List<BatchStatement> batches = split(maxEncodedSize, protocolVersion, configuration.getCodecRegistry());
+        List<ListenableFuture<ResultSet>> futures = new ArrayList<ListenableFuture<ResultSet>>(batches.size());
+        for (BatchStatement batch : batches)
+            futures.add(session.executeAsync(batch));
+        return Futures.allAsList(futures);
+    }
+
+    private BatchStatement copyOptions(BatchStatement batch) {
+        batch.setConsistencyLevel(getConsistencyLevel());
+        if (getSerialConsistencyLevel() != null)
+            batch.setSerialConsistencyLevel(getSerialConsistencyLevel());
+        batch.setDefaultTimestamp(getDefaultTimestamp());
+        batch.setReadTimeoutMillis(getReadTimeoutMillis());
+        batch.setRetryPolicy(getRetryPolicy());
+        batch.setOutgoingPayload(getOutgoingPayload());
+        batch.idempotent = idempotent;
+        if (isTracing())
+            batch.enableTracing();
+        return batch;
+    }
+
     /**
      * Returns the number of elements in this batch.
      *
@@ -0,0 +1,388 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.policies.RetryPolicy;
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Groups small writes to the same partition into unlogged batches.
+ * <p/>
+ * Statements passed to {@link #write(Statement)} are grouped by partition (that is, by keyspace and
+ * {@link Statement#getRoutingKey(ProtocolVersion, CodecRegistry) routing key}) and execution options. A group is
+ * sent as a single {@link BatchStatement.Type#UNLOGGED unlogged} {@link BatchStatement} when it reaches
+ * {@link Builder#withMaxBatchSize(int) maxBatchSize} statements, or when its first statement has waited for
+ * {@link Builder#withMaxLingerTime(long, TimeUnit) maxLingerTime}, whichever comes first. Since all the statements
+ * of a batch target the same partition, the batch has the same routing key, and is sent directly to a replica by a
+ * {@link com.datastax.driver.core.policies.TokenAwarePolicy}.
+ * <pre>
+ * BatchingWriter writer = BatchingWriter.builder(session)
+ *     .withMaxBatchSize(50)
+ *     .withMaxLingerTime(5, TimeUnit.MILLISECONDS)
+ *     .build();
+ * for (Event event : events)
+ *     futures.add(writer.write(insertEvent.bind(event.sensorId, event.time, event.value)));
+ * writer.close(); // sends the remaining statements
+ * </pre>
+ * The future returned for each statement completes when its batch completes; all the statements of a batch share
+ * the same {@link ResultSet}. Statements that have no routing key are executed on their own, without delay.
+ * <p/>
+ * Only statements that have the same execution options are grouped together, and the batch is sent with these
+ * options: consistency level, serial consistency level, {@link Statement#setDefaultTimestamp(long) default
+ * timestamp}, retry policy, read timeout, idempotence, tracing and outgoing payload. In particular, statements that
+ * each set a different default timestamp are never grouped; use a {@code USING TIMESTAMP} clause in the query
+ * instead.
+ * <p/>
+ * Note that the driver can't tell counter updates apart from regular writes: don't mix them in the same writer, as
+ * Cassandra rejects unlogged batches of counter updates.
+ */
+public class BatchingWriter {
+
+    /**
+     * The default maximum number of statements in a batch: 100.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    /**
+     * The default maximum time that a statement waits for other statements of its partition, in milliseconds: 10.
+     */
+    public static final long DEFAULT_MAX_LINGER_TIME_MILLIS = 10;
+
+    private final Session session;
+    private final int maxBatchSize;
+    private final long maxLingerTimeNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentMap<GroupKey, Group> groups = new ConcurrentHashMap<GroupKey, Group>();
+    private volatile boolean closed;
+
+    private BatchingWriter(Session session, int maxBatchSize, long maxLingerTimeNanos) {
+        this.session = session;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerTimeNanos = maxLingerTimeNanos;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("BatchingWriter-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Creates a new builder for a writer that executes its batches with the given session.
+     *
+     * @param session the session to execute batches with.
+     * @return the builder.
+     */
+    public static Builder builder(Session session) {
+        return new Builder(session);
+    }
+
+    /**
+     * Adds a statement to the batch of its partition.
+     *
+     * @param statement the statement. It must be a write; it can't be a {@link BatchStatement}.
+     * @return a future that completes with the result of the batch that the statement ends up in.
+     * @throws IllegalStateException    if this writer is closed.
+     * @throws IllegalArgumentException if {@code statement} is a {@link BatchStatement}.
+     */
+    public ListenableFuture<ResultSet> write(Statement statement) {
+        checkNotNull(statement);
+        checkArgument(!(statement instanceof BatchStatement), "BatchStatement can't be written with a BatchingWriter");
+        if (closed)
+            throw new IllegalStateException("This writer is closed");
+
+        GroupKey key = keyOf(statement);
+        if (key == null)
+            return session.executeAsync(statement);
+
+        SettableFuture<ResultSet> future = SettableFuture.create();
+        while (true) {
+            Group group = groups.get(key);
+            boolean created = false;
+            if (group == null) {
+                group = new Group(key);
+                if (groups.putIfAbsent(key, group) != null)
+                    continue;
+                created = true;
+            }
+            boolean full;
+            synchronized (group) {
+                if (group.closed)
+                    continue; // it was sent in the meantime, start a new one
+                group.statements.add(statement);
+                group.futures.add(future);
+                full = group.statements.size() >= maxBatchSize;
+                if (full)
+                    group.close();
+            }
+            if (full)
+                send(group);
+            else if (created)
+                scheduleLinger(group);
+            return future;
+        }
+    }
+
+    /**
+     * Sends all the pending batches, without waiting for their linger time to elapse.
+     */
+    public void flush() {
+        for (Group group : groups.values()) {
+            if (closeGroup(group))
+                send(group);
+        }
+    }
+
+    /**
+     * Sends all the pending batches, and stops accepting new statements.
+     * <p/>
+     * This does not wait for the batches to complete: use the futures returned by {@link #write(Statement)} for that.
+     */
+    public void close() {
+        closed = true;
+        // Shut down first, so that a concurrent write that registers a group from now on can't schedule its linger
+        // task, and sends the group itself. The linger tasks that were already scheduled are run now.
+        for (Runnable lingerTask : scheduler.shutdownNow())
+            lingerTask.run();
+        flush();
+    }
+
+    private GroupKey keyOf(Statement statement) {
+        Configuration configuration = session.getCluster().getConfiguration();
+        ProtocolVersion protocolVersion = configuration.getProtocolOptions().getProtocolVersion();
+        if (protocolVersion == null) // the session is not initialized yet
+            return null;
+        ByteBuffer routingKey = statement.getRoutingKey(protocolVersion, configuration.getCodecRegistry());
+        if (routingKey == null)
+            return null;
+        return new GroupKey(statement.getKeyspace(), routingKey, statement);
+    }
+
+    private void scheduleLinger(final Group group) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (closeGroup(group))
+                        send(group);
+                }
+            }, maxLingerTimeNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the writer was closed concurrently, and close() might have flushed already: send the group now
+            if (closeGroup(group))
+                send(group);
+        }
+    }
+
+    private boolean closeGroup(Group group) {
+        synchronized (group) {
+            if (group.closed)
+                return false;
+            group.close();
+            return true;
+        }
+    }
+
+    private void send(Group group) {
+        // The group is closed, its lists won't change anymore
+        final List<SettableFuture<ResultSet>> futures = group.futures;
+        Statement toExecute;
+        if (group.statements.size() == 1) {
+            toExecute = group.statements.get(0);
+        } else {
+            BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            batch.addAll(group.statements);
+            group.key.applyOptions(batch);
+            toExecute = batch;
+        }
+        ResultSetFuture result;
+        try {
+            result = session.executeAsync(toExecute);
+        } catch (RuntimeException e) {
+            for (SettableFuture<ResultSet> future : futures)
+                future.setException(e);
+            return;
+        }
+        Futures.addCallback(result, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet rs) {
+                for (SettableFuture<ResultSet> future : futures)
+                    future.set(rs);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                for (SettableFuture<ResultSet> future : futures)
+                    future.setException(t);
+            }
+        });
+    }
+
+    private class Group {
+        final GroupKey key;
+        final List<Statement> statements = new ArrayList<Statement>();
+        final List<SettableFuture<ResultSet>> futures = new ArrayList<SettableFuture<ResultSet>>();
+        // Guarded by this
+        boolean closed;
+
+        Group(GroupKey key) {
+            this.key = key;
+        }
+
+        // Must be called while holding the lock on this group
+        void close() {
+            closed = true;
+            groups.remove(key, this);
+        }
+    }
+
+    /**
+     * The partition of a statement, and the options that its batch must be executed with.
+     */
+    private static class GroupKey {
+        final String keyspace;
+        final ByteBuffer routingKey;
+        final ConsistencyLevel consistency;
+        final ConsistencyLevel serialConsistency;
+        final long defaultTimestamp;
+        final RetryPolicy retryPolicy;
+        final int readTimeoutMillis;
+        final Boolean idempotent;
+        final boolean tracing;
+        final Map<String, ByteBuffer> outgoingPayload;
+
+        GroupKey(String keyspace, ByteBuffer routingKey, Statement statement) {
+            this.keyspace = keyspace;
+            this.routingKey = routingKey;
+            this.consistency = statement.getConsistencyLevel();
+            this.serialConsistency = statement.getSerialConsistencyLevel();
+            this.defaultTimestamp = statement.getDefaultTimestamp();
+            this.retryPolicy = statement.getRetryPolicy();
+            this.readTimeoutMillis = statement.getReadTimeoutMillis();
+            this.idempotent = statement.isIdempotent();
+            this.tracing = statement.isTracing();
+            this.outgoingPayload = statement.getOutgoingPayload();
+        }
+
+        void applyOptions(BatchStatement batch) {
+            if (consistency != null)
+                batch.setConsistencyLevel(consistency);
+            if (serialConsistency != null)
+                batch.setSerialConsistencyLevel(serialConsistency);
+            batch.setDefaultTimestamp(defaultTimestamp);
+            batch.setRetryPolicy(retryPolicy);
+            batch.setReadTimeoutMillis(readTimeoutMillis);
+            if (idempotent != null)
+                batch.setIdempotent(idempotent);
+            if (tracing)
+                batch.enableTracing();
+            batch.setOutgoingPayload(outgoingPayload);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this)
+                return true;
+            if (!(other instanceof GroupKey))
+                return false;
+            GroupKey that = (GroupKey) other;
+            return Objects.equal(this.keyspace, that.keyspace)
+                    && this.routingKey.equals(that.routingKey)
+                    && this.consistency == that.consistency
+                    && this.serialConsistency == that.serialConsistency
+                    && this.defaultTimestamp == that.defaultTimestamp
+                    && Objects.equal(this.retryPolicy, that.retryPolicy)
+                    && this.readTimeoutMillis == that.readTimeoutMillis
+                    && Objects.equal(this.idempotent, that.idempotent)
+                    && this.tracing == that.tracing
+                    && Objects.equal(this.outgoingPayload, that.outgoingPayload);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(keyspace, routingKey, consistency, serialConsistency, defaultTimestamp,
+                    retryPolicy, readTimeoutMillis, idempotent, tracing, outgoingPayload);
+        }
+    }
+
+    /**
+     * Helper class to build {@link BatchingWriter} instances.
+     */
+    public static class Builder {
+
+        private final Session session;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private long maxLingerTimeNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_LINGER_TIME_MILLIS);
+
+        private Builder(Session session) {
+            this.session = checkNotNull(session);
+        }
+
+        /**
+         * Sets the maximum number of statements in a batch.
+         * <p/>
+         * A batch is sent as soon as it reaches that size. The default is {@link #DEFAULT_MAX_BATCH_SIZE}.
+         *
+         * @param maxBatchSize the maximum number of statements.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxBatchSize &lt; 1}.
+         */
+        public Builder withMaxBatchSize(int maxBatchSize) {
+            checkArgument(maxBatchSize >= 1, "maxBatchSize must be strictly positive");
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time that a statement waits for other statements of its partition before its batch is
+         * sent.
+         * <p/>
+         * This bounds the latency added by batching. The default is {@link #DEFAULT_MAX_LINGER_TIME_MILLIS}
+         * milliseconds.
+         *
+         * @param maxLingerTime the maximum time.
+         * @param unit          the unit of {@code maxLingerTime}.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxLingerTime &lt; 0}.
+         */
+        public Builder withMaxLingerTime(long maxLingerTime, TimeUnit unit) {
+            checkArgument(maxLingerTime >= 0, "maxLingerTime must be positive");
+            this.maxLingerTimeNanos = unit.toNanos(maxLingerTime);
+            return this;
+        }
+
+        /**
+         * Builds the writer.
+         *
+         * @return the writer.
+         */
+        public BatchingWriter build() {
+            return new BatchingWriter(session, maxBatchSize, maxLingerTimeNanos);
+        }
+    }
+}
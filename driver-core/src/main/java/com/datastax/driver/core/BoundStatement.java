@@ -17,6 +17,7 @@ package com.datastax.driver.core;
 
 import com.datastax.driver.core.exceptions.InvalidTypeException;
 import com.google.common.reflect.TypeToken;
+import io.netty.buffer.ByteBuf;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -186,14 +187,14 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         for (int i = 0; i < values.length; i++) {
             Object value = values[i];
             if (value == null) {
-                wrapper.values[i] = null;
+                wrapper.setValue(i, null);
             } else {
                 ProtocolVersion protocolVersion = statement.getPreparedId().protocolVersion;
                 if (value instanceof Token)
                     // bypass CodecRegistry for token values
-                    wrapper.values[i] = ((Token) value).serialize(protocolVersion);
+                    wrapper.setValue(i, ((Token) value).serialize(protocolVersion));
                 else
-                    wrapper.values[i] = wrapper.codecFor(i, value).serialize(value, protocolVersion);
+                    wrapper.setValue(i, value, wrapper.codecFor(i, value));
             }
         }
         return this;
@@ -234,11 +235,11 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         int[] rkIndexes = statement.getPreparedId().routingKeyIndexes;
         if (rkIndexes != null) {
             if (rkIndexes.length == 1) {
-                return wrapper.values[rkIndexes[0]];
+                return wrapper.getValue(rkIndexes[0]);
             } else {
                 ByteBuffer[] components = new ByteBuffer[rkIndexes.length];
                 for (int i = 0; i < components.length; ++i) {
-                    ByteBuffer value = wrapper.values[rkIndexes[i]];
+                    ByteBuffer value = wrapper.getValue(rkIndexes[i]);
                     if (value == null)
                         return null;
                     components[i] = value;
@@ -369,6 +370,22 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.setTimestamp(name, v);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundStatement setTimestampMillis(int i, long v) {
+        return wrapper.setTimestampMillis(i, v);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundStatement setTimestampMillis(String name, long v) {
+        return wrapper.setTimestampMillis(name, v);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -385,6 +402,22 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.setDate(name, v);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundStatement setDaysSinceEpoch(int i, int v) {
+        return wrapper.setDaysSinceEpoch(i, v);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundStatement setDaysSinceEpoch(String name, int v) {
+        return wrapper.setDaysSinceEpoch(name, v);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -529,6 +562,22 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.setUUID(name, v);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundStatement setUUID(int i, long mostSigBits, long leastSigBits) {
+        return wrapper.setUUID(i, mostSigBits, leastSigBits);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundStatement setUUID(String name, long mostSigBits, long leastSigBits) {
+        return wrapper.setUUID(name, mostSigBits, leastSigBits);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -975,6 +1024,22 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.getTimestamp(name);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimestampMillis(int i) {
+        return wrapper.getTimestampMillis(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimestampMillis(String name) {
+        return wrapper.getTimestampMillis(name);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -991,6 +1056,22 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.getDate(name);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDaysSinceEpoch(int i) {
+        return wrapper.getDaysSinceEpoch(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDaysSinceEpoch(String name) {
+        return wrapper.getDaysSinceEpoch(name);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1135,6 +1216,38 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.getUUID(name);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDMostSignificantBits(int i) {
+        return wrapper.getUUIDMostSignificantBits(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDMostSignificantBits(String name) {
+        return wrapper.getUUIDMostSignificantBits(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDLeastSignificantBits(int i) {
+        return wrapper.getUUIDLeastSignificantBits(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUUIDLeastSignificantBits(String name) {
+        return wrapper.getUUIDLeastSignificantBits(name);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1356,25 +1469,244 @@ public class BoundStatement extends Statement implements SettableData<BoundState
 
     static class DataWrapper extends AbstractData<BoundStatement> {
 
+        // Values bound without being serialized, with their codecs and serialized sizes (see
+        // TypeCodec.DirectSerializer). When deferred[i] is not null, the value is written directly into the request
+        // frame, and values[i] only caches its serialized form if it is needed elsewhere (e.g. for the routing key).
+        // Only immutable values are deferred, so that the request is the same as if they were serialized eagerly.
+        private Object[] deferred;
+        private TypeCodec.DirectSerializer<Object>[] serializers;
+        private int[] sizes;
+        // Primitive values set with a built-in codec are deferred as FIXED_SIZE, with their bits in fixedSizeBits (two
+        // per variable, see setFixedSizeValue), so that setting them does not allocate.
+        private static final Object FIXED_SIZE = new Object();
+        private long[] fixedSizeBits;
+
+        private final ColumnDefinitions variables;
+
         DataWrapper(BoundStatement wrapped, int size) {
             super(wrapped.statement.getPreparedId().protocolVersion, wrapped, size);
+            this.variables = wrapped.statement.getVariables();
+        }
+
+        @Override
+        protected BoundStatement setValue(int i, ByteBuffer value) {
+            if (deferred != null) {
+                deferred[i] = null;
+                serializers[i] = null;
+            }
+            return super.setValue(i, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <V> BoundStatement setValue(int i, V value, TypeCodec<V> codec) {
+            if (value == null || !(codec instanceof TypeCodec.DirectSerializer) || !isImmutable(value))
+                return super.setValue(i, value, codec);
+            TypeCodec.DirectSerializer<Object> serializer = (TypeCodec.DirectSerializer<Object>) codec;
+            // blob codecs serialize a duplicate, so that later changes to the position of the buffer are not seen
+            Object toSerialize = value instanceof ByteBuffer ? ((ByteBuffer) value).duplicate() : value;
+            // this also validates the value, like serializing it would
+            int size = serializer.serializedSize(toSerialize, protocolVersion);
+            if (size < 0)
+                return super.setValue(i, value, codec);
+            initDeferred();
+            deferred[i] = toSerialize;
+            serializers[i] = serializer;
+            sizes[i] = size;
+            values[i] = null;
+            return wrapped;
+        }
+
+        @Override
+        protected BoundStatement setFixedSizeValue(int i, int size, long high, long low) {
+            initDeferred();
+            if (fixedSizeBits == null)
+                fixedSizeBits = new long[2 * values.length];
+            deferred[i] = FIXED_SIZE;
+            serializers[i] = null;
+            sizes[i] = size;
+            fixedSizeBits[2 * i] = high;
+            fixedSizeBits[2 * i + 1] = low;
+            values[i] = null;
+            return wrapped;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void initDeferred() {
+            if (deferred == null) {
+                deferred = new Object[values.length];
+                serializers = new TypeCodec.DirectSerializer[values.length];
+                sizes = new int[values.length];
+            }
+        }
+
+        void writeFixedSize(int i, ByteBuf dest) {
+            long high = fixedSizeBits[2 * i], low = fixedSizeBits[2 * i + 1];
+            switch (sizes[i]) {
+                case 1:
+                    dest.writeByte((int) low);
+                    break;
+                case 2:
+                    dest.writeShort((int) low);
+                    break;
+                case 4:
+                    dest.writeInt((int) low);
+                    break;
+                case 8:
+                    dest.writeLong(low);
+                    break;
+                case 16:
+                    dest.writeLong(high);
+                    dest.writeLong(low);
+                    break;
+                default:
+                    throw new AssertionError("Unsupported size " + sizes[i]);
+            }
+        }
+
+        @Override
+        protected ByteBuffer getValue(int i) {
+            ByteBuffer value = values[i];
+            if (value == null && deferred != null && deferred[i] != null) {
+                value = ByteBuffer.allocate(sizes[i]);
+                if (deferred[i] == FIXED_SIZE)
+                    putFixedSize(value, sizes[i], fixedSizeBits[2 * i], fixedSizeBits[2 * i + 1]);
+                else
+                    serializers[i].serializeInto(deferred[i], value, protocolVersion);
+                value.flip();
+                values[i] = value;
+            }
+            return value;
+        }
+
+        /**
+         * Returns the serialized values of this statement, serializing the deferred values if needed.
+         */
+        ByteBuffer[] serializedValues() {
+            if (deferred != null) {
+                for (int i = 0; i < values.length; i++)
+                    getValue(i);
+            }
+            return values;
+        }
+
+        /**
+         * Returns the values of this statement, for inclusion in a request: deferred values are written directly
+         * into the request frame, see {@link CBUtil#writeValueList(List, io.netty.buffer.ByteBuf)}.
+         */
+        List<ByteBuffer> requestValues() {
+            return deferred == null ? Arrays.asList(values) : new RequestValues(this);
+        }
+
+        private static boolean isImmutable(Object value) {
+            return value instanceof String
+                    || value instanceof Integer
+                    || value instanceof Long
+                    || value instanceof UUID
+                    || value instanceof ByteBuffer
+                    || value instanceof Boolean
+                    || value instanceof Double
+                    || value instanceof Float
+                    || value instanceof Short
+                    || value instanceof Byte
+                    || value instanceof LocalDate;
         }
 
         protected int[] getAllIndexesOf(String name) {
-            return wrapped.statement.getVariables().getAllIdx(name);
+            return variables.getAllIdx(name);
         }
 
         protected DataType getType(int i) {
-            return wrapped.statement.getVariables().getType(i);
+            return variables.getType(i);
         }
 
         protected String getName(int i) {
-            return wrapped.statement.getVariables().getName(i);
+            return variables.getName(i);
         }
 
         @Override
         protected CodecRegistry getCodecRegistry() {
             return wrapped.codecRegistry;
         }
+
+        // Use the codecs cached in the variables of the prepared statement, unless this statement uses another
+        // registry
+
+        @Override
+        protected <T> TypeCodec<T> codecFor(int i) {
+            return variables.codecRegistry == wrapped.codecRegistry
+                    ? variables.<T>codecFor(i)
+                    : super.<T>codecFor(i);
+        }
+
+        @Override
+        protected <T> TypeCodec<T> codecFor(int i, Class<T> javaClass) {
+            return variables.codecRegistry == wrapped.codecRegistry
+                    ? variables.codecFor(i, javaClass)
+                    : super.codecFor(i, javaClass);
+        }
+
+        @Override
+        protected <T> TypeCodec<T> codecFor(int i, TypeToken<T> javaType) {
+            return variables.codecRegistry == wrapped.codecRegistry
+                    ? variables.codecFor(i, javaType)
+                    : super.codecFor(i, javaType);
+        }
+    }
+
+    /**
+     * The values of a bound statement as sent in a request, where deferred values are written directly into the
+     * frame instead of being serialized first.
+     */
+    static class RequestValues extends AbstractList<ByteBuffer> implements RandomAccess {
+
+        private final DataWrapper wrapper;
+
+        RequestValues(DataWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public ByteBuffer get(int i) {
+            return wrapper.getValue(i);
+        }
+
+        @Override
+        public int size() {
+            return wrapper.values.length;
+        }
+
+        int sizeOfValue(int i) {
+            return wrapper.deferred[i] == null
+                    ? CBUtil.sizeOfValue(wrapper.values[i])
+                    : 4 + wrapper.sizes[i];
+        }
+
+        void writeValue(int i, ByteBuf dest) {
+            Object value = wrapper.deferred[i];
+            if (value == null) {
+                CBUtil.writeValue(wrapper.values[i], dest);
+                return;
+            }
+            int size = wrapper.sizes[i];
+            dest.writeInt(size);
+            if (value == DataWrapper.FIXED_SIZE) {
+                wrapper.writeFixedSize(i, dest);
+                return;
+            }
+            dest.ensureWritable(size);
+            if ((dest.hasArray() || dest.isDirect()) && dest.nioBufferCount() == 1) {
+                // write in place, through a view of the frame's memory. Other buffers might return a copy from
+                // nioBuffer, and the value would be lost.
+                int index = dest.writerIndex();
+                wrapper.serializers[i].serializeInto(value, dest.nioBuffer(index, size), wrapper.protocolVersion);
+                dest.writerIndex(index + size);
+            } else {
+                ByteBuffer bb = ByteBuffer.allocate(size);
+                wrapper.serializers[i].serializeInto(value, bb, wrapper.protocolVersion);
+                bb.flip();
+                dest.writeBytes(bb);
+            }
+        }
     }
 }
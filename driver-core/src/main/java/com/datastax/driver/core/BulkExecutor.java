@@ -0,0 +1,560 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.util.concurrent.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Executes a large number of statements asynchronously, with a bounded number of requests in flight.
+ * <p/>
+ * This replaces the usual loop of {@link Session#executeAsync(Statement)} calls guarded by a semaphore:
+ * <pre>
+ * BulkExecutor executor = BulkExecutor.builder(session)
+ *     .withMaxInFlight(1024)
+ *     .withMaxInFlightPerHost(256)
+ *     .withFailureHandler(new BulkExecutor.FailureHandler() {
+ *         public void onFailure(Statement statement, Throwable error) { ... }
+ *     })
+ *     .build();
+ * BulkExecutor.Stats stats = executor.execute(statements);
+ * System.out.printf("%d statements, %d failed, %.0f/s%n",
+ *     stats.getExecuted(), stats.getFailed(), stats.getThroughput());
+ * </pre>
+ * Statements are pulled from the iterator as requests complete, so the iterator can be lazy (for instance reading a
+ * file). The iterator is never accessed from the network I/O threads: {@link #execute(Iterable)} pulls statements on
+ * the calling thread, and {@link #executeAsync(Iterator)} on the executor set with
+ * {@link Builder#withExecutor(Executor)}. A statement that fails is reported to the {@link FailureHandler} and counted, but does not stop the
+ * execution; retries are handled by the statement's {@link com.datastax.driver.core.policies.RetryPolicy}.
+ * <p/>
+ * The number of requests in flight on each host is bounded too: each statement is accounted to the first replica
+ * of its partition (see {@link Metadata#getReplicas(String, ByteBuffer)}), which is where a
+ * {@link com.datastax.driver.core.policies.TokenAwarePolicy} sends it. The statements of a busy host wait (up to
+ * {@link Builder#withMaxInFlight(int) maxInFlight} of them) while the statements of other hosts are executed, so
+ * that a slow host doesn't hold back the others. Statements with no routing information are only subject to the
+ * global bound.
+ */
+public class BulkExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkExecutor.class);
+
+    /**
+     * The default maximum number of requests in flight: 1024.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+    private final Session session;
+    private final int maxInFlight;
+    private final int maxInFlightPerHost;
+    private final FailureHandler failureHandler;
+    private final Executor executor;
+
+    private BulkExecutor(Session session, int maxInFlight, int maxInFlightPerHost, FailureHandler failureHandler,
+                         Executor executor) {
+        this.session = session;
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerHost = maxInFlightPerHost;
+        this.failureHandler = failureHandler;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a new builder for an executor that executes statements with the given session.
+     *
+     * @param session the session to execute statements with.
+     * @return the builder.
+     */
+    public static Builder builder(Session session) {
+        return new Builder(session);
+    }
+
+    /**
+     * Executes the given statements, and waits until they have all completed.
+     * <p/>
+     * Statements are pulled from the iterator on the calling thread, the executor set with
+     * {@link Builder#withExecutor(Executor)} is not used.
+     *
+     * @param statements the statements.
+     * @return the statistics of the execution.
+     */
+    public Stats execute(Iterable<? extends Statement> statements) {
+        CallerThreadExecutor callerThread = new CallerThreadExecutor();
+        try {
+            return callerThread.runUntilDone(executeAsync(statements.iterator(), callerThread));
+        } catch (ExecutionException e) {
+            throw DriverThrowables.propagateCause(e);
+        }
+    }
+
+    /**
+     * Executes the given statements asynchronously.
+     *
+     * @param statements the statements.
+     * @return a future that completes when all the statements have completed.
+     */
+    public ListenableFuture<Stats> executeAsync(Iterable<? extends Statement> statements) {
+        return executeAsync(statements.iterator());
+    }
+
+    /**
+     * Executes the statements of the given iterator asynchronously.
+     * <p/>
+     * The iterator is accessed on the executor set with {@link Builder#withExecutor(Executor)}, by one thread at a
+     * time, but not always the same one.
+     *
+     * @param statements the statements.
+     * @return a future that completes when all the statements have completed. It only fails if {@code statements}
+     * throws an exception; failed statements are reported in the {@link Stats}.
+     */
+    public ListenableFuture<Stats> executeAsync(Iterator<? extends Statement> statements) {
+        return executeAsync(statements, executor == null ? session.getCluster().manager.executor : executor);
+    }
+
+    private ListenableFuture<Stats> executeAsync(Iterator<? extends Statement> statements, Executor executor) {
+        Execution execution = new Execution(statements, executor);
+        execution.drain();
+        return execution;
+    }
+
+    private class Execution extends AbstractFuture<Stats> {
+        private final Iterator<? extends Statement> statements;
+        private final Executor executor;
+        private final long startNanos = System.nanoTime();
+        private final Histogram latencies = new Histogram(new UniformReservoir());
+        private final AtomicLong successful = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        // Ensures that only one thread drains at a time, and that no signal is lost
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // Guarded by this
+        private int inFlight;
+        private final Map<Host, Integer> inFlightPerHost = new HashMap<Host, Integer>();
+        private final Map<Host, Queue<Statement>> waiting = new HashMap<Host, Queue<Statement>>();
+        private int waitingCount;
+        private boolean exhausted;
+
+        Execution(Iterator<? extends Statement> statements, Executor executor) {
+            this.statements = statements;
+            this.executor = executor;
+        }
+
+        // Schedules a drain on the executor, unless one is already running: it will loop
+        void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        drainLoop();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                setException(e);
+            }
+        }
+
+        private void drainLoop() {
+            do {
+                List<Statement> toSend = new ArrayList<Statement>();
+                List<Host> hosts = new ArrayList<Host>();
+                int room;
+                synchronized (this) {
+                    collectWaiting(toSend, hosts);
+                    // Each new statement is either in flight or waiting, so this keeps both under the bound
+                    room = exhausted ? 0 : Math.min(maxInFlight - inFlight, maxInFlight - waitingCount);
+                }
+
+                // New statements are pulled without holding the lock, the iterator might be slow. This is safe
+                // because only one thread drains at a time.
+                List<Statement> pulled = new ArrayList<Statement>();
+                List<Host> owners = new ArrayList<Host>();
+                boolean reachedEnd = false;
+                RuntimeException error = null;
+                try {
+                    while (pulled.size() < room) {
+                        if (!statements.hasNext()) {
+                            reachedEnd = true;
+                            break;
+                        }
+                        Statement statement = statements.next();
+                        owners.add(owner(statement));
+                        pulled.add(statement);
+                    }
+                } catch (RuntimeException e) {
+                    logger.debug("Error while iterating statements", e);
+                    reachedEnd = true;
+                    error = e;
+                }
+
+                boolean done;
+                synchronized (this) {
+                    for (int i = 0; i < pulled.size(); i++)
+                        enqueue(pulled.get(i), owners.get(i), toSend, hosts);
+                    if (reachedEnd)
+                        exhausted = true;
+                    done = exhausted && waitingCount == 0 && inFlight == 0 && toSend.isEmpty();
+                }
+                if (error != null)
+                    setException(error);
+                for (int i = 0; i < toSend.size(); i++)
+                    send(toSend.get(i), hosts.get(i));
+                if (done)
+                    set(new Stats(successful.get(), failed.get(), System.nanoTime() - startNanos, latencies.getSnapshot()));
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        // Must be called while holding the lock on this object
+        private void collectWaiting(List<Statement> toSend, List<Host> hosts) {
+            if (waitingCount == 0)
+                return;
+            for (Map.Entry<Host, Queue<Statement>> entry : waiting.entrySet()) {
+                Host host = entry.getKey();
+                Queue<Statement> queue = entry.getValue();
+                while (inFlight < maxInFlight && !queue.isEmpty() && acquire(host)) {
+                    toSend.add(queue.poll());
+                    hosts.add(host);
+                    waitingCount -= 1;
+                }
+            }
+        }
+
+        // Must be called while holding the lock on this object
+        private void enqueue(Statement statement, Host host, List<Statement> toSend, List<Host> hosts) {
+            if (acquire(host)) {
+                toSend.add(statement);
+                hosts.add(host);
+            } else {
+                Queue<Statement> queue = waiting.get(host);
+                if (queue == null) {
+                    queue = new ArrayDeque<Statement>();
+                    waiting.put(host, queue);
+                }
+                queue.add(statement);
+                waitingCount += 1;
+            }
+        }
+
+        // Must be called while holding the lock on this object
+        private boolean acquire(Host host) {
+            if (host != null) {
+                Integer count = inFlightPerHost.get(host);
+                int current = (count == null) ? 0 : count;
+                if (current >= maxInFlightPerHost)
+                    return false;
+                inFlightPerHost.put(host, current + 1);
+            }
+            inFlight += 1;
+            return true;
+        }
+
+        private synchronized void release(Host host) {
+            inFlight -= 1;
+            if (host != null)
+                inFlightPerHost.put(host, inFlightPerHost.get(host) - 1);
+        }
+
+        private void send(final Statement statement, final Host host) {
+            final long start = System.nanoTime();
+            ResultSetFuture future;
+            try {
+                future = session.executeAsync(statement);
+            } catch (RuntimeException e) {
+                future = null;
+                onDone(statement, host, start, e);
+            }
+            if (future != null) {
+                Futures.addCallback(future, new FutureCallback<ResultSet>() {
+                    @Override
+                    public void onSuccess(ResultSet result) {
+                        onDone(statement, host, start, null);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        onDone(statement, host, start, t);
+                    }
+                });
+            }
+        }
+
+        private void onDone(Statement statement, Host host, long start, Throwable error) {
+            latencies.update(System.nanoTime() - start);
+            if (error == null) {
+                successful.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+                if (failureHandler != null) {
+                    try {
+                        failureHandler.onFailure(statement, error);
+                    } catch (Throwable t) {
+                        logger.warn("Unexpected error in failure handler", t);
+                    }
+                }
+            }
+            release(host);
+            // don't pull new statements from the thread that completed the request, usually an I/O thread
+            drain();
+        }
+    }
+
+    /**
+     * Runs tasks on the thread that calls {@link #runUntilDone(ListenableFuture)}.
+     */
+    private static class CallerThreadExecutor implements Executor {
+        private static final Runnable WAKE_UP = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<Runnable>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        <V> V runUntilDone(ListenableFuture<V> future) throws ExecutionException {
+            future.addListener(WAKE_UP, this);
+            while (!future.isDone())
+                Uninterruptibles.takeUninterruptibly(tasks).run();
+            return Uninterruptibles.getUninterruptibly(future);
+        }
+    }
+
+    // The host that a statement is accounted to, or null if it can't be determined
+    private Host owner(Statement statement) {
+        if (maxInFlightPerHost == Integer.MAX_VALUE)
+            return null;
+        String keyspace = statement.getKeyspace();
+        if (keyspace == null)
+            keyspace = session.getLoggedKeyspace();
+        if (keyspace == null)
+            return null;
+        Cluster cluster = session.getCluster();
+        Metadata metadata = cluster.getMetadata();
+        Set<Host> replicas;
+        Token token = statement.getRoutingToken();
+        if (token != null) {
+            replicas = metadata.getReplicas(Metadata.quote(keyspace), token);
+        } else {
+            Configuration configuration = cluster.getConfiguration();
+            ProtocolVersion protocolVersion = configuration.getProtocolOptions().getProtocolVersion();
+            ByteBuffer routingKey = (protocolVersion == null) ? null
+                    : statement.getRoutingKey(protocolVersion, configuration.getCodecRegistry());
+            if (routingKey == null)
+                return null;
+            replicas = metadata.getReplicas(Metadata.quote(keyspace), routingKey);
+        }
+        return replicas.isEmpty() ? null : replicas.iterator().next();
+    }
+
+    /**
+     * Receives the statements that failed.
+     * <p/>
+     * The handler is called from the thread that completes the request (usually an I/O thread): it must not block.
+     */
+    public interface FailureHandler {
+
+        /**
+         * Called when a statement fails, after its retry policy gave up.
+         *
+         * @param statement the statement.
+         * @param error     the error.
+         */
+        void onFailure(Statement statement, Throwable error);
+    }
+
+    /**
+     * The statistics of an execution.
+     */
+    public static class Stats {
+        private final long successful;
+        private final long failed;
+        private final long elapsedNanos;
+        private final Snapshot latencies;
+
+        private Stats(long successful, long failed, long elapsedNanos, Snapshot latencies) {
+            this.successful = successful;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        /**
+         * Returns the number of statements that were executed.
+         *
+         * @return the number of executed statements, successful or not.
+         */
+        public long getExecuted() {
+            return successful + failed;
+        }
+
+        /**
+         * Returns the number of statements that were executed successfully.
+         *
+         * @return the number of successful statements.
+         */
+        public long getSuccessful() {
+            return successful;
+        }
+
+        /**
+         * Returns the number of statements that failed.
+         *
+         * @return the number of failed statements.
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Returns the duration of the execution.
+         *
+         * @param unit the unit to return the duration in.
+         * @return the duration.
+         */
+        public long getElapsed(TimeUnit unit) {
+            return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the average number of statements executed per second.
+         *
+         * @return the throughput.
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : getExecuted() * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Returns the distribution of the latencies of the statements, in nanoseconds.
+         * <p/>
+         * The latency of a statement includes its retries, but not the time it waited to be sent.
+         *
+         * @return the latencies.
+         */
+        public Snapshot getLatencies() {
+            return latencies;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d executed, %d failed in %d ms (%.0f/s, p99 %.2f ms)",
+                    getExecuted(), failed, getElapsed(TimeUnit.MILLISECONDS), getThroughput(),
+                    latencies.get99thPercentile() / 1e6);
+        }
+    }
+
+    /**
+     * Helper class to build {@link BulkExecutor} instances.
+     */
+    public static class Builder {
+
+        private final Session session;
+        private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        private int maxInFlightPerHost = Integer.MAX_VALUE;
+        private FailureHandler failureHandler;
+        private Executor executor;
+
+        private Builder(Session session) {
+            this.session = checkNotNull(session);
+        }
+
+        /**
+         * Sets the maximum number of requests in flight.
+         * <p/>
+         * The default is {@link #DEFAULT_MAX_IN_FLIGHT}.
+         *
+         * @param maxInFlight the maximum number of requests.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxInFlight &lt; 1}.
+         */
+        public Builder withMaxInFlight(int maxInFlight) {
+            checkArgument(maxInFlight >= 1, "maxInFlight must be strictly positive");
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight on each host.
+         * <p/>
+         * By default, there is no limit per host.
+         *
+         * @param maxInFlightPerHost the maximum number of requests per host.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxInFlightPerHost &lt; 1}.
+         */
+        public Builder withMaxInFlightPerHost(int maxInFlightPerHost) {
+            checkArgument(maxInFlightPerHost >= 1, "maxInFlightPerHost must be strictly positive");
+            this.maxInFlightPerHost = maxInFlightPerHost;
+            return this;
+        }
+
+        /**
+         * Sets the handler that receives the statements that failed.
+         * <p/>
+         * By default, failed statements are only counted.
+         *
+         * @param failureHandler the handler.
+         * @return this builder.
+         */
+        public Builder withFailureHandler(FailureHandler failureHandler) {
+            this.failureHandler = failureHandler;
+            return this;
+        }
+
+        /**
+         * Sets the executor on which statements are pulled from the iterator and sent, by
+         * {@link BulkExecutor#executeAsync(Iterator)}, when requests complete.
+         * <p/>
+         * It defaults to the driver's internal worker executor, which is fine if the iterator is fast and doesn't
+         * block. Otherwise (for instance if it reads a file), provide a dedicated executor. Don't use Guava's
+         * {@code MoreExecutors.sameThreadExecutor()}, this would access the iterator from the network I/O threads.
+         *
+         * @param executor the executor.
+         * @return this builder.
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = checkNotNull(executor);
+            return this;
+        }
+
+        /**
+         * Builds the executor.
+         *
+         * @return the executor.
+         */
+        public BulkExecutor build() {
+            return new BulkExecutor(session, maxInFlight, maxInFlightPerHost, failureHandler, executor);
+        }
+    }
+}
@@ -340,12 +340,25 @@ abstract class CBUtil { // TODO rename
 
     public static void writeValueList(List<ByteBuffer> values, ByteBuf cb) {
         cb.writeShort(values.size());
+        if (values instanceof BoundStatement.RequestValues) {
+            // Write the values that were not serialized yet directly into the frame
+            BoundStatement.RequestValues requestValues = (BoundStatement.RequestValues) values;
+            for (int i = 0; i < requestValues.size(); i++)
+                requestValues.writeValue(i, cb);
+            return;
+        }
         for (ByteBuffer value : values)
             CBUtil.writeValue(value, cb);
     }
 
     public static int sizeOfValueList(List<ByteBuffer> values) {
         int size = 2;
+        if (values instanceof BoundStatement.RequestValues) {
+            BoundStatement.RequestValues requestValues = (BoundStatement.RequestValues) values;
+            for (int i = 0; i < requestValues.size(); i++)
+                size += requestValues.sizeOfValue(i);
+            return size;
+        }
         for (ByteBuffer value : values)
             size += CBUtil.sizeOfValue(value);
         return size;
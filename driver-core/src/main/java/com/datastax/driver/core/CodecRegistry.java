@@ -18,6 +18,7 @@ package com.datastax.driver.core;
 import com.datastax.driver.core.exceptions.CodecNotFoundException;
 import com.google.common.base.Objects;
 import com.google.common.cache.*;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.UncheckedExecutionException;
@@ -27,11 +28,13 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.datastax.driver.core.DataType.Name.*;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -123,6 +126,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * <li>the second lookup will hit the cache directly, and reuse the previously generated instance.</li>
  * </ol>
  * The javadoc for each {@link #codecFor(DataType) codecFor} variant specifies whether the result can be cached or not.
+ * <p/>
+ * Lookups by value (see {@link #codecFor(Object)}) are cached by the "shape" of the value: its runtime class and,
+ * for collections, the shape of their first element (or key and value for maps). This relies on
+ * {@link TypeCodec#accepts(Object)} only inspecting the class of the value, which is the case of all built-in codecs.
+ * As soon as a codec that overrides {@link TypeCodec#accepts(Object)} is registered, lookups by value are not cached
+ * anymore.
+ * <p/>
+ * The cache is bounded, and shared by all the threads that look up codecs. If your application uses a known set of
+ * types (which is typically the case once it has warmed up), you can {@link #freeze() freeze} the registry: lookups by
+ * type are then served from an immutable snapshot, without any locking or eviction.
  * <h3>
  * Codec order
  * </h3>
@@ -202,6 +215,75 @@ public final class CodecRegistry {
 
     }
 
+    /**
+     * Cache key for lookups by value: the CQL type (if any) and the shape of the value.
+     * <p/>
+     * The shape of a value is its runtime class, except for collections, tuples and UDTs (see
+     * {@link #shapeOf(Object)}).
+     */
+    private static final class ValueKey {
+
+        private final DataType cqlType;
+
+        private final Object shape;
+
+        ValueKey(DataType cqlType, Object shape) {
+            this.cqlType = cqlType;
+            this.shape = shape;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            ValueKey valueKey = (ValueKey) o;
+            return Objects.equal(cqlType, valueKey.cqlType) && shape.equals(valueKey.shape);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(cqlType, shape);
+        }
+
+    }
+
+    /**
+     * The shape of a collection, tuple or UDT value: its runtime class, and the shapes of its elements for
+     * collections (null if the collection is empty), or its CQL type for tuples and UDTs.
+     */
+    private static final class CompositeShape {
+
+        private final Class<?> javaClass;
+
+        private final Object arg1;
+
+        private final Object arg2;
+
+        CompositeShape(Class<?> javaClass, Object arg1, Object arg2) {
+            this.javaClass = javaClass;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            CompositeShape that = (CompositeShape) o;
+            return javaClass == that.javaClass && Objects.equal(arg1, that.arg1) && Objects.equal(arg2, that.arg2);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(javaClass, arg1, arg2);
+        }
+
+    }
+
     /**
      * Cache loader for the codecs cache.
      */
@@ -289,12 +371,42 @@ public final class CodecRegistry {
      */
     private final LoadingCache<CacheKey, TypeCodec<?>> cache;
 
+    /**
+     * A cache for lookups by value, keyed by the shape of the value.
+     * It is cleared every time a codec is registered.
+     */
+    private final Cache<ValueKey, TypeCodec<?>> valueCache;
+
+    /**
+     * Incremented every time a codec is registered, so that a lookup by value that raced with a registration
+     * doesn't leave a stale entry in {@link #valueCache}.
+     */
+    private final AtomicInteger valueCacheGeneration = new AtomicInteger();
+
+    /**
+     * Whether lookups by value can be cached, that is, if all the registered codecs accept values based on their
+     * shape only.
+     */
+    private volatile boolean cacheValueLookups = true;
+
+    /**
+     * An immutable copy of the cache, that serves lookups by type once the registry is frozen ({@code null} until
+     * then). It is replaced by a new copy, under {@link #snapshotLock}, every time an entry is added.
+     */
+    private volatile ImmutableMap<CacheKey, TypeCodec<?>> snapshot;
+
+    private final Object snapshotLock = new Object();
+
     /**
      * Creates a new instance initialized with built-in codecs for all the base CQL types.
      */
     public CodecRegistry() {
         this.codecs = new CopyOnWriteArrayList<TypeCodec<?>>(PRIMITIVE_CODECS);
         this.cache = defaultCacheBuilder().build(new TypeCodecCacheLoader());
+        this.valueCache = CacheBuilder.newBuilder()
+                .initialCapacity(100)
+                .maximumSize(1000)
+                .build();
     }
 
     private CacheBuilder<CacheKey, TypeCodec<?>> defaultCacheBuilder() {
@@ -330,16 +442,81 @@ public final class CodecRegistry {
         }
 
         CacheKey key = new CacheKey(newCodec.getCqlType(), newCodec.getJavaType());
-        TypeCodec<?> existing = cache.getIfPresent(key);
+        ImmutableMap<CacheKey, TypeCodec<?>> snapshot = this.snapshot;
+        TypeCodec<?> existing = snapshot == null ? cache.getIfPresent(key) : snapshot.get(key);
         if (existing != null) {
             logger.warn("Ignoring codec {} because it collides with previously generated codec {}", newCodec, existing);
             return this;
         }
 
+        if (!acceptsByShape(newCodec)) {
+            logger.debug("Codec {} overrides accepts(Object), lookups by value won't be cached", newCodec);
+            cacheValueLookups = false;
+        }
         this.codecs.add(newCodec);
+        // The new codec might now be preferred to a codec generated for a previous lookup. Lookups that started
+        // before the codec was added see the generation change (see lookupCodec)
+        valueCacheGeneration.incrementAndGet();
+        valueCache.invalidateAll();
+        if (snapshot != null)
+            publish(key, newCodec);
         return this;
     }
 
+    /**
+     * Freezes this registry: from now on, lookups by type (that is, the {@link #codecFor(DataType) codecFor} variants
+     * that don't take a value) are served from an immutable snapshot of the codecs found so far, instead of the
+     * internal cache.
+     * <p/>
+     * The snapshot is never evicted, and reading it involves no locking, which avoids contention when many threads
+     * look up codecs concurrently, notably for collections and user types. It is meant to be used once the
+     * application has warmed up, that is, when it has looked up (or {@link #register(TypeCodec) registered}) most of
+     * the codecs that it will ever use. The registry still works as usual after that: codecs found for new mappings,
+     * and newly registered codecs, are added by publishing a new copy of the snapshot; since each copy costs time
+     * proportional to the number of codecs, this should remain infrequent.
+     * <p/>
+     * Calling this method on a frozen registry has no effect.
+     *
+     * @return this CodecRegistry (for method chaining).
+     */
+    public CodecRegistry freeze() {
+        synchronized (snapshotLock) {
+            if (snapshot == null) {
+                snapshot = ImmutableMap.copyOf(cache.asMap());
+                // The snapshot supersedes the cache from now on
+                cache.invalidateAll();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns whether this registry is {@link #freeze() frozen}.
+     *
+     * @return whether this registry is frozen.
+     */
+    public boolean isFrozen() {
+        return snapshot != null;
+    }
+
+    /**
+     * Publishes a new snapshot that contains the given codec, unless there is already a codec for the key.
+     *
+     * @return the codec for the key in the new snapshot.
+     */
+    private TypeCodec<?> publish(CacheKey key, TypeCodec<?> codec) {
+        synchronized (snapshotLock) {
+            TypeCodec<?> existing = snapshot.get(key);
+            if (existing != null)
+                return existing;
+            snapshot = ImmutableMap.<CacheKey, TypeCodec<?>>builder()
+                    .putAll(snapshot)
+                    .put(key, codec)
+                    .build();
+            return codec;
+        }
+    }
+
     /**
      * Register the given codecs with this registry.
      *
@@ -371,9 +548,7 @@ public final class CodecRegistry {
      * <p/>
      * This method takes an arbitrary Java object and tries to locate a suitable codec for it.
      * Codecs must perform a {@link TypeCodec#accepts(Object) runtime inspection} of the object to determine
-     * if they can accept it or not, which, depending on the implementations, can be expensive; besides, the
-     * resulting codec cannot be cached.
-     * Therefore there might be a performance penalty when using this method.
+     * if they can accept it or not, which, depending on the implementations, can be expensive.
      * <p/>
      * Furthermore, this method returns the first matching codec, regardless of its accepted CQL type.
      * It should be reserved for situations where the target CQL type is not available or unknown.
@@ -381,15 +556,16 @@ public final class CodecRegistry {
      * {@link SimpleStatement#SimpleStatement(String, Object...) SimpleStatement} or in the
      * {@link com.datastax.driver.core.querybuilder.QueryBuilder}, where no CQL type information is available.
      * <p/>
-     * Codecs returned by this method are <em>NOT</em> cached (see the {@link CodecRegistry top-level documentation}
-     * of this class for more explanations about caching).
+     * Codecs returned by this method are cached by the shape of the value, unless a registered codec inspects
+     * more than the shape of the values it accepts (see the {@link CodecRegistry top-level documentation} of this
+     * class for more explanations about caching).
      *
      * @param value The value the codec should accept; must not be {@code null}.
      * @return A suitable codec.
      * @throws CodecNotFoundException if a suitable codec cannot be found.
      */
     public <T> TypeCodec<T> codecFor(T value) {
-        return findCodec(null, value);
+        return lookupCodec(null, value);
     }
 
     /**
@@ -454,12 +630,11 @@ public final class CodecRegistry {
      * <p/>
      * This method takes an arbitrary Java object and tries to locate a suitable codec for it.
      * Codecs must perform a {@link TypeCodec#accepts(Object) runtime inspection} of the object to determine
-     * if they can accept it or not, which, depending on the implementations, can be expensive; besides, the
-     * resulting codec cannot be cached.
-     * Therefore there might be a performance penalty when using this method.
+     * if they can accept it or not, which, depending on the implementations, can be expensive.
      * <p/>
-     * Codecs returned by this method are <em>NOT</em> cached (see the {@link CodecRegistry top-level documentation}
-     * of this class for more explanations about caching).
+     * Codecs returned by this method are cached by the shape of the value, unless a registered codec inspects
+     * more than the shape of the values it accepts (see the {@link CodecRegistry top-level documentation} of this
+     * class for more explanations about caching).
      *
      * @param cqlType The {@link DataType CQL type} the codec should accept; can be {@code null}.
      * @param value   The value the codec should accept; must not be {@code null}.
@@ -467,7 +642,75 @@ public final class CodecRegistry {
      * @throws CodecNotFoundException if a suitable codec cannot be found.
      */
     public <T> TypeCodec<T> codecFor(DataType cqlType, T value) {
-        return findCodec(cqlType, value);
+        return lookupCodec(cqlType, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> TypeCodec<T> lookupCodec(DataType cqlType, T value) {
+        checkNotNull(value, "Parameter value cannot be null");
+        Object shape = cacheValueLookups ? shapeOf(value) : null;
+        if (shape == null)
+            return findCodec(cqlType, value);
+        ValueKey key = new ValueKey(cqlType, shape);
+        TypeCodec<?> codec = valueCache.getIfPresent(key);
+        if (codec == null) {
+            int generation = valueCacheGeneration.get();
+            codec = findCodec(cqlType, value);
+            valueCache.put(key, codec);
+            // A codec was registered concurrently: this one might not be the right one anymore, and the registration
+            // might have cleared the cache before it was added
+            if (valueCacheGeneration.get() != generation)
+                valueCache.asMap().remove(key, codec);
+        } else {
+            logger.trace("Returning cached codec {}", codec);
+        }
+        return (TypeCodec<T>) codec;
+    }
+
+    /**
+     * Returns the shape of a value, that determines which codecs accept it: its runtime class, recursively
+     * combined with the shapes of the first element of collections (this is the only element that codecs inspect),
+     * or with the CQL type of tuples and UDTs.
+     *
+     * @return the shape, or {@code null} if the value can't be cached (e.g. a collection that contains a null
+     * element).
+     */
+    private static Object shapeOf(Object value) {
+        if (value instanceof List || value instanceof Set) {
+            Collection<?> collection = (Collection<?>) value;
+            if (collection.isEmpty())
+                return new CompositeShape(value.getClass(), null, null);
+            Object element = collection.iterator().next();
+            Object elementShape = element == null ? null : shapeOf(element);
+            return elementShape == null ? null : new CompositeShape(value.getClass(), elementShape, null);
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (map.isEmpty())
+                return new CompositeShape(value.getClass(), null, null);
+            Map.Entry<?, ?> entry = map.entrySet().iterator().next();
+            Object keyShape = entry.getKey() == null ? null : shapeOf(entry.getKey());
+            Object valueShape = entry.getValue() == null ? null : shapeOf(entry.getValue());
+            return keyShape == null || valueShape == null ? null : new CompositeShape(value.getClass(), keyShape, valueShape);
+        }
+        if (value instanceof TupleValue)
+            return new CompositeShape(value.getClass(), ((TupleValue) value).getType(), null);
+        if (value instanceof UDTValue)
+            return new CompositeShape(value.getClass(), ((UDTValue) value).getType(), null);
+        return value.getClass();
+    }
+
+    /**
+     * Whether the given codec accepts values based on their shape only, that is, if it uses one of the
+     * implementations of {@link TypeCodec#accepts(Object)} provided by the driver.
+     */
+    private static boolean acceptsByShape(TypeCodec<?> codec) {
+        try {
+            Class<?> declaringClass = codec.getClass().getMethod("accepts", Object.class).getDeclaringClass();
+            return declaringClass == TypeCodec.class || declaringClass.getEnclosingClass() == TypeCodec.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -476,6 +719,15 @@ public final class CodecRegistry {
         if (logger.isTraceEnabled())
             logger.trace("Querying cache for codec [{} <-> {}]", toString(cqlType), toString(javaType));
         CacheKey cacheKey = new CacheKey(cqlType, javaType);
+        ImmutableMap<CacheKey, TypeCodec<?>> snapshot = this.snapshot;
+        if (snapshot != null) {
+            TypeCodec<?> codec = snapshot.get(cacheKey);
+            if (codec == null)
+                codec = publish(cacheKey, findCodec(cqlType, javaType));
+            else
+                logger.trace("Returning cached codec {}", codec);
+            return (TypeCodec<T>) codec;
+        }
         try {
             TypeCodec<?> codec = cache.get(cacheKey);
             logger.trace("Returning cached codec {}", codec);
@@ -15,6 +15,7 @@
  */
 package com.datastax.driver.core;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 
 /**
@@ -207,7 +208,23 @@ public final class CodecUtils {
         return ((long) days + EPOCH_AS_CQL_LONG);
     }
 
-    private static int sizeOfCollectionSize(ProtocolVersion version) {
+    /**
+     * Splits the serialized form of a UDT or tuple into the serialized forms of its fields. Fields that are missing at
+     * the end of the input are left untouched.
+     *
+     * @throws BufferUnderflowException if the input is truncated.
+     */
+    static void readFields(ByteBuffer input, ByteBuffer[] fields) {
+        input = input.duplicate();
+        for (int i = 0; i < fields.length && input.hasRemaining(); i++) {
+            int n = input.getInt();
+            if (n > input.remaining())
+                throw new BufferUnderflowException();
+            fields[i] = n < 0 ? null : readBytes(input, n);
+        }
+    }
+
+    static int sizeOfCollectionSize(ProtocolVersion version) {
         switch (version) {
             case V1:
             case V2:
@@ -220,6 +237,21 @@ public final class CodecUtils {
         }
     }
 
+    static int sizeOfValue(int valueSize, ProtocolVersion version) {
+        switch (version) {
+            case V1:
+            case V2:
+                if (valueSize > 65535)
+                    throw new IllegalArgumentException(String.format("Native protocol version %d supports only elements with size up to 65535 bytes - but element size is %d bytes", version.toInt(), valueSize));
+                return 2 + valueSize;
+            case V3:
+            case V4:
+                return 4 + valueSize;
+            default:
+                throw version.unsupported();
+        }
+    }
+
     private static int sizeOfValue(ByteBuffer value, ProtocolVersion version) {
         switch (version) {
             case V1:
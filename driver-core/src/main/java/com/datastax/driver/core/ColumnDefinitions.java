@@ -15,6 +15,8 @@
  */
 package com.datastax.driver.core;
 
+import com.google.common.reflect.TypeToken;
+
 import java.util.*;
 
 /**
@@ -61,11 +63,16 @@ public class ColumnDefinitions implements Iterable<ColumnDefinitions.Definition>
     private final Map<String, int[]> byName;
     final CodecRegistry codecRegistry;
 
+    // The codecs resolved for each column, per requested Java type (see codecFor). Racy but safe: the arrays are
+    // copied on write, and a missing element only means an extra lookup in the registry.
+    private final ResolvedCodec[][] codecs;
+
     ColumnDefinitions(Definition[] defs, CodecRegistry codecRegistry) {
 
         this.byIdx = defs;
         this.codecRegistry = codecRegistry;
         this.byName = new HashMap<String, int[]>(defs.length);
+        this.codecs = new ResolvedCodec[defs.length][];
 
         for (int i = 0; i < defs.length; i++) {
             // Be optimistic, 99% of the time, previous will be null.
@@ -111,6 +118,34 @@ public class ColumnDefinitions implements Iterable<ColumnDefinitions.Definition>
         return findFirstIdx(name);
     }
 
+    /**
+     * Resolves a name once, and returns an accessor that can be used to read or write the corresponding column(s)
+     * by index.
+     * <p/>
+     * Accessing a {@link Row} or a {@link BoundStatement} by name resolves the name every time. In hot loops, this can
+     * be avoided by resolving it beforehand:
+     * <pre>
+     * ColumnDefinitions.Accessor name = resultSet.getColumnDefinitions().accessor("name");
+     * for (Row row : resultSet)
+     *     process(row.getString(name.getIndex()));
+     * </pre>
+     * The name is resolved with the same rules as the other methods of this class (case-insensitive unless it is
+     * double-quoted). If it occurs several times (for example a named variable used twice in a query), the accessor
+     * holds all its indexes: the setters by name set all the occurrences, so do the same with
+     * {@link Accessor#getIndex(int)}.
+     * <p/>
+     * The accessor is only valid with data described by this metadata, or metadata with the same columns; for
+     * example, with the rows of all the pages of a result set, or the statements bound from a prepared statement
+     * (see {@link PreparedStatement#getVariables()}). Use {@link Accessor#appliesTo(ColumnDefinitions)} to check it.
+     *
+     * @param name the name of the column.
+     * @return the accessor.
+     * @throws IllegalArgumentException if {@code name} is not in this metadata.
+     */
+    public Accessor accessor(String name) {
+        return new Accessor(this, name, getAllIdx(name).clone());
+    }
+
     /**
      * Returns an iterator over the {@link Definition} contained in this metadata.
      * <p/>
@@ -272,6 +307,186 @@ public class ColumnDefinitions implements Iterable<ColumnDefinitions.Definition>
         return getAllIdx(name)[0];
     }
 
+    // Maximum number of Java types that codecs are kept for, per column
+    private static final int MAX_RESOLVED_CODECS = 4;
+
+    // The key of the codec resolved without a Java type
+    private static final Object ANY_JAVA_TYPE = new Object();
+
+    /**
+     * Returns the codec of {@code codecRegistry} for column {@code i} and its default Java type.
+     * <p/>
+     * This is equivalent to {@code codecRegistry.codecFor(getType(i))}, but the registry is only consulted the first
+     * time.
+     */
+    <T> TypeCodec<T> codecFor(int i) {
+        TypeCodec<T> codec = resolvedCodec(i, ANY_JAVA_TYPE);
+        if (codec == null) {
+            codec = codecRegistry.codecFor(getType(i));
+            addResolvedCodec(i, ANY_JAVA_TYPE, codec);
+        }
+        return codec;
+    }
+
+    /**
+     * Returns the codec of {@code codecRegistry} for column {@code i} and the given Java type.
+     * <p/>
+     * This is equivalent to {@code codecRegistry.codecFor(getType(i), javaClass)}, but the registry is only consulted
+     * the first time.
+     */
+    <T> TypeCodec<T> codecFor(int i, Class<T> javaClass) {
+        TypeCodec<T> codec = resolvedCodec(i, javaClass);
+        if (codec == null) {
+            codec = codecRegistry.codecFor(getType(i), javaClass);
+            addResolvedCodec(i, javaClass, codec);
+        }
+        return codec;
+    }
+
+    /**
+     * Returns the codec of {@code codecRegistry} for column {@code i} and the given Java type.
+     * <p/>
+     * This is equivalent to {@code codecRegistry.codecFor(getType(i), javaType)}, but the registry is only consulted
+     * the first time.
+     */
+    <T> TypeCodec<T> codecFor(int i, TypeToken<T> javaType) {
+        TypeCodec<T> codec = resolvedCodec(i, javaType);
+        if (codec == null) {
+            codec = codecRegistry.codecFor(getType(i), javaType);
+            addResolvedCodec(i, javaType, codec);
+        }
+        return codec;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> TypeCodec<T> resolvedCodec(int i, Object javaType) {
+        ResolvedCodec[] resolved = codecs[i];
+        if (resolved != null) {
+            for (ResolvedCodec codec : resolved) {
+                if (codec != null && (codec.javaType == javaType || codec.javaType.equals(javaType)))
+                    return (TypeCodec<T>) codec.codec;
+            }
+        }
+        return null;
+    }
+
+    private void addResolvedCodec(int i, Object javaType, TypeCodec<?> codec) {
+        ResolvedCodec[] resolved = codecs[i];
+        ResolvedCodec[] updated;
+        if (resolved == null) {
+            updated = new ResolvedCodec[1];
+        } else if (resolved.length < MAX_RESOLVED_CODECS) {
+            updated = Arrays.copyOf(resolved, resolved.length + 1);
+        } else {
+            // Evict the oldest
+            updated = new ResolvedCodec[MAX_RESOLVED_CODECS];
+            System.arraycopy(resolved, 1, updated, 0, MAX_RESOLVED_CODECS - 1);
+        }
+        updated[updated.length - 1] = new ResolvedCodec(javaType, codec);
+        codecs[i] = updated;
+    }
+
+    private static class ResolvedCodec {
+        final Object javaType;
+        final TypeCodec<?> codec;
+
+        ResolvedCodec(Object javaType, TypeCodec<?> codec) {
+            this.javaType = javaType;
+            this.codec = codec;
+        }
+    }
+
+    /**
+     * The indexes of a column name, resolved once in a {@code ColumnDefinitions} instance.
+     *
+     * @see ColumnDefinitions#accessor(String)
+     */
+    public static class Accessor {
+
+        private final ColumnDefinitions definitions;
+        private final String name;
+        private final int[] indexes;
+
+        private Accessor(ColumnDefinitions definitions, String name, int[] indexes) {
+            this.definitions = definitions;
+            this.name = name;
+            this.indexes = indexes;
+        }
+
+        /**
+         * Returns the name that this accessor was resolved from.
+         *
+         * @return the name, as passed to {@link ColumnDefinitions#accessor(String)}.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the index of the first occurrence of the name.
+         *
+         * @return the index.
+         */
+        public int getIndex() {
+            return indexes[0];
+        }
+
+        /**
+         * Returns the number of occurrences of the name.
+         *
+         * @return the number of occurrences, at least 1.
+         */
+        public int getIndexCount() {
+            return indexes.length;
+        }
+
+        /**
+         * Returns the index of the {@code n}th occurrence of the name.
+         *
+         * @param n the occurrence ({@code 0 <= n < getIndexCount()}).
+         * @return the index.
+         * @throws IndexOutOfBoundsException if {@code n} is not a valid occurrence.
+         */
+        public int getIndex(int n) {
+            return indexes[n];
+        }
+
+        /**
+         * Returns the type of the first occurrence of the name.
+         *
+         * @return the type.
+         */
+        public DataType getType() {
+            return definitions.getType(indexes[0]);
+        }
+
+        /**
+         * Returns whether this accessor can be used with data described by the given metadata, that is, if the
+         * metadata has the same columns at the indexes of this accessor.
+         *
+         * @param other the metadata to check.
+         * @return whether this accessor applies to {@code other}.
+         */
+        public boolean appliesTo(ColumnDefinitions other) {
+            if (other == definitions)
+                return true;
+            if (other.size() != definitions.size())
+                return false;
+            for (int index : indexes) {
+                Definition expected = definitions.byIdx[index];
+                Definition actual = other.byIdx[index];
+                if (!expected.name.equals(actual.name) || !expected.type.equals(actual.type))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return name + Arrays.toString(indexes);
+        }
+    }
+
     /**
      * A column definition.
      */
@@ -0,0 +1,266 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The values of a column for all the rows of a {@link ColumnarPage}.
+ * <p/>
+ * Values are decoded from their CQL type into a primitive array, without going through the {@link CodecRegistry}:
+ * <ul>
+ * <li>{@code bigint}, {@code counter}, {@code timestamp} (milliseconds since the epoch) and {@code time} (nanoseconds
+ * since midnight): {@link #getLongs()};</li>
+ * <li>{@code int}, {@code smallint} and {@code tinyint}: {@link #getInts()};</li>
+ * <li>{@code double} and {@code float}: {@link #getDoubles()};</li>
+ * <li>{@code boolean}: {@link #getBooleans()};</li>
+ * <li>any other type: {@link #getBytesUnsafe()}, the serialized values.</li>
+ * </ul>
+ * The element of a primitive array is {@code 0} (or {@code false}) for a null value; use {@link #isNull(int)} to tell
+ * them apart. The arrays are returned without copy, and must not be modified.
+ */
+public class ColumnVector {
+
+    private final String name;
+    private final DataType type;
+    private final int size;
+    private final BitSet nulls;
+
+    private final long[] longs;
+    private final int[] ints;
+    private final double[] doubles;
+    private final boolean[] booleans;
+    private final ByteBuffer[] bytes;
+
+    private ColumnVector(String name, DataType type, int size, BitSet nulls,
+                         long[] longs, int[] ints, double[] doubles, boolean[] booleans, ByteBuffer[] bytes) {
+        this.name = name;
+        this.type = type;
+        this.size = size;
+        this.nulls = nulls;
+        this.longs = longs;
+        this.ints = ints;
+        this.doubles = doubles;
+        this.booleans = booleans;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Decodes column {@code idx} of the given rows.
+     */
+    static ColumnVector decode(ColumnDefinitions metadata, int idx, List<List<ByteBuffer>> rows) {
+        String name = metadata.getName(idx);
+        DataType type = metadata.getType(idx);
+        int size = rows.size();
+        BitSet nulls = new BitSet(size);
+        switch (type.getName()) {
+            case BIGINT:
+            case COUNTER:
+            case TIMESTAMP:
+            case TIME: {
+                long[] values = new long[size];
+                for (int i = 0; i < size; i++) {
+                    ByteBuffer value = rows.get(i).get(idx);
+                    if (value == null)
+                        nulls.set(i);
+                    else if (value.remaining() > 0)
+                        values[i] = value.getLong(value.position());
+                }
+                return new ColumnVector(name, type, size, nulls, values, null, null, null, null);
+            }
+            case INT:
+            case SMALLINT:
+            case TINYINT: {
+                int[] values = new int[size];
+                for (int i = 0; i < size; i++) {
+                    ByteBuffer value = rows.get(i).get(idx);
+                    if (value == null)
+                        nulls.set(i);
+                    else if (value.remaining() > 0)
+                        values[i] = readInt(value);
+                }
+                return new ColumnVector(name, type, size, nulls, null, values, null, null, null);
+            }
+            case DOUBLE:
+            case FLOAT: {
+                double[] values = new double[size];
+                boolean isFloat = type.getName() == DataType.Name.FLOAT;
+                for (int i = 0; i < size; i++) {
+                    ByteBuffer value = rows.get(i).get(idx);
+                    if (value == null)
+                        nulls.set(i);
+                    else if (value.remaining() > 0)
+                        values[i] = isFloat ? value.getFloat(value.position()) : value.getDouble(value.position());
+                }
+                return new ColumnVector(name, type, size, nulls, null, null, values, null, null);
+            }
+            case BOOLEAN: {
+                boolean[] values = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    ByteBuffer value = rows.get(i).get(idx);
+                    if (value == null)
+                        nulls.set(i);
+                    else if (value.remaining() > 0)
+                        values[i] = value.get(value.position()) != 0;
+                }
+                return new ColumnVector(name, type, size, nulls, null, null, null, values, null);
+            }
+            default: {
+                ByteBuffer[] values = new ByteBuffer[size];
+                for (int i = 0; i < size; i++) {
+                    ByteBuffer value = rows.get(i).get(idx);
+                    if (value == null)
+                        nulls.set(i);
+                    else
+                        values[i] = value.duplicate();
+                }
+                return new ColumnVector(name, type, size, nulls, null, null, null, null, values);
+            }
+        }
+    }
+
+    private static int readInt(ByteBuffer value) {
+        switch (value.remaining()) {
+            case 1:
+                return value.get(value.position());
+            case 2:
+                return value.getShort(value.position());
+            default:
+                return value.getInt(value.position());
+        }
+    }
+
+    /**
+     * Returns the name of the column.
+     *
+     * @return the name of the column.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the CQL type of the column.
+     *
+     * @return the CQL type of the column.
+     */
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the number of values in this vector, that is the number of rows of the page.
+     *
+     * @return the number of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the value of the column is null for the given row.
+     *
+     * @param row the index of the row in the page.
+     * @return whether the value is null.
+     * @throws IndexOutOfBoundsException if {@code row} is not a valid row index.
+     */
+    public boolean isNull(int row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("Invalid row index " + row + " (size " + size + ")");
+        return nulls.get(row);
+    }
+
+    /**
+     * Returns the number of null values in this vector.
+     *
+     * @return the number of null values.
+     */
+    public int getNullCount() {
+        return nulls.cardinality();
+    }
+
+    /**
+     * Returns the values of a {@code bigint}, {@code counter}, {@code timestamp} or {@code time} column.
+     *
+     * @return the values, indexed by row.
+     * @throws InvalidTypeException if the column is not of one of these types.
+     */
+    public long[] getLongs() {
+        checkType(longs, "long");
+        return longs;
+    }
+
+    /**
+     * Returns the values of an {@code int}, {@code smallint} or {@code tinyint} column.
+     *
+     * @return the values, indexed by row.
+     * @throws InvalidTypeException if the column is not of one of these types.
+     */
+    public int[] getInts() {
+        checkType(ints, "int");
+        return ints;
+    }
+
+    /**
+     * Returns the values of a {@code double} or {@code float} column.
+     *
+     * @return the values, indexed by row.
+     * @throws InvalidTypeException if the column is not of one of these types.
+     */
+    public double[] getDoubles() {
+        checkType(doubles, "double");
+        return doubles;
+    }
+
+    /**
+     * Returns the values of a {@code boolean} column.
+     *
+     * @return the values, indexed by row.
+     * @throws InvalidTypeException if the column is not of type {@code boolean}.
+     */
+    public boolean[] getBooleans() {
+        checkType(booleans, "boolean");
+        return booleans;
+    }
+
+    /**
+     * Returns the serialized values of a column that is not decoded into a primitive array.
+     * <p/>
+     * Each buffer is a view of the response frame: reading it does not affect the page, but its content must not be
+     * modified.
+     *
+     * @return the values, indexed by row ({@code null} for a null value).
+     * @throws InvalidTypeException if the column is decoded into a primitive array.
+     */
+    public ByteBuffer[] getBytesUnsafe() {
+        checkType(bytes, "bytes");
+        return bytes;
+    }
+
+    private void checkType(Object values, String kind) {
+        if (values == null)
+            throw new InvalidTypeException(String.format("Column %s is of type %s, cannot be read as %s values", name, type, kind));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnVector[%s(%s), %d values]", name, type, size);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A page of results decoded column by column, as returned by {@link ResultSet#nextPageAsColumns(String...)}.
+ * <p/>
+ * This is meant for analytical workloads that read many rows but only a few, mostly numeric, columns: the values of
+ * each requested column are decoded into a single {@link ColumnVector}, without creating a {@link Row} per row or
+ * boxing values.
+ * <pre>
+ * while (!rs.isExhausted()) {
+ *     ColumnarPage page = rs.nextPageAsColumns("price", "quantity");
+ *     double[] prices = page.getColumn(0).getDoubles();
+ *     int[] quantities = page.getColumn(1).getInts();
+ *     for (int i = 0; i &lt; page.size(); i++)
+ *         total += prices[i] * quantities[i];
+ * }
+ * </pre>
+ */
+public class ColumnarPage {
+
+    private final int size;
+    private final ColumnVector[] columns;
+
+    private ColumnarPage(int size, ColumnVector[] columns) {
+        this.size = size;
+        this.columns = columns;
+    }
+
+    /**
+     * Decodes the given columns of the rows.
+     *
+     * @throws IllegalArgumentException if a column is not part of {@code metadata}.
+     */
+    static ColumnarPage decode(ColumnDefinitions metadata, Collection<List<ByteBuffer>> rows, String... columnNames) {
+        // Resolve the names once for the whole page
+        int[] indexes = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++)
+            indexes[i] = metadata.getFirstIdx(columnNames[i]);
+
+        List<List<ByteBuffer>> rowList = (rows instanceof List)
+                ? (List<List<ByteBuffer>>) rows
+                : new ArrayList<List<ByteBuffer>>(rows);
+        ColumnVector[] columns = new ColumnVector[indexes.length];
+        for (int i = 0; i < indexes.length; i++)
+            columns[i] = ColumnVector.decode(metadata, indexes[i], rowList);
+        return new ColumnarPage(rowList.size(), columns);
+    }
+
+    /**
+     * Returns the number of rows in this page.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of columns in this page, that is the number of columns that were requested.
+     *
+     * @return the number of columns.
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Returns the {@code i}th requested column.
+     *
+     * @param i the index of the column, in the order the columns were requested.
+     * @return the column.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid column index.
+     */
+    public ColumnVector getColumn(int i) {
+        return columns[i];
+    }
+
+    /**
+     * Returns the requested column with the given name.
+     *
+     * @param name the name of the column. Like in {@link Row}, it is case insensitive unless enclosed in double quotes.
+     * @return the column.
+     * @throws IllegalArgumentException if {@code name} is not one of the requested columns.
+     */
+    public ColumnVector getColumn(String name) {
+        boolean caseSensitive = name.length() >= 2 && name.charAt(0) == '"' && name.charAt(name.length() - 1) == '"';
+        if (caseSensitive)
+            name = name.substring(1, name.length() - 1);
+        for (ColumnVector column : columns) {
+            if (caseSensitive ? column.getName().equals(name) : column.getName().equalsIgnoreCase(name))
+                return column;
+        }
+        throw new IllegalArgumentException(name + " is not a column of this page");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ColumnarPage[").append(size).append(" rows");
+        for (ColumnVector column : columns)
+            sb.append(", ").append(column.getName()).append('(').append(column.getType()).append(')');
+        return sb.append(']').toString();
+    }
+}
@@ -519,7 +519,8 @@ class Connection {
         logger.trace("{}, stream {}, writing request {}", this, request.getStreamId(), request);
         writer.incrementAndGet();
 
-        if (DISABLE_COALESCING) {
+        if (DISABLE_COALESCING || (factory.configuration.getPoolingOptions().isEventLoopAffinityEnabled() && isInCurrentEventLoop())) {
+            // With event loop affinity, writing directly from the channel's event loop avoids a hop through the flusher
             channel.writeAndFlush(request).addListener(writeHandler(request, handler));
         } else {
             flush(new FlushItem(channel, request, writeHandler(request, handler)));
@@ -530,6 +531,14 @@ class Connection {
         return handler;
     }
 
+    /**
+     * Whether the current thread is the event loop that this connection's channel is registered to.
+     */
+    boolean isInCurrentEventLoop() {
+        Channel channel = this.channel;
+        return channel != null && channel.eventLoop().inEventLoop();
+    }
+
     private ChannelFutureListener writeHandler(final Message.Request request, final ResponseHandler handler) {
         return new ChannelFutureListener() {
             @Override
@@ -1084,6 +1093,9 @@ class Connection {
             switch (response.type) {
                 case SUPPORTED:
                     logger.debug("{} heartbeat query succeeded", connection);
+                    Host host = connection.factory.manager.metadata.getHost(connection.address);
+                    if (host != null)
+                        host.recordHeartbeatLatency(latency);
                     break;
                 default:
                     fail(connection, new ConnectionException(connection.address, "Unexpected heartbeat response: " + response));
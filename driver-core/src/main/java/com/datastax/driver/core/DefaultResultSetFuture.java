@@ -171,7 +171,9 @@ class DefaultResultSetFuture extends AbstractFuture<ResultSet> implements Result
                             }
                             break;
                         default:
-                            set(ArrayBackedResultSet.fromMessage(rm, session, protocolVersion, info, statement));
+                            ArrayBackedResultSet resultSet = ArrayBackedResultSet.fromMessage(rm, session, protocolVersion, info, statement);
+                            maybeCache(rm, info, statement, resultSet);
+                            set(resultSet);
                             break;
                     }
                     break;
@@ -210,6 +212,18 @@ class DefaultResultSetFuture extends AbstractFuture<ResultSet> implements Result
         return true;
     }
 
+    // Stores the result in the session's result cache, before it gets consumed
+    private void maybeCache(Responses.Result result, ExecutionInfo info, Statement statement, ResultSet rs) {
+        if (result.kind != Responses.Result.Kind.ROWS
+                || statement == null
+                || statement.getResultCacheTtlMillis() <= 0
+                || !(request instanceof Requests.Execute))
+            return;
+        ResultCache cache = session.resultCache();
+        if (cache != null)
+            cache.put(statement, (Requests.Execute) request, (Responses.Result.Rows) result, info, rs.getColumnDefinitions());
+    }
+
     // We sometimes need (in the driver) to set the future from outside this class,
     // but AbstractFuture#set is protected so this method. We don't want it public
     // however, no particular reason to give users rope to hang themselves.
@@ -0,0 +1,63 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link ScanCheckpointStore} that stores checkpoints in a local file.
+ * <p/>
+ * Checkpoints are first written to a temporary file next to the target file, and then renamed, so that a crash
+ * while saving never leaves a truncated checkpoint.
+ */
+public class FileScanCheckpointStore implements ScanCheckpointStore {
+
+    private final File file;
+    private final File tmpFile;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param file the file to store checkpoints in.
+     */
+    public FileScanCheckpointStore(File file) {
+        this.file = file;
+        this.tmpFile = new File(file.getPath() + ".tmp");
+    }
+
+    @Override
+    public String load() throws IOException {
+        return file.exists() ? Files.toString(file, Charsets.UTF_8) : null;
+    }
+
+    @Override
+    public void save(String checkpoint) throws IOException {
+        Files.write(checkpoint, tmpFile, Charsets.UTF_8);
+        // renameTo does not replace an existing file on all platforms
+        if (!tmpFile.renameTo(file) && !(file.delete() && tmpFile.renameTo(file)))
+            throw new IOException(String.format("Could not rename %s to %s", tmpFile, file));
+    }
+
+    @Override
+    public void clear() throws IOException {
+        if (file.exists() && !file.delete())
+            throw new IOException("Could not delete " + file);
+    }
+}
@@ -130,6 +130,21 @@ public interface GettableByIndexData {
      */
     public Date getTimestamp(int i);
 
+    /**
+     * Returns the {@code i}th value as a long in milliseconds since the epoch.
+     * <p/>
+     * This is equivalent to {@code getTimestamp(i).getTime()}, but for CQL type {@code timestamp} and the built-in
+     * codec, the value is read directly from its serialized form, without allocating a {@code Date}.
+     *
+     * @param i the index ({@code 0 <= i < size()}) to retrieve.
+     * @return the value of the {@code i}th element as a long. If the value is NULL, {@code 0L} is returned.
+     * If you need to distinguish NULL and 0L, check first with {@link #isNull(int)}.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws CodecNotFoundException    if there is no registered codec to convert the element's CQL
+     *                                   type to a {@code Date}.
+     */
+    public long getTimestampMillis(int i);
+
     /**
      * Returns the {@code i}th value as a date (without time).
      * <p/>
@@ -145,6 +160,21 @@ public interface GettableByIndexData {
      */
     public LocalDate getDate(int i);
 
+    /**
+     * Returns the {@code i}th value as an int in days since the epoch.
+     * <p/>
+     * This is equivalent to {@code getDate(i).getDaysSinceEpoch()}, but for CQL type {@code date} and the built-in
+     * codec, the value is read directly from its serialized form, without allocating a {@link LocalDate}.
+     *
+     * @param i the index ({@code 0 <= i < size()}) to retrieve.
+     * @return the value of the {@code i}th element as an int. If the value is NULL, {@code 0} is returned.
+     * If you need to distinguish NULL and 0, check first with {@link #isNull(int)}.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws CodecNotFoundException    if there is no registered codec to convert the element's CQL
+     *                                   type to a {@code LocalDate}.
+     */
+    public int getDaysSinceEpoch(int i);
+
     /**
      * Returns the {@code i}th value as a long in nanoseconds since midnight.
      * <p/>
@@ -278,6 +308,38 @@ public interface GettableByIndexData {
      */
     public UUID getUUID(int i);
 
+    /**
+     * Returns the most significant 64 bits of the {@code i}th value as a UUID.
+     * <p/>
+     * This is equivalent to {@code getUUID(i).getMostSignificantBits()}, but for CQL types {@code uuid} and
+     * {@code timeuuid} and the built-in codecs, the value is read directly from its serialized form, without
+     * allocating a {@code UUID}.
+     *
+     * @param i the index ({@code 0 <= i < size()}) to retrieve.
+     * @return the most significant bits of the {@code i}th element. If the value is NULL, {@code 0L} is returned.
+     * If you need to distinguish NULL and 0L, check first with {@link #isNull(int)}.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws CodecNotFoundException    if there is no registered codec to convert the element's CQL
+     *                                   type to a {@code UUID}.
+     */
+    public long getUUIDMostSignificantBits(int i);
+
+    /**
+     * Returns the least significant 64 bits of the {@code i}th value as a UUID.
+     * <p/>
+     * This is equivalent to {@code getUUID(i).getLeastSignificantBits()}, but for CQL types {@code uuid} and
+     * {@code timeuuid} and the built-in codecs, the value is read directly from its serialized form, without
+     * allocating a {@code UUID}.
+     *
+     * @param i the index ({@code 0 <= i < size()}) to retrieve.
+     * @return the least significant bits of the {@code i}th element. If the value is NULL, {@code 0L} is returned.
+     * If you need to distinguish NULL and 0L, check first with {@link #isNull(int)}.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws CodecNotFoundException    if there is no registered codec to convert the element's CQL
+     *                                   type to a {@code UUID}.
+     */
+    public long getUUIDLeastSignificantBits(int i);
+
     /**
      * Returns the {@code i}th value as an InetAddress.
      * <p/>
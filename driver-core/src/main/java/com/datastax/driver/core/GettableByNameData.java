@@ -132,6 +132,21 @@ public interface GettableByNameData {
      */
     public Date getTimestamp(String name);
 
+    /**
+     * Returns the value for {@code name} as a long in milliseconds since the epoch.
+     * <p/>
+     * This is equivalent to {@code getTimestamp(name).getTime()}, but for CQL type {@code timestamp} and the built-in
+     * codec, the value is read directly from its serialized form, without allocating a {@code Date}.
+     *
+     * @param name the name to retrieve.
+     * @return the value for {@code name} as a long. If the value is NULL, {@code 0L} is returned.
+     * If you need to distinguish NULL and 0L, check first with {@link #isNull(String)}.
+     * @throws IllegalArgumentException if {@code name} is not valid name for this object.
+     * @throws CodecNotFoundException   if there is no registered codec to convert the underlying CQL
+     *                                  type to a {@code Date}.
+     */
+    public long getTimestampMillis(String name);
+
     /**
      * Returns the value for {@code name} as a date (without time).
      * <p/>
@@ -147,6 +162,21 @@ public interface GettableByNameData {
      */
     public LocalDate getDate(String name);
 
+    /**
+     * Returns the value for {@code name} as an int in days since the epoch.
+     * <p/>
+     * This is equivalent to {@code getDate(name).getDaysSinceEpoch()}, but for CQL type {@code date} and the built-in
+     * codec, the value is read directly from its serialized form, without allocating a {@link LocalDate}.
+     *
+     * @param name the name to retrieve.
+     * @return the value for {@code name} as an int. If the value is NULL, {@code 0} is returned.
+     * If you need to distinguish NULL and 0, check first with {@link #isNull(String)}.
+     * @throws IllegalArgumentException if {@code name} is not valid name for this object.
+     * @throws CodecNotFoundException   if there is no registered codec to convert the underlying CQL
+     *                                  type to a {@code LocalDate}.
+     */
+    public int getDaysSinceEpoch(String name);
+
     /**
      * Returns the value for {@code name} as a long in nanoseconds since midnight.
      * <p/>
@@ -285,6 +315,38 @@ public interface GettableByNameData {
      */
     public UUID getUUID(String name);
 
+    /**
+     * Returns the most significant 64 bits of the value for {@code name} as a UUID.
+     * <p/>
+     * This is equivalent to {@code getUUID(name).getMostSignificantBits()}, but for CQL types {@code uuid} and
+     * {@code timeuuid} and the built-in codecs, the value is read directly from its serialized form, without
+     * allocating a {@code UUID}.
+     *
+     * @param name the name to retrieve.
+     * @return the most significant bits of the value for {@code name}. If the value is NULL, {@code 0L} is
+     * returned. If you need to distinguish NULL and 0L, check first with {@link #isNull(String)}.
+     * @throws IllegalArgumentException if {@code name} is not valid name for this object.
+     * @throws CodecNotFoundException   if there is no registered codec to convert the underlying CQL
+     *                                  type to a {@code UUID}.
+     */
+    public long getUUIDMostSignificantBits(String name);
+
+    /**
+     * Returns the least significant 64 bits of the value for {@code name} as a UUID.
+     * <p/>
+     * This is equivalent to {@code getUUID(name).getLeastSignificantBits()}, but for CQL types {@code uuid} and
+     * {@code timeuuid} and the built-in codecs, the value is read directly from its serialized form, without
+     * allocating a {@code UUID}.
+     *
+     * @param name the name to retrieve.
+     * @return the least significant bits of the value for {@code name}. If the value is NULL, {@code 0L} is
+     * returned. If you need to distinguish NULL and 0L, check first with {@link #isNull(String)}.
+     * @throws IllegalArgumentException if {@code name} is not valid name for this object.
+     * @throws CodecNotFoundException   if there is no registered codec to convert the underlying CQL
+     *                                  type to a {@code UUID}.
+     */
+    public long getUUIDLeastSignificantBits(String name);
+
     /**
      * Returns the value for {@code name} as an InetAddress.
      * <p/>
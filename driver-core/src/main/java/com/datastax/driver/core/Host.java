@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -77,6 +78,9 @@ public class Host {
     private volatile String dseWorkload;
     private volatile VersionNumber dseVersion;
 
+    // Exponentially weighted average of the heartbeat round-trip times, in nanoseconds (-1 until the first heartbeat)
+    private final AtomicLong heartbeatLatency = new AtomicLong(-1);
+
     // ClusterMetadata keeps one Host object per inet address and we rely on this (more precisely,
     // we rely on the fact that we can use Object equality as a valid equality), so don't use
     // that constructor but ClusterMetadata.getHost instead.
@@ -309,6 +313,31 @@ public class Host {
         return state.name();
     }
 
+    /**
+     * Returns the average round-trip time of the heartbeats that the driver sent to this host, in nanoseconds.
+     * <p/>
+     * Heartbeats are sent on connections that have been idle for some time (see
+     * {@link PoolingOptions#setHeartbeatIntervalSeconds(int)}), and involve almost no work on the server: this is an
+     * estimate of the network latency to the host. In particular, it is measured for hosts that get few or no
+     * queries, like the hosts of remote datacenters.
+     *
+     * @return the average, or -1 if no heartbeat to this host has completed yet.
+     */
+    public long getHeartbeatLatencyNanos() {
+        return heartbeatLatency.get();
+    }
+
+    void recordHeartbeatLatency(long latencyNanos) {
+        while (true) {
+            long previous = heartbeatLatency.get();
+            long next = previous < 0
+                    ? latencyNanos
+                    : (long) (previous + 0.25 * (latencyNanos - previous));
+            if (heartbeatLatency.compareAndSet(previous, next))
+                return;
+        }
+    }
+
     /**
      * Returns a {@code ListenableFuture} representing the completion of the reconnection
      * attempts scheduled after a host is marked {@code DOWN}.
@@ -225,35 +225,42 @@ class HostConnectionPool implements Connection.Owner {
             }
         }
 
-        int minInFlight = Integer.MAX_VALUE;
-        Connection leastBusy = null;
-        for (Connection connection : connections) {
-            int inFlight = connection.inFlight.get();
-            if (inFlight < minInFlight) {
-                minInFlight = inFlight;
-                leastBusy = connection;
-            }
-        }
+        // If affinity is enabled, try to find a connection owned by the current event loop. If we get one, it has already
+        // been reserved
+        Connection leastBusy = options().isEventLoopAffinityEnabled()
+                ? borrowFromCurrentEventLoop()
+                : null;
 
         if (leastBusy == null) {
-            // We could have raced with a shutdown since the last check
-            if (isClosed())
-                throw new ConnectionException(host.getSocketAddress(), "Pool is shutdown");
-            // This might maybe happen if the number of core connections per host is 0 and a connection was trashed between
-            // the previous check to connections and now. But in that case, the line above will have trigger the creation of
-            // a new connection, so just wait that connection and move on
-            leastBusy = waitForConnection(timeout, unit);
-        } else {
-            while (true) {
-                int inFlight = leastBusy.inFlight.get();
-
-                if (inFlight >= Math.min(leastBusy.maxAvailableStreams(), options().getMaxRequestsPerConnection(hostDistance))) {
-                    leastBusy = waitForConnection(timeout, unit);
-                    break;
+            int minInFlight = Integer.MAX_VALUE;
+            for (Connection connection : connections) {
+                int inFlight = connection.inFlight.get();
+                if (inFlight < minInFlight) {
+                    minInFlight = inFlight;
+                    leastBusy = connection;
                 }
+            }
+
+            if (leastBusy == null) {
+                // We could have raced with a shutdown since the last check
+                if (isClosed())
+                    throw new ConnectionException(host.getSocketAddress(), "Pool is shutdown");
+                // This might maybe happen if the number of core connections per host is 0 and a connection was trashed between
+                // the previous check to connections and now. But in that case, the line above will have trigger the creation of
+                // a new connection, so just wait that connection and move on
+                leastBusy = waitForConnection(timeout, unit);
+            } else {
+                while (true) {
+                    int inFlight = leastBusy.inFlight.get();
+
+                    if (inFlight >= Math.min(leastBusy.maxAvailableStreams(), options().getMaxRequestsPerConnection(hostDistance))) {
+                        leastBusy = waitForConnection(timeout, unit);
+                        break;
+                    }
 
-                if (leastBusy.inFlight.compareAndSet(inFlight, inFlight + 1))
-                    break;
+                    if (leastBusy.inFlight.compareAndSet(inFlight, inFlight + 1))
+                        break;
+                }
             }
         }
 
@@ -280,6 +287,34 @@ class HostConnectionPool implements Connection.Owner {
         return leastBusy;
     }
 
+    /**
+     * Reserves the least busy connection whose channel is registered to the current thread's event loop, if the
+     * current thread is an event loop and such a connection has available streams.
+     *
+     * @return the reserved connection, or {@code null} if there is none.
+     */
+    private Connection borrowFromCurrentEventLoop() {
+        int maxRequests = options().getMaxRequestsPerConnection(hostDistance);
+        while (true) {
+            int minInFlight = Integer.MAX_VALUE;
+            Connection leastBusy = null;
+            for (Connection connection : connections) {
+                if (!connection.isInCurrentEventLoop())
+                    continue;
+                int inFlight = connection.inFlight.get();
+                if (inFlight < minInFlight && inFlight < Math.min(connection.maxAvailableStreams(), maxRequests)) {
+                    minInFlight = inFlight;
+                    leastBusy = connection;
+                }
+            }
+            if (leastBusy == null)
+                return null;
+            if (leastBusy.inFlight.compareAndSet(minInFlight, minInFlight + 1))
+                return leastBusy;
+            // The connection was borrowed concurrently, start over
+        }
+    }
+
     private void awaitAvailableConnection(long timeout, TimeUnit unit) throws InterruptedException {
         waitLock.lock();
         waiter++;
@@ -0,0 +1,245 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Read-only collections that wrap the serialized form of a CQL collection, and deserialize its elements when they
+ * are first accessed.
+ * <p/>
+ * They are returned by the codecs created with {@link TypeCodec#lazyList(TypeCodec)},
+ * {@link TypeCodec#lazySet(TypeCodec)} and {@link TypeCodec#lazyMap(TypeCodec, TypeCodec)}. Since they cache the
+ * elements that they deserialize, they are not thread-safe, even for reads.
+ */
+class LazyCollections {
+
+    private static final Object NOT_DECODED = new Object();
+
+    /**
+     * The serialized elements of a list or set, or the serialized keys and values of a map, in that order.
+     */
+    static class Elements {
+
+        final ByteBuffer bytes;
+        final ProtocolVersion protocolVersion;
+        final int size;
+
+        // the position of the first element in bytes
+        private final int start;
+        // the position of each element in bytes, computed on first access
+        private int[] offsets;
+        // the deserialized elements, or NOT_DECODED
+        private Object[] decoded;
+
+        Elements(ByteBuffer bytes, int valuesPerElement, ProtocolVersion protocolVersion) {
+            this.bytes = bytes;
+            this.protocolVersion = protocolVersion;
+            ByteBuffer input = bytes.duplicate();
+            try {
+                this.size = CodecUtils.readSize(input, protocolVersion) * valuesPerElement;
+            } catch (BufferUnderflowException e) {
+                throw new InvalidTypeException("Not enough bytes to deserialize collection", e);
+            }
+            this.start = input.position();
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T get(int i, TypeCodec<T> codec) {
+            if (i < 0 || i >= size)
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+            if (decoded == null) {
+                offsets = offsets();
+                decoded = new Object[size];
+                Arrays.fill(decoded, NOT_DECODED);
+            }
+            Object element = decoded[i];
+            if (element == NOT_DECODED) {
+                ByteBuffer input = bytes.duplicate();
+                input.position(offsets[i]);
+                element = codec.deserialize(CodecUtils.readValue(input, protocolVersion), protocolVersion);
+                decoded[i] = element;
+            }
+            return (T) element;
+        }
+
+        private int[] offsets() {
+            int[] offsets = new int[size];
+            ByteBuffer input = bytes.duplicate();
+            input.position(start);
+            try {
+                for (int i = 0; i < size; i++) {
+                    offsets[i] = input.position();
+                    int n = CodecUtils.readSize(input, protocolVersion);
+                    if (n > input.remaining())
+                        throw new BufferUnderflowException();
+                    if (n > 0)
+                        input.position(input.position() + n);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new InvalidTypeException("Not enough bytes to deserialize collection", e);
+            }
+            return offsets;
+        }
+    }
+
+    static class LazyList<E> extends AbstractList<E> implements RandomAccess {
+
+        final Elements elements;
+        final TypeCodec<E> eltCodec;
+
+        LazyList(Elements elements, TypeCodec<E> eltCodec) {
+            this.elements = elements;
+            this.eltCodec = eltCodec;
+        }
+
+        @Override
+        public E get(int index) {
+            return elements.get(index, eltCodec);
+        }
+
+        @Override
+        public int size() {
+            return elements.size;
+        }
+    }
+
+    static class LazySet<E> extends AbstractSet<E> {
+
+        final Elements elements;
+        final TypeCodec<E> eltCodec;
+        // used for lookups, built on first use
+        private Set<E> lookup;
+
+        LazySet(Elements elements, TypeCodec<E> eltCodec) {
+            this.elements = elements;
+            this.eltCodec = eltCodec;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new ElementIterator<E>(elements.size) {
+                @Override
+                E element(int i) {
+                    return elements.get(i, eltCodec);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return elements.size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (lookup == null)
+                lookup = new HashSet<E>(this);
+            return lookup.contains(o);
+        }
+    }
+
+    static class LazyMap<K, V> extends AbstractMap<K, V> {
+
+        final Elements elements;
+        final TypeCodec<K> keyCodec;
+        final TypeCodec<V> valueCodec;
+        // used for lookups, built on first use
+        private Map<K, V> lookup;
+
+        LazyMap(Elements elements, TypeCodec<K> keyCodec, TypeCodec<V> valueCodec) {
+            this.elements = elements;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        @Override
+        public int size() {
+            return elements.size / 2;
+        }
+
+        @Override
+        public V get(Object key) {
+            return lookup().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return lookup().containsKey(key);
+        }
+
+        private Map<K, V> lookup() {
+            if (lookup == null)
+                lookup = new HashMap<K, V>(this);
+            return lookup;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new ElementIterator<Entry<K, V>>(size()) {
+                        @Override
+                        Entry<K, V> element(int i) {
+                            return new SimpleImmutableEntry<K, V>(
+                                    elements.get(2 * i, keyCodec),
+                                    elements.get(2 * i + 1, valueCodec));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return LazyMap.this.size();
+                }
+            };
+        }
+    }
+
+    private abstract static class ElementIterator<E> implements Iterator<E> {
+
+        private final int size;
+        private int next;
+
+        ElementIterator(int size) {
+            this.size = size;
+        }
+
+        abstract E element(int i);
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return element(next++);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -41,6 +41,10 @@ public class Metrics {
     private final Errors errors = new Errors();
 
     private final Timer requests = registry.timer("requests");
+    private final Counter coalescedRequests = registry.counter("coalesced-requests");
+    private final Counter resultCacheHits = registry.counter("result-cache-hits");
+    private final Counter resultCacheMisses = registry.counter("result-cache-misses");
+    private final Counter resultCacheEvictions = registry.counter("result-cache-evictions");
 
     private final Gauge<Integer> knownHosts = registry.register("known-hosts", new Gauge<Integer>() {
         @Override
@@ -175,6 +179,46 @@ public class Metrics {
         return requests;
     }
 
+    /**
+     * Returns the number of executions that did not send a request, but shared the response of an identical request
+     * already in flight (see {@link Statement#setCoalescingEnabled(boolean)}).
+     *
+     * @return the number of coalesced executions.
+     */
+    public Counter getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    /**
+     * Returns the number of executions that were served from a session's result cache (see
+     * {@link Statement#setResultCacheTtlMillis(long)}).
+     *
+     * @return the number of result cache hits.
+     */
+    public Counter getResultCacheHits() {
+        return resultCacheHits;
+    }
+
+    /**
+     * Returns the number of executions of cacheable statements that were not found in their session's result cache,
+     * and were sent to Cassandra.
+     *
+     * @return the number of result cache misses.
+     */
+    public Counter getResultCacheMisses() {
+        return resultCacheMisses;
+    }
+
+    /**
+     * Returns the number of results that were removed from a session's result cache because they expired or because
+     * the cache was full. Invalidations caused by schema changes are not counted.
+     *
+     * @return the number of result cache evictions.
+     */
+    public Counter getResultCacheEvictions() {
+        return resultCacheEvictions;
+    }
+
     /**
      * Returns an object grouping metrics related to the errors encountered.
      *
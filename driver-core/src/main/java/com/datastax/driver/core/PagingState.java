@@ -80,7 +80,7 @@ public class PagingState {
             if (statement instanceof BoundStatement) {
                 BoundStatement bs = ((BoundStatement) statement);
                 md.update(bs.preparedStatement().getQueryString().getBytes());
-                values = bs.wrapper.values;
+                values = bs.wrapper.serializedValues();
             } else {
                 //it is a RegularStatement since Batch statements are not allowed
                 RegularStatement rs = (RegularStatement) statement;
@@ -113,6 +113,8 @@ public class PoolingOptions {
 
     private volatile Executor initializationExecutor = DEFAULT_INITIALIZATION_EXECUTOR;
 
+    private volatile boolean eventLoopAffinityEnabled = false;
+
     public PoolingOptions() {
     }
 
@@ -450,6 +452,43 @@ public class PoolingOptions {
         return this;
     }
 
+    /**
+     * Returns whether requests issued from a network I/O thread prefer connections owned by that thread.
+     *
+     * @return whether event loop affinity is enabled.
+     * @see #setEventLoopAffinityEnabled(boolean)
+     */
+    public boolean isEventLoopAffinityEnabled() {
+        return eventLoopAffinityEnabled;
+    }
+
+    /**
+     * Sets whether requests issued from a network I/O thread prefer connections owned by that thread.
+     * <p/>
+     * <b>This is an advanced option, which is only useful if your application code runs on the driver's
+     * event loops</b>, for example if it shares an {@code EventLoopGroup} with the driver through
+     * {@link NettyOptions#eventLoopGroup(java.util.concurrent.ThreadFactory)}, or if it chains new requests from
+     * callbacks executed on the I/O threads.
+     * <p/>
+     * When this option is enabled and a request is issued from an event loop, the pool picks the least busy
+     * connection among those whose channel is registered to that event loop (if one of them has available
+     * streams), and writes the request directly to the channel instead of handing it over to the
+     * event loop. The response is then received on the same thread, which saves context switches.
+     * Requests issued from other threads, or for which no such connection is available, are not affected.
+     * <p/>
+     * Note that a connection is only owned by one event loop; for this option to be effective, the number of
+     * connections per host should be close to the number of event loops that issue requests.
+     * <p/>
+     * The default value for this option is {@code false}.
+     *
+     * @param eventLoopAffinityEnabled whether to enable event loop affinity.
+     * @return this {@code PoolingOptions}
+     */
+    public PoolingOptions setEventLoopAffinityEnabled(boolean eventLoopAffinityEnabled) {
+        this.eventLoopAffinityEnabled = eventLoopAffinityEnabled;
+        return this;
+    }
+
     synchronized void setProtocolVersion(ProtocolVersion protocolVersion) {
         this.protocolVersion = protocolVersion;
 
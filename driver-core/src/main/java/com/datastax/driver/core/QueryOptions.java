@@ -37,11 +37,31 @@ public class QueryOptions {
      */
     public static final int DEFAULT_FETCH_SIZE = 5000;
 
+    /**
+     * The default prefetch threshold: 0 (prefetching disabled).
+     */
+    public static final int DEFAULT_PREFETCH_THRESHOLD = 0;
+
+    /**
+     * The default maximum number of prefetched pages per result set: 1.
+     */
+    public static final int DEFAULT_MAX_PREFETCHED_PAGES = 1;
+
+    /**
+     * The default maximum size of the prefetched pages per result set: 16 megabytes.
+     */
+    public static final long DEFAULT_MAX_PREFETCHED_BYTES = 16 * 1024 * 1024;
+
     /**
      * The default value for {@link #getDefaultIdempotence()}: {@code false}.
      */
     public static final boolean DEFAULT_IDEMPOTENCE = false;
 
+    /**
+     * The default value for {@link #getResultCacheMaxBytes()}: 16 MB.
+     */
+    public static final long DEFAULT_RESULT_CACHE_MAX_BYTES = 16 * 1024 * 1024;
+
     public static final int DEFAULT_MAX_PENDING_REFRESH_NODE_LIST_REQUESTS = 20;
 
     public static final int DEFAULT_MAX_PENDING_REFRESH_NODE_REQUESTS = 20;
@@ -57,7 +77,11 @@ public class QueryOptions {
     private volatile ConsistencyLevel consistency = DEFAULT_CONSISTENCY_LEVEL;
     private volatile ConsistencyLevel serialConsistency = DEFAULT_SERIAL_CONSISTENCY_LEVEL;
     private volatile int fetchSize = DEFAULT_FETCH_SIZE;
+    private volatile int prefetchThreshold = DEFAULT_PREFETCH_THRESHOLD;
+    private volatile int maxPrefetchedPages = DEFAULT_MAX_PREFETCHED_PAGES;
+    private volatile long maxPrefetchedBytes = DEFAULT_MAX_PREFETCHED_BYTES;
     private volatile boolean defaultIdempotence = DEFAULT_IDEMPOTENCE;
+    private volatile long resultCacheMaxBytes = DEFAULT_RESULT_CACHE_MAX_BYTES;
 
     private volatile boolean metadataEnabled = true;
 
@@ -170,6 +194,123 @@ public class QueryOptions {
         return fetchSize;
     }
 
+    /**
+     * Sets the default prefetch threshold for paged queries.
+     * <p/>
+     * By default, when iterating a paged result set, the next page is only requested once the current one is
+     * exhausted, and the client thread blocks until it is received. With prefetching, the driver requests the next
+     * page in the background as soon as fewer than {@code prefetchThreshold} rows remain in the current page,
+     * in order to hide the latency of the request. It keeps requesting pages until up to
+     * {@link #setMaxPrefetchedPages(int) maxPrefetchedPages} pages, or
+     * {@link #setMaxPrefetchedBytes(long) maxPrefetchedBytes} bytes, are buffered ahead of the current page.
+     * <p/>
+     * The threshold set through this method will be used for queries that don't explicitly have one, i.e. when
+     * {@link Statement#getPrefetchThreshold()} is negative.
+     *
+     * @param prefetchThreshold the new threshold to set as default. 0 disables prefetching.
+     * @return this {@code QueryOptions} instance.
+     * @throws IllegalArgumentException if {@code prefetchThreshold < 0}.
+     */
+    public QueryOptions setPrefetchThreshold(int prefetchThreshold) {
+        if (prefetchThreshold < 0)
+            throw new IllegalArgumentException("Invalid prefetchThreshold, should be >= 0, got " + prefetchThreshold);
+        this.prefetchThreshold = prefetchThreshold;
+        return this;
+    }
+
+    /**
+     * The default prefetch threshold used by queries.
+     *
+     * @return the default prefetch threshold used by queries.
+     */
+    public int getPrefetchThreshold() {
+        return prefetchThreshold;
+    }
+
+    /**
+     * Sets the maximum number of pages that a result set prefetches ahead of its current page.
+     * <p/>
+     * Note that pages are always requested one after the other (each request needs the paging state of the
+     * previous page), so this does not increase the load on the cluster, only the memory used by result sets.
+     * <p/>
+     * This is only used if prefetching is enabled (see {@link #setPrefetchThreshold(int)}).
+     *
+     * @param maxPrefetchedPages the new value. It must be strictly positive.
+     * @return this {@code QueryOptions} instance.
+     * @throws IllegalArgumentException if {@code maxPrefetchedPages &lte; 0}.
+     */
+    public QueryOptions setMaxPrefetchedPages(int maxPrefetchedPages) {
+        if (maxPrefetchedPages <= 0)
+            throw new IllegalArgumentException("Invalid maxPrefetchedPages, should be > 0, got " + maxPrefetchedPages);
+        this.maxPrefetchedPages = maxPrefetchedPages;
+        return this;
+    }
+
+    /**
+     * The maximum number of pages that a result set prefetches ahead of its current page.
+     *
+     * @return the maximum number of prefetched pages.
+     */
+    public int getMaxPrefetchedPages() {
+        return maxPrefetchedPages;
+    }
+
+    /**
+     * Sets the maximum size of the pages that a result set prefetches ahead of its current page.
+     * <p/>
+     * The size of a page is the sum of the sizes of its serialized values. No new page will be requested in the
+     * background once the prefetched pages reach this size; note that the last page may exceed it.
+     * <p/>
+     * This is only used if prefetching is enabled (see {@link #setPrefetchThreshold(int)}).
+     *
+     * @param maxPrefetchedBytes the new value. It must be strictly positive.
+     * @return this {@code QueryOptions} instance.
+     * @throws IllegalArgumentException if {@code maxPrefetchedBytes &lte; 0}.
+     */
+    public QueryOptions setMaxPrefetchedBytes(long maxPrefetchedBytes) {
+        if (maxPrefetchedBytes <= 0)
+            throw new IllegalArgumentException("Invalid maxPrefetchedBytes, should be > 0, got " + maxPrefetchedBytes);
+        this.maxPrefetchedBytes = maxPrefetchedBytes;
+        return this;
+    }
+
+    /**
+     * The maximum size of the pages that a result set prefetches ahead of its current page.
+     *
+     * @return the maximum size in bytes.
+     */
+    public long getMaxPrefetchedBytes() {
+        return maxPrefetchedBytes;
+    }
+
+    /**
+     * Sets the maximum size of the results that each session caches for the statements that enable it (see
+     * {@link Statement#setResultCacheTtlMillis(long)}).
+     * <p/>
+     * The size of a result is the sum of the sizes of its serialized values. When the cache is full, the least
+     * recently used results are evicted. Note that this is read when a session caches its first result: changing it
+     * afterwards has no effect on that session.
+     *
+     * @param resultCacheMaxBytes the new value. It must be positive; {@code 0} disables result caching.
+     * @return this {@code QueryOptions} instance.
+     * @throws IllegalArgumentException if {@code resultCacheMaxBytes < 0}.
+     */
+    public QueryOptions setResultCacheMaxBytes(long resultCacheMaxBytes) {
+        if (resultCacheMaxBytes < 0)
+            throw new IllegalArgumentException("Invalid resultCacheMaxBytes, should be >= 0, got " + resultCacheMaxBytes);
+        this.resultCacheMaxBytes = resultCacheMaxBytes;
+        return this;
+    }
+
+    /**
+     * The maximum size of the results that each session caches.
+     *
+     * @return the maximum size in bytes.
+     */
+    public long getResultCacheMaxBytes() {
+        return resultCacheMaxBytes;
+    }
+
     /**
      * Sets the default idempotence for queries.
      * <p/>
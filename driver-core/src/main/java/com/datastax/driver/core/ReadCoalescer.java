@@ -0,0 +1,143 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares a single request between identical concurrent executions of a bound statement (see
+ * {@link Statement#setCoalescingEnabled(boolean)}).
+ * <p/>
+ * The first execution sends the request; the executions that arrive while it is in flight only register their
+ * future. When the response arrives, each future gets its own copy of the rows, so that the result sets can be
+ * consumed independently.
+ */
+class ReadCoalescer {
+
+    private final SessionManager session;
+    private final ConcurrentMap<ReadKey, InFlightRead> inFlight = new ConcurrentHashMap<ReadKey, InFlightRead>();
+
+    ReadCoalescer(SessionManager session) {
+        this.session = session;
+    }
+
+    ResultSetFuture execute(Statement statement, Requests.Execute request) {
+        DefaultResultSetFuture future = new DefaultResultSetFuture(session, session.cluster.manager.protocolVersion(), request);
+        ReadKey key = new ReadKey(request);
+        while (true) {
+            InFlightRead read = inFlight.get(key);
+            if (read == null) {
+                read = new InFlightRead(key, request, statement);
+                if (inFlight.putIfAbsent(key, read) != null)
+                    continue;
+                read.addWaiter(future, statement);
+                new RequestHandler(session, read, statement).sendRequest();
+                return future;
+            }
+            if (read.addWaiter(future, statement)) {
+                if (session.configuration().getMetricsOptions().isEnabled())
+                    session.cluster.manager.metrics.getCoalescedRequests().inc();
+                return future;
+            }
+            // The read completed in the meantime (and removed itself from the map), try again
+        }
+    }
+
+    private class InFlightRead implements RequestHandler.Callback {
+        private final ReadKey key;
+        private final Requests.Execute request;
+        private final Statement statement;
+
+        // Guarded by this
+        private final List<DefaultResultSetFuture> waiters = new ArrayList<DefaultResultSetFuture>();
+        private final List<Statement> statements = new ArrayList<Statement>();
+        private boolean done;
+
+        InFlightRead(ReadKey key, Requests.Execute request, Statement statement) {
+            this.key = key;
+            this.request = request;
+            this.statement = statement;
+        }
+
+        synchronized boolean addWaiter(DefaultResultSetFuture waiter, Statement statement) {
+            if (done)
+                return false;
+            waiters.add(waiter);
+            statements.add(statement);
+            return true;
+        }
+
+        // Stops accepting waiters, and returns the current ones
+        private synchronized List<DefaultResultSetFuture> complete() {
+            done = true;
+            inFlight.remove(key, this);
+            return waiters;
+        }
+
+        @Override
+        public Message.Request request() {
+            return request;
+        }
+
+        @Override
+        public void register(RequestHandler handler) {
+            // nothing to do: the request is shared, so it can't be cancelled by a single waiter
+        }
+
+        @Override
+        public void onSet(Connection connection, Message.Response response, ExecutionInfo info, Statement statement, long latency) {
+            List<DefaultResultSetFuture> waiters = complete();
+            // Take all the copies before completing any waiter: the result set consumes the rows of its response, and
+            // a listener running on this thread could do so before the next copy is taken
+            Message.Response[] responses = new Message.Response[waiters.size()];
+            for (int i = 0; i < responses.length; i++) {
+                responses[i] = (i > 0 && response instanceof Responses.Result.Rows)
+                        ? ((Responses.Result.Rows) response).copy()
+                        : response;
+            }
+            for (int i = 0; i < responses.length; i++) {
+                // Each result set pages with its own statement
+                waiters.get(i).onSet(connection, responses[i], info, statements.get(i), latency);
+            }
+        }
+
+        @Override
+        public void onSet(Connection connection, Message.Response response, long latency, int retryCount) {
+            onSet(connection, response, null, statement, latency);
+        }
+
+        @Override
+        public void onException(Connection connection, Exception exception, long latency, int retryCount) {
+            for (DefaultResultSetFuture waiter : complete())
+                waiter.onException(connection, exception, latency, retryCount);
+        }
+
+        @Override
+        public boolean onTimeout(Connection connection, long latency, int retryCount) {
+            for (DefaultResultSetFuture waiter : complete())
+                waiter.onTimeout(connection, latency, retryCount);
+            return true;
+        }
+
+        @Override
+        public int retryCount() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.base.Objects;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Identifies identical reads: everything in the request that can change its result (the timestamp of the request,
+ * for instance, does not matter for a read).
+ * <p/>
+ * This is shared by {@link ReadCoalescer} and {@link ResultCache}. The key takes a snapshot of the values of the
+ * request: those of a {@link BoundStatement} are views that change if the statement is bound again, and keys must not
+ * change while they are in a map.
+ */
+class ReadKey {
+    private final MD5Digest statementId;
+    private final ConsistencyLevel consistency;
+    private final ConsistencyLevel serialConsistency;
+    private final List<ByteBuffer> positionalValues;
+    private final Map<String, ByteBuffer> namedValues;
+    private final int pageSize;
+    private final ByteBuffer pagingState;
+    private final int hashCode;
+
+    ReadKey(Requests.Execute request) {
+        Requests.QueryProtocolOptions options = request.options;
+        this.statementId = request.statementId;
+        this.consistency = options.consistency;
+        this.serialConsistency = options.serialConsistency;
+        this.positionalValues = copy(options.positionalValues);
+        this.namedValues = copy(options.namedValues);
+        this.pageSize = options.pageSize;
+        this.pagingState = options.pagingState;
+        this.hashCode = Objects.hashCode(statementId, consistency, serialConsistency, positionalValues,
+                namedValues, pageSize, pagingState);
+    }
+
+    // Not Guava's immutable collections, values can be null
+    private static List<ByteBuffer> copy(List<ByteBuffer> values) {
+        return values.isEmpty()
+                ? Collections.<ByteBuffer>emptyList()
+                : Collections.unmodifiableList(new ArrayList<ByteBuffer>(values));
+    }
+
+    private static Map<String, ByteBuffer> copy(Map<String, ByteBuffer> values) {
+        return values.isEmpty()
+                ? Collections.<String, ByteBuffer>emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<String, ByteBuffer>(values));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this)
+            return true;
+        if (!(other instanceof ReadKey))
+            return false;
+        ReadKey that = (ReadKey) other;
+        return this.hashCode == that.hashCode
+                && this.pageSize == that.pageSize
+                && this.statementId.equals(that.statementId)
+                && this.consistency == that.consistency
+                && this.serialConsistency == that.serialConsistency
+                && Objects.equal(this.positionalValues, that.positionalValues)
+                && Objects.equal(this.namedValues, that.namedValues)
+                && Objects.equal(this.pagingState, that.pagingState);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
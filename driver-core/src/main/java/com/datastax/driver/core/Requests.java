@@ -370,6 +370,9 @@ class Requests {
 
     static class Batch extends Message.Request {
 
+        // type + nb queries
+        static final int HEADER_SIZE = 3;
+
         static final Message.Coder<Batch> coder = new Message.Coder<Batch>() {
             @Override
             public void encode(Batch msg, ByteBuf dest, ProtocolVersion version) {
@@ -395,15 +398,9 @@ class Requests {
 
             @Override
             public int encodedSize(Batch msg, ProtocolVersion version) {
-                int size = 3; // type + nb queries
-                for (int i = 0; i < msg.queryOrIdList.size(); i++) {
-                    Object q = msg.queryOrIdList.get(i);
-                    size += 1 + (q instanceof String
-                            ? CBUtil.sizeOfLongString((String) q)
-                            : CBUtil.sizeOfBytes(((MD5Digest) q).bytes));
-
-                    size += CBUtil.sizeOfValueList(msg.values.get(i));
-                }
+                int size = HEADER_SIZE;
+                for (int i = 0; i < msg.queryOrIdList.size(); i++)
+                    size += sizeOfQuery(msg.queryOrIdList.get(i), msg.values.get(i));
                 size += msg.options.encodedSize(version);
                 return size;
             }
@@ -422,6 +419,14 @@ class Requests {
             }
         };
 
+        // The encoded size of one statement of a batch: its kind, query string or id, and values
+        static int sizeOfQuery(Object queryOrId, List<ByteBuffer> values) {
+            return 1 + (queryOrId instanceof String
+                    ? CBUtil.sizeOfLongString((String) queryOrId)
+                    : CBUtil.sizeOfBytes(((MD5Digest) queryOrId).bytes))
+                    + CBUtil.sizeOfValueList(values);
+        }
+
         final BatchStatement.Type type;
         final List<Object> queryOrIdList;
         final List<List<ByteBuffer>> values;
@@ -466,6 +466,15 @@ class Responses {
                 this.version = version;
             }
 
+            // A copy of this response whose rows can be consumed independently
+            Rows copy() {
+                Rows copy = new Rows(metadata, new ArrayDeque<List<ByteBuffer>>(data), version);
+                copy.setTracingId(tracingId);
+                copy.setWarnings(warnings);
+                copy.setCustomPayload(getCustomPayload());
+                return copy;
+            }
+
             @Override
             public String toString() {
                 StringBuilder sb = new StringBuilder();
@@ -0,0 +1,247 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Caches the results of bound statements executed with a TTL (see {@link Statement#setResultCacheTtlMillis(long)}).
+ * <p/>
+ * Only results that fit in a single page are cached. The cache is bounded by the total size of the cached rows
+ * ({@link QueryOptions#getResultCacheMaxBytes()}); entries also expire after the TTL of the statement that cached them,
+ * and are invalidated when the schema of their table changes.
+ */
+class ResultCache {
+
+    // Rough per-value overhead (length and buffer object), so that results with many tiny values are weighed fairly
+    private static final int VALUE_OVERHEAD = 16;
+
+    private final SessionManager session;
+    private final Cache<ReadKey, Entry> cache;
+    private final SchemaChangeListener invalidator = new Invalidator();
+
+    ResultCache(SessionManager session, long maxBytes) {
+        this.session = session;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(new Weigher<ReadKey, Entry>() {
+                    @Override
+                    public int weigh(ReadKey key, Entry entry) {
+                        return entry.weight;
+                    }
+                })
+                .removalListener(new RemovalListener<ReadKey, Entry>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<ReadKey, Entry> notification) {
+                        if (notification.wasEvicted())
+                            onEviction();
+                    }
+                })
+                .build();
+        session.cluster.register(invalidator);
+    }
+
+    /**
+     * Returns a completed future if the result of the request is cached, {@code null} otherwise.
+     */
+    ResultSetFuture get(Statement statement, Requests.Execute request) {
+        ReadKey key = new ReadKey(request);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.isExpired()) {
+            if (cache.asMap().remove(key, entry))
+                onEviction();
+            entry = null;
+        }
+        boolean metricsEnabled = session.configuration().getMetricsOptions().isEnabled();
+        if (entry == null) {
+            if (metricsEnabled)
+                session.cluster.manager.metrics.getResultCacheMisses().inc();
+            return null;
+        }
+        if (metricsEnabled)
+            session.cluster.manager.metrics.getResultCacheHits().inc();
+
+        ProtocolVersion protocolVersion = session.cluster.manager.protocolVersion();
+        DefaultResultSetFuture future = new DefaultResultSetFuture(session, protocolVersion, request);
+        future.setResult(ArrayBackedResultSet.fromMessage(entry.rows.copy(), session, protocolVersion, entry.info, statement));
+        return future;
+    }
+
+    /**
+     * Caches the given response, if it is a complete result (no more pages).
+     */
+    void put(Statement statement, Requests.Execute request, Responses.Result.Rows rows, ExecutionInfo info, ColumnDefinitions columns) {
+        if (rows.metadata.pagingState != null)
+            return;
+        long expiry = System.nanoTime() + statement.getResultCacheTtlMillis() * 1000000L;
+        String keyspace = columns.size() == 0 ? null : columns.getKeyspace(0);
+        String table = columns.size() == 0 ? null : columns.getTable(0);
+        cache.put(new ReadKey(request), new Entry(rows.copy(), info, keyspace, table, expiry));
+    }
+
+    void invalidate(String keyspace, String table) {
+        Iterator<Entry> entries = cache.asMap().values().iterator();
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            if (keyspace.equals(entry.keyspace) && (table == null || table.equals(entry.table)))
+                entries.remove();
+        }
+    }
+
+    void close() {
+        if (!session.cluster.isClosed())
+            session.cluster.unregister(invalidator);
+        cache.invalidateAll();
+    }
+
+    private void onEviction() {
+        if (session.configuration().getMetricsOptions().isEnabled())
+            session.cluster.manager.metrics.getResultCacheEvictions().inc();
+    }
+
+    private static class Entry {
+        final Responses.Result.Rows rows;
+        final ExecutionInfo info;
+        final String keyspace;
+        final String table;
+        final long expiryNanos;
+        final int weight;
+
+        Entry(Responses.Result.Rows rows, ExecutionInfo info, String keyspace, String table, long expiryNanos) {
+            this.rows = rows;
+            this.info = info;
+            this.keyspace = keyspace;
+            this.table = table;
+            this.expiryNanos = expiryNanos;
+            this.weight = weigh(rows);
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiryNanos >= 0;
+        }
+
+        private static int weigh(Responses.Result.Rows rows) {
+            long weight = 0;
+            for (List<ByteBuffer> row : rows.data) {
+                for (ByteBuffer value : row)
+                    weight += VALUE_OVERHEAD + (value == null ? 0 : value.remaining());
+            }
+            return (int) Math.min(weight, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Invalidates the entries of the tables (or views) whose schema changes.
+     * <p/>
+     * Changes to a user type invalidate the whole keyspace, since the driver doesn't track which tables use it.
+     */
+    private class Invalidator implements SchemaChangeListener {
+        @Override
+        public void onKeyspaceAdded(KeyspaceMetadata keyspace) {
+        }
+
+        @Override
+        public void onKeyspaceRemoved(KeyspaceMetadata keyspace) {
+            invalidate(keyspace.getName(), null);
+        }
+
+        @Override
+        public void onKeyspaceChanged(KeyspaceMetadata current, KeyspaceMetadata previous) {
+        }
+
+        @Override
+        public void onTableAdded(TableMetadata table) {
+        }
+
+        @Override
+        public void onTableRemoved(TableMetadata table) {
+            invalidate(table.getKeyspace().getName(), table.getName());
+        }
+
+        @Override
+        public void onTableChanged(TableMetadata current, TableMetadata previous) {
+            invalidate(previous.getKeyspace().getName(), previous.getName());
+        }
+
+        @Override
+        public void onUserTypeAdded(UserType type) {
+        }
+
+        @Override
+        public void onUserTypeRemoved(UserType type) {
+            invalidate(type.getKeyspace(), null);
+        }
+
+        @Override
+        public void onUserTypeChanged(UserType current, UserType previous) {
+            invalidate(previous.getKeyspace(), null);
+        }
+
+        @Override
+        public void onFunctionAdded(FunctionMetadata function) {
+        }
+
+        @Override
+        public void onFunctionRemoved(FunctionMetadata function) {
+        }
+
+        @Override
+        public void onFunctionChanged(FunctionMetadata current, FunctionMetadata previous) {
+        }
+
+        @Override
+        public void onAggregateAdded(AggregateMetadata aggregate) {
+        }
+
+        @Override
+        public void onAggregateRemoved(AggregateMetadata aggregate) {
+        }
+
+        @Override
+        public void onAggregateChanged(AggregateMetadata current, AggregateMetadata previous) {
+        }
+
+        @Override
+        public void onMaterializedViewAdded(MaterializedViewMetadata view) {
+        }
+
+        @Override
+        public void onMaterializedViewRemoved(MaterializedViewMetadata view) {
+            invalidate(view.getKeyspace().getName(), view.getName());
+        }
+
+        @Override
+        public void onMaterializedViewChanged(MaterializedViewMetadata current, MaterializedViewMetadata previous) {
+            invalidate(previous.getKeyspace().getName(), previous.getName());
+        }
+
+        @Override
+        public void onRegister(Cluster cluster) {
+        }
+
+        @Override
+        public void onUnregister(Cluster cluster) {
+        }
+    }
+}
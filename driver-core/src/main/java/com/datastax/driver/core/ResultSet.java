@@ -30,7 +30,8 @@ import java.util.List;
  * either globally through {@link QueryOptions#setFetchSize} or per-statement
  * with {@link Statement#setFetchSize}. Though new pages are automatically (and
  * transparently) fetched when needed, it is possible to force the retrieval
- * of the next page early through {@link #fetchMoreResults}. Please note however
+ * of the next page early through {@link #fetchMoreResults}, or have the driver
+ * do it automatically with {@link QueryOptions#setPrefetchThreshold}. Please note however
  * that this ResultSet paging is not available with the version 1 of the native
  * protocol (i.e. with Cassandra 1.2 or if version 1 has been explicitly requested
  * through {@link Cluster.Builder#withProtocolVersion}). If the protocol version 1
@@ -78,6 +79,21 @@ public interface ResultSet extends Iterable<Row> {
      */
     public List<Row> all();
 
+    /**
+     * Returns the remaining rows of the current page, decoded column by column.
+     * <p/>
+     * Only the requested columns are decoded, each into a single {@link ColumnVector}, which avoids the cost of
+     * creating a {@link Row} object per row. This consumes the rows of the current page: the next call to
+     * {@link #one()} or to this method returns rows of the following page. If the current page is exhausted, the next
+     * page is fetched first, which might block like {@link #one()} does.
+     *
+     * @param columns the names of the columns to decode. Like in {@link Row}, they are case insensitive unless
+     *                enclosed in double quotes.
+     * @return the rows, as column vectors. The page is empty if and only if this ResultSet is exhausted.
+     * @throws IllegalArgumentException if one of the columns is not part of this ResultSet's column definitions.
+     */
+    public ColumnarPage nextPageAsColumns(String... columns);
+
     /**
      * Returns an iterator over the rows contained in this ResultSet.
      * <p/>
@@ -0,0 +1,182 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of a {@link TableScanner} scan, that is periodically saved to a {@link ScanCheckpointStore}.
+ * <p/>
+ * The serialized form is a text with a header line that identifies the query, and one line per range:
+ * {@code <start> <end> <state>}, where the state is either {@code todo}, {@code done}, or the paging state
+ * to resume the range from.
+ */
+class ScanCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanCheckpoint.class);
+
+    private static final String QUERY_PREFIX = "query=";
+    private static final String TODO = "todo";
+    private static final String DONE = "done";
+
+    private final String query;
+    private final List<TokenRange> ranges;
+    // The paging state to resume a range from. A range that has no entry has not started yet.
+    private final ConcurrentMap<TokenRange, PagingState> inProgress = new ConcurrentHashMap<TokenRange, PagingState>();
+    private final Set<TokenRange> completed = Collections.newSetFromMap(new ConcurrentHashMap<TokenRange, Boolean>());
+
+    private final ScanCheckpointStore store;
+    private final long interval;
+    private final AtomicLong nextSave;
+
+    ScanCheckpoint(String query, List<TokenRange> ranges, ScanCheckpointStore store, long interval) {
+        this.query = query;
+        this.ranges = ranges;
+        this.store = store;
+        this.interval = interval;
+        this.nextSave = new AtomicLong(System.nanoTime() + interval);
+    }
+
+    /**
+     * Loads the checkpoint from the store, or creates a new one with the given ranges if there is none.
+     *
+     * @throws IllegalStateException if the stored checkpoint is for another query.
+     */
+    static ScanCheckpoint loadOrCreate(String query, List<TokenRange> ranges, ScanCheckpointStore store, long interval, Metadata metadata) {
+        String serialized;
+        try {
+            serialized = store.load();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load scan checkpoint", e);
+        }
+        if (serialized == null)
+            return new ScanCheckpoint(query, ranges, store, interval);
+
+        List<TokenRange> savedRanges = new ArrayList<TokenRange>();
+        Set<TokenRange> savedCompleted = new HashSet<TokenRange>();
+        Map<TokenRange, PagingState> savedInProgress = new HashMap<TokenRange, PagingState>();
+        String savedQuery = null;
+        for (String line : Splitter.on('\n').omitEmptyStrings().trimResults().split(serialized)) {
+            if (line.startsWith(QUERY_PREFIX)) {
+                savedQuery = line.substring(QUERY_PREFIX.length());
+                continue;
+            }
+            List<String> fields = Lists.newArrayList(Splitter.on(' ').split(line));
+            if (fields.size() != 3)
+                throw new IllegalStateException("Invalid scan checkpoint line: " + line);
+            TokenRange range = metadata.newTokenRange(metadata.newToken(fields.get(0)), metadata.newToken(fields.get(1)));
+            savedRanges.add(range);
+            String state = fields.get(2);
+            if (state.equals(DONE))
+                savedCompleted.add(range);
+            else if (!state.equals(TODO))
+                savedInProgress.put(range, PagingState.fromString(state));
+        }
+        if (!query.equals(savedQuery))
+            throw new IllegalStateException(String.format("The scan checkpoint was saved for another query (%s, expected %s)", savedQuery, query));
+
+        ScanCheckpoint checkpoint = new ScanCheckpoint(query, savedRanges, store, interval);
+        checkpoint.completed.addAll(savedCompleted);
+        checkpoint.inProgress.putAll(savedInProgress);
+        logger.debug("Resuming scan from checkpoint: {} ranges, {} completed, {} in progress",
+                savedRanges.size(), savedCompleted.size(), savedInProgress.size());
+        return checkpoint;
+    }
+
+    /**
+     * The ranges of the scan, including completed ones.
+     */
+    List<TokenRange> getRanges() {
+        return ranges;
+    }
+
+    boolean isCompleted(TokenRange range) {
+        return completed.contains(range);
+    }
+
+    /**
+     * The paging state to resume the range from, or {@code null} if it has not started yet.
+     */
+    PagingState getPagingState(TokenRange range) {
+        return inProgress.get(range);
+    }
+
+    /**
+     * Records that a page of a range has been processed, and saves the checkpoint if the interval has elapsed.
+     *
+     * @param nextPagingState the paging state of the next page, or {@code null} if this was the last page.
+     */
+    void onPageProcessed(TokenRange range, PagingState nextPagingState) {
+        if (nextPagingState == null) {
+            completed.add(range);
+            inProgress.remove(range);
+        } else {
+            inProgress.put(range, nextPagingState);
+        }
+        long now = System.nanoTime();
+        long next = nextSave.get();
+        if (now - next >= 0 && nextSave.compareAndSet(next, now + interval))
+            save();
+    }
+
+    /**
+     * Records the end of the scan: clears the checkpoint if all ranges have completed, or saves it otherwise.
+     */
+    synchronized void finish() {
+        if (completed.size() == ranges.size()) {
+            try {
+                store.clear();
+            } catch (IOException e) {
+                logger.warn("Could not clear scan checkpoint", e);
+            }
+        } else {
+            save();
+        }
+    }
+
+    synchronized void save() {
+        try {
+            store.save(serialize());
+        } catch (IOException e) {
+            logger.warn("Could not save scan checkpoint", e);
+        }
+    }
+
+    String serialize() {
+        StringBuilder sb = new StringBuilder(QUERY_PREFIX).append(query).append('\n');
+        for (TokenRange range : ranges) {
+            sb.append(range.getStart()).append(' ').append(range.getEnd()).append(' ');
+            PagingState pagingState = inProgress.get(range);
+            if (completed.contains(range))
+                sb.append(DONE);
+            else if (pagingState != null)
+                sb.append(pagingState);
+            else
+                sb.append(TODO);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
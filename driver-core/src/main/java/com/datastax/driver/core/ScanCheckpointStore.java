@@ -0,0 +1,56 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.io.IOException;
+
+/**
+ * Persists the checkpoints of a {@link TableScanner}, so that an interrupted scan can be resumed.
+ * <p/>
+ * A checkpoint is an opaque string, that records which token ranges were fully processed, and the
+ * {@link PagingState} of the ranges that were in progress. Implementations only need to store and return it;
+ * see {@link FileScanCheckpointStore} for the default implementation.
+ * <p/>
+ * Methods of this interface are called from the threads that process the results of the scan, but never
+ * concurrently.
+ *
+ * @see TableScanner.Builder#withCheckpointing(ScanCheckpointStore, long, java.util.concurrent.TimeUnit)
+ */
+public interface ScanCheckpointStore {
+
+    /**
+     * Returns the last saved checkpoint.
+     *
+     * @return the checkpoint, or {@code null} if there is none.
+     * @throws IOException if the checkpoint can't be read.
+     */
+    String load() throws IOException;
+
+    /**
+     * Saves a checkpoint, replacing the previous one.
+     *
+     * @param checkpoint the checkpoint.
+     * @throws IOException if the checkpoint can't be written.
+     */
+    void save(String checkpoint) throws IOException;
+
+    /**
+     * Deletes the saved checkpoint. This is called when a scan completes successfully.
+     *
+     * @throws IOException if the checkpoint can't be deleted.
+     */
+    void clear() throws IOException;
+}
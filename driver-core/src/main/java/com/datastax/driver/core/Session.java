@@ -16,6 +16,7 @@
 package com.datastax.driver.core;
 
 import com.datastax.driver.core.exceptions.*;
+import com.datastax.driver.core.policies.CircuitBreakerPolicy;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.Closeable;
@@ -463,5 +464,19 @@ public interface Session extends Closeable {
          * queries to {@code host}.
          */
         int getInFlightQueries(Host host);
+
+        /**
+         * The state of the circuit breaker of a given host.
+         * <p/>
+         * Circuit breakers are only maintained if the load balancing policy is a
+         * {@link CircuitBreakerPolicy}, or wraps one (see
+         * {@link com.datastax.driver.core.policies.ChainableLoadBalancingPolicy}).
+         *
+         * @param host the host to get the circuit breaker state for.
+         * @return the state of the circuit breaker of {@code host} (as in 'at the time the state
+         * was grabbed'), or {@code null} if the session is not connected to that host, or if the
+         * load balancing policy does not use a {@link CircuitBreakerPolicy}.
+         */
+        CircuitBreakerPolicy.BreakerState getCircuitBreakerState(Host host);
     }
 }
@@ -20,6 +20,8 @@ import com.datastax.driver.core.exceptions.DriverInternalError;
 import com.datastax.driver.core.exceptions.InvalidQueryException;
 import com.datastax.driver.core.exceptions.UnsupportedFeatureException;
 import com.datastax.driver.core.exceptions.UnsupportedProtocolVersionException;
+import com.datastax.driver.core.policies.ChainableLoadBalancingPolicy;
+import com.datastax.driver.core.policies.CircuitBreakerPolicy;
 import com.datastax.driver.core.policies.LoadBalancingPolicy;
 import com.datastax.driver.core.policies.ReconnectionPolicy;
 import com.datastax.driver.core.policies.SpeculativeExecutionPolicy;
@@ -53,6 +55,8 @@ class SessionManager extends AbstractSession {
     private final AtomicReference<ListenableFuture<Session>> initFuture = new AtomicReference<ListenableFuture<Session>>();
     final AtomicReference<CloseFuture> closeFuture = new AtomicReference<CloseFuture>();
 
+    private final ReadCoalescer readCoalescer = new ReadCoalescer(this);
+    private volatile ResultCache resultCache;
     private volatile boolean isInit;
     private volatile boolean isClosing;
 
@@ -128,7 +132,16 @@ class SessionManager extends AbstractSession {
     @Override
     public ResultSetFuture executeAsync(final Statement statement) {
         if (isInit) {
-            DefaultResultSetFuture future = new DefaultResultSetFuture(this, cluster.manager.protocolVersion(), makeRequestMessage(statement, null));
+            Message.Request request = makeRequestMessage(statement, null);
+            if (statement.getResultCacheTtlMillis() > 0 && request instanceof Requests.Execute) {
+                ResultCache cache = resultCache();
+                ResultSetFuture cached = (cache == null) ? null : cache.get(statement, (Requests.Execute) request);
+                if (cached != null)
+                    return cached;
+            }
+            if (statement.isCoalescingEnabled() && request instanceof Requests.Execute)
+                return readCoalescer.execute(statement, (Requests.Execute) request);
+            DefaultResultSetFuture future = new DefaultResultSetFuture(this, cluster.manager.protocolVersion(), request);
             new RequestHandler(this, future, statement).sendRequest();
             return future;
         } else {
@@ -166,6 +179,10 @@ class SessionManager extends AbstractSession {
         isClosing = true;
         cluster.manager.removeSession(this);
 
+        ResultCache cache = resultCache;
+        if (cache != null)
+            cache.close();
+
         List<CloseFuture> futures = new ArrayList<CloseFuture>(pools.size());
         for (HostConnectionPool pool : pools.values())
             futures.add(pool.closeAsync());
@@ -177,6 +194,25 @@ class SessionManager extends AbstractSession {
                 : closeFuture.get(); // We raced, it's ok, return the future that was actually set
     }
 
+    /**
+     * Returns the result cache of this session, creating it on first use, or {@code null} if result caching is
+     * disabled.
+     */
+    ResultCache resultCache() {
+        ResultCache cache = resultCache;
+        if (cache == null) {
+            long maxBytes = configuration().getQueryOptions().getResultCacheMaxBytes();
+            if (maxBytes == 0 || isClosing)
+                return null;
+            synchronized (this) {
+                cache = resultCache;
+                if (cache == null)
+                    resultCache = cache = new ResultCache(this, maxBytes);
+            }
+        }
+        return cache;
+    }
+
     @Override
     public boolean isClosed() {
         return closeFuture.get() != null;
@@ -571,7 +607,7 @@ class SessionManager extends AbstractSession {
             if (protocolVersion.compareTo(ProtocolVersion.V4) < 0)
                 bs.ensureAllSet();
             boolean skipMetadata = protocolVersion != ProtocolVersion.V1 && bs.statement.getPreparedId().resultSetMetadata != null;
-            Requests.QueryProtocolOptions options = new Requests.QueryProtocolOptions(consistency, Arrays.asList(bs.wrapper.values), Collections.<String, ByteBuffer>emptyMap(), skipMetadata,
+            Requests.QueryProtocolOptions options = new Requests.QueryProtocolOptions(consistency, bs.wrapper.requestValues(), Collections.<String, ByteBuffer>emptyMap(), skipMetadata,
                     fetchSize, usedPagingState, serialConsistency, defaultTimestamp);
             request = new Requests.Execute(bs.statement.getPreparedId().id, options, statement.isTracing());
         } else {
@@ -665,6 +701,8 @@ class SessionManager extends AbstractSession {
         private final int[] openConnections;
         private final int[] trashedConnections;
         private final int[] inFlightQueries;
+        // null if the load balancing policy doesn't use a circuit breaker
+        private final CircuitBreakerPolicy.BreakerState[] breakerStates;
 
         private State(SessionManager session) {
             this.session = session;
@@ -674,6 +712,15 @@ class SessionManager extends AbstractSession {
             this.trashedConnections = new int[connectedHosts.size()];
             this.inFlightQueries = new int[connectedHosts.size()];
 
+            CircuitBreakerPolicy breakerPolicy = findCircuitBreakerPolicy(session.loadBalancingPolicy());
+            if (breakerPolicy == null) {
+                this.breakerStates = null;
+            } else {
+                this.breakerStates = new CircuitBreakerPolicy.BreakerState[connectedHosts.size()];
+                for (int j = 0; j < connectedHosts.size(); j++)
+                    breakerStates[j] = breakerPolicy.getState(connectedHosts.get(j));
+            }
+
             int i = 0;
             for (Host h : connectedHosts) {
                 HostConnectionPool p = session.pools.get(h);
@@ -694,6 +741,17 @@ class SessionManager extends AbstractSession {
             }
         }
 
+        private static CircuitBreakerPolicy findCircuitBreakerPolicy(LoadBalancingPolicy policy) {
+            while (policy != null) {
+                if (policy instanceof CircuitBreakerPolicy)
+                    return (CircuitBreakerPolicy) policy;
+                policy = (policy instanceof ChainableLoadBalancingPolicy)
+                        ? ((ChainableLoadBalancingPolicy) policy).getChildPolicy()
+                        : null;
+            }
+            return null;
+        }
+
         private int getIdx(Host h) {
             // We guarantee that we only ever create one Host object per-address, which means that '=='
             // comparison is a proper way to test Host equality. Given that, the number of hosts
@@ -734,5 +792,13 @@ class SessionManager extends AbstractSession {
             int i = getIdx(host);
             return i < 0 ? 0 : inFlightQueries[i];
         }
+
+        @Override
+        public CircuitBreakerPolicy.BreakerState getCircuitBreakerState(Host host) {
+            if (breakerStates == null)
+                return null;
+            int i = getIdx(host);
+            return i < 0 ? null : breakerStates[i];
+        }
     }
 }
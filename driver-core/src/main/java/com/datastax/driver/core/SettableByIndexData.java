@@ -125,6 +125,21 @@ public interface SettableByIndexData<T extends SettableByIndexData<T>> {
      */
     public T setTimestamp(int i, Date v);
 
+    /**
+     * Set the {@code i}th value to the provided date, as a long in milliseconds since the epoch.
+     * <p/>
+     * This is equivalent to {@code setTimestamp(i, new Date(v))}, but for CQL type {@code timestamp} and the
+     * built-in codec, the value is serialized without allocating a {@code Date}.
+     *
+     * @param i the index of the value to set.
+     * @param v the value to set.
+     * @return this object.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws CodecNotFoundException    if there is no registered codec to convert a {@code Date} to the
+     *                                   underlying CQL type.
+     */
+    public T setTimestampMillis(int i, long v);
+
     /**
      * Set the {@code i}th value to the provided date (without time).
      * <p/>
@@ -140,6 +155,21 @@ public interface SettableByIndexData<T extends SettableByIndexData<T>> {
      */
     public T setDate(int i, LocalDate v);
 
+    /**
+     * Set the {@code i}th value to the provided date (without time), as an int in days since the epoch.
+     * <p/>
+     * This is equivalent to {@code setDate(i, LocalDate.fromDaysSinceEpoch(v))}, but for CQL type {@code date} and
+     * the built-in codec, the value is serialized without allocating a {@link LocalDate}.
+     *
+     * @param i the index of the value to set.
+     * @param v the value to set.
+     * @return this object.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws CodecNotFoundException    if there is no registered codec to convert a {@code LocalDate} to the
+     *                                   underlying CQL type.
+     */
+    public T setDaysSinceEpoch(int i, int v);
+
     /**
      * Set the {@code i}th value to the provided time as a long in nanoseconds since midnight.
      * <p/>
@@ -278,6 +308,22 @@ public interface SettableByIndexData<T extends SettableByIndexData<T>> {
      */
     public T setUUID(int i, UUID v);
 
+    /**
+     * Sets the {@code i}th value to the UUID made of the provided bits.
+     * <p/>
+     * This is equivalent to {@code setUUID(i, new UUID(mostSigBits, leastSigBits))}, but for CQL types {@code uuid}
+     * and {@code timeuuid} and the built-in codecs, the value is serialized without allocating a {@code UUID}.
+     *
+     * @param i            the index of the value to set.
+     * @param mostSigBits  the most significant bits of the UUID.
+     * @param leastSigBits the least significant bits of the UUID.
+     * @return this object.
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws CodecNotFoundException    if there is no registered codec to convert a {@code UUID} to the
+     *                                   underlying CQL type.
+     */
+    public T setUUID(int i, long mostSigBits, long leastSigBits);
+
     /**
      * Sets the {@code i}th value to the provided inet address.
      * <p/>
@@ -137,6 +137,23 @@ public interface SettableByNameData<T extends SettableData<T>> {
      */
     public T setTimestamp(String name, Date v);
 
+    /**
+     * Sets the value for (all occurrences of) variable {@code name} to the
+     * provided date, as a long in milliseconds since the epoch.
+     * <p/>
+     * This is equivalent to {@code setTimestamp(name, new Date(v))}, but for CQL type {@code timestamp} and the
+     * built-in codec, the value is serialized without allocating a {@code Date}.
+     *
+     * @param name the name of the value to set; if {@code name} is present multiple
+     *             times, all its values are set.
+     * @param v    the value to set.
+     * @return this object.
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws CodecNotFoundException   if there is no registered codec to convert a {@code Date} to the
+     *                                  underlying CQL type.
+     */
+    public T setTimestampMillis(String name, long v);
+
     /**
      * Sets the value for (all occurrences of) variable {@code name} to the
      * provided date (without time).
@@ -154,6 +171,23 @@ public interface SettableByNameData<T extends SettableData<T>> {
      */
     public T setDate(String name, LocalDate v);
 
+    /**
+     * Sets the value for (all occurrences of) variable {@code name} to the
+     * provided date (without time), as an int in days since the epoch.
+     * <p/>
+     * This is equivalent to {@code setDate(name, LocalDate.fromDaysSinceEpoch(v))}, but for CQL type {@code date}
+     * and the built-in codec, the value is serialized without allocating a {@link LocalDate}.
+     *
+     * @param name the name of the value to set; if {@code name} is present multiple
+     *             times, all its values are set.
+     * @param v    the value to set.
+     * @return this object.
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws CodecNotFoundException   if there is no registered codec to convert a {@code LocalDate} to the
+     *                                  underlying CQL type.
+     */
+    public T setDaysSinceEpoch(String name, int v);
+
     /**
      * Sets the value for (all occurrences of) variable {@code name} to the
      * provided time as a long in nanoseconds since midnight.
@@ -310,6 +344,25 @@ public interface SettableByNameData<T extends SettableData<T>> {
      */
     public T setUUID(String name, UUID v);
 
+    /**
+     * Sets the value for (all occurrences of) variable {@code name} to the
+     * UUID made of the provided bits.
+     * <p/>
+     * This is equivalent to {@code setUUID(name, new UUID(mostSigBits, leastSigBits))}, but for CQL types
+     * {@code uuid} and {@code timeuuid} and the built-in codecs, the value is serialized without allocating a
+     * {@code UUID}.
+     *
+     * @param name         the name of the value to set; if {@code name} is present multiple
+     *                     times, all its values are set.
+     * @param mostSigBits  the most significant bits of the UUID.
+     * @param leastSigBits the least significant bits of the UUID.
+     * @return this object.
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws CodecNotFoundException   if there is no registered codec to convert a {@code UUID} to the
+     *                                  underlying CQL type.
+     */
+    public T setUUID(String name, long mostSigBits, long leastSigBits);
+
     /**
      * Sets the value for (all occurrences of) variable {@code name} to the
      * provided inet address.
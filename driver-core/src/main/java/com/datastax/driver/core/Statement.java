@@ -64,9 +64,13 @@ public abstract class Statement {
     private volatile int fetchSize;
     private volatile long defaultTimestamp = Long.MIN_VALUE;
     private volatile int readTimeoutMillis = Integer.MIN_VALUE;
+    private volatile int prefetchThreshold = Integer.MIN_VALUE;
+    private volatile Token routingToken;
     private volatile RetryPolicy retryPolicy;
     private volatile ByteBuffer pagingState;
     protected volatile Boolean idempotent;
+    private volatile boolean coalescingEnabled;
+    private volatile long resultCacheTtlMillis;
     private volatile Map<String, ByteBuffer> outgoingPayload;
 
     // We don't want to expose the constructor, because the code relies on this being only sub-classed by RegularStatement, BoundStatement and BatchStatement
@@ -195,6 +199,31 @@ public abstract class Statement {
      */
     public abstract ByteBuffer getRoutingKey(ProtocolVersion protocolVersion, CodecRegistry codecRegistry);
 
+    /**
+     * Sets the routing token to use for token aware routing of this query.
+     * <p/>
+     * This is an alternative to the routing key, for queries that target a token rather than a partition key
+     * (for example, a scan of the token range {@code (start, end]} could use {@code end} as its routing token).
+     * It is only used if {@link #getRoutingKey(ProtocolVersion, CodecRegistry)} returns {@code null}.
+     *
+     * @param routingToken the routing token, or {@code null} to unset it.
+     * @return this {@code Statement} object.
+     */
+    public Statement setRoutingToken(Token routingToken) {
+        this.routingToken = routingToken;
+        return this;
+    }
+
+    /**
+     * Returns the routing token to use for token aware routing of this query.
+     *
+     * @return the routing token for this query, or {@code null} (the default unless {@link #setRoutingToken(Token)}
+     * is used).
+     */
+    public Token getRoutingToken() {
+        return routingToken;
+    }
+
     /**
      * Returns the keyspace this query operates on.
      * <p/>
@@ -283,6 +312,32 @@ public abstract class Statement {
         return fetchSize;
     }
 
+    /**
+     * Sets the prefetch threshold for this query.
+     * <p/>
+     * When iterating the result set of this query, the driver will request the next page in the background
+     * once fewer than this number of rows remain in the current page, instead of waiting until the page is
+     * exhausted. See {@link QueryOptions#setPrefetchThreshold(int)} for more details.
+     *
+     * @param prefetchThreshold the threshold to use. 0 disables prefetching for this query. If negative,
+     *                          the default threshold will be used.
+     * @return this {@code Statement} object.
+     */
+    public Statement setPrefetchThreshold(int prefetchThreshold) {
+        this.prefetchThreshold = prefetchThreshold;
+        return this;
+    }
+
+    /**
+     * The prefetch threshold for this query.
+     *
+     * @return the prefetch threshold for this query. If that value is negative (the default
+     * unless {@link #setPrefetchThreshold} is used), the default threshold will be used.
+     */
+    public int getPrefetchThreshold() {
+        return prefetchThreshold;
+    }
+
     /**
      * Sets the default timestamp for this query (in microseconds since the epoch).
      * <p/>
@@ -510,6 +565,73 @@ public abstract class Statement {
         return idempotent;
     }
 
+    /**
+     * Sets whether concurrent identical executions of this statement can share a single request.
+     * <p/>
+     * When this is enabled and the statement is a {@link BoundStatement}, an execution that is identical to one
+     * already in flight on the same session (same prepared statement, bound values, consistency levels, fetch size
+     * and paging state) does not send a new request: it waits for the response of the first one instead. Each
+     * caller still gets its own {@link ResultSet}. The number of executions that were coalesced that way is
+     * reported by {@link Metrics#getCoalescedRequests()}.
+     * <p/>
+     * Only enable this for reads: a coalesced caller observes the result of a request that might have been sent
+     * slightly before its own call. This is disabled by default, and has no effect on other types of statements.
+     *
+     * @param coalescingEnabled whether to enable coalescing.
+     * @return this {@code Statement} object.
+     */
+    public Statement setCoalescingEnabled(boolean coalescingEnabled) {
+        this.coalescingEnabled = coalescingEnabled;
+        return this;
+    }
+
+    /**
+     * Whether concurrent identical executions of this statement can share a single request.
+     *
+     * @return whether coalescing is enabled for this statement.
+     * @see #setCoalescingEnabled(boolean)
+     */
+    public boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+
+    /**
+     * Sets how long the result of this statement can be served from the session's result cache.
+     * <p/>
+     * When this is strictly positive and the statement is a {@link BoundStatement}, the result of an execution is
+     * cached by the session, and identical executions (same prepared statement, bound values, consistency levels and
+     * fetch size) return it without contacting Cassandra until it expires. This is meant for lookups on tables that
+     * change rarely, such as reference data: a cached result doesn't reflect the writes that happened since it was
+     * fetched.
+     * <p/>
+     * Only results that fit in a single page are cached. Cached results are evicted when the cache exceeds
+     * {@link QueryOptions#getResultCacheMaxBytes()}, and invalidated when the schema of their table changes. The
+     * number of hits, misses and evictions are reported by {@link Metrics#getResultCacheHits()},
+     * {@link Metrics#getResultCacheMisses()} and {@link Metrics#getResultCacheEvictions()}.
+     * <p/>
+     * This is {@code 0} (not cached) by default, and has no effect on other types of statements.
+     *
+     * @param resultCacheTtlMillis how long the result can be cached, in milliseconds, or {@code 0} to not cache it.
+     * @return this {@code Statement} object.
+     * @throws IllegalArgumentException if {@code resultCacheTtlMillis < 0}.
+     */
+    public Statement setResultCacheTtlMillis(long resultCacheTtlMillis) {
+        if (resultCacheTtlMillis < 0)
+            throw new IllegalArgumentException("Invalid resultCacheTtlMillis, should be >= 0, got " + resultCacheTtlMillis);
+        this.resultCacheTtlMillis = resultCacheTtlMillis;
+        return this;
+    }
+
+    /**
+     * How long the result of this statement can be served from the session's result cache.
+     *
+     * @return the TTL in milliseconds, or {@code 0} if the result is not cached.
+     * @see #setResultCacheTtlMillis(long)
+     */
+    public long getResultCacheTtlMillis() {
+        return resultCacheTtlMillis;
+    }
+
     boolean isIdempotentWithDefault(QueryOptions queryOptions) {
         Boolean myValue = this.isIdempotent();
         if (myValue != null)
@@ -116,6 +116,16 @@ public abstract class StatementWrapper extends Statement {
         return wrapped.getRoutingKey(protocolVersion, codecRegistry);
     }
 
+    @Override
+    public Statement setRoutingToken(Token routingToken) {
+        return wrapped.setRoutingToken(routingToken);
+    }
+
+    @Override
+    public Token getRoutingToken() {
+        return wrapped.getRoutingToken();
+    }
+
     @Override
     public String getKeyspace() {
         return wrapped.getKeyspace();
@@ -141,6 +151,16 @@ public abstract class StatementWrapper extends Statement {
         return wrapped.getFetchSize();
     }
 
+    @Override
+    public Statement setPrefetchThreshold(int prefetchThreshold) {
+        return wrapped.setPrefetchThreshold(prefetchThreshold);
+    }
+
+    @Override
+    public int getPrefetchThreshold() {
+        return wrapped.getPrefetchThreshold();
+    }
+
     @Override
     public Statement setDefaultTimestamp(long defaultTimestamp) {
         return wrapped.setDefaultTimestamp(defaultTimestamp);
@@ -191,6 +211,26 @@ public abstract class StatementWrapper extends Statement {
         return wrapped.isIdempotent();
     }
 
+    @Override
+    public Statement setCoalescingEnabled(boolean coalescingEnabled) {
+        return wrapped.setCoalescingEnabled(coalescingEnabled);
+    }
+
+    @Override
+    public boolean isCoalescingEnabled() {
+        return wrapped.isCoalescingEnabled();
+    }
+
+    @Override
+    public Statement setResultCacheTtlMillis(long resultCacheTtlMillis) {
+        return wrapped.setResultCacheTtlMillis(resultCacheTtlMillis);
+    }
+
+    @Override
+    public long getResultCacheTtlMillis() {
+        return wrapped.getResultCacheTtlMillis();
+    }
+
     @Override
     public boolean isIdempotentWithDefault(QueryOptions queryOptions) {
         return wrapped.isIdempotentWithDefault(queryOptions);
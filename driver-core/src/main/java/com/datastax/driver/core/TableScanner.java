@@ -0,0 +1,771 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.exceptions.QueryValidationException;
+import com.google.common.base.Joiner;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Scans a whole table in parallel, by splitting the token ring into sub-ranges and querying each of them
+ * separately.
+ * <p/>
+ * Each sub-range is read with a query of the form
+ * {@code SELECT ... FROM ks.table WHERE token(pk) > ? AND token(pk) <= ?}, routed to a replica of the
+ * range (this requires a {@link com.datastax.driver.core.policies.TokenAwarePolicy}, see
+ * {@link Statement#setRoutingToken(Token)}). The number of ranges that are queried concurrently on each
+ * host is bounded, and a range that fails is retried from its last successful page.
+ * <p/>
+ * Results can be consumed with per-range callbacks:
+ * <pre>
+ * TableScanner scanner = TableScanner.builder(session, tableMetadata)
+ *     .withSplits(1024)
+ *     .withMaxConcurrentRangesPerHost(2)
+ *     .build();
+ * TableScanner.Scan scan = scanner.scan(new TableScanner.RangeHandler() {
+ *     public void onRows(TokenRange range, List&lt;Row&gt; rows) { ... }
+ *     public void onRangeCompleted(TokenRange range) { ... }
+ *     public void onRangeFailed(TokenRange range, Throwable error) { ... }
+ * });
+ * scan.get(); // or register a listener
+ * </pre>
+ * Or with a single iterator:
+ * <pre>
+ * for (Row row : scanner) { ... }
+ * </pre>
+ * <p/>
+ * The token ranges are computed from the driver's metadata when the scan starts, so token metadata must be
+ * enabled (see {@link QueryOptions#setMetadataEnabled(boolean)}).
+ * <p/>
+ * Long scans can be made resumable with {@link Builder#withCheckpointing(ScanCheckpointStore, long, TimeUnit)}:
+ * the scanner then periodically saves which ranges were processed, and where the ranges in progress stopped.
+ * If a scan is interrupted, a new scan with the same store resumes from the last checkpoint instead of
+ * starting over.
+ */
+public class TableScanner implements Iterable<Row> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableScanner.class);
+
+    /**
+     * The default maximum number of ranges queried concurrently on a host: 1.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_RANGES_PER_HOST = 1;
+
+    /**
+     * The default maximum number of times a page of a range is retried before the range is considered failed: 3.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    private final Session session;
+    private final TableMetadata table;
+    private final List<String> columns;
+    private final int splits;
+    private final int maxConcurrentRangesPerHost;
+    private final int maxRetries;
+    private final int fetchSize;
+    private final ConsistencyLevel consistencyLevel;
+    private final Executor executor;
+    private final ScanCheckpointStore checkpointStore;
+    private final long checkpointInterval;
+
+    private volatile PreparedStatement statement;
+
+    private TableScanner(Session session, TableMetadata table, List<String> columns, int splits,
+                         int maxConcurrentRangesPerHost, int maxRetries, int fetchSize,
+                         ConsistencyLevel consistencyLevel, Executor executor,
+                         ScanCheckpointStore checkpointStore, long checkpointInterval) {
+        this.session = session;
+        this.table = table;
+        this.columns = columns;
+        this.splits = splits;
+        this.maxConcurrentRangesPerHost = maxConcurrentRangesPerHost;
+        this.maxRetries = maxRetries;
+        this.fetchSize = fetchSize;
+        this.consistencyLevel = consistencyLevel;
+        this.executor = executor;
+        this.checkpointStore = checkpointStore;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Creates a new builder to scan the given table.
+     *
+     * @param session the session to execute queries with.
+     * @param table   the table to scan.
+     * @return the builder.
+     */
+    public static Builder builder(Session session, TableMetadata table) {
+        return new Builder(session, table);
+    }
+
+    /**
+     * Returns the sub-ranges that this scanner queries, computed from the current token metadata.
+     * <p/>
+     * Each range of the ring is split evenly so that there are at least {@code splits} sub-ranges in total;
+     * sub-ranges that wrap around the ring are unwrapped.
+     *
+     * @return the sub-ranges.
+     * @throws IllegalStateException if token metadata is not available.
+     */
+    public List<TokenRange> getRanges() {
+        Set<TokenRange> ring = session.getCluster().getMetadata().getTokenRanges();
+        if (ring.isEmpty())
+            throw new IllegalStateException("Token metadata is not available, can't split the ring for " + table.getName());
+
+        int splitsPerRange = Math.max(1, (splits + ring.size() - 1) / ring.size());
+        List<TokenRange> ranges = new ArrayList<TokenRange>();
+        for (TokenRange range : ring) {
+            List<TokenRange> subRanges = (splitsPerRange == 1) ? ImmutableList.of(range) : range.splitEvenly(splitsPerRange);
+            for (TokenRange subRange : subRanges) {
+                if (!subRange.isEmpty())
+                    ranges.addAll(subRange.unwrap());
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Starts scanning the table, and notifies the given handler of the results.
+     * <p/>
+     * The handler is invoked on the executor configured with {@link Builder#withExecutor(Executor)}, and may be
+     * invoked concurrently for different ranges; invocations for a given range are sequential. The next page of a
+     * range is only requested after {@link RangeHandler#onRows(TokenRange, List)} has returned.
+     * <p/>
+     * This method prepares the scan query synchronously if needed. If checkpointing is enabled, it also loads the
+     * last checkpoint synchronously, and a page is considered processed once
+     * {@link RangeHandler#onRows(TokenRange, List)} has returned.
+     *
+     * @param handler the handler.
+     * @return the scan, that can be used to track its progress, wait for its completion or cancel it.
+     */
+    public Scan scan(final RangeHandler handler) {
+        checkNotNull(handler);
+        final Scan scan = start(new PageConsumer() {
+            @Override
+            public void onPage(Page page) {
+                handler.onRows(page.range, page.rows);
+                page.acknowledge();
+                page.fetchNext();
+            }
+        }, handler);
+        scan.addListener(new Runnable() {
+            @Override
+            public void run() {
+                scan.finishCheckpoint();
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return scan;
+    }
+
+    /**
+     * Starts scanning the table, and returns an iterator over the rows.
+     * <p/>
+     * Rows are returned in no particular order. The next page of a range is only requested once the iterator
+     * starts consuming the current one, so at most one page per range being queried is held in memory.
+     * If a range fails, the iterator throws the error once all other ranges have been consumed.
+     * If checkpointing is enabled, a page is considered processed once the iterator has moved past its last row.
+     *
+     * @return the iterator.
+     */
+    @Override
+    public RowIterator iterator() {
+        return new RowIterator();
+    }
+
+    private Scan start(PageConsumer consumer, RangeHandler handler) {
+        String query = query();
+        ScanCheckpoint checkpoint = (checkpointStore == null) ? null
+                : ScanCheckpoint.loadOrCreate(query, getRanges(), checkpointStore, checkpointInterval,
+                session.getCluster().getMetadata());
+        List<TokenRange> ranges = (checkpoint == null) ? getRanges() : checkpoint.getRanges();
+        Scan scan = new Scan(prepare(query), ranges, checkpoint, consumer, handler);
+        scan.scheduleNext();
+        return scan;
+    }
+
+    private String query() {
+        String partitionKey = Joiner.on(',').join(quotedNames(table.getPartitionKey()));
+        return String.format("SELECT %s FROM %s.%s WHERE token(%s) > ? AND token(%s) <= ?",
+                columns.isEmpty() ? "*" : Joiner.on(',').join(columns),
+                Metadata.quote(table.getKeyspace().getName()), Metadata.quote(table.getName()),
+                partitionKey, partitionKey);
+    }
+
+    private PreparedStatement prepare(String query) {
+        PreparedStatement current = statement;
+        if (current == null)
+            statement = current = session.prepare(query);
+        return current;
+    }
+
+    private static List<String> quotedNames(List<ColumnMetadata> columns) {
+        List<String> names = new ArrayList<String>(columns.size());
+        for (ColumnMetadata column : columns)
+            names.add(Metadata.quote(column.getName()));
+        return names;
+    }
+
+    /**
+     * Receives the results of a scan.
+     */
+    public interface RangeHandler {
+
+        /**
+         * Invoked for each page of results of a range.
+         *
+         * @param range the range.
+         * @param rows  the rows of the page.
+         */
+        void onRows(TokenRange range, List<Row> rows);
+
+        /**
+         * Invoked when all the rows of a range have been received.
+         *
+         * @param range the range.
+         */
+        void onRangeCompleted(TokenRange range);
+
+        /**
+         * Invoked when a range has failed too many times (or with an error that can't be retried).
+         * Rows that were already received for this range are not invalidated.
+         *
+         * @param range the range.
+         * @param error the last error.
+         */
+        void onRangeFailed(TokenRange range, Throwable error);
+    }
+
+    /**
+     * Receives the pages of a scan. {@link Page#fetchNext()} must be called to request the next page of the range (or
+     * complete it), and {@link Page#acknowledge()} once the rows have been processed.
+     */
+    interface PageConsumer {
+        void onPage(Page page);
+    }
+
+    static class Page {
+        final TokenRange range;
+        final List<Row> rows;
+        private final Runnable next;
+        private final Runnable ack;
+
+        Page(TokenRange range, List<Row> rows, Runnable next, Runnable ack) {
+            this.range = range;
+            this.rows = rows;
+            this.next = next;
+            this.ack = ack;
+        }
+
+        void fetchNext() {
+            next.run();
+        }
+
+        void acknowledge() {
+            ack.run();
+        }
+    }
+
+    /**
+     * A scan in progress.
+     * <p/>
+     * This is a future that completes when all ranges have been processed. If some ranges failed, it fails with
+     * the error of the first failed range. Cancelling it stops requesting new pages.
+     */
+    public class Scan extends AbstractFuture<Void> {
+
+        private final PreparedStatement statement;
+        private final ScanCheckpoint checkpoint;
+        private final PageConsumer consumer;
+        private final RangeHandler handler;
+        private final int totalRanges;
+
+        // The ranges that have not started yet, grouped by the replica they will be sent to. A null key is used
+        // for the ranges for which replicas are unknown.
+        private final Map<Host, Queue<RangeTask>> pending = new LinkedHashMap<Host, Queue<RangeTask>>();
+        private final Map<Host, Integer> inFlight = new HashMap<Host, Integer>();
+        private int remaining;
+
+        private final AtomicInteger completedRanges = new AtomicInteger();
+        private final AtomicInteger failedRanges = new AtomicInteger();
+        private final AtomicLong rows = new AtomicLong();
+        private volatile Throwable firstError;
+
+        private Scan(PreparedStatement statement, List<TokenRange> ranges, ScanCheckpoint checkpoint,
+                     PageConsumer consumer, RangeHandler handler) {
+            this.statement = statement;
+            this.checkpoint = checkpoint;
+            this.consumer = consumer;
+            this.handler = handler;
+            this.totalRanges = ranges.size();
+
+            Metadata metadata = session.getCluster().getMetadata();
+            String keyspace = Metadata.quote(table.getKeyspace().getName());
+            for (TokenRange range : ranges) {
+                if (checkpoint != null && checkpoint.isCompleted(range)) {
+                    completedRanges.incrementAndGet();
+                    continue;
+                }
+                remaining += 1;
+                Set<Host> replicas = metadata.getReplicas(keyspace, range);
+                Host owner = replicas.isEmpty() ? null : replicas.iterator().next();
+                Queue<RangeTask> queue = pending.get(owner);
+                if (queue == null) {
+                    queue = new ArrayDeque<RangeTask>();
+                    pending.put(owner, queue);
+                }
+                queue.add(new RangeTask(range, owner));
+            }
+            if (remaining == 0)
+                set(null);
+        }
+
+        /**
+         * Returns the total number of ranges of this scan.
+         *
+         * @return the number of ranges.
+         */
+        public int getTotalRanges() {
+            return totalRanges;
+        }
+
+        /**
+         * Returns the number of ranges that have been fully read (including, when resuming from a checkpoint, the ranges
+         * that were completed before).
+         *
+         * @return the number of completed ranges.
+         */
+        public int getCompletedRanges() {
+            return completedRanges.get();
+        }
+
+        /**
+         * Returns the number of ranges that have failed.
+         *
+         * @return the number of failed ranges.
+         */
+        public int getFailedRanges() {
+            return failedRanges.get();
+        }
+
+        /**
+         * Returns the number of rows received so far.
+         *
+         * @return the number of rows.
+         */
+        public long getRowCount() {
+            return rows.get();
+        }
+
+        private void finishCheckpoint() {
+            if (checkpoint != null)
+                checkpoint.finish();
+        }
+
+        private void scheduleNext() {
+            List<RangeTask> toStart = new ArrayList<RangeTask>();
+            synchronized (this) {
+                if (isDone())
+                    return;
+                for (Map.Entry<Host, Queue<RangeTask>> entry : pending.entrySet()) {
+                    Queue<RangeTask> queue = entry.getValue();
+                    if (queue.isEmpty())
+                        continue;
+                    Integer current = inFlight.get(entry.getKey());
+                    int running = (current == null) ? 0 : current;
+                    while (running < maxConcurrentRangesPerHost && !queue.isEmpty()) {
+                        toStart.add(queue.poll());
+                        running += 1;
+                    }
+                    inFlight.put(entry.getKey(), running);
+                }
+            }
+            for (RangeTask task : toStart)
+                task.fetch(checkpoint == null ? null : checkpoint.getPagingState(task.range));
+        }
+
+        private void onRangeCompleted(RangeTask task) {
+            completedRanges.incrementAndGet();
+            if (handler != null) {
+                try {
+                    handler.onRangeCompleted(task.range);
+                } catch (RuntimeException e) {
+                    logger.warn("Unexpected error while notifying completion of range " + task.range, e);
+                }
+            }
+            release(task);
+        }
+
+        private void onRangeFailed(RangeTask task, Throwable error) {
+            logger.debug("Range {} of {} failed", task.range, table.getName(), error);
+            failedRanges.incrementAndGet();
+            if (firstError == null)
+                firstError = error;
+            if (handler != null) {
+                try {
+                    handler.onRangeFailed(task.range, error);
+                } catch (RuntimeException e) {
+                    logger.warn("Unexpected error while notifying failure of range " + task.range, e);
+                }
+            }
+            release(task);
+        }
+
+        private void release(RangeTask task) {
+            boolean done;
+            synchronized (this) {
+                inFlight.put(task.owner, inFlight.get(task.owner) - 1);
+                done = (--remaining == 0);
+            }
+            if (done) {
+                Throwable error = firstError;
+                if (error == null)
+                    set(null);
+                else
+                    setException(error);
+            } else {
+                scheduleNext();
+            }
+        }
+
+        private class RangeTask {
+            final TokenRange range;
+            final Host owner;
+            // Only accessed by one thread at a time, since the pages of a range are fetched sequentially
+            int errors;
+
+            RangeTask(TokenRange range, Host owner) {
+                this.range = range;
+                this.owner = owner;
+            }
+
+            void fetch(final PagingState pagingState) {
+                if (isDone())
+                    return;
+
+                ResultSetFuture future;
+                try {
+                    BoundStatement bs = statement.bind()
+                            .setToken(0, range.getStart())
+                            .setToken(1, range.getEnd());
+                    bs.setRoutingToken(range.getEnd());
+                    // We consume each page separately, don't let the result set fetch more in the background
+                    bs.setPrefetchThreshold(0);
+                    if (fetchSize > 0)
+                        bs.setFetchSize(fetchSize);
+                    if (consistencyLevel != null)
+                        bs.setConsistencyLevel(consistencyLevel);
+                    if (pagingState != null)
+                        bs.setPagingState(pagingState);
+                    future = session.executeAsync(bs);
+                } catch (RuntimeException e) {
+                    onRangeFailed(this, e);
+                    return;
+                }
+
+                Futures.addCallback(future, new FutureCallback<ResultSet>() {
+                    @Override
+                    public void onSuccess(ResultSet rs) {
+                        if (isDone())
+                            return;
+                        errors = 0;
+                        int count = rs.getAvailableWithoutFetching();
+                        List<Row> page = new ArrayList<Row>(count);
+                        for (int i = 0; i < count; i++)
+                            page.add(rs.one());
+                        rows.addAndGet(count);
+
+                        final PagingState nextPagingState = rs.isFullyFetched() ? null : rs.getExecutionInfo().getPagingState();
+                        Runnable next = new Runnable() {
+                            @Override
+                            public void run() {
+                                if (nextPagingState == null)
+                                    onRangeCompleted(RangeTask.this);
+                                else
+                                    fetch(nextPagingState);
+                            }
+                        };
+                        Runnable ack = new Runnable() {
+                            @Override
+                            public void run() {
+                                if (checkpoint != null)
+                                    checkpoint.onPageProcessed(range, nextPagingState);
+                            }
+                        };
+                        try {
+                            consumer.onPage(new Page(range, page, next, ack));
+                        } catch (RuntimeException e) {
+                            onRangeFailed(RangeTask.this, e);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        if (isDone())
+                            return;
+                        if (!(t instanceof QueryValidationException) && errors < maxRetries) {
+                            errors += 1;
+                            logger.debug("Error while scanning range {} of {}, retrying ({}/{})",
+                                    range, table.getName(), errors, maxRetries, t);
+                            fetch(pagingState);
+                        } else {
+                            onRangeFailed(RangeTask.this, t);
+                        }
+                    }
+                }, executor);
+            }
+        }
+    }
+
+    /**
+     * An iterator over the rows of a scan.
+     */
+    public class RowIterator extends AbstractIterator<Row> {
+
+        private final Object END = new Object();
+        private final BlockingQueue<Object> pages = new LinkedBlockingQueue<Object>();
+        private final Scan scan;
+        private Iterator<Row> current = Iterators.emptyIterator();
+        private Page currentPage;
+
+        private RowIterator() {
+            scan = start(new PageConsumer() {
+                @Override
+                public void onPage(Page page) {
+                    pages.add(page);
+                }
+            }, null);
+            scan.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    pages.add(END);
+                }
+            }, MoreExecutors.sameThreadExecutor());
+        }
+
+        /**
+         * Returns the underlying scan, that can be used to track its progress or cancel it.
+         *
+         * @return the scan.
+         */
+        public Scan getScan() {
+            return scan;
+        }
+
+        @Override
+        protected Row computeNext() {
+            while (!current.hasNext()) {
+                if (currentPage != null) {
+                    currentPage.acknowledge();
+                    currentPage = null;
+                }
+                Object item = Uninterruptibles.takeUninterruptibly(pages);
+                if (item == END) {
+                    scan.finishCheckpoint();
+                    if (!scan.isCancelled()) {
+                        try {
+                            Uninterruptibles.getUninterruptibly(scan);
+                        } catch (ExecutionException e) {
+                            throw DriverThrowables.propagateCause(e);
+                        }
+                    }
+                    return endOfData();
+                }
+                currentPage = (Page) item;
+                // Request the next page of the range while we consume this one
+                currentPage.fetchNext();
+                current = currentPage.rows.iterator();
+            }
+            return current.next();
+        }
+    }
+
+    /**
+     * Helper class to build {@link TableScanner} instances with a fluent interface.
+     */
+    public static class Builder {
+
+        private final Session session;
+        private final TableMetadata table;
+        private List<String> columns = Collections.emptyList();
+        private int splits = 1;
+        private int maxConcurrentRangesPerHost = DEFAULT_MAX_CONCURRENT_RANGES_PER_HOST;
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+        private int fetchSize;
+        private ConsistencyLevel consistencyLevel;
+        private Executor executor = MoreExecutors.sameThreadExecutor();
+        private ScanCheckpointStore checkpointStore;
+        private long checkpointInterval;
+
+        private Builder(Session session, TableMetadata table) {
+            this.session = checkNotNull(session);
+            this.table = checkNotNull(table);
+        }
+
+        /**
+         * Sets the columns to select.
+         * <p/>
+         * By default, all columns are selected.
+         *
+         * @param columns the columns, as they would appear in a {@code SELECT} clause (they are not quoted).
+         * @return this builder.
+         */
+        public Builder withColumns(String... columns) {
+            this.columns = ImmutableList.copyOf(columns);
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of sub-ranges to split the ring into.
+         * <p/>
+         * Each range of the ring is split evenly so that there are at least that many sub-ranges in total. By default,
+         * ranges are not split (note that with virtual nodes, the ring already has many ranges).
+         *
+         * @param splits the minimum number of sub-ranges.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code splits &lt; 1}.
+         */
+        public Builder withSplits(int splits) {
+            checkArgument(splits >= 1, "splits must be strictly positive");
+            this.splits = splits;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of ranges that are queried concurrently on each host.
+         * <p/>
+         * Each range is accounted to its first replica.
+         * The default is {@link #DEFAULT_MAX_CONCURRENT_RANGES_PER_HOST}.
+         *
+         * @param maxConcurrentRangesPerHost the maximum number of concurrent ranges.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxConcurrentRangesPerHost &lt; 1}.
+         */
+        public Builder withMaxConcurrentRangesPerHost(int maxConcurrentRangesPerHost) {
+            checkArgument(maxConcurrentRangesPerHost >= 1, "maxConcurrentRangesPerHost must be strictly positive");
+            this.maxConcurrentRangesPerHost = maxConcurrentRangesPerHost;
+            return this;
+        }
+
+        /**
+         * Sets how many times a page of a range is retried before the range is considered failed.
+         * <p/>
+         * This is in addition to the retries of the session's {@link com.datastax.driver.core.policies.RetryPolicy}.
+         * Retries resume from the last successful page of the range. Invalid queries are never retried.
+         * The default is {@link #DEFAULT_MAX_RETRIES}.
+         *
+         * @param maxRetries the maximum number of retries.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxRetries &lt; 0}.
+         */
+        public Builder withMaxRetries(int maxRetries) {
+            checkArgument(maxRetries >= 0, "maxRetries must be positive");
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the fetch size of the scan queries.
+         * <p/>
+         * By default, the session's default fetch size is used (see {@link QueryOptions#setFetchSize(int)}).
+         *
+         * @param fetchSize the fetch size.
+         * @return this builder.
+         */
+        public Builder withFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+
+        /**
+         * Sets the consistency level of the scan queries.
+         * <p/>
+         * By default, the session's default consistency level is used.
+         *
+         * @param consistencyLevel the consistency level.
+         * @return this builder.
+         */
+        public Builder withConsistencyLevel(ConsistencyLevel consistencyLevel) {
+            this.consistencyLevel = consistencyLevel;
+            return this;
+        }
+
+        /**
+         * Sets the executor on which results are processed and {@link RangeHandler} callbacks invoked.
+         * <p/>
+         * It defaults to Guava's {@code MoreExecutors.sameThreadExecutor()}, which results in running callbacks
+         * on the network I/O threads; this is fine if they are fast and don't block. Otherwise, provide a
+         * dedicated executor.
+         *
+         * @param executor the executor.
+         * @return this builder.
+         */
+        public Builder withExecutor(Executor executor) {
+            this.executor = checkNotNull(executor);
+            return this;
+        }
+
+        /**
+         * Makes scans resumable, by periodically saving checkpoints to the given store.
+         * <p/>
+         * A checkpoint records the ranges that were fully processed, and the {@link PagingState} of the next page
+         * of the ranges in progress. When a scan starts, it resumes from the checkpoint in the store if there is one
+         * (it fails with an {@link IllegalStateException} if the checkpoint was saved for a different query).
+         * <p/>
+         * Checkpoints are saved at most once per {@code interval}, when a page has been processed, and when the
+         * scan ends. The checkpoint is cleared once all ranges have been processed; if some ranges failed, or the
+         * scan was cancelled, it is kept so that the next scan only processes the remaining ranges. Note that the
+         * pages processed after the last checkpoint are processed again when resuming.
+         *
+         * @param store    the store, for example a {@link FileScanCheckpointStore}.
+         * @param interval the minimum interval between two checkpoints.
+         * @param unit     the unit for {@code interval}.
+         * @return this builder.
+         */
+        public Builder withCheckpointing(ScanCheckpointStore store, long interval, TimeUnit unit) {
+            checkArgument(interval >= 0, "interval must be positive");
+            this.checkpointStore = checkNotNull(store);
+            this.checkpointInterval = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * Builds the scanner.
+         *
+         * @return the scanner.
+         */
+        public TableScanner build() {
+            return new TableScanner(session, table, columns, splits, maxConcurrentRangesPerHost, maxRetries,
+                    fetchSize, consistencyLevel, executor, checkpointStore, checkpointInterval);
+        }
+    }
+}
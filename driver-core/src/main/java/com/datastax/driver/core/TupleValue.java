@@ -15,6 +15,11 @@
  */
 package com.datastax.driver.core;
 
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 /**
  * A value for a Tuple.
  */
@@ -22,6 +27,11 @@ public class TupleValue extends AbstractAddressableByIndexData<TupleValue> {
 
     private final TupleType type;
 
+    // The serialized form of this value, if it was deserialized lazily (see TypeCodec#lazyTuple) and not modified
+    // since. Its fields are only split into the values array when they are first accessed.
+    private ByteBuffer serialized;
+    private boolean split = true;
+
     /**
      * Builds a new value for a tuple.
      *
@@ -36,6 +46,39 @@ public class TupleValue extends AbstractAddressableByIndexData<TupleValue> {
         return type.getComponentTypes().get(i);
     }
 
+    ByteBuffer getSerialized() {
+        return serialized;
+    }
+
+    void setSerialized(ByteBuffer serialized) {
+        this.serialized = serialized;
+        this.split = false;
+    }
+
+    @Override
+    protected ByteBuffer getValue(int i) {
+        if (!split)
+            splitFields();
+        return super.getValue(i);
+    }
+
+    @Override
+    protected TupleValue setValue(int i, ByteBuffer value) {
+        if (!split)
+            splitFields();
+        serialized = null;
+        return super.setValue(i, value);
+    }
+
+    private void splitFields() {
+        try {
+            CodecUtils.readFields(serialized, values);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize a tuple", e);
+        }
+        split = true;
+    }
+
     @Override
     protected String getName(int i) {
         // This is used for error messages
@@ -376,6 +376,96 @@ public abstract class TypeCodec<T> {
         return new TupleCodec(type);
     }
 
+    /**
+     * Return a newly-created codec for the CQL type {@code list} whose element type
+     * is determined by the given element codec, and that deserializes lists lazily.
+     * <p/>
+     * Unlike the codec returned by {@link #list(TypeCodec)}, this codec returns read-only views of
+     * the serialized list, that only deserialize an element when it is first accessed
+     * (operations such as {@link List#size()} don't deserialize anything). When such a view is
+     * serialized again, its original bytes are reused as is. This saves CPU and memory for large
+     * lists that are mostly passed through, or from which only a few elements are read.
+     * <p/>
+     * The returned lists cache the elements that they deserialize, so they are not thread-safe,
+     * even for reads. Note that malformed bytes are only detected when the elements are accessed.
+     * <p/>
+     * To use this codec instead of the default one, {@link CodecRegistry#register(TypeCodec) register}
+     * it in your {@link CodecRegistry}.
+     * This method does not cache returned instances and returns a newly-allocated object
+     * at each invocation.
+     *
+     * @param elementCodec the codec that will handle elements of this list.
+     * @return A newly-created codec for CQL type {@code list}.
+     */
+    public static <T> TypeCodec<List<T>> lazyList(TypeCodec<T> elementCodec) {
+        return new LazyListCodec<T>(elementCodec);
+    }
+
+    /**
+     * Return a newly-created codec for the CQL type {@code set} whose element type
+     * is determined by the given element codec, and that deserializes sets lazily.
+     * <p/>
+     * See {@link #lazyList(TypeCodec)} for the characteristics of the returned sets. Note that the
+     * first call to {@link Set#contains(Object)} deserializes the whole set.
+     * This method does not cache returned instances and returns a newly-allocated object
+     * at each invocation.
+     *
+     * @param elementCodec the codec that will handle elements of this set.
+     * @return A newly-created codec for CQL type {@code set}.
+     */
+    public static <T> TypeCodec<Set<T>> lazySet(TypeCodec<T> elementCodec) {
+        return new LazySetCodec<T>(elementCodec);
+    }
+
+    /**
+     * Return a newly-created codec for the CQL type {@code map} whose key type
+     * and value type are determined by the given codecs, and that deserializes maps lazily.
+     * <p/>
+     * See {@link #lazyList(TypeCodec)} for the characteristics of the returned maps. Note that the
+     * first call to {@link Map#get(Object)} or {@link Map#containsKey(Object)} deserializes the whole
+     * map.
+     * This method does not cache returned instances and returns a newly-allocated object
+     * at each invocation.
+     *
+     * @param keyCodec   the codec that will handle keys of this map.
+     * @param valueCodec the codec that will handle values of this map.
+     * @return A newly-created codec for CQL type {@code map}.
+     */
+    public static <K, V> TypeCodec<Map<K, V>> lazyMap(TypeCodec<K> keyCodec, TypeCodec<V> valueCodec) {
+        return new LazyMapCodec<K, V>(keyCodec, valueCodec);
+    }
+
+    /**
+     * Return a newly-created codec for the given user-defined CQL type, that deserializes values lazily.
+     * <p/>
+     * Unlike the codec returned by {@link #userType(UserType)}, this codec returns {@link UDTValue}
+     * instances that keep the serialized value, and only split it into fields when a field is
+     * first accessed. As long as the value is not modified, serializing it again reuses its original
+     * bytes as is. The returned values are not thread-safe, even for reads.
+     * This method does not cache returned instances and returns a newly-allocated object
+     * at each invocation.
+     *
+     * @param type the user-defined type this codec should handle.
+     * @return A newly-created codec for the given user-defined CQL type.
+     */
+    public static TypeCodec<UDTValue> lazyUserType(UserType type) {
+        return new LazyUDTCodec(type);
+    }
+
+    /**
+     * Return a newly-created codec for the given CQL tuple type, that deserializes values lazily.
+     * <p/>
+     * See {@link #lazyUserType(UserType)} for the characteristics of the returned values.
+     * This method does not cache returned instances and returns a newly-allocated object
+     * at each invocation.
+     *
+     * @param type the tuple type this codec should handle.
+     * @return A newly-created codec for the given CQL tuple type.
+     */
+    public static TypeCodec<TupleValue> lazyTuple(TupleType type) {
+        return new LazyTupleCodec(type);
+    }
+
     /**
      * Return a newly-created codec for the given CQL custom type.
      * <p/>
@@ -618,7 +708,8 @@ public abstract class TypeCodec<T> {
      * inspection of the actual type parameters.</li>
      * <li>Similarly, codecs that only accept a partial subset of all possible values
      * must override this method and manually inspect the object to check if it
-     * complies or not with the codec's limitations.</li>
+     * complies or not with the codec's limitations. Note that registering such a codec
+     * disables the caching of lookups by value in the {@link CodecRegistry}.</li>
      * </ol>
      *
      * @param value The Java type this codec should serialize from and deserialize to; cannot be {@code null}.
@@ -636,6 +727,49 @@ public abstract class TypeCodec<T> {
         return String.format("%s [%s <-> %s]", this.getClass().getSimpleName(), cqlType, javaType);
     }
 
+    /**
+     * An optional interface for codecs that can serialize values directly into an existing buffer.
+     * <p/>
+     * {@link TypeCodec#serialize(Object, ProtocolVersion)} allocates a new buffer for each value, which the driver
+     * then copies into the request frame. Codecs implementing this interface let the driver skip that intermediary
+     * buffer: it first asks for the size of the serialized value, then has the codec write it in place.
+     * The built-in codecs for primitive types, text, UUIDs and blobs implement it, as well as the built-in collection
+     * codecs (when their element codecs implement it).
+     * <p/>
+     * Implementations must write exactly the same bytes as {@link TypeCodec#serialize(Object, ProtocolVersion)}.
+     *
+     * @param <T> The Java type that the codec serializes from.
+     */
+    public interface DirectSerializer<T> {
+
+        /**
+         * Returns the number of bytes that {@link #serializeInto(Object, ByteBuffer, ProtocolVersion)} writes for the
+         * given value.
+         * <p/>
+         * This method also validates the value, and must be called before
+         * {@link #serializeInto(Object, ByteBuffer, ProtocolVersion) serializeInto}.
+         *
+         * @param value           The value to serialize; never {@code null}.
+         * @param protocolVersion the protocol version to use.
+         * @return The size of the serialized value, or -1 if this value can't be serialized directly (for example, a
+         * collection whose element codec doesn't implement this interface); callers then fall back to
+         * {@link TypeCodec#serialize(Object, ProtocolVersion)}.
+         * @throws InvalidTypeException if the value is not valid for this codec.
+         */
+        int serializedSize(T value, ProtocolVersion protocolVersion);
+
+        /**
+         * Writes the serialized form of the given value at the current position of {@code target}, and advances
+         * that position by {@link #serializedSize(Object, ProtocolVersion) serializedSize} bytes.
+         *
+         * @param value           The value to serialize; never {@code null}.
+         * @param target          The buffer to write to; it must use the big-endian byte order (the default), and
+         *                        have enough remaining space.
+         * @param protocolVersion the protocol version to use.
+         */
+        void serializeInto(T value, ByteBuffer target, ProtocolVersion protocolVersion);
+    }
+
     /**
      * A codec that is capable of handling primitive booleans,
      * thus avoiding the overhead of boxing and unboxing such primitives.
@@ -867,7 +1001,7 @@ public abstract class TypeCodec<T> {
      * Note that this codec also handles {@link DataType#text()}, which is merely
      * an alias for {@link DataType#varchar()}.
      */
-    private static class VarcharCodec extends StringCodec {
+    private static class VarcharCodec extends StringCodec implements DirectSerializer<String> {
 
         private static final VarcharCodec instance = new VarcharCodec();
 
@@ -875,12 +1009,59 @@ public abstract class TypeCodec<T> {
             super(DataType.varchar(), Charset.forName("UTF-8"));
         }
 
+        @Override
+        public int serializedSize(String value, ProtocolVersion protocolVersion) {
+            int size = 0;
+            for (int i = 0, length = value.length(); i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    size += 1;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 4;
+                    i += 1;
+                } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    size += 1; // malformed, replaced by '?' like String.getBytes does
+                } else {
+                    size += 3;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public void serializeInto(String value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            for (int i = 0, length = value.length(); i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    target.put((byte) c);
+                } else if (c < 0x800) {
+                    target.put((byte) (0xC0 | (c >> 6)));
+                    target.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(i + 1));
+                    target.put((byte) (0xF0 | (codePoint >> 18)));
+                    target.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    target.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    target.put((byte) (0x80 | (codePoint & 0x3F)));
+                    i += 1;
+                } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    target.put((byte) '?');
+                } else {
+                    target.put((byte) (0xE0 | (c >> 12)));
+                    target.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    target.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
+
     }
 
     /**
      * This codec maps a CQL {@link DataType#ascii()} to a Java {@link String}.
      */
-    private static class AsciiCodec extends StringCodec {
+    private static class AsciiCodec extends StringCodec implements DirectSerializer<String> {
 
         private static final AsciiCodec instance = new AsciiCodec();
 
@@ -898,6 +1079,20 @@ public abstract class TypeCodec<T> {
             return super.serialize(value, protocolVersion);
         }
 
+        @Override
+        public int serializedSize(String value, ProtocolVersion protocolVersion) {
+            if (!ASCII_PATTERN.matcher(value).matches()) {
+                throw new InvalidTypeException(String.format("%s is not a valid ASCII String", value));
+            }
+            return value.length();
+        }
+
+        @Override
+        public void serializeInto(String value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            for (int i = 0, length = value.length(); i < length; i++)
+                target.put((byte) value.charAt(i));
+        }
+
         @Override
         public String format(String value) {
             if (value != null && !ASCII_PATTERN.matcher(value).matches()) {
@@ -911,7 +1106,7 @@ public abstract class TypeCodec<T> {
      * Base class for codecs handling CQL 8-byte integer types such as {@link DataType#bigint()},
      * {@link DataType#counter()} or {@link DataType#time()}.
      */
-    private abstract static class LongCodec extends PrimitiveLongCodec {
+    private abstract static class LongCodec extends PrimitiveLongCodec implements DirectSerializer<Long> {
 
         private LongCodec(DataType cqlType) {
             super(cqlType);
@@ -940,6 +1135,16 @@ public abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Long value, ProtocolVersion protocolVersion) {
+            return 8;
+        }
+
+        @Override
+        public void serializeInto(Long value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putLong(value);
+        }
+
         @Override
         public long deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -980,7 +1185,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#blob()} to a Java {@link ByteBuffer}.
      */
-    private static class BlobCodec extends TypeCodec<ByteBuffer> {
+    private static class BlobCodec extends TypeCodec<ByteBuffer> implements DirectSerializer<ByteBuffer> {
 
         private static final BlobCodec instance = new BlobCodec();
 
@@ -1005,6 +1210,16 @@ public abstract class TypeCodec<T> {
             return value == null ? null : value.duplicate();
         }
 
+        @Override
+        public int serializedSize(ByteBuffer value, ProtocolVersion protocolVersion) {
+            return value.remaining();
+        }
+
+        @Override
+        public void serializeInto(ByteBuffer value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.put(value.duplicate());
+        }
+
         @Override
         public ByteBuffer deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             return bytes == null ? null : bytes.duplicate();
@@ -1049,7 +1264,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#cboolean()} to a Java {@link Boolean}.
      */
-    private static class BooleanCodec extends PrimitiveBooleanCodec {
+    private static class BooleanCodec extends PrimitiveBooleanCodec implements DirectSerializer<Boolean> {
 
         private static final ByteBuffer TRUE = ByteBuffer.wrap(new byte[]{1});
         private static final ByteBuffer FALSE = ByteBuffer.wrap(new byte[]{0});
@@ -1084,6 +1299,16 @@ public abstract class TypeCodec<T> {
             return value ? TRUE.duplicate() : FALSE.duplicate();
         }
 
+        @Override
+        public int serializedSize(Boolean value, ProtocolVersion protocolVersion) {
+            return 1;
+        }
+
+        @Override
+        public void serializeInto(Boolean value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.put(value ? (byte) 1 : (byte) 0);
+        }
+
         @Override
         public boolean deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1157,7 +1382,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#cdouble()} to a Java {@link Double}.
      */
-    private static class DoubleCodec extends PrimitiveDoubleCodec {
+    private static class DoubleCodec extends PrimitiveDoubleCodec implements DirectSerializer<Double> {
 
         private static final DoubleCodec instance = new DoubleCodec();
 
@@ -1188,6 +1413,16 @@ public abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Double value, ProtocolVersion protocolVersion) {
+            return 8;
+        }
+
+        @Override
+        public void serializeInto(Double value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putDouble(value);
+        }
+
         @Override
         public double deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1202,7 +1437,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#cfloat()} to a Java {@link Float}.
      */
-    private static class FloatCodec extends PrimitiveFloatCodec {
+    private static class FloatCodec extends PrimitiveFloatCodec implements DirectSerializer<Float> {
 
         private static final FloatCodec instance = new FloatCodec();
 
@@ -1233,6 +1468,16 @@ public abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Float value, ProtocolVersion protocolVersion) {
+            return 4;
+        }
+
+        @Override
+        public void serializeInto(Float value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putFloat(value);
+        }
+
         @Override
         public float deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1297,7 +1542,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#tinyint()} to a Java {@link Byte}.
      */
-    private static class TinyIntCodec extends PrimitiveByteCodec {
+    private static class TinyIntCodec extends PrimitiveByteCodec implements DirectSerializer<Byte> {
 
         private static final TinyIntCodec instance = new TinyIntCodec();
 
@@ -1328,6 +1573,16 @@ public abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Byte value, ProtocolVersion protocolVersion) {
+            return 1;
+        }
+
+        @Override
+        public void serializeInto(Byte value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.put(value);
+        }
+
         @Override
         public byte deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1342,7 +1597,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#smallint()} to a Java {@link Short}.
      */
-    private static class SmallIntCodec extends PrimitiveShortCodec {
+    private static class SmallIntCodec extends PrimitiveShortCodec implements DirectSerializer<Short> {
 
         private static final SmallIntCodec instance = new SmallIntCodec();
 
@@ -1373,6 +1628,16 @@ public abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Short value, ProtocolVersion protocolVersion) {
+            return 2;
+        }
+
+        @Override
+        public void serializeInto(Short value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putShort(value);
+        }
+
         @Override
         public short deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1387,7 +1652,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#cint()} to a Java {@link Integer}.
      */
-    private static class IntCodec extends PrimitiveIntCodec {
+    private static class IntCodec extends PrimitiveIntCodec implements DirectSerializer<Integer> {
 
         private static final IntCodec instance = new IntCodec();
 
@@ -1418,6 +1683,16 @@ public abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Integer value, ProtocolVersion protocolVersion) {
+            return 4;
+        }
+
+        @Override
+        public void serializeInto(Integer value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putInt(value);
+        }
+
         @Override
         public int deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1432,7 +1707,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#timestamp()} to a Java {@link Date}.
      */
-    private static class TimestampCodec extends TypeCodec<Date> {
+    private static class TimestampCodec extends TypeCodec<Date> implements DirectSerializer<Date> {
 
         private static final TimestampCodec instance = new TimestampCodec();
 
@@ -1475,6 +1750,16 @@ public abstract class TypeCodec<T> {
             return value == null ? null : BigintCodec.instance.serializeNoBoxing(value.getTime(), protocolVersion);
         }
 
+        @Override
+        public int serializedSize(Date value, ProtocolVersion protocolVersion) {
+            return 8;
+        }
+
+        @Override
+        public void serializeInto(Date value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putLong(value.getTime());
+        }
+
         @Override
         public Date deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             return bytes == null || bytes.remaining() == 0 ? null : new Date(BigintCodec.instance.deserializeNoBoxing(bytes, protocolVersion));
@@ -1484,7 +1769,7 @@ public abstract class TypeCodec<T> {
     /**
      * This codec maps a CQL {@link DataType#date()} to the custom {@link LocalDate} class.
      */
-    private static class DateCodec extends TypeCodec<LocalDate> {
+    private static class DateCodec extends TypeCodec<LocalDate> implements DirectSerializer<LocalDate> {
 
         private static final DateCodec instance = new DateCodec();
 
@@ -1542,6 +1827,16 @@ public abstract class TypeCodec<T> {
             return IntCodec.instance.serializeNoBoxing(unsigned, protocolVersion);
         }
 
+        @Override
+        public int serializedSize(LocalDate value, ProtocolVersion protocolVersion) {
+            return 4;
+        }
+
+        @Override
+        public void serializeInto(LocalDate value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putInt(CodecUtils.fromSignedToUnsignedInt(value.getDaysSinceEpoch()));
+        }
+
         @Override
         public LocalDate deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1601,7 +1896,7 @@ public abstract class TypeCodec<T> {
     /**
      * Base class for codecs handling CQL UUID types such as {@link DataType#uuid()} and {@link DataType#timeuuid()}.
      */
-    private static abstract class AbstractUUIDCodec extends TypeCodec<UUID> {
+    private static abstract class AbstractUUIDCodec extends TypeCodec<UUID> implements DirectSerializer<UUID> {
 
         private AbstractUUIDCodec(DataType cqlType) {
             super(cqlType, UUID.class);
@@ -1633,6 +1928,17 @@ public abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(UUID value, ProtocolVersion protocolVersion) {
+            return 16;
+        }
+
+        @Override
+        public void serializeInto(UUID value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            target.putLong(value.getMostSignificantBits());
+            target.putLong(value.getLeastSignificantBits());
+        }
+
         @Override
         public UUID deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             return bytes == null || bytes.remaining() == 0 ? null : new UUID(bytes.getLong(bytes.position()), bytes.getLong(bytes.position() + 8));
@@ -1680,6 +1986,13 @@ public abstract class TypeCodec<T> {
                 throw new InvalidTypeException(String.format("%s is not a Type 1 (time-based) UUID", value));
             return super.serialize(value, protocolVersion);
         }
+
+        @Override
+        public int serializedSize(UUID value, ProtocolVersion protocolVersion) {
+            if (value.version() != 1)
+                throw new InvalidTypeException(String.format("%s is not a Type 1 (time-based) UUID", value));
+            return super.serializedSize(value, protocolVersion);
+        }
     }
 
     /**
@@ -1738,6 +2051,16 @@ public abstract class TypeCodec<T> {
         public ByteBuffer serialize(C value, ProtocolVersion protocolVersion) {
             if (value == null)
                 return null;
+            if (this instanceof DirectSerializer) {
+                // serialize the elements directly into the result, without intermediary buffers
+                int size = serializedSizeOf(value, protocolVersion);
+                if (size >= 0) {
+                    ByteBuffer bb = ByteBuffer.allocate(size);
+                    serializeElements(value, bb, protocolVersion);
+                    bb.flip();
+                    return bb;
+                }
+            }
             int i = 0;
             ByteBuffer[] bbs = new ByteBuffer[value.size()];
             for (E elt : value) {
@@ -1757,6 +2080,43 @@ public abstract class TypeCodec<T> {
             return CodecUtils.pack(bbs, value.size(), protocolVersion);
         }
 
+        // Implementation of DirectSerializer for the built-in codecs
+
+        int serializedSizeOf(C value, ProtocolVersion protocolVersion) {
+            if (!(eltCodec instanceof DirectSerializer))
+                return -1;
+            @SuppressWarnings("unchecked")
+            DirectSerializer<E> eltSerializer = (DirectSerializer<E>) eltCodec;
+            int size = CodecUtils.sizeOfCollectionSize(protocolVersion);
+            for (E elt : value) {
+                if (elt == null) {
+                    throw new NullPointerException("Collection elements cannot be null");
+                }
+                int eltSize;
+                try {
+                    eltSize = eltSerializer.serializedSize(elt, protocolVersion);
+                } catch (ClassCastException e) {
+                    throw new InvalidTypeException(
+                            String.format("Invalid type for %s element, expecting %s but got %s",
+                                    cqlType, eltCodec.getJavaType(), elt.getClass()), e);
+                }
+                if (eltSize < 0)
+                    return -1;
+                size += CodecUtils.sizeOfValue(eltSize, protocolVersion);
+            }
+            return size;
+        }
+
+        void serializeElements(C value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            @SuppressWarnings("unchecked")
+            DirectSerializer<E> eltSerializer = (DirectSerializer<E>) eltCodec;
+            CodecUtils.writeSize(target, value.size(), protocolVersion);
+            for (E elt : value) {
+                CodecUtils.writeSize(target, eltSerializer.serializedSize(elt, protocolVersion), protocolVersion);
+                eltSerializer.serializeInto(elt, target, protocolVersion);
+            }
+        }
+
         @Override
         public C deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -1873,12 +2233,22 @@ public abstract class TypeCodec<T> {
      * This codec maps a CQL {@link DataType#list(DataType) list type} to a Java {@link List}.
      * Implementation note: this codec returns mutable, non thread-safe {@link ArrayList} instances.
      */
-    private static class ListCodec<T> extends AbstractCollectionCodec<T, List<T>> {
+    private static class ListCodec<T> extends AbstractCollectionCodec<T, List<T>> implements DirectSerializer<List<T>> {
 
         private ListCodec(TypeCodec<T> eltCodec) {
             super(DataType.list(eltCodec.getCqlType()), TypeTokens.listOf(eltCodec.getJavaType()), eltCodec);
         }
 
+        @Override
+        public int serializedSize(List<T> value, ProtocolVersion protocolVersion) {
+            return serializedSizeOf(value, protocolVersion);
+        }
+
+        @Override
+        public void serializeInto(List<T> value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            serializeElements(value, target, protocolVersion);
+        }
+
         @Override
         protected List<T> newInstance(int size) {
             return new ArrayList<T>(size);
@@ -1890,12 +2260,22 @@ public abstract class TypeCodec<T> {
      * This codec maps a CQL {@link DataType#set(DataType) set type} to a Java {@link Set}.
      * Implementation note: this codec returns mutable, non thread-safe {@link LinkedHashSet} instances.
      */
-    private static class SetCodec<T> extends AbstractCollectionCodec<T, Set<T>> {
+    private static class SetCodec<T> extends AbstractCollectionCodec<T, Set<T>> implements DirectSerializer<Set<T>> {
 
         private SetCodec(TypeCodec<T> eltCodec) {
             super(DataType.set(eltCodec.cqlType), TypeTokens.setOf(eltCodec.getJavaType()), eltCodec);
         }
 
+        @Override
+        public int serializedSize(Set<T> value, ProtocolVersion protocolVersion) {
+            return serializedSizeOf(value, protocolVersion);
+        }
+
+        @Override
+        public void serializeInto(Set<T> value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            serializeElements(value, target, protocolVersion);
+        }
+
         @Override
         protected Set<T> newInstance(int size) {
             return new LinkedHashSet<T>(size);
@@ -1903,6 +2283,102 @@ public abstract class TypeCodec<T> {
 
     }
 
+    /**
+     * This codec maps a CQL {@link DataType#list(DataType) list type} to a read-only Java {@link List}
+     * that deserializes its elements on access.
+     */
+    private static class LazyListCodec<T> extends ListCodec<T> {
+
+        private LazyListCodec(TypeCodec<T> eltCodec) {
+            super(eltCodec);
+        }
+
+        @Override
+        public ByteBuffer serialize(List<T> value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            return bytes == null ? super.serialize(value, protocolVersion) : bytes.duplicate();
+        }
+
+        @Override
+        public int serializedSize(List<T> value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            return bytes == null ? super.serializedSize(value, protocolVersion) : bytes.remaining();
+        }
+
+        @Override
+        public void serializeInto(List<T> value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            if (bytes == null)
+                super.serializeInto(value, target, protocolVersion);
+            else
+                target.put(bytes.duplicate());
+        }
+
+        private ByteBuffer serializedView(List<T> value, ProtocolVersion protocolVersion) {
+            if (!(value instanceof LazyCollections.LazyList))
+                return null;
+            LazyCollections.LazyList<?> view = (LazyCollections.LazyList<?>) value;
+            return view.elements.protocolVersion == protocolVersion && view.eltCodec.cqlType.equals(eltCodec.cqlType)
+                    ? view.elements.bytes
+                    : null;
+        }
+
+        @Override
+        public List<T> deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            if (bytes == null || bytes.remaining() == 0)
+                return newInstance(0);
+            return new LazyCollections.LazyList<T>(new LazyCollections.Elements(bytes.duplicate(), 1, protocolVersion), eltCodec);
+        }
+    }
+
+    /**
+     * This codec maps a CQL {@link DataType#set(DataType) set type} to a read-only Java {@link Set}
+     * that deserializes its elements on access.
+     */
+    private static class LazySetCodec<T> extends SetCodec<T> {
+
+        private LazySetCodec(TypeCodec<T> eltCodec) {
+            super(eltCodec);
+        }
+
+        @Override
+        public ByteBuffer serialize(Set<T> value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            return bytes == null ? super.serialize(value, protocolVersion) : bytes.duplicate();
+        }
+
+        @Override
+        public int serializedSize(Set<T> value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            return bytes == null ? super.serializedSize(value, protocolVersion) : bytes.remaining();
+        }
+
+        @Override
+        public void serializeInto(Set<T> value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            if (bytes == null)
+                super.serializeInto(value, target, protocolVersion);
+            else
+                target.put(bytes.duplicate());
+        }
+
+        private ByteBuffer serializedView(Set<T> value, ProtocolVersion protocolVersion) {
+            if (!(value instanceof LazyCollections.LazySet))
+                return null;
+            LazyCollections.LazySet<?> view = (LazyCollections.LazySet<?>) value;
+            return view.elements.protocolVersion == protocolVersion && view.eltCodec.cqlType.equals(eltCodec.cqlType)
+                    ? view.elements.bytes
+                    : null;
+        }
+
+        @Override
+        public Set<T> deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            if (bytes == null || bytes.remaining() == 0)
+                return newInstance(0);
+            return new LazyCollections.LazySet<T>(new LazyCollections.Elements(bytes.duplicate(), 1, protocolVersion), eltCodec);
+        }
+    }
+
     /**
      * Base class for codecs mapping CQL {@link DataType#map(DataType, DataType) maps} to a Java {@link Map}.
      */
@@ -2007,6 +2483,16 @@ public abstract class TypeCodec<T> {
         public ByteBuffer serialize(Map<K, V> value, ProtocolVersion protocolVersion) {
             if (value == null)
                 return null;
+            if (this instanceof DirectSerializer) {
+                // serialize the entries directly into the result, without intermediary buffers
+                int size = serializedSizeOf(value, protocolVersion);
+                if (size >= 0) {
+                    ByteBuffer bb = ByteBuffer.allocate(size);
+                    serializeEntries(value, bb, protocolVersion);
+                    bb.flip();
+                    return bb;
+                }
+            }
             int i = 0;
             ByteBuffer[] bbs = new ByteBuffer[2 * value.size()];
             for (Map.Entry<K, V> entry : value.entrySet()) {
@@ -2036,6 +2522,57 @@ public abstract class TypeCodec<T> {
             return CodecUtils.pack(bbs, value.size(), protocolVersion);
         }
 
+        // Implementation of DirectSerializer for the built-in codecs
+
+        int serializedSizeOf(Map<K, V> value, ProtocolVersion protocolVersion) {
+            if (!(keyCodec instanceof DirectSerializer) || !(valueCodec instanceof DirectSerializer))
+                return -1;
+            @SuppressWarnings("unchecked")
+            DirectSerializer<K> keySerializer = (DirectSerializer<K>) keyCodec;
+            @SuppressWarnings("unchecked")
+            DirectSerializer<V> valueSerializer = (DirectSerializer<V>) valueCodec;
+            int size = CodecUtils.sizeOfCollectionSize(protocolVersion);
+            for (Map.Entry<K, V> entry : value.entrySet()) {
+                K key = entry.getKey();
+                if (key == null) {
+                    throw new NullPointerException("Map keys cannot be null");
+                }
+                V v = entry.getValue();
+                if (v == null) {
+                    throw new NullPointerException("Map values cannot be null");
+                }
+                int keySize, valueSize;
+                try {
+                    keySize = keySerializer.serializedSize(key, protocolVersion);
+                } catch (ClassCastException e) {
+                    throw new InvalidTypeException(String.format("Invalid type for map key, expecting %s but got %s", keyCodec.getJavaType(), key.getClass()), e);
+                }
+                try {
+                    valueSize = valueSerializer.serializedSize(v, protocolVersion);
+                } catch (ClassCastException e) {
+                    throw new InvalidTypeException(String.format("Invalid type for map value, expecting %s but got %s", valueCodec.getJavaType(), v.getClass()), e);
+                }
+                if (keySize < 0 || valueSize < 0)
+                    return -1;
+                size += CodecUtils.sizeOfValue(keySize, protocolVersion) + CodecUtils.sizeOfValue(valueSize, protocolVersion);
+            }
+            return size;
+        }
+
+        void serializeEntries(Map<K, V> value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            @SuppressWarnings("unchecked")
+            DirectSerializer<K> keySerializer = (DirectSerializer<K>) keyCodec;
+            @SuppressWarnings("unchecked")
+            DirectSerializer<V> valueSerializer = (DirectSerializer<V>) valueCodec;
+            CodecUtils.writeSize(target, value.size(), protocolVersion);
+            for (Map.Entry<K, V> entry : value.entrySet()) {
+                CodecUtils.writeSize(target, keySerializer.serializedSize(entry.getKey(), protocolVersion), protocolVersion);
+                keySerializer.serializeInto(entry.getKey(), target, protocolVersion);
+                CodecUtils.writeSize(target, valueSerializer.serializedSize(entry.getValue(), protocolVersion), protocolVersion);
+                valueSerializer.serializeInto(entry.getValue(), target, protocolVersion);
+            }
+        }
+
         @Override
         public Map<K, V> deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
             if (bytes == null || bytes.remaining() == 0)
@@ -2069,12 +2606,22 @@ public abstract class TypeCodec<T> {
      * This codec maps a CQL {@link DataType#map(DataType, DataType) map type} to a Java {@link Map}.
      * Implementation note: this codec returns mutable, non thread-safe {@link LinkedHashMap} instances.
      */
-    private static class MapCodec<K, V> extends AbstractMapCodec<K, V> {
+    private static class MapCodec<K, V> extends AbstractMapCodec<K, V> implements DirectSerializer<Map<K, V>> {
 
         private MapCodec(TypeCodec<K> keyCodec, TypeCodec<V> valueCodec) {
             super(keyCodec, valueCodec);
         }
 
+        @Override
+        public int serializedSize(Map<K, V> value, ProtocolVersion protocolVersion) {
+            return serializedSizeOf(value, protocolVersion);
+        }
+
+        @Override
+        public void serializeInto(Map<K, V> value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            serializeEntries(value, target, protocolVersion);
+        }
+
         @Override
         protected Map<K, V> newInstance(int size) {
             return new LinkedHashMap<K, V>(size);
@@ -2082,6 +2629,56 @@ public abstract class TypeCodec<T> {
 
     }
 
+    /**
+     * This codec maps a CQL {@link DataType#map(DataType, DataType) map type} to a read-only Java {@link Map}
+     * that deserializes its entries on access.
+     */
+    private static class LazyMapCodec<K, V> extends MapCodec<K, V> {
+
+        private LazyMapCodec(TypeCodec<K> keyCodec, TypeCodec<V> valueCodec) {
+            super(keyCodec, valueCodec);
+        }
+
+        @Override
+        public ByteBuffer serialize(Map<K, V> value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            return bytes == null ? super.serialize(value, protocolVersion) : bytes.duplicate();
+        }
+
+        @Override
+        public int serializedSize(Map<K, V> value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            return bytes == null ? super.serializedSize(value, protocolVersion) : bytes.remaining();
+        }
+
+        @Override
+        public void serializeInto(Map<K, V> value, ByteBuffer target, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = serializedView(value, protocolVersion);
+            if (bytes == null)
+                super.serializeInto(value, target, protocolVersion);
+            else
+                target.put(bytes.duplicate());
+        }
+
+        private ByteBuffer serializedView(Map<K, V> value, ProtocolVersion protocolVersion) {
+            if (!(value instanceof LazyCollections.LazyMap))
+                return null;
+            LazyCollections.LazyMap<?, ?> view = (LazyCollections.LazyMap<?, ?>) value;
+            return view.elements.protocolVersion == protocolVersion
+                    && view.keyCodec.cqlType.equals(keyCodec.cqlType)
+                    && view.valueCodec.cqlType.equals(valueCodec.cqlType)
+                    ? view.elements.bytes
+                    : null;
+        }
+
+        @Override
+        public Map<K, V> deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            if (bytes == null || bytes.remaining() == 0)
+                return newInstance(0);
+            return new LazyCollections.LazyMap<K, V>(new LazyCollections.Elements(bytes.duplicate(), 2, protocolVersion), keyCodec, valueCodec);
+        }
+    }
+
     /**
      * Base class for codecs mapping CQL {@link UserType user-defined types} (UDTs) to Java objects.
      * It can serve as a base class for codecs dealing with direct UDT-to-Pojo mappings.
@@ -2329,6 +2926,33 @@ public abstract class TypeCodec<T> {
         }
     }
 
+    /**
+     * This codec maps a CQL {@link UserType} to a {@link UDTValue} that is only split into fields on access.
+     */
+    private static class LazyUDTCodec extends UDTCodec {
+
+        private LazyUDTCodec(UserType definition) {
+            super(definition);
+        }
+
+        @Override
+        public ByteBuffer serialize(UDTValue value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = value == null ? null : value.getSerialized();
+            if (bytes != null && value.getType().equals(definition))
+                return bytes.duplicate();
+            return super.serialize(value, protocolVersion);
+        }
+
+        @Override
+        public UDTValue deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            if (bytes == null)
+                return null;
+            UDTValue value = newInstance();
+            value.setSerialized(bytes.duplicate());
+            return value;
+        }
+    }
+
     /**
      * Base class for codecs mapping CQL {@link TupleType tuples} to Java objects.
      * It can serve as a base class for codecs dealing with
@@ -2563,4 +3187,32 @@ public abstract class TypeCodec<T> {
 
     }
 
+    /**
+     * This codec maps a CQL {@link TupleType tuple} to a {@link TupleValue} that is only split into
+     * components on access.
+     */
+    private static class LazyTupleCodec extends TupleCodec {
+
+        private LazyTupleCodec(TupleType definition) {
+            super(definition);
+        }
+
+        @Override
+        public ByteBuffer serialize(TupleValue value, ProtocolVersion protocolVersion) {
+            ByteBuffer bytes = value == null ? null : value.getSerialized();
+            if (bytes != null && value.getType().equals(definition))
+                return bytes.duplicate();
+            return super.serialize(value, protocolVersion);
+        }
+
+        @Override
+        public TupleValue deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            if (bytes == null)
+                return null;
+            TupleValue value = newInstance();
+            value.setSerialized(bytes.duplicate());
+            return value;
+        }
+    }
+
 }
@@ -15,6 +15,11 @@
  */
 package com.datastax.driver.core;
 
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 /**
  * A value for a User Defined Type.
  */
@@ -22,6 +27,11 @@ public class UDTValue extends AbstractData<UDTValue> {
 
     private final UserType definition;
 
+    // The serialized form of this value, if it was deserialized lazily (see TypeCodec#lazyUserType) and not modified
+    // since. Its fields are only split into the values array when they are first accessed.
+    private ByteBuffer serialized;
+    private boolean split = true;
+
     UDTValue(UserType definition) {
         super(definition.getProtocolVersion(), definition.size());
         this.definition = definition;
@@ -32,6 +42,39 @@ public class UDTValue extends AbstractData<UDTValue> {
         return definition.byIdx[i].getType();
     }
 
+    ByteBuffer getSerialized() {
+        return serialized;
+    }
+
+    void setSerialized(ByteBuffer serialized) {
+        this.serialized = serialized;
+        this.split = false;
+    }
+
+    @Override
+    protected ByteBuffer getValue(int i) {
+        if (!split)
+            splitFields();
+        return super.getValue(i);
+    }
+
+    @Override
+    protected UDTValue setValue(int i, ByteBuffer value) {
+        if (!split)
+            splitFields();
+        serialized = null;
+        return super.setValue(i, value);
+    }
+
+    private void splitFields() {
+        try {
+            CodecUtils.readFields(serialized, values);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize a UDT", e);
+        }
+        split = true;
+    }
+
     @Override
     protected String getName(int i) {
         return definition.byIdx[i].getName();
@@ -0,0 +1,595 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.*;
+import com.google.common.collect.AbstractIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A wrapper load balancing policy that adds a per-host circuit breaker to a child policy.
+ * <p/>
+ * A node can be up (as far as gossip and the driver's connections are concerned), but fail
+ * most of the requests it receives, for example because of disk failures or long GC pauses.
+ * This policy monitors the outcome of the requests sent to each host, and if the proportion
+ * of errors or timeouts over a time window exceeds a configurable threshold, it "opens" the
+ * circuit for that host: the host is moved to the end of query plans, so that it is only
+ * tried if all other hosts failed.
+ * <p/>
+ * After a configurable delay, the circuit becomes "half-open": a trickle of probe requests
+ * (at most one per probe interval) is sent to the host, at its normal position in query
+ * plans. If enough consecutive probes succeed, the circuit is "closed" again and the host
+ * gets its full share of requests; if a probe fails, the circuit is opened again.
+ * <p/>
+ * The following outcomes are considered as timeouts: client-side timeouts
+ * ({@link OperationTimedOutException}) and server-side read and write timeouts. The following
+ * outcomes are considered as errors: connection errors, server errors, and overloaded or
+ * bootstrapping responses. Any other outcome (including validation errors, which indicate
+ * a problem with the query, not with the host) is considered as a success.
+ * <p/>
+ * The state of the circuit breaker of each host can be inspected with {@link #getState(Host)},
+ * or through {@link Session.State#getCircuitBreakerState(Host)}. If metrics are enabled, this
+ * policy also registers the following metrics: {@code circuit-breakers.open} and
+ * {@code circuit-breakers.half-open} (gauges counting the hosts in each state), and
+ * {@code circuit-breakers.trips} (a counter of the number of times a circuit was opened).
+ * <p/>
+ * Please see the {@link Builder} class and methods for more details on the
+ * possible parameters of this policy.
+ */
+public class CircuitBreakerPolicy implements ChainableLoadBalancingPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerPolicy.class);
+
+    private static final String OPEN_GAUGE = "circuit-breakers.open";
+    private static final String HALF_OPEN_GAUGE = "circuit-breakers.half-open";
+    private static final String TRIPS_COUNTER = "circuit-breakers.trips";
+
+    /**
+     * The state of the circuit breaker of a host.
+     */
+    public enum BreakerState {
+        /**
+         * The host is healthy and gets its normal share of requests.
+         */
+        CLOSED,
+        /**
+         * The host failed too many requests recently, and is only tried if all other hosts failed.
+         */
+        OPEN,
+        /**
+         * The host was recently open, and a limited number of probe requests are sent to it to
+         * determine if it has recovered.
+         */
+        HALF_OPEN
+    }
+
+    private final LoadBalancingPolicy childPolicy;
+    private final Tracker tracker = new Tracker();
+    private final ConcurrentMap<Host, HostBreaker> breakers = new ConcurrentHashMap<Host, HostBreaker>();
+
+    private final double errorRateThreshold;
+    private final double timeoutRateThreshold;
+    private final int minRequests;
+    private final long window;
+    private final long openDuration;
+    private final long probeInterval;
+    private final int probesToClose;
+
+    private volatile MetricRegistry registry;
+    private volatile Counter trips;
+
+    private CircuitBreakerPolicy(LoadBalancingPolicy childPolicy,
+                                 double errorRateThreshold,
+                                 double timeoutRateThreshold,
+                                 int minRequests,
+                                 long window,
+                                 long openDuration,
+                                 long probeInterval,
+                                 int probesToClose) {
+        this.childPolicy = childPolicy;
+        this.errorRateThreshold = errorRateThreshold;
+        this.timeoutRateThreshold = timeoutRateThreshold;
+        this.minRequests = minRequests;
+        this.window = window;
+        this.openDuration = openDuration;
+        this.probeInterval = probeInterval;
+        this.probesToClose = probesToClose;
+    }
+
+    /**
+     * Creates a new circuit breaker policy builder given the child policy
+     * that the resulting policy should wrap.
+     *
+     * @param childPolicy the load balancing policy to wrap with a circuit breaker.
+     * @return the created builder.
+     */
+    public static Builder builder(LoadBalancingPolicy childPolicy) {
+        return new Builder(childPolicy);
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy() {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts) {
+        childPolicy.init(cluster, hosts);
+        cluster.register(tracker);
+
+        Metrics metrics = cluster.getMetrics();
+        if (metrics != null) {
+            registry = metrics.getRegistry();
+            registry.register(OPEN_GAUGE, new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return countHosts(BreakerState.OPEN);
+                }
+            });
+            registry.register(HALF_OPEN_GAUGE, new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return countHosts(BreakerState.HALF_OPEN);
+                }
+            });
+            trips = registry.counter(TRIPS_COUNTER);
+        }
+    }
+
+    private int countHosts(BreakerState state) {
+        long now = System.nanoTime();
+        int count = 0;
+        for (HostBreaker breaker : breakers.values())
+            if (breaker.state(now) == state)
+                count++;
+        return count;
+    }
+
+    /**
+     * Returns the HostDistance for the provided host.
+     *
+     * @param host the host of which to return the distance of.
+     * @return the HostDistance to {@code host} as returned by the wrapped policy.
+     */
+    @Override
+    public HostDistance distance(Host host) {
+        return childPolicy.distance(host);
+    }
+
+    /**
+     * Returns the hosts to use for a new query.
+     * <p/>
+     * The returned plan will be the same as the plan generated by the
+     * child policy, except that hosts with an open circuit, and hosts with
+     * a half-open circuit that are not due for a probe request, are moved
+     * to the end of the plan (in the order of the child policy).
+     *
+     * @param loggedKeyspace the currently logged keyspace.
+     * @param statement      the statement for which to build the plan.
+     * @return the new query plan.
+     */
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement) {
+        final Iterator<Host> childIter = childPolicy.newQueryPlan(loggedKeyspace, statement);
+        return new AbstractIterator<Host>() {
+
+            private Queue<Host> skipped;
+
+            @Override
+            protected Host computeNext() {
+                long now = System.nanoTime();
+                while (childIter.hasNext()) {
+                    Host host = childIter.next();
+                    HostBreaker breaker = breakers.get(host);
+                    if (breaker == null || breaker.allowRequest(now))
+                        return host;
+
+                    if (skipped == null)
+                        skipped = new ArrayDeque<Host>();
+                    skipped.offer(host);
+                }
+
+                if (skipped != null && !skipped.isEmpty())
+                    return skipped.poll();
+
+                return endOfData();
+            }
+        };
+    }
+
+    /**
+     * Returns the current state of the circuit breaker of a host.
+     *
+     * @param host the host.
+     * @return the state of the circuit breaker of {@code host}. This is
+     * {@link BreakerState#CLOSED} if no request was sent to that host yet.
+     */
+    public BreakerState getState(Host host) {
+        HostBreaker breaker = breakers.get(host);
+        return breaker == null ? BreakerState.CLOSED : breaker.state(System.nanoTime());
+    }
+
+    @Override
+    public void onUp(Host host) {
+        childPolicy.onUp(host);
+        // give the host a fresh start
+        breakers.remove(host);
+    }
+
+    @Override
+    public void onDown(Host host) {
+        childPolicy.onDown(host);
+        breakers.remove(host);
+    }
+
+    @Override
+    public void onAdd(Host host) {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onRemove(Host host) {
+        childPolicy.onRemove(host);
+        breakers.remove(host);
+    }
+
+    @Override
+    public void close() {
+        childPolicy.close();
+        MetricRegistry registry = this.registry;
+        if (registry != null) {
+            registry.remove(OPEN_GAUGE);
+            registry.remove(HALF_OPEN_GAUGE);
+            registry.remove(TRIPS_COUNTER);
+        }
+    }
+
+    private class Tracker implements LatencyTracker {
+
+        @Override
+        public void update(Host host, Statement statement, Exception exception, long newLatencyNanos) {
+            HostBreaker breaker = breakers.get(host);
+            if (breaker == null) {
+                breaker = new HostBreaker(host);
+                HostBreaker old = breakers.putIfAbsent(host, breaker);
+                if (old != null)
+                    breaker = old;
+            }
+            breaker.record(outcome(exception), System.nanoTime());
+        }
+
+        @Override
+        public void onRegister(Cluster cluster) {
+            // nothing to do
+        }
+
+        @Override
+        public void onUnregister(Cluster cluster) {
+            // nothing to do
+        }
+    }
+
+    private enum Outcome {SUCCESS, ERROR, TIMEOUT}
+
+    private static Outcome outcome(Exception exception) {
+        if (exception == null)
+            return Outcome.SUCCESS;
+        // Note: OperationTimedOutException is a ConnectionException, so check timeouts first
+        if (exception instanceof OperationTimedOutException
+                || exception instanceof ReadTimeoutException
+                || exception instanceof WriteTimeoutException)
+            return Outcome.TIMEOUT;
+        if (exception instanceof ConnectionException
+                || exception instanceof ServerError
+                || exception instanceof OverloadedException
+                || exception instanceof BootstrappingException)
+            return Outcome.ERROR;
+        return Outcome.SUCCESS;
+    }
+
+    /**
+     * Outcome counts over a time window. A new instance is created when the window expires, so
+     * counts racing with the rollover might be lost, which is not a problem for rate computations.
+     */
+    private static class Window {
+        final long start;
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * The state transitions of a host. {@code stateRef} is only updated with CAS, but reading
+     * the state and the window are not atomic with each other, which is fine given that both
+     * are only heuristics.
+     */
+    private class HostBreaker {
+
+        private final Host host;
+        private final AtomicReference<Window> windowRef;
+        // CLOSED, or OPEN since openedAt. OPEN turns into HALF_OPEN after openDuration, see state().
+        private final AtomicReference<BreakerState> stateRef = new AtomicReference<BreakerState>(BreakerState.CLOSED);
+        private volatile long openedAt;
+        private final AtomicLong lastProbe = new AtomicLong();
+        private final AtomicLong successfulProbes = new AtomicLong();
+
+        HostBreaker(Host host) {
+            this.host = host;
+            this.windowRef = new AtomicReference<Window>(new Window(System.nanoTime()));
+        }
+
+        BreakerState state(long now) {
+            BreakerState state = stateRef.get();
+            if (state == BreakerState.OPEN && now - openedAt >= openDuration) {
+                if (stateRef.compareAndSet(BreakerState.OPEN, BreakerState.HALF_OPEN)) {
+                    successfulProbes.set(0);
+                    // Allow a probe right away
+                    lastProbe.set(now - probeInterval);
+                    logger.debug("Circuit breaker for {} is now half-open, will send probe requests", host);
+                }
+                return stateRef.get();
+            }
+            return state;
+        }
+
+        boolean allowRequest(long now) {
+            switch (state(now)) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    long last = lastProbe.get();
+                    return now - last >= probeInterval && lastProbe.compareAndSet(last, now);
+                default:
+                    return false;
+            }
+        }
+
+        void record(Outcome outcome, long now) {
+            switch (state(now)) {
+                case CLOSED:
+                    Window window = windowRef.get();
+                    if (now - window.start >= CircuitBreakerPolicy.this.window) {
+                        Window newWindow = new Window(now);
+                        window = windowRef.compareAndSet(window, newWindow) ? newWindow : windowRef.get();
+                    }
+                    long total = window.total.incrementAndGet();
+                    long errors = (outcome == Outcome.ERROR) ? window.errors.incrementAndGet() : window.errors.get();
+                    long timeouts = (outcome == Outcome.TIMEOUT) ? window.timeouts.incrementAndGet() : window.timeouts.get();
+                    if (total >= minRequests
+                            && (errors >= errorRateThreshold * total || timeouts >= timeoutRateThreshold * total))
+                        trip(BreakerState.CLOSED, now, String.format("%d errors and %d timeouts out of %d requests", errors, timeouts, total));
+                    break;
+                case HALF_OPEN:
+                    if (outcome == Outcome.SUCCESS) {
+                        if (successfulProbes.incrementAndGet() >= probesToClose
+                                && stateRef.compareAndSet(BreakerState.HALF_OPEN, BreakerState.CLOSED)) {
+                            windowRef.set(new Window(now));
+                            logger.info("Circuit breaker for {} is now closed after {} successful probes", host, probesToClose);
+                        }
+                    } else {
+                        trip(BreakerState.HALF_OPEN, now, "a probe request failed");
+                    }
+                    break;
+                default:
+                    // Requests can still reach an open host if all other hosts failed, but this doesn't
+                    // change anything until the open duration has elapsed.
+                    break;
+            }
+        }
+
+        private void trip(BreakerState from, long now, String reason) {
+            openedAt = now;
+            if (stateRef.compareAndSet(from, BreakerState.OPEN)) {
+                logger.warn("Circuit breaker for {} is now open ({}), it will be avoided for {} ms",
+                        host, reason, TimeUnit.NANOSECONDS.toMillis(openDuration));
+                Counter trips = CircuitBreakerPolicy.this.trips;
+                if (trips != null)
+                    trips.inc();
+            }
+        }
+    }
+
+    /**
+     * Helper builder object to create a circuit breaker policy.
+     * <p/>
+     * The only mandatory parameter is the child policy that will be wrapped. The
+     * other parameters can be set through the methods of this builder, but all have
+     * defaults (that are documented in the javadoc of each method) if you don't.
+     */
+    public static class Builder {
+
+        public static final double DEFAULT_ERROR_RATE_THRESHOLD = 0.5;
+        public static final double DEFAULT_TIMEOUT_RATE_THRESHOLD = 0.5;
+        public static final int DEFAULT_MIN_REQUESTS = 20;
+        public static final long DEFAULT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+        public static final long DEFAULT_OPEN_DURATION_NANOS = TimeUnit.SECONDS.toNanos(30);
+        public static final long DEFAULT_PROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+        public static final int DEFAULT_PROBES_TO_CLOSE = 3;
+
+        private final LoadBalancingPolicy childPolicy;
+
+        private double errorRateThreshold = DEFAULT_ERROR_RATE_THRESHOLD;
+        private double timeoutRateThreshold = DEFAULT_TIMEOUT_RATE_THRESHOLD;
+        private int minRequests = DEFAULT_MIN_REQUESTS;
+        private long window = DEFAULT_WINDOW_NANOS;
+        private long openDuration = DEFAULT_OPEN_DURATION_NANOS;
+        private long probeInterval = DEFAULT_PROBE_INTERVAL_NANOS;
+        private int probesToClose = DEFAULT_PROBES_TO_CLOSE;
+
+        /**
+         * Creates a new circuit breaker policy builder given the child policy
+         * that the resulting policy wraps.
+         *
+         * @param childPolicy the load balancing policy to wrap with a circuit breaker.
+         */
+        public Builder(LoadBalancingPolicy childPolicy) {
+            this.childPolicy = childPolicy;
+        }
+
+        /**
+         * Sets the proportion of errors (over the current window) above which the
+         * circuit of a host is opened.
+         * <p/>
+         * The default (if this method is not called) is <b>0.5</b>.
+         *
+         * @param errorRateThreshold the threshold, in the range (0, 1].
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code errorRateThreshold} is not in the range (0, 1].
+         */
+        public Builder withErrorRateThreshold(double errorRateThreshold) {
+            if (errorRateThreshold <= 0 || errorRateThreshold > 1)
+                throw new IllegalArgumentException("Invalid error rate threshold, must be in the range (0, 1]");
+            this.errorRateThreshold = errorRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the proportion of timeouts (over the current window) above which the
+         * circuit of a host is opened.
+         * <p/>
+         * The default (if this method is not called) is <b>0.5</b>.
+         *
+         * @param timeoutRateThreshold the threshold, in the range (0, 1].
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code timeoutRateThreshold} is not in the range (0, 1].
+         */
+        public Builder withTimeoutRateThreshold(double timeoutRateThreshold) {
+            if (timeoutRateThreshold <= 0 || timeoutRateThreshold > 1)
+                throw new IllegalArgumentException("Invalid timeout rate threshold, must be in the range (0, 1]");
+            this.timeoutRateThreshold = timeoutRateThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of requests that must have been sent to a host in
+         * the current window before its circuit can be opened.
+         * <p/>
+         * This avoids opening the circuit because of a few unlucky requests on a
+         * lightly loaded host.
+         * <p/>
+         * The default (if this method is not called) is <b>20</b>.
+         *
+         * @param minRequests the minimum number of requests.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code minRequests &lt; 1}.
+         */
+        public Builder withMinimumRequests(int minRequests) {
+            if (minRequests < 1)
+                throw new IllegalArgumentException("Invalid minimum requests, must be strictly positive");
+            this.minRequests = minRequests;
+            return this;
+        }
+
+        /**
+         * Sets the length of the time window over which error and timeout rates are computed.
+         * <p/>
+         * The default (if this method is not called) is <b>10 seconds</b>.
+         *
+         * @param window the window length.
+         * @param unit   the unit for {@code window}.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code window &lte; 0}.
+         */
+        public Builder withWindow(long window, TimeUnit unit) {
+            if (window <= 0)
+                throw new IllegalArgumentException("Invalid window, must be strictly positive");
+            this.window = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Sets how long the circuit of a host stays open before probe requests are
+         * sent to it.
+         * <p/>
+         * The default (if this method is not called) is <b>30 seconds</b>.
+         *
+         * @param openDuration the duration.
+         * @param unit         the unit for {@code openDuration}.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code openDuration &lt; 0}.
+         */
+        public Builder withOpenDuration(long openDuration, TimeUnit unit) {
+            if (openDuration < 0)
+                throw new IllegalArgumentException("Invalid open duration, must be positive");
+            this.openDuration = unit.toNanos(openDuration);
+            return this;
+        }
+
+        /**
+         * Sets the minimum delay between two probe requests to a host with a half-open circuit.
+         * <p/>
+         * The default (if this method is not called) is <b>1 second</b>.
+         *
+         * @param probeInterval the interval.
+         * @param unit          the unit for {@code probeInterval}.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code probeInterval &lt; 0}.
+         */
+        public Builder withProbeInterval(long probeInterval, TimeUnit unit) {
+            if (probeInterval < 0)
+                throw new IllegalArgumentException("Invalid probe interval, must be positive");
+            this.probeInterval = unit.toNanos(probeInterval);
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive successful probe requests required to close
+         * a half-open circuit.
+         * <p/>
+         * The default (if this method is not called) is <b>3</b>.
+         *
+         * @param probesToClose the number of probes.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code probesToClose &lt; 1}.
+         */
+        public Builder withSuccessfulProbesToClose(int probesToClose) {
+            if (probesToClose < 1)
+                throw new IllegalArgumentException("Invalid number of probes, must be strictly positive");
+            this.probesToClose = probesToClose;
+            return this;
+        }
+
+        /**
+         * Builds a new circuit breaker policy using the options set on this
+         * builder.
+         *
+         * @return the newly created {@code CircuitBreakerPolicy}.
+         */
+        public CircuitBreakerPolicy build() {
+            return new CircuitBreakerPolicy(childPolicy, errorRateThreshold, timeoutRateThreshold, minRequests,
+                    window, openDuration, probeInterval, probesToClose);
+        }
+    }
+}
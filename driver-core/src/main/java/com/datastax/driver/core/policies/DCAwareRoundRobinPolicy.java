@@ -28,7 +28,9 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A data-center aware Round-robin load balancing policy.
@@ -43,6 +45,17 @@ import java.util.concurrent.atomic.AtomicInteger;
  * If used with a single data center, this policy is equivalent to the
  * {@link RoundRobinPolicy}, but its DC awareness incurs a slight overhead
  * so the latter should be preferred to this policy in that case.
+ * <p/>
+ * Optionally, this policy can also be made rack-aware (see
+ * {@link Builder#withLocalRack(String)}): hosts of the local rack are then
+ * tried first, followed by the other hosts of the local data center, and
+ * finally by the remote hosts. When wrapped by a {@link TokenAwarePolicy},
+ * replicas of the local rack are also preferred over the other local replicas.
+ * <p/>
+ * By default, remote data centers are tried in no particular order. The policy can
+ * also order them by their measured latency (see
+ * {@link Builder#withRemoteDcsOrderedByLatency(long, TimeUnit)}), so that failover
+ * goes to the nearest data center first.
  */
 public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
 
@@ -60,20 +73,28 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
     private static final String UNSET = "";
 
     private final ConcurrentMap<String, CopyOnWriteArrayList<Host>> perDcLiveHosts = new ConcurrentHashMap<String, CopyOnWriteArrayList<Host>>();
+    // Live hosts of the local DC, per rack. Only maintained if the policy is rack-aware.
+    private final ConcurrentMap<String, CopyOnWriteArrayList<Host>> perRackLiveHosts = new ConcurrentHashMap<String, CopyOnWriteArrayList<Host>>();
     private final AtomicInteger index = new AtomicInteger();
 
     @VisibleForTesting
     volatile String localDc;
 
+    private final String localRack;
     private final int usedHostsPerRemoteDc;
     private final boolean dontHopForLocalCL;
 
+    // null if remote DCs are not ordered by latency
+    private final DcLatencyTracker dcLatencyTracker;
+
     private volatile Configuration configuration;
 
-    private DCAwareRoundRobinPolicy(String localDc, int usedHostsPerRemoteDc, boolean allowRemoteDCsForLocalConsistencyLevel, boolean allowEmptyLocalDc) {
+    private DCAwareRoundRobinPolicy(String localDc, String localRack, int usedHostsPerRemoteDc, boolean allowRemoteDCsForLocalConsistencyLevel, boolean allowEmptyLocalDc, long remoteDcOrderUpdateInterval) {
         if (!allowEmptyLocalDc && Strings.isNullOrEmpty(localDc))
             throw new IllegalArgumentException("Null or empty data center specified for DC-aware policy");
         this.localDc = localDc == null ? UNSET : localDc;
+        this.localRack = localRack;
+        this.dcLatencyTracker = remoteDcOrderUpdateInterval > 0 ? new DcLatencyTracker(remoteDcOrderUpdateInterval) : null;
         this.usedHostsPerRemoteDc = usedHostsPerRemoteDc;
         this.dontHopForLocalCL = !allowRemoteDCsForLocalConsistencyLevel;
     }
@@ -82,6 +103,8 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
     public void init(Cluster cluster, Collection<Host> hosts) {
         if (localDc != UNSET)
             logger.info("Using provided data-center name '{}' for DCAwareRoundRobinPolicy", localDc);
+        if (localRack != null)
+            logger.info("Using provided rack name '{}' for DCAwareRoundRobinPolicy", localRack);
 
         this.configuration = cluster.getConfiguration();
 
@@ -104,6 +127,8 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
                 perDcLiveHosts.put(dc, new CopyOnWriteArrayList<Host>(Collections.singletonList(host)));
             else
                 prev.addIfAbsent(host);
+
+            addToRack(host);
         }
 
         if (notInLocalDC.size() > 0) {
@@ -120,6 +145,50 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
         return dc == null ? localDc : dc;
     }
 
+    boolean isRackAware() {
+        return localRack != null;
+    }
+
+    /**
+     * Whether the given host belongs to the local rack.
+     * <p/>
+     * This always returns {@code false} if this policy is not rack-aware.
+     * This is used by {@link TokenAwarePolicy} to prioritize replicas of
+     * the local rack.
+     */
+    boolean isInLocalRack(Host host) {
+        return localRack != null
+                && localRack.equals(host.getRack())
+                && dc(host).equals(localDc);
+    }
+
+    private void addToRack(Host host) {
+        if (localRack == null)
+            return;
+        String rack = host.getRack();
+        if (rack == null || !dc(host).equals(localDc))
+            return;
+
+        CopyOnWriteArrayList<Host> rackHosts = perRackLiveHosts.get(rack);
+        if (rackHosts == null) {
+            CopyOnWriteArrayList<Host> newList = new CopyOnWriteArrayList<Host>(Collections.singletonList(host));
+            rackHosts = perRackLiveHosts.putIfAbsent(rack, newList);
+            // If we've successfully put our new host, we're good, otherwise we've been beaten so continue
+            if (rackHosts == null)
+                return;
+        }
+        rackHosts.addIfAbsent(host);
+    }
+
+    private void removeFromRack(Host host) {
+        String rack = host.getRack();
+        if (rack == null)
+            return;
+        CopyOnWriteArrayList<Host> rackHosts = perRackLiveHosts.get(rack);
+        if (rackHosts != null)
+            rackHosts.remove(host);
+    }
+
     @SuppressWarnings("unchecked")
     private static CopyOnWriteArrayList<Host> cloneList(CopyOnWriteArrayList<Host> list) {
         return (CopyOnWriteArrayList<Host>) list.clone();
@@ -162,7 +231,11 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
      * datacenter first, and then, if none of the local host is reachable,
      * will try up to a configurable number of other host per remote datacenter.
      * The order of the local node in the returned query plan will follow a
-     * Round-robin algorithm.
+     * Round-robin algorithm. Remote datacenters are tried in no particular order,
+     * unless the policy orders them by latency.
+     * <p/>
+     * If this policy is rack-aware, the hosts of the local rack are returned
+     * (in a Round-robin fashion) before the other hosts of the local datacenter.
      *
      * @param loggedKeyspace the keyspace currently logged in on for this
      *                       query.
@@ -175,11 +248,14 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
 
         CopyOnWriteArrayList<Host> localLiveHosts = perDcLiveHosts.get(localDc);
         final List<Host> hosts = localLiveHosts == null ? Collections.<Host>emptyList() : cloneList(localLiveHosts);
+        CopyOnWriteArrayList<Host> localRackLiveHosts = localRack == null ? null : perRackLiveHosts.get(localRack);
+        final List<Host> rackHosts = localRackLiveHosts == null ? Collections.<Host>emptyList() : cloneList(localRackLiveHosts);
         final int startIdx = index.getAndIncrement();
 
         return new AbstractIterator<Host>() {
 
             private int idx = startIdx;
+            private int remainingLocalRack = rackHosts.size();
             private int remainingLocal = hosts.size();
 
             // For remote Dcs
@@ -190,13 +266,26 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
             @Override
             protected Host computeNext() {
                 while (true) {
+                    if (remainingLocalRack > 0) {
+                        remainingLocalRack--;
+                        int c = idx++ % rackHosts.size();
+                        if (c < 0) {
+                            c += rackHosts.size();
+                        }
+                        return rackHosts.get(c);
+                    }
+
                     if (remainingLocal > 0) {
                         remainingLocal--;
                         int c = idx++ % hosts.size();
                         if (c < 0) {
                             c += hosts.size();
                         }
-                        return hosts.get(c);
+                        Host host = hosts.get(c);
+                        // Skip hosts of the local rack, they have already been returned
+                        if (!rackHosts.isEmpty() && rackHosts.contains(host))
+                            continue;
+                        return host;
                     }
 
                     if (currentDcHosts != null && currentDcRemaining > 0) {
@@ -218,7 +307,9 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
                     if (remoteDcs == null) {
                         Set<String> copy = new HashSet<String>(perDcLiveHosts.keySet());
                         copy.remove(localDc);
-                        remoteDcs = copy.iterator();
+                        remoteDcs = (dcLatencyTracker == null)
+                                ? copy.iterator()
+                                : dcLatencyTracker.sort(copy).iterator();
                     }
 
                     if (!remoteDcs.hasNext())
@@ -253,10 +344,13 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
             CopyOnWriteArrayList<Host> newMap = new CopyOnWriteArrayList<Host>(Collections.singletonList(host));
             dcHosts = perDcLiveHosts.putIfAbsent(dc, newMap);
             // If we've successfully put our new host, we're good, otherwise we've been beaten so continue
-            if (dcHosts == null)
+            if (dcHosts == null) {
+                addToRack(host);
                 return;
+            }
         }
         dcHosts.addIfAbsent(host);
+        addToRack(host);
     }
 
     @Override
@@ -264,6 +358,7 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
         CopyOnWriteArrayList<Host> dcHosts = perDcLiveHosts.get(dc(host));
         if (dcHosts != null)
             dcHosts.remove(host);
+        removeFromRack(host);
     }
 
     @Override
@@ -281,13 +376,85 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
         // nothing to do
     }
 
+    /**
+     * Orders remote datacenters from the fastest to the slowest, according to the average heartbeat latency of their
+     * hosts (see {@link Host#getHeartbeatLatencyNanos()}).
+     * <p/>
+     * Heartbeats are sent on idle connections, which includes the connections to remote hosts when they are not used
+     * for failover: unlike request latencies, this keeps measuring all the remote datacenters, including while queries
+     * fail over to one of them.
+     * <p/>
+     * The order is based on a snapshot of the latencies, that is only refreshed once per update interval; this avoids
+     * reordering datacenters on every query when their latencies are close.
+     */
+    private class DcLatencyTracker {
+
+        private final long updateInterval;
+        private final AtomicLong nextUpdate = new AtomicLong(System.nanoTime());
+        private volatile Map<String, Long> snapshot = Collections.emptyMap();
+
+        DcLatencyTracker(long updateInterval) {
+            this.updateInterval = updateInterval;
+        }
+
+        /**
+         * Sorts the given datacenters by ascending latency. Datacenters for which no latency was
+         * measured yet come last.
+         */
+        List<String> sort(Collection<String> dcs) {
+            final Map<String, Long> latencies = currentSnapshot();
+            List<String> sorted = new ArrayList<String>(dcs);
+            Collections.sort(sorted, new Comparator<String>() {
+                @Override
+                public int compare(String dc1, String dc2) {
+                    Long latency1 = latencies.get(dc1);
+                    Long latency2 = latencies.get(dc2);
+                    if (latency1 == null)
+                        return latency2 == null ? 0 : 1;
+                    if (latency2 == null)
+                        return -1;
+                    return latency1.compareTo(latency2);
+                }
+            });
+            return sorted;
+        }
+
+        private Map<String, Long> currentSnapshot() {
+            long now = System.nanoTime();
+            long next = nextUpdate.get();
+            if (now - next >= 0 && nextUpdate.compareAndSet(next, now + updateInterval)) {
+                Map<String, Long> newSnapshot = new HashMap<String, Long>();
+                for (Map.Entry<String, CopyOnWriteArrayList<Host>> entry : perDcLiveHosts.entrySet()) {
+                    if (entry.getKey().equals(localDc))
+                        continue;
+                    long total = 0;
+                    int measured = 0;
+                    for (Host host : entry.getValue()) {
+                        long latency = host.getHeartbeatLatencyNanos();
+                        if (latency >= 0) {
+                            total += latency;
+                            measured += 1;
+                        }
+                    }
+                    if (measured > 0)
+                        newSnapshot.put(entry.getKey(), total / measured);
+                }
+                logger.debug("Remote datacenters average latencies (ns): {}", newSnapshot);
+                snapshot = newSnapshot;
+            }
+            return snapshot;
+        }
+    }
+
     /**
      * Helper class to build the policy.
      */
     public static class Builder {
         private String localDc;
+        private String localRack;
         private int usedHostsPerRemoteDc;
         private boolean allowRemoteDCsForLocalConsistencyLevel;
+        private long remoteDcOrderUpdateInterval;
 
         /**
          * Sets the name of the datacenter that will be considered "local" by the policy.
@@ -310,6 +477,31 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
             return this;
         }
 
+        /**
+         * Makes the policy rack-aware, by setting the name of the rack that will be considered "local".
+         * <p/>
+         * This must be the name as known by Cassandra (in other words, the name that appears in
+         * {@code system.peers}, or in the output of admin tools like nodetool). The rack is only
+         * considered within the local datacenter.
+         * <p/>
+         * When set, query plans will return the hosts of the local rack first (in a Round-robin
+         * fashion), then the other hosts of the local datacenter, and finally the remote hosts (if
+         * any). The distance of hosts is not affected: all the hosts of the local datacenter are
+         * still considered {@code LOCAL}. If the policy is wrapped by a {@link TokenAwarePolicy},
+         * replicas of the local rack are tried before the other local replicas.
+         * <p/>
+         * If this method isn't called, the policy is not rack-aware.
+         *
+         * @param localRack the name of the rack. It should not be {@code null}.
+         * @return this builder.
+         */
+        public Builder withLocalRack(String localRack) {
+            Preconditions.checkArgument(!Strings.isNullOrEmpty(localRack),
+                    "localRack name can't be null or empty. If you don't want rack awareness, don't call Builder.withLocalRack");
+            this.localRack = localRack;
+            return this;
+        }
+
         /**
          * Sets the number of hosts per remote datacenter that the policy should consider.
          * <p/>
@@ -352,13 +544,38 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy {
             return this;
         }
 
+        /**
+         * Makes the policy try remote datacenters from the fastest to the slowest, instead of in
+         * no particular order.
+         * <p/>
+         * This is only useful in conjunction with {@link #withUsedHostsPerRemoteDc(int) usedHostsPerRemoteDc} > 0: when no
+         * host of the local datacenter can be reached, queries fail over to the nearest remote datacenter first.
+         * <p/>
+         * The latency of a datacenter is the average of the heartbeat latencies of its hosts (see
+         * {@link Host#getHeartbeatLatencyNanos()}). Heartbeats are sent on idle connections, so remote datacenters are
+         * measured even when they get no queries; the first measurements are available once connections have been idle
+         * for {@link PoolingOptions#setHeartbeatIntervalSeconds(int) heartbeatIntervalSeconds}. Datacenters that have
+         * not been measured yet come after the others. The order of remote datacenters is only re-evaluated once per
+         * {@code updateInterval}, to keep it stable between two updates.
+         *
+         * @param updateInterval how often to re-evaluate the order of remote datacenters.
+         * @param unit           the unit for {@code updateInterval}.
+         * @return this builder.
+         */
+        public Builder withRemoteDcsOrderedByLatency(long updateInterval, TimeUnit unit) {
+            Preconditions.checkArgument(updateInterval > 0,
+                    "updateInterval must be strictly positive");
+            this.remoteDcOrderUpdateInterval = unit.toNanos(updateInterval);
+            return this;
+        }
+
         /**
          * Builds the policy configured by this builder.
          *
          * @return the policy.
          */
         public DCAwareRoundRobinPolicy build() {
-            return new DCAwareRoundRobinPolicy(localDc, usedHostsPerRemoteDc, allowRemoteDCsForLocalConsistencyLevel, true);
+            return new DCAwareRoundRobinPolicy(localDc, localRack, usedHostsPerRemoteDc, allowRemoteDCsForLocalConsistencyLevel, true, remoteDcOrderUpdateInterval);
         }
     }
 }
@@ -22,13 +22,18 @@ import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * A wrapper load balancing policy that adds latency awareness to a child policy.
  * <p/>
@@ -54,6 +59,14 @@ import java.util.concurrent.atomic.AtomicReference;
  * policy has a configurable retry period. The policy will not penalize a host
  * for which no measurement has been collected for more than this retry period.
  * <p/>
+ * Alternatively, the policy can score nodes based on a latency percentile instead
+ * of an average (see {@link Builder#withPercentileScoring(double)}). In that mode,
+ * the latencies of each node are recorded in a histogram over a fixed interval, and
+ * the score of the node is its latency at the configured percentile over the last
+ * complete interval. This makes the policy sensitive to tail latencies, that an average
+ * tends to hide. This mode requires <a href="http://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>
+ * to be present in the classpath.
+ * <p/>
  * Please see the {@link Builder} class and methods for more details on the
  * possible parameters of this policy.
  *
@@ -72,19 +85,26 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
     private final long scale;
     private final long retryPeriod;
     private final long minMeasure;
+    // negative if scoring uses averages
+    private final double percentile;
+    private final long percentileInterval;
 
     private LatencyAwarePolicy(LoadBalancingPolicy childPolicy,
                                double exclusionThreshold,
                                long scale,
                                long retryPeriod,
                                long updateRate,
-                               int minMeasure) {
+                               int minMeasure,
+                               double percentile,
+                               long percentileInterval) {
         this.childPolicy = childPolicy;
         this.retryPeriod = retryPeriod;
         this.scale = scale;
         this.latencyTracker = new Tracker();
         this.exclusionThreshold = exclusionThreshold;
         this.minMeasure = minMeasure;
+        this.percentile = percentile;
+        this.percentileInterval = percentileInterval;
 
         updaterService.scheduleAtFixedRate(new Updater(), updateRate, updateRate, TimeUnit.NANOSECONDS);
     }
@@ -106,6 +126,15 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
         return new Builder(childPolicy);
     }
 
+    /**
+     * Ends the current percentile interval of each host now, instead of waiting for the next latency
+     * recorded after the end of the interval.
+     */
+    @VisibleForTesting
+    void rollOverPercentileIntervals() {
+        latencyTracker.rollOverPercentileIntervals();
+    }
+
     @VisibleForTesting
     class Updater implements Runnable {
 
@@ -247,8 +276,8 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
     }
 
     /**
-     * Returns a snapshot of the scores (latency averages) maintained by this
-     * policy.
+     * Returns a snapshot of the scores (latency averages, or latency percentiles if
+     * percentile scoring is used) maintained by this policy.
      *
      * @return a new (immutable) {@link Snapshot} object containing the current
      * latency scores maintained by this policy.
@@ -260,7 +289,9 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
         for (Map.Entry<Host, TimestampedAverage> entry : currentLatencies.entrySet()) {
             Host host = entry.getKey();
             TimestampedAverage latency = entry.getValue();
-            Snapshot.Stats stats = new Snapshot.Stats(now - latency.timestamp, latency.average, latency.nbMeasure);
+            Snapshot.Stats stats = (latency instanceof TimestampedPercentile)
+                    ? new Snapshot.Stats(now - latency.timestamp, latency.average, latency.nbMeasure, ((TimestampedPercentile) latency).histogram)
+                    : new Snapshot.Stats(now - latency.timestamp, latency.average, latency.nbMeasure, null);
             builder.put(host, stats);
         }
         return new Snapshot(builder.build());
@@ -328,11 +359,14 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
             private final long lastUpdatedSince;
             private final long average;
             private final long nbMeasurements;
+            // only set with percentile scoring, must not be modified
+            private final Histogram histogram;
 
-            private Stats(long lastUpdatedSince, long average, long nbMeasurements) {
+            private Stats(long lastUpdatedSince, long average, long nbMeasurements, Histogram histogram) {
                 this.lastUpdatedSince = lastUpdatedSince;
                 this.average = average;
                 this.nbMeasurements = nbMeasurements;
+                this.histogram = histogram;
             }
 
             /**
@@ -348,6 +382,9 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
 
             /**
              * The latency score for the host this is the stats of at the time of the snapshot.
+             * <p/>
+             * This is an average if the policy uses average scoring, or the latency at the configured
+             * percentile over the last complete interval if it uses percentile scoring.
              *
              * @return the latency score for the host this is the stats of at the time of the snapshot,
              * or {@code -1L} if not enough measurements have been taken to assign a score.
@@ -358,12 +395,35 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
 
             /**
              * The number of recorded latency measurements for the host this is the stats of.
+             * <p/>
+             * If the policy uses percentile scoring, this is the number of measurements recorded
+             * during the last complete interval.
              *
              * @return the number of recorded latency measurements for the host this is the stats of.
              */
             public long getMeasurementsCount() {
                 return nbMeasurements;
             }
+
+            /**
+             * The latency at the given percentile for the host this is the stats of, over the
+             * last complete interval.
+             * <p/>
+             * This is only available if the policy uses percentile scoring (see
+             * {@link Builder#withPercentileScoring(double)}), but any percentile can be queried,
+             * not only the one used for scoring.
+             *
+             * @param percentile the percentile (for example, {@code 99.0} for the 99th percentile).
+             * @return the latency (in nanoseconds) at the given percentile, or {@code -1L} if
+             * the policy does not use percentile scoring.
+             */
+            public long getLatencyAtPercentile(double percentile) {
+                checkArgument(percentile >= 0.0 && percentile <= 100.0,
+                        "percentile must be between 0.0 and 100 (was %s)", percentile);
+                if (histogram == null)
+                    return -1L;
+                return TimeUnit.MICROSECONDS.toNanos(histogram.getValueAtPercentile(percentile));
+            }
         }
     }
 
@@ -392,7 +452,9 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
             if (shouldConsiderNewLatency(statement, exception)) {
                 HostLatencyTracker hostTracker = latencies.get(host);
                 if (hostTracker == null) {
-                    hostTracker = new HostLatencyTracker(scale, (30L * minMeasure) / 100L);
+                    hostTracker = (percentile < 0)
+                            ? new HostLatencyTracker(scale, (30L * minMeasure) / 100L)
+                            : new HostPercentileTracker(percentile, percentileInterval);
                     HostLatencyTracker old = latencies.putIfAbsent(host, hostTracker);
                     if (old != null)
                         hostTracker = old;
@@ -432,8 +494,12 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
 
         public Map<Host, TimestampedAverage> currentLatencies() {
             Map<Host, TimestampedAverage> map = new HashMap<Host, TimestampedAverage>(latencies.size());
-            for (Map.Entry<Host, HostLatencyTracker> entry : latencies.entrySet())
-                map.put(entry.getKey(), entry.getValue().getCurrentAverage());
+            for (Map.Entry<Host, HostLatencyTracker> entry : latencies.entrySet()) {
+                TimestampedAverage latency = entry.getValue().getCurrentAverage();
+                // can be null if no score was computed yet
+                if (latency != null)
+                    map.put(entry.getKey(), latency);
+            }
             return map;
         }
 
@@ -441,6 +507,13 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
             latencies.remove(host);
         }
 
+        void rollOverPercentileIntervals() {
+            for (HostLatencyTracker tracker : latencies.values()) {
+                if (tracker instanceof HostPercentileTracker)
+                    ((HostPercentileTracker) tracker).rollOver();
+            }
+        }
+
         @Override
         public void onRegister(Cluster cluster) {
             // nothing to do
@@ -465,6 +538,20 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
         }
     }
 
+    /**
+     * A score computed from a latency percentile; {@code average} holds the latency at
+     * the percentile, and {@code histogram} the distribution it was computed from.
+     */
+    private static class TimestampedPercentile extends TimestampedAverage {
+
+        private final Histogram histogram;
+
+        TimestampedPercentile(long timestamp, long percentileLatency, long nbMeasure, Histogram histogram) {
+            super(timestamp, percentileLatency, nbMeasure);
+            this.histogram = histogram;
+        }
+    }
+
     private static class HostLatencyTracker {
 
         private final long thresholdToAccount;
@@ -476,6 +563,11 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
             this.thresholdToAccount = thresholdToAccount;
         }
 
+        // for subclasses that compute their score differently
+        HostLatencyTracker() {
+            this(1, 0);
+        }
+
         public void add(long newLatencyNanos) {
             TimestampedAverage previous, next;
             do {
@@ -520,6 +612,61 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
         }
     }
 
+    /**
+     * Records latencies in a histogram, and computes the score at the end of each interval. Note that
+     * intervals are only rolled over when new latencies are added, so the score of a host that is not
+     * queried anymore (for instance because it is excluded) stops being updated, like with averages.
+     */
+    private static class HostPercentileTracker extends HostLatencyTracker {
+
+        // Latencies are recorded in microseconds; anything above that is recorded as the max value.
+        private static final long HIGHEST_TRACKABLE_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+        // 2 digits keep the footprint low (about 20KB per histogram), and 1% precision is enough for scoring.
+        private static final int SIGNIFICANT_VALUE_DIGITS = 2;
+
+        private final double percentile;
+        private final long interval;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_LATENCY_MICROS, SIGNIFICANT_VALUE_DIGITS);
+        private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+        private volatile TimestampedPercentile current;
+
+        HostPercentileTracker(double percentile, long interval) {
+            this.percentile = percentile;
+            this.interval = interval;
+        }
+
+        @Override
+        public void add(long newLatencyNanos) {
+            long latencyMicros = Math.max(0, Math.min(TimeUnit.NANOSECONDS.toMicros(newLatencyNanos), HIGHEST_TRACKABLE_LATENCY_MICROS));
+            recorder.recordValue(latencyMicros);
+
+            long now = System.nanoTime();
+            long start = intervalStart.get();
+            if (now - start >= interval)
+                rollOver(start, now);
+        }
+
+        void rollOver() {
+            rollOver(intervalStart.get(), System.nanoTime());
+        }
+
+        private void rollOver(long start, long now) {
+            // Only one thread can win the CAS for a given interval, so only that one rolls the histogram over.
+            if (intervalStart.compareAndSet(start, now)) {
+                // Don't recycle the previous histogram, it might still be referenced by a Snapshot
+                Histogram histogram = recorder.getIntervalHistogram();
+                long count = histogram.getTotalCount();
+                long score = count == 0 ? -1L : TimeUnit.MICROSECONDS.toNanos(histogram.getValueAtPercentile(percentile));
+                current = new TimestampedPercentile(now, score, count, histogram);
+            }
+        }
+
+        @Override
+        public TimestampedAverage getCurrentAverage() {
+            return current;
+        }
+    }
+
     /**
      * Helper builder object to create a latency aware policy.
      * <p/>
@@ -542,6 +689,7 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
         public static final long DEFAULT_RETRY_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(10);
         public static final long DEFAULT_UPDATE_RATE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
         public static final int DEFAULT_MIN_MEASURE = 50;
+        public static final long DEFAULT_PERCENTILE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
 
         private final LoadBalancingPolicy childPolicy;
 
@@ -550,6 +698,8 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
         private long retryPeriod = DEFAULT_RETRY_PERIOD_NANOS;
         private long updateRate = DEFAULT_UPDATE_RATE_NANOS;
         private int minMeasure = DEFAULT_MIN_MEASURE;
+        private double percentile = -1;
+        private long percentileInterval = DEFAULT_PERCENTILE_INTERVAL_NANOS;
 
         /**
          * Creates a new latency aware policy builder given the child policy
@@ -709,14 +859,82 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy {
             return this;
         }
 
+        /**
+         * Makes the resulting latency aware policy score hosts with a latency percentile
+         * instead of an average.
+         * <p/>
+         * In this mode, the latencies of each host are recorded in a histogram over a fixed
+         * interval (see {@link #withPercentileInterval(long, TimeUnit)}), and the score of a host
+         * is its latency at {@code percentile} over the last complete interval. The exclusion
+         * threshold then applies to that score: for instance, with a percentile of 99 and the
+         * default exclusion threshold, hosts whose 99th percentile latency is more than twice
+         * the best 99th percentile latency are penalized. This makes the policy sensitive to
+         * tail latencies, which averages tend to hide.
+         * <p/>
+         * In this mode, the minimum number of measurements (see {@link #withMininumMeasurements(int)})
+         * applies to each interval, and the {@link #withScale scale} is not used.
+         * <p/>
+         * This mode requires <a href="http://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>
+         * to be present in the classpath.
+         * <p/>
+         * If this method is not called, hosts are scored with an average.
+         *
+         * @param percentile the percentile to use (for example, {@code 99.0} for the 99th percentile).
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code percentile} is not in the range (0, 100].
+         */
+        public Builder withPercentileScoring(double percentile) {
+            if (percentile <= 0.0 || percentile > 100.0)
+                throw new IllegalArgumentException("Invalid percentile, must be in the range (0, 100]");
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the interval over which latencies are recorded when the resulting latency aware
+         * policy uses percentile scoring (see {@link #withPercentileScoring(double)}).
+         * <p/>
+         * At the end of each interval, the score of each host is recomputed from the latencies
+         * recorded during that interval. A longer interval gives more stable scores, but the policy
+         * will react more slowly. This must be lower than the {@link #withRetryPeriod retry period},
+         * otherwise hosts would be reconsidered before their score could be updated.
+         * <p/>
+         * The default interval (if this method is not called) is <b>1 second</b>.
+         *
+         * @param interval the interval to use.
+         * @param unit     the unit for {@code interval}.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code interval &lte; 0}.
+         */
+        public Builder withPercentileInterval(long interval, TimeUnit unit) {
+            if (interval <= 0)
+                throw new IllegalArgumentException("Invalid percentile interval, must be strictly positive");
+            this.percentileInterval = unit.toNanos(interval);
+            return this;
+        }
+
         /**
          * Builds a new latency aware policy using the options set on this
          * builder.
          *
          * @return the newly created {@code LatencyAwarePolicy}.
+         * @throws IllegalArgumentException if percentile scoring is used with an interval that is not
+         *                                  lower than the retry period.
+         * @throws IllegalStateException    if percentile scoring is used and HdrHistogram is not in the
+         *                                  classpath.
          */
         public LatencyAwarePolicy build() {
-            return new LatencyAwarePolicy(childPolicy, exclusionThreshold, scale, retryPeriod, updateRate, minMeasure);
+            if (percentile > 0) {
+                if (percentileInterval >= retryPeriod)
+                    throw new IllegalArgumentException(String.format("Invalid percentile interval (%d ns), must be lower than the retry period (%d ns)",
+                            percentileInterval, retryPeriod));
+                try {
+                    Class.forName("org.HdrHistogram.Recorder");
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("Percentile scoring requires HdrHistogram, make sure it is in the classpath", e);
+                }
+            }
+            return new LatencyAwarePolicy(childPolicy, exclusionThreshold, scale, retryPeriod, updateRate, minMeasure, percentile, percentileInterval);
         }
     }
 
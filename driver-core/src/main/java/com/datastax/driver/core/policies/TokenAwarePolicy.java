@@ -43,6 +43,11 @@ import java.util.*;
  * priority. For example, if you wrap {@link DCAwareRoundRobinPolicy} with this
  * token aware policy, replicas from remote data centers may only be
  * returned after all the host of the local data center.
+ * <p/>
+ * If the wrapped policy (or one of its descendants, if it is itself a
+ * {@link ChainableLoadBalancingPolicy}) is a rack-aware
+ * {@link DCAwareRoundRobinPolicy}, the local replicas that belong to the local
+ * rack are returned before the other local replicas.
  */
 public class TokenAwarePolicy implements ChainableLoadBalancingPolicy {
 
@@ -51,6 +56,7 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy {
     private volatile Metadata clusterMetadata;
     private volatile ProtocolVersion protocolVersion;
     private volatile CodecRegistry codecRegistry;
+    private volatile DCAwareRoundRobinPolicy rackAwarePolicy;
 
     /**
      * Creates a new {@code TokenAware} policy.
@@ -90,9 +96,21 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy {
         clusterMetadata = cluster.getMetadata();
         protocolVersion = cluster.getConfiguration().getProtocolOptions().getProtocolVersion();
         codecRegistry = cluster.getConfiguration().getCodecRegistry();
+        rackAwarePolicy = findRackAwarePolicy(childPolicy);
         childPolicy.init(cluster, hosts);
     }
 
+    private static DCAwareRoundRobinPolicy findRackAwarePolicy(LoadBalancingPolicy policy) {
+        while (policy != null) {
+            if (policy instanceof DCAwareRoundRobinPolicy)
+                return ((DCAwareRoundRobinPolicy) policy).isRackAware() ? (DCAwareRoundRobinPolicy) policy : null;
+            policy = (policy instanceof ChainableLoadBalancingPolicy)
+                    ? ((ChainableLoadBalancingPolicy) policy).getChildPolicy()
+                    : null;
+        }
+        return null;
+    }
+
     /**
      * Return the HostDistance for the provided host.
      *
@@ -111,6 +129,9 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy {
      * for the child policy is {@code LOCAL}) for the query if it can determine
      * them (i.e. mainly if {@code statement.getRoutingKey()} is not {@code null}).
      * Following what it will return the plan of the child policy.
+     * <p/>
+     * If the child policy is rack-aware, the local replicas of the local rack
+     * are returned before the other local replicas.
      *
      * @param statement the query for which to build the plan.
      * @return the new query plan.
@@ -119,14 +140,17 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy {
     public Iterator<Host> newQueryPlan(final String loggedKeyspace, final Statement statement) {
 
         ByteBuffer partitionKey = statement.getRoutingKey(protocolVersion, codecRegistry);
+        Token routingToken = (partitionKey == null) ? statement.getRoutingToken() : null;
         String keyspace = statement.getKeyspace();
         if (keyspace == null)
             keyspace = loggedKeyspace;
 
-        if (partitionKey == null || keyspace == null)
+        if ((partitionKey == null && routingToken == null) || keyspace == null)
             return childPolicy.newQueryPlan(keyspace, statement);
 
-        final Set<Host> replicas = clusterMetadata.getReplicas(Metadata.quote(keyspace), partitionKey);
+        final Set<Host> replicas = (partitionKey != null)
+                ? clusterMetadata.getReplicas(Metadata.quote(keyspace), partitionKey)
+                : clusterMetadata.getReplicas(Metadata.quote(keyspace), routingToken);
         if (replicas.isEmpty())
             return childPolicy.newQueryPlan(loggedKeyspace, statement);
 
@@ -139,18 +163,31 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy {
             iter = replicas.iterator();
         }
 
+        final DCAwareRoundRobinPolicy rackAwarePolicy = this.rackAwarePolicy;
+
         return new AbstractIterator<Host>() {
 
             private Iterator<Host> childIterator;
+            // Local replicas outside of the local rack, deferred until all the local rack replicas were returned
+            private List<Host> otherRackReplicas;
+            private int otherRackIdx;
 
             @Override
             protected Host computeNext() {
                 while (iter.hasNext()) {
                     Host host = iter.next();
-                    if (host.isUp() && childPolicy.distance(host) == HostDistance.LOCAL)
-                        return host;
+                    if (host.isUp() && childPolicy.distance(host) == HostDistance.LOCAL) {
+                        if (rackAwarePolicy == null || rackAwarePolicy.isInLocalRack(host))
+                            return host;
+                        if (otherRackReplicas == null)
+                            otherRackReplicas = new ArrayList<Host>(replicas.size());
+                        otherRackReplicas.add(host);
+                    }
                 }
 
+                if (otherRackReplicas != null && otherRackIdx < otherRackReplicas.size())
+                    return otherRackReplicas.get(otherRackIdx++);
+
                 if (childIterator == null)
                     childIterator = childPolicy.newQueryPlan(loggedKeyspace, statement);
 
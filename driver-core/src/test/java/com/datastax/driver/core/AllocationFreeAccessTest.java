@@ -0,0 +1,224 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.utils.UUIDs;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static com.datastax.driver.core.ProtocolVersion.V4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that primitive values can be read from rows and bound to statements without allocating, using the
+ * per-thread allocation counter of the JVM.
+ */
+public class AllocationFreeAccessTest {
+
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 100000;
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID TIME_ID = UUIDs.timeBased();
+    private static final long MILLIS = 1234567890123L;
+    private static final int DAYS = -42;
+
+    ColumnDefinitions definitions;
+
+    // Accumulates the values read, so that the calls can't be optimized away
+    long sink;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        definitions = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+                new ColumnDefinitions.Definition("ks", "t", "i", DataType.cint()),
+                new ColumnDefinitions.Definition("ks", "t", "l", DataType.bigint()),
+                new ColumnDefinitions.Definition("ks", "t", "f", DataType.cfloat()),
+                new ColumnDefinitions.Definition("ks", "t", "d", DataType.cdouble()),
+                new ColumnDefinitions.Definition("ks", "t", "b", DataType.cboolean()),
+                new ColumnDefinitions.Definition("ks", "t", "ts", DataType.timestamp()),
+                new ColumnDefinitions.Definition("ks", "t", "day", DataType.date()),
+                new ColumnDefinitions.Definition("ks", "t", "id", DataType.uuid()),
+                new ColumnDefinitions.Definition("ks", "t", "tid", DataType.timeuuid())
+        }, CodecRegistry.DEFAULT_INSTANCE);
+    }
+
+    /**
+     * Ensures that the getters of fixed-size values read the same values as the regular getters, and don't allocate.
+     *
+     * @test_category queries:result_set
+     */
+    @Test(groups = "unit")
+    public void should_read_primitive_values_without_allocating() {
+        final Row row = ArrayBackedRow.fromData(definitions, null, V4, Arrays.asList(
+                TypeCodec.cint().serialize(42, V4),
+                TypeCodec.bigint().serialize(43L, V4),
+                TypeCodec.cfloat().serialize(4.4f, V4),
+                TypeCodec.cdouble().serialize(4.5, V4),
+                TypeCodec.cboolean().serialize(true, V4),
+                TypeCodec.timestamp().serialize(new Date(MILLIS), V4),
+                TypeCodec.date().serialize(LocalDate.fromDaysSinceEpoch(DAYS), V4),
+                TypeCodec.uuid().serialize(ID, V4),
+                TypeCodec.timeUUID().serialize(TIME_ID, V4)));
+
+        assertThat(row.getTimestampMillis(5)).isEqualTo(MILLIS);
+        assertThat(row.getDaysSinceEpoch("day")).isEqualTo(DAYS);
+        assertThat(row.getUUIDMostSignificantBits(7)).isEqualTo(ID.getMostSignificantBits());
+        assertThat(row.getUUIDLeastSignificantBits("id")).isEqualTo(ID.getLeastSignificantBits());
+        assertThat(row.getUUIDMostSignificantBits("tid")).isEqualTo(TIME_ID.getMostSignificantBits());
+
+        assertThat(allocatedBytesPerCall(new Runnable() {
+            @Override
+            public void run() {
+                sink += row.getInt(0) + row.getLong(1) + (long) row.getFloat(2) + (long) row.getDouble(3)
+                        + (row.getBool(4) ? 1 : 0) + row.getTimestampMillis(5) + row.getDaysSinceEpoch(6)
+                        + row.getUUIDMostSignificantBits(7) + row.getUUIDLeastSignificantBits(8)
+                        + row.getInt("i") + row.getTimestampMillis("ts") + row.getUUIDLeastSignificantBits("id");
+            }
+        })).isZero();
+    }
+
+    /**
+     * Ensures that the setters of fixed-size values produce the same request as the regular setters, and don't
+     * allocate.
+     *
+     * @test_category prepared_statements:binding
+     */
+    @Test(groups = "unit")
+    public void should_bind_primitive_values_without_allocating() {
+        PreparedId preparedId = new PreparedId(MD5Digest.wrap(new byte[16]), definitions, ColumnDefinitions.EMPTY,
+                null, V4);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getPreparedId()).thenReturn(preparedId);
+        when(prepared.getVariables()).thenReturn(definitions);
+        when(prepared.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT_INSTANCE);
+
+        final BoundStatement statement = new BoundStatement(prepared);
+        Runnable bindAll = new Runnable() {
+            @Override
+            public void run() {
+                statement.setInt(0, 42)
+                        .setLong(1, 43L)
+                        .setFloat(2, 4.4f)
+                        .setDouble(3, 4.5)
+                        .setBool(4, true)
+                        .setTimestampMillis(5, MILLIS)
+                        .setDaysSinceEpoch(6, DAYS)
+                        .setUUID(7, ID.getMostSignificantBits(), ID.getLeastSignificantBits())
+                        .setUUID("tid", TIME_ID.getMostSignificantBits(), TIME_ID.getLeastSignificantBits());
+            }
+        };
+        bindAll.run();
+
+        BoundStatement expected = new BoundStatement(prepared)
+                .setInt(0, 42)
+                .setLong(1, 43L)
+                .setFloat(2, 4.4f)
+                .setDouble(3, 4.5)
+                .setBool(4, true)
+                .setTimestamp(5, new Date(MILLIS))
+                .setDate(6, LocalDate.fromDaysSinceEpoch(DAYS))
+                .setUUID(7, ID)
+                .setUUID(8, TIME_ID);
+        assertThat(encode(statement.wrapper.requestValues()))
+                .isEqualTo(encode(Arrays.asList(expected.wrapper.serializedValues())));
+        // values can still be read back
+        assertThat(statement.getInt(0)).isEqualTo(42);
+        assertThat(statement.getTimestamp(5)).isEqualTo(new Date(MILLIS));
+        assertThat(statement.getDate(6)).isEqualTo(LocalDate.fromDaysSinceEpoch(DAYS));
+        assertThat(statement.getUUID(8)).isEqualTo(TIME_ID);
+
+        assertThat(allocatedBytesPerCall(bindAll)).isZero();
+    }
+
+    /**
+     * Ensures that the setters of fixed-size values of tuples produce the same values as the regular setters, without
+     * allocating the intermediary objects (only the buffer of the serialized value).
+     *
+     * @test_category data_types:tuples
+     */
+    @Test(groups = "unit")
+    public void should_set_tuple_values_without_intermediary_objects() {
+        TupleType type = TupleType.of(V4, CodecRegistry.DEFAULT_INSTANCE,
+                DataType.timestamp(), DataType.date(), DataType.uuid(), DataType.timeuuid());
+        final TupleValue tuple = type.newValue()
+                .setTimestampMillis(0, MILLIS)
+                .setDaysSinceEpoch(1, DAYS)
+                .setUUID(2, ID.getMostSignificantBits(), ID.getLeastSignificantBits())
+                .setUUID(3, TIME_ID.getMostSignificantBits(), TIME_ID.getLeastSignificantBits());
+        TupleValue expected = type.newValue(new Date(MILLIS), LocalDate.fromDaysSinceEpoch(DAYS), ID, TIME_ID);
+        assertThat(tuple).isEqualTo(expected);
+
+        long fixedSize = allocatedBytesPerCall(new Runnable() {
+            @Override
+            public void run() {
+                tuple.setTimestampMillis(0, MILLIS)
+                        .setDaysSinceEpoch(1, DAYS)
+                        .setUUID(2, ID.getMostSignificantBits(), ID.getLeastSignificantBits());
+            }
+        });
+        long regular = allocatedBytesPerCall(new Runnable() {
+            @Override
+            public void run() {
+                tuple.setTimestamp(0, new Date(MILLIS))
+                        .setDate(1, LocalDate.fromDaysSinceEpoch(DAYS))
+                        .setUUID(2, new UUID(ID.getMostSignificantBits(), ID.getLeastSignificantBits()));
+            }
+        });
+        assertThat(fixedSize).isLessThan(regular);
+    }
+
+    private static ByteBuffer encode(List<ByteBuffer> values) {
+        ByteBuf buf = Unpooled.buffer(CBUtil.sizeOfValueList(values));
+        CBUtil.writeValueList(values, buf);
+        return buf.nioBuffer();
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread per execution of {@code call}, once it is warmed
+     * up.
+     */
+    private static long allocatedBytesPerCall(Runnable call) {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean))
+            throw new SkipException("This JVM does not measure thread allocations");
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported())
+            throw new SkipException("This JVM does not measure thread allocations");
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            call.run();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++)
+            call.run();
+        long after = allocations.getThreadAllocatedBytes(threadId);
+        return (after - before) / ITERATIONS;
+    }
+}
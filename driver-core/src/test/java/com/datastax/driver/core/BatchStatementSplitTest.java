@@ -0,0 +1,113 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.base.Strings;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static com.datastax.driver.core.ProtocolVersion.V4;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchStatementSplitTest {
+
+    static final CodecRegistry REGISTRY = CodecRegistry.DEFAULT_INSTANCE;
+
+    /**
+     * Ensures that the encoded size of a batch matches the size of the statements in the request, and is updated as
+     * statements are added.
+     *
+     * @test_category queries:batch
+     */
+    @Test(groups = "unit")
+    public void should_compute_encoded_size_incrementally() {
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batch.add(insert(1, "a"));
+        assertThat(batch.getEncodedSize(V4, REGISTRY)).isEqualTo(requestSize(batch));
+        batch.add(insert(2, "bbbbbbbbbb"));
+        batch.add(insert(1, "c"));
+        assertThat(batch.getEncodedSize(V4, REGISTRY)).isEqualTo(requestSize(batch));
+        batch.clear();
+        assertThat(batch.getEncodedSize(V4, REGISTRY)).isEqualTo(requestSize(batch));
+    }
+
+    /**
+     * Ensures that splitting a batch keeps the statements of a partition together when possible, and copies the
+     * options of the batch.
+     *
+     * @test_category queries:batch
+     */
+    @Test(groups = "unit")
+    public void should_split_oversized_batch_by_partition() {
+        String value = Strings.repeat("x", 100);
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batch.setConsistencyLevel(ConsistencyLevel.QUORUM).setDefaultTimestamp(42);
+        batch.add(insert(1, value));
+        batch.add(insert(2, value));
+        batch.add(insert(1, value));
+        batch.add(insert(3, value));
+        batch.add(insert(2, value));
+
+        int statementSize = (int) new BatchStatement().add(insert(1, value)).getEncodedSize(V4, REGISTRY)
+                - Requests.Batch.HEADER_SIZE;
+        // Room for two statements per batch
+        int maxSize = Requests.Batch.HEADER_SIZE + 2 * statementSize;
+
+        assertThat(batch.split((int) batch.getEncodedSize(V4, REGISTRY), V4, REGISTRY)).containsExactly(batch);
+
+        List<BatchStatement> batches = batch.split(maxSize, V4, REGISTRY);
+        assertThat(batches).hasSize(3);
+        assertPartitions(batches.get(0), 1, 1);
+        assertPartitions(batches.get(1), 2, 2);
+        assertPartitions(batches.get(2), 3);
+        for (BatchStatement split : batches) {
+            assertThat(split.getEncodedSize(V4, REGISTRY)).isLessThanOrEqualTo(maxSize);
+            assertThat(split.batchType).isEqualTo(BatchStatement.Type.UNLOGGED);
+            assertThat(split.getConsistencyLevel()).isEqualTo(ConsistencyLevel.QUORUM);
+            assertThat(split.getDefaultTimestamp()).isEqualTo(42);
+        }
+
+        // A partition that doesn't fit in a batch is split
+        batches = batch.split(Requests.Batch.HEADER_SIZE + statementSize, V4, REGISTRY);
+        assertThat(batches).hasSize(5);
+        assertPartitions(batches.get(0), 1);
+        assertPartitions(batches.get(1), 1);
+    }
+
+    private static void assertPartitions(BatchStatement batch, int... keys) {
+        assertThat(batch.size()).isEqualTo(keys.length);
+        int i = 0;
+        for (Statement statement : batch.getStatements())
+            assertThat(statement.getRoutingKey(V4, REGISTRY)).isEqualTo(key(keys[i++]));
+    }
+
+    private static long requestSize(BatchStatement batch) {
+        BatchStatement.IdAndValues idAndValues = batch.getIdAndValues(V4, REGISTRY);
+        Requests.BatchProtocolOptions options = new Requests.BatchProtocolOptions(ConsistencyLevel.ONE, null, Long.MIN_VALUE);
+        Requests.Batch request = new Requests.Batch(batch.batchType, idAndValues.ids, idAndValues.values, options, false);
+        return Requests.Batch.coder.encodedSize(request, V4) - options.encodedSize(V4);
+    }
+
+    private static Statement insert(int k, String v) {
+        return new SimpleStatement("INSERT INTO ks.t (k, v) VALUES (?, ?)", k, v).setRoutingKey(key(k));
+    }
+
+    private static ByteBuffer key(int k) {
+        return TypeCodec.cint().serialize(k, V4);
+    }
+}
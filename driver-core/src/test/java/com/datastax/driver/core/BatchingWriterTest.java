@@ -0,0 +1,267 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.datastax.driver.core.policies.RetryPolicy;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchingWriterTest {
+
+    Session session;
+    ResultSet resultSet;
+    // Statements that were executed, in order
+    List<Statement> executed;
+    // The error to fail executions with, if any
+    volatile Throwable error;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        executed = Collections.synchronizedList(new ArrayList<Statement>());
+        error = null;
+        resultSet = mock(ResultSet.class);
+
+        ProtocolOptions protocolOptions = mock(ProtocolOptions.class);
+        when(protocolOptions.getProtocolVersion()).thenReturn(ProtocolVersion.V4);
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getProtocolOptions()).thenReturn(protocolOptions);
+        when(configuration.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT_INSTANCE);
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getConfiguration()).thenReturn(configuration);
+
+        session = mock(Session.class);
+        when(session.getCluster()).thenReturn(cluster);
+        when(session.executeAsync(any(Statement.class))).thenAnswer(new Answer<ResultSetFuture>() {
+            @Override
+            public ResultSetFuture answer(InvocationOnMock invocation) throws Throwable {
+                executed.add((Statement) invocation.getArguments()[0]);
+                PendingResultSetFuture future = new PendingResultSetFuture();
+                if (error != null)
+                    future.setException(error);
+                else
+                    future.set(resultSet);
+                return future;
+            }
+        });
+    }
+
+    /**
+     * Ensures that statements are grouped by partition, and that a batch is sent as soon as it is full.
+     *
+     * @test_category queries:batch
+     */
+    @Test(groups = "unit")
+    public void should_group_statements_by_partition() throws Exception {
+        BatchingWriter writer = BatchingWriter.builder(session)
+                .withMaxBatchSize(3)
+                .withMaxLingerTime(1, TimeUnit.HOURS)
+                .build();
+
+        List<ListenableFuture<ResultSet>> futures = new ArrayList<ListenableFuture<ResultSet>>();
+        futures.add(writer.write(insert(1)));
+        futures.add(writer.write(insert(2)));
+        futures.add(writer.write(insert(1)));
+        assertThat(executed).isEmpty();
+        futures.add(writer.write(insert(1)));
+
+        // The batch of partition 1 is full
+        assertThat(executed).hasSize(1);
+        BatchStatement batch = (BatchStatement) executed.get(0);
+        assertThat(batch.size()).isEqualTo(3);
+        assertThat(batch.getRoutingKey(ProtocolVersion.V4, CodecRegistry.DEFAULT_INSTANCE)).isEqualTo(key(1));
+        assertThat(futures.get(0).get()).isSameAs(resultSet);
+        assertThat(futures.get(1).isDone()).isFalse();
+
+        // Partition 2 only has one statement, it's sent on its own
+        writer.close();
+        assertThat(executed).hasSize(2);
+        assertThat(executed.get(1)).isInstanceOf(SimpleStatement.class);
+        for (ListenableFuture<ResultSet> future : futures)
+            assertThat(future.get()).isSameAs(resultSet);
+    }
+
+    /**
+     * Ensures that only statements with the same options are grouped, and that batches are sent with these options.
+     *
+     * @test_category queries:batch
+     */
+    @Test(groups = "unit")
+    public void should_only_group_statements_with_same_options() throws Exception {
+        BatchingWriter writer = BatchingWriter.builder(session)
+                .withMaxBatchSize(2)
+                .withMaxLingerTime(1, TimeUnit.HOURS)
+                .build();
+        RetryPolicy retryPolicy = mock(RetryPolicy.class);
+
+        writer.write(insert(1).setDefaultTimestamp(1));
+        writer.write(insert(1).setDefaultTimestamp(2));
+        writer.write(insert(1).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL));
+        writer.write(insert(1).setRetryPolicy(retryPolicy));
+        writer.write(insert(1).setReadTimeoutMillis(100));
+        writer.write(insert(1).setIdempotent(true));
+        writer.write(insert(1).enableTracing());
+        writer.write(insert(1).setOutgoingPayload(ImmutableMap.of("k", key(1))));
+        assertThat(executed).isEmpty();
+
+        writer.write(insert(1).setDefaultTimestamp(2));
+        writer.write(insert(1).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL));
+        writer.write(insert(1).setRetryPolicy(retryPolicy));
+        writer.write(insert(1).setReadTimeoutMillis(100));
+        writer.write(insert(1).setIdempotent(true));
+        writer.write(insert(1).enableTracing());
+        writer.write(insert(1).setOutgoingPayload(ImmutableMap.of("k", key(1))));
+        assertThat(executed).hasSize(7);
+        for (Statement statement : executed)
+            assertThat(((BatchStatement) statement).size()).isEqualTo(2);
+        assertThat(executed.get(0).getDefaultTimestamp()).isEqualTo(2);
+        assertThat(executed.get(1).getSerialConsistencyLevel()).isEqualTo(ConsistencyLevel.LOCAL_SERIAL);
+        assertThat(executed.get(2).getRetryPolicy()).isSameAs(retryPolicy);
+        assertThat(executed.get(3).getReadTimeoutMillis()).isEqualTo(100);
+        assertThat(executed.get(4).isIdempotent()).isTrue();
+        assertThat(executed.get(5).isTracing()).isTrue();
+        assertThat(executed.get(6).getOutgoingPayload()).containsKey("k");
+
+        // the first statement has its own timestamp, it's sent on its own
+        writer.close();
+        assertThat(executed).hasSize(8);
+        assertThat(executed.get(7)).isInstanceOf(SimpleStatement.class);
+        assertThat(executed.get(7).getDefaultTimestamp()).isEqualTo(1);
+    }
+
+    /**
+     * Ensures that a batch is sent once its first statement has waited for the linger time.
+     *
+     * @test_category queries:batch
+     */
+    @Test(groups = "unit")
+    public void should_send_batch_after_linger_time() throws Exception {
+        BatchingWriter writer = BatchingWriter.builder(session)
+                .withMaxBatchSize(100)
+                .withMaxLingerTime(50, TimeUnit.MILLISECONDS)
+                .build();
+
+        ListenableFuture<ResultSet> future1 = writer.write(insert(1));
+        ListenableFuture<ResultSet> future2 = writer.write(insert(1));
+        assertThat(future2.get(1, TimeUnit.SECONDS)).isSameAs(resultSet);
+        assertThat(future1.isDone()).isTrue();
+        assertThat(executed).hasSize(1);
+        assertThat(((BatchStatement) executed.get(0)).size()).isEqualTo(2);
+
+        // A new batch is started for the same partition
+        writer.write(insert(1)).get(1, TimeUnit.SECONDS);
+        assertThat(executed).hasSize(2);
+        writer.close();
+    }
+
+    /**
+     * Ensures that the failure of a batch is reported to the future of each of its statements.
+     *
+     * @test_category queries:batch
+     */
+    @Test(groups = "unit")
+    public void should_fail_all_statements_of_failed_batch() throws Exception {
+        error = new WriteTimeoutException(ConsistencyLevel.ONE, WriteType.UNLOGGED_BATCH, 0, 1);
+        BatchingWriter writer = BatchingWriter.builder(session).withMaxBatchSize(2).build();
+
+        List<ListenableFuture<ResultSet>> futures = new ArrayList<ListenableFuture<ResultSet>>();
+        futures.add(writer.write(insert(1)));
+        futures.add(writer.write(insert(1)));
+        for (ListenableFuture<ResultSet> future : futures) {
+            try {
+                Uninterruptibles.getUninterruptibly(future);
+                fail("Expected an ExecutionException");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isSameAs(error);
+            }
+        }
+        writer.close();
+        try {
+            writer.write(insert(1));
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Ensures that the statements written while the writer is being closed are all sent.
+     *
+     * @test_category queries:batch
+     */
+    @Test(groups = "unit")
+    public void should_send_statements_written_concurrently_with_close() throws Exception {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            final BatchingWriter writer = BatchingWriter.builder(session)
+                    .withMaxBatchSize(100)
+                    .withMaxLingerTime(1, TimeUnit.HOURS)
+                    .build();
+            final List<ListenableFuture<ResultSet>> futures = Collections.synchronizedList(new ArrayList<ListenableFuture<ResultSet>>());
+            final CountDownLatch started = new CountDownLatch(4);
+            List<Thread> writers = new ArrayList<Thread>();
+            for (int i = 0; i < 4; i++) {
+                final int partition = i;
+                Thread thread = new Thread() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        try {
+                            for (int k = 0; ; k += 4)
+                                futures.add(writer.write(insert(partition + k)));
+                        } catch (IllegalStateException e) {
+                            // closed
+                        }
+                    }
+                };
+                thread.start();
+                writers.add(thread);
+            }
+            started.await();
+            writer.close();
+            for (Thread thread : writers)
+                thread.join();
+            for (ListenableFuture<ResultSet> future : futures)
+                assertThat(future.get(1, TimeUnit.SECONDS)).isSameAs(resultSet);
+        }
+    }
+
+    private static Statement insert(int k) {
+        return new SimpleStatement("INSERT INTO t (k, v) VALUES (?, 'v')", k).setRoutingKey(key(k)).setKeyspace("ks");
+    }
+
+    private static ByteBuffer key(int k) {
+        return TypeCodec.cint().serialize(k, ProtocolVersion.V4);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static com.datastax.driver.core.ProtocolVersion.V4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BoundStatementSerializationTest {
+
+    PreparedStatement prepared;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        ColumnDefinitions variables = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+                new ColumnDefinitions.Definition("ks", "t", "k", DataType.text()),
+                new ColumnDefinitions.Definition("ks", "t", "id", DataType.uuid()),
+                new ColumnDefinitions.Definition("ks", "t", "b", DataType.blob()),
+                new ColumnDefinitions.Definition("ks", "t", "l", DataType.list(DataType.cint()))
+        }, CodecRegistry.DEFAULT_INSTANCE);
+        PreparedId preparedId = new PreparedId(MD5Digest.wrap(new byte[16]), variables, ColumnDefinitions.EMPTY,
+                new int[]{0}, V4);
+        prepared = mock(PreparedStatement.class);
+        when(prepared.getPreparedId()).thenReturn(preparedId);
+        when(prepared.getVariables()).thenReturn(variables);
+        when(prepared.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT_INSTANCE);
+    }
+
+    /**
+     * Ensures that values that are written directly into the request frame produce the same bytes as values that
+     * are serialized when they are bound, whatever the layout of the frame buffer.
+     *
+     * @test_category prepared_statements:binding
+     */
+    @Test(groups = "unit")
+    public void should_write_deferred_values_like_serialized_values() {
+        UUID id = UUID.randomUUID();
+        ByteBuffer blob = ByteBuffer.wrap(new byte[]{1, 2, 3});
+        BoundStatement statement = new BoundStatement(prepared)
+                .setString(0, "caf\u00e9")
+                .setUUID(1, id)
+                .setBytes(2, blob)
+                .setList(3, Arrays.asList(1, 2));
+        // changing the position of the buffer after binding it has no effect
+        blob.position(1);
+
+        List<ByteBuffer> requestValues = statement.wrapper.requestValues();
+        assertThat(requestValues).isInstanceOf(BoundStatement.RequestValues.class);
+        List<ByteBuffer> expected = Arrays.asList(
+                TypeCodec.varchar().serialize("caf\u00e9", V4),
+                TypeCodec.uuid().serialize(id, V4),
+                ByteBuffer.wrap(new byte[]{1, 2, 3}),
+                TypeCodec.list(TypeCodec.cint()).serialize(Arrays.asList(1, 2), V4));
+
+        assertThat(CBUtil.sizeOfValueList(requestValues)).isEqualTo(CBUtil.sizeOfValueList(expected));
+        ByteBuf expectedBytes = Unpooled.buffer();
+        CBUtil.writeValueList(expected, expectedBytes);
+
+        ByteBuf heap = Unpooled.buffer(4);
+        CBUtil.writeValueList(requestValues, heap);
+        assertThat(heap).isEqualTo(expectedBytes);
+
+        ByteBuf direct = Unpooled.directBuffer(4);
+        CBUtil.writeValueList(requestValues, direct);
+        assertThat(direct).isEqualTo(expectedBytes);
+
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(Unpooled.buffer(2).writeShort(0)).writerIndex(2);
+        composite.addComponent(Unpooled.buffer(1024));
+        CBUtil.writeValueList(requestValues, composite);
+        composite.readerIndex(2);
+        assertThat(composite.slice()).isEqualTo(expectedBytes);
+
+        // deferred values are serialized on demand for other uses
+        assertThat(statement.getRoutingKey(V4, CodecRegistry.DEFAULT_INSTANCE)).isEqualTo(expected.get(0));
+        assertThat(statement.getString(0)).isEqualTo("caf\u00e9");
+        assertThat(statement.getUUID(1)).isEqualTo(id);
+        assertThat(Arrays.asList(statement.wrapper.serializedValues())).isEqualTo(expected);
+    }
+
+    /**
+     * Ensures that rebinding a value that was written directly into the frame replaces it.
+     *
+     * @test_category prepared_statements:binding
+     */
+    @Test(groups = "unit")
+    public void should_replace_deferred_value_when_rebound() {
+        BoundStatement statement = new BoundStatement(prepared).setString(0, "foo");
+        statement.setBytesUnsafe(0, TypeCodec.varchar().serialize("bar", V4));
+        assertThat(statement.getString(0)).isEqualTo("bar");
+        statement.setString(0, "baz");
+        assertThat(statement.getString(0)).isEqualTo("baz");
+        statement.setToNull(0);
+        assertThat(statement.isNull(0)).isTrue();
+        assertThat(statement.wrapper.requestValues().get(0)).isNull();
+    }
+}
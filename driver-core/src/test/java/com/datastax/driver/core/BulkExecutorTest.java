@@ -0,0 +1,306 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BulkExecutorTest {
+
+    Session session;
+    Host host1, host2;
+    // Requests in flight, in the order they were sent
+    List<PendingResultSetFuture> inFlight;
+    List<Statement> sent;
+    // Drains scheduled by the executions, run manually with runTasks()
+    Queue<Runnable> tasks;
+    Executor drainExecutor;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        tasks = new ConcurrentLinkedQueue<Runnable>();
+        drainExecutor = new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                tasks.add(task);
+            }
+        };
+        inFlight = Collections.synchronizedList(new ArrayList<PendingResultSetFuture>());
+        sent = Collections.synchronizedList(new ArrayList<Statement>());
+        host1 = mock(Host.class);
+        host2 = mock(Host.class);
+
+        // even keys on host1, odd keys on host2
+        Metadata metadata = mock(Metadata.class);
+        when(metadata.getReplicas(anyString(), any(ByteBuffer.class))).thenAnswer(new Answer<Set<Host>>() {
+            @Override
+            public Set<Host> answer(InvocationOnMock invocation) throws Throwable {
+                ByteBuffer key = (ByteBuffer) invocation.getArguments()[1];
+                return key.getInt(key.position()) % 2 == 0 ? ImmutableSet.of(host1, host2) : ImmutableSet.of(host2, host1);
+            }
+        });
+        ProtocolOptions protocolOptions = mock(ProtocolOptions.class);
+        when(protocolOptions.getProtocolVersion()).thenReturn(ProtocolVersion.V4);
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getProtocolOptions()).thenReturn(protocolOptions);
+        when(configuration.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT_INSTANCE);
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getMetadata()).thenReturn(metadata);
+        when(cluster.getConfiguration()).thenReturn(configuration);
+
+        session = mock(Session.class);
+        when(session.getCluster()).thenReturn(cluster);
+        when(session.executeAsync(any(Statement.class))).thenAnswer(new Answer<ResultSetFuture>() {
+            @Override
+            public ResultSetFuture answer(InvocationOnMock invocation) throws Throwable {
+                sent.add((Statement) invocation.getArguments()[0]);
+                PendingResultSetFuture future = new PendingResultSetFuture();
+                inFlight.add(future);
+                return future;
+            }
+        });
+    }
+
+    /**
+     * Ensures that the number of requests in flight is bounded, and that failures are reported without stopping the
+     * execution.
+     *
+     * @test_category queries:bulk
+     */
+    @Test(groups = "unit")
+    public void should_bound_requests_in_flight_and_report_failures() throws Exception {
+        final List<Statement> failures = new ArrayList<Statement>();
+        BulkExecutor executor = BulkExecutor.builder(session)
+                .withMaxInFlight(2)
+                .withExecutor(drainExecutor)
+                .withFailureHandler(new BulkExecutor.FailureHandler() {
+                    @Override
+                    public void onFailure(Statement statement, Throwable error) {
+                        failures.add(statement);
+                    }
+                })
+                .build();
+        List<Statement> statements = Arrays.asList(insert(0), insert(1), insert(2), insert(3), insert(4));
+
+        ListenableFuture<BulkExecutor.Stats> future = executor.executeAsync(statements);
+        runTasks();
+        assertThat(sent).hasSize(2);
+
+        inFlight.get(0).set(null);
+        runTasks();
+        assertThat(sent).hasSize(3);
+        inFlight.get(1).setException(new WriteTimeoutException(ConsistencyLevel.ONE, WriteType.SIMPLE, 0, 1));
+        runTasks();
+        assertThat(sent).hasSize(4);
+        inFlight.get(2).set(null);
+        inFlight.get(3).set(null);
+        runTasks();
+        assertThat(sent).hasSize(5);
+        assertThat(future.isDone()).isFalse();
+        inFlight.get(4).set(null);
+        runTasks();
+
+        BulkExecutor.Stats stats = future.get();
+        assertThat(sent).isEqualTo(statements);
+        assertThat(failures).containsExactly(statements.get(1));
+        assertThat(stats.getExecuted()).isEqualTo(5);
+        assertThat(stats.getSuccessful()).isEqualTo(4);
+        assertThat(stats.getFailed()).isEqualTo(1);
+        assertThat(stats.getLatencies().size()).isEqualTo(5);
+    }
+
+    /**
+     * Ensures that the number of requests in flight on each host is bounded, and that the statements of a busy host
+     * don't prevent the statements of other hosts from being sent.
+     *
+     * @test_category queries:bulk
+     */
+    @Test(groups = "unit")
+    public void should_bound_requests_in_flight_per_host() throws Exception {
+        BulkExecutor executor = BulkExecutor.builder(session)
+                .withMaxInFlight(10)
+                .withMaxInFlightPerHost(1)
+                .withExecutor(drainExecutor)
+                .build();
+        List<Statement> statements = Arrays.asList(insert(0), insert(2), insert(4), insert(1));
+
+        ListenableFuture<BulkExecutor.Stats> future = executor.executeAsync(statements);
+        runTasks();
+        // 2 and 4 wait for host1, 1 is sent to host2
+        assertThat(sent).containsExactly(statements.get(0), statements.get(3));
+
+        inFlight.get(1).set(null);
+        runTasks();
+        assertThat(sent).hasSize(2);
+        inFlight.get(0).set(null);
+        runTasks();
+        assertThat(sent).containsExactly(statements.get(0), statements.get(3), statements.get(1));
+        inFlight.get(2).set(null);
+        runTasks();
+        assertThat(sent).hasSize(4);
+        inFlight.get(3).set(null);
+        runTasks();
+
+        assertThat(future.get().getSuccessful()).isEqualTo(4);
+    }
+
+    /**
+     * Ensures that an empty iterator completes immediately.
+     *
+     * @test_category queries:bulk
+     */
+    @Test(groups = "unit")
+    public void should_complete_immediately_if_no_statements() {
+        BulkExecutor.Stats stats = BulkExecutor.builder(session).build().execute(Collections.<Statement>emptyList());
+        assertThat(stats.getExecuted()).isEqualTo(0);
+        assertThat(sent).isEmpty();
+    }
+
+    /**
+     * Ensures that statements are not pulled from the iterator on the thread that completes a request, but on the
+     * executor.
+     *
+     * @test_category queries:bulk
+     */
+    @Test(groups = "unit")
+    public void should_pull_statements_on_executor() throws Exception {
+        BulkExecutor executor = BulkExecutor.builder(session)
+                .withMaxInFlight(1)
+                .withExecutor(drainExecutor)
+                .build();
+        RecordingIterator statements = new RecordingIterator(3);
+
+        ListenableFuture<BulkExecutor.Stats> future = executor.executeAsync(statements);
+        assertThat(statements.pulled).isEmpty();
+        runTasks();
+        assertThat(statements.pulled).hasSize(1);
+
+        inFlight.get(0).set(null);
+        // completing the request only schedules a drain
+        assertThat(statements.pulled).hasSize(1);
+        assertThat(sent).hasSize(1);
+        runTasks();
+        assertThat(statements.pulled).hasSize(2);
+        assertThat(sent).hasSize(2);
+
+        inFlight.get(1).set(null);
+        runTasks();
+        inFlight.get(2).set(null);
+        runTasks();
+        assertThat(future.get().getSuccessful()).isEqualTo(3);
+    }
+
+    /**
+     * Ensures that the synchronous execution pulls statements on the calling thread, even if requests complete on
+     * other threads.
+     *
+     * @test_category queries:bulk
+     */
+    @Test(groups = "unit")
+    public void should_pull_statements_on_calling_thread_when_synchronous() throws Exception {
+        final ExecutorService completer = Executors.newSingleThreadExecutor();
+        try {
+            when(session.executeAsync(any(Statement.class))).thenAnswer(new Answer<ResultSetFuture>() {
+                @Override
+                public ResultSetFuture answer(InvocationOnMock invocation) throws Throwable {
+                    final PendingResultSetFuture future = new PendingResultSetFuture();
+                    completer.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            future.set(null);
+                        }
+                    });
+                    return future;
+                }
+            });
+            final RecordingIterator statements = new RecordingIterator(10);
+
+            BulkExecutor.Stats stats = BulkExecutor.builder(session).withMaxInFlight(2).build()
+                    .execute(new Iterable<Statement>() {
+                        @Override
+                        public Iterator<Statement> iterator() {
+                            return statements;
+                        }
+                    });
+
+            assertThat(stats.getSuccessful()).isEqualTo(10);
+            assertThat(statements.pulled).hasSize(10);
+            assertThat(new HashSet<Thread>(statements.threads)).containsOnly(Thread.currentThread());
+        } finally {
+            completer.shutdownNow();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null)
+            task.run();
+    }
+
+    // Records the statements pulled, and the threads that pulled them
+    static class RecordingIterator implements Iterator<Statement> {
+        final int size;
+        final List<Statement> pulled = Collections.synchronizedList(new ArrayList<Statement>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        RecordingIterator(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            threads.add(Thread.currentThread());
+            return pulled.size() < size;
+        }
+
+        @Override
+        public Statement next() {
+            threads.add(Thread.currentThread());
+            Statement statement = insert(pulled.size());
+            pulled.add(statement);
+            return statement;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static Statement insert(int k) {
+        return new SimpleStatement("INSERT INTO t (k) VALUES (?)", k)
+                .setRoutingKey(TypeCodec.cint().serialize(k, ProtocolVersion.V4))
+                .setKeyspace("ks");
+    }
+}
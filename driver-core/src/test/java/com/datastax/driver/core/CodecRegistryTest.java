@@ -16,7 +16,10 @@
 package com.datastax.driver.core;
 
 import com.datastax.driver.core.exceptions.CodecNotFoundException;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.testng.annotations.DataProvider;
@@ -27,12 +30,14 @@ import java.math.BigInteger;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 
 import static com.datastax.driver.core.Assertions.assertThat;
 import static com.datastax.driver.core.DataType.*;
 import static com.datastax.driver.core.DataType.list;
 import static com.datastax.driver.core.ProtocolVersion.V4;
 import static com.datastax.driver.core.TypeTokens.*;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.reflect.TypeToken.of;
 import static java.util.Collections.*;
 import static org.mockito.Mockito.mock;
@@ -476,6 +481,134 @@ public class CodecRegistryTest {
         stopCapturingLogs(logs);
     }
 
+    @Test(groups = "unit")
+    public void should_cache_codecs_found_by_value() {
+        CodecRegistry registry = new CodecRegistry();
+        // generated codecs are new instances, so getting the same instance twice means that it was cached
+        TypeCodec<ArrayList<Integer>> intList = registry.codecFor(newArrayList(1, 2));
+        assertThat(registry.codecFor(newArrayList(3))).isSameAs(intList);
+        assertThat(registry.codecFor(newArrayList("a"))).isNotSameAs(intList).accepts(listOf(String.class));
+        assertThat(registry.codecFor(new ArrayList<Integer>())).isNotSameAs(intList).accepts(list(blob()));
+        TypeCodec<ImmutableMap<String, ImmutableSet<Integer>>> map = registry.codecFor(ImmutableMap.of("a", ImmutableSet.of(1)));
+        assertThat(registry.codecFor(ImmutableMap.of("b", ImmutableSet.of(2)))).isSameAs(map);
+        assertThat(registry.codecFor(list(cint()), newArrayList(1))).isNotSameAs(intList).accepts(list(cint()));
+
+        // registering a codec clears the cache
+        TypeCodec<List<Integer>> newCodec = TypeCodec.list(TypeCodec.cint());
+        registry.register(newCodec);
+        assertThat(registry.codecFor(newArrayList(1, 2))).isSameAs(newCodec);
+    }
+
+    @Test(groups = "unit")
+    public void should_not_cache_stale_codec_if_codec_registered_during_lookup_by_value() throws Exception {
+        final CodecRegistry registry = new CodecRegistry();
+        final CountDownLatch lookupStarted = new CountDownLatch(1);
+        final CountDownLatch registered = new CountDownLatch(1);
+        // the first iteration computes the shape of the value; the next ones happen once the registered codecs have
+        // been scanned, that's where the lookup pauses
+        final BlockingList value = new BlockingList(lookupStarted, registered);
+        Thread lookup = new Thread() {
+            @Override
+            public void run() {
+                registry.codecFor(value);
+            }
+        };
+        lookup.start();
+        lookupStarted.await();
+        TypeCodec<List<Integer>> newCodec = TypeCodec.list(TypeCodec.cint());
+        registry.register(newCodec);
+        registered.countDown();
+        lookup.join();
+
+        assertThat(registry.codecFor(new BlockingList(null, null))).isSameAs(newCodec);
+    }
+
+    @SuppressWarnings("serial")
+    private static class BlockingList extends ArrayList<Integer> {
+        private final CountDownLatch started, resume;
+        private int iterations;
+
+        BlockingList(CountDownLatch started, CountDownLatch resume) {
+            super(singletonList(1));
+            this.started = started;
+            this.resume = resume;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            if (++iterations == 2 && started != null) {
+                started.countDown();
+                Uninterruptibles.awaitUninterruptibly(resume);
+            }
+            return super.iterator();
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_not_cache_codecs_found_by_value_if_codec_inspects_values() {
+        TypeCodec<StringBuilder> emptyCodec = new StringBuilderCodec(TypeCodec.varchar()) {
+            @Override
+            public boolean accepts(Object value) {
+                return super.accepts(value) && ((StringBuilder) value).length() == 0;
+            }
+        };
+        TypeCodec<StringBuilder> anyCodec = new StringBuilderCodec(TypeCodec.ascii());
+        CodecRegistry registry = new CodecRegistry().register(emptyCodec, anyCodec);
+        assertThat(registry.codecFor(new StringBuilder())).isSameAs(emptyCodec);
+        assertThat(registry.codecFor(new StringBuilder("a"))).isSameAs(anyCodec);
+        assertThat(registry.codecFor(new StringBuilder())).isSameAs(emptyCodec);
+    }
+
+    @Test(groups = "unit")
+    public void should_serve_lookups_from_snapshot_when_frozen() {
+        CodecRegistry registry = new CodecRegistry();
+        TypeCodec<List<Integer>> intList = registry.codecFor(list(cint()), listOf(Integer.class));
+        assertThat(registry.isFrozen()).isFalse();
+
+        registry.freeze();
+        assertThat(registry.isFrozen()).isTrue();
+        // codecs found before freezing are kept
+        assertThat(registry.codecFor(list(cint()), listOf(Integer.class))).isSameAs(intList);
+        // codecs found after freezing are added to the snapshot
+        TypeCodec<Set<String>> stringSet = registry.codecFor(set(varchar()), setOf(String.class));
+        assertThat(registry.codecFor(set(varchar()), setOf(String.class))).isSameAs(stringSet);
+        assertThat(registry.codecFor(cint())).isSameAs(TypeCodec.cint());
+        try {
+            registry.codecFor(cint(), String.class);
+            fail("Expected a CodecNotFoundException");
+        } catch (CodecNotFoundException e) {
+            // expected
+        }
+
+        // registered codecs are added to the snapshot
+        TypeCodec<List<String>> stringList = TypeCodec.list(TypeCodec.varchar());
+        registry.register(stringList);
+        assertThat(registry.codecFor(list(varchar()), listOf(String.class))).isSameAs(stringList);
+        // and collisions with the snapshot are still detected
+        MemoryAppender logs = startCapturingLogs();
+        registry.register(TypeCodec.set(TypeCodec.varchar()));
+        assertThat(logs.getNext()).contains("Ignoring codec");
+        stopCapturingLogs(logs);
+        assertThat(registry.codecFor(set(varchar()), setOf(String.class))).isSameAs(stringSet);
+    }
+
+    private static class StringBuilderCodec extends MappingCodec<StringBuilder, String> {
+
+        StringBuilderCodec(TypeCodec<String> innerCodec) {
+            super(innerCodec, StringBuilder.class);
+        }
+
+        @Override
+        protected StringBuilder deserialize(String value) {
+            return value == null ? null : new StringBuilder(value);
+        }
+
+        @Override
+        protected String serialize(StringBuilder value) {
+            return value == null ? null : value.toString();
+        }
+    }
+
     private MemoryAppender startCapturingLogs() {
         Logger registryLogger = Logger.getLogger(CodecRegistry.class);
         registryLogger.setLevel(Level.WARN);
@@ -15,8 +15,16 @@
  */
 package com.datastax.driver.core;
 
+import com.google.common.reflect.TypeToken;
 import org.testng.annotations.Test;
 
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.testng.Assert.assertTrue;
 
 public class ColumnDefinitionsTest {
@@ -69,4 +77,109 @@ public class ColumnDefinitionsTest {
 
         assertTrue(defs.getType("column").equals(DataType.text()));
     }
+
+    /**
+     * Ensures that the codecs resolved for a column are cached by Java type, and that the cache doesn't mix up
+     * Java types.
+     *
+     * @test_category data_types:serialization
+     */
+    @Test(groups = "unit")
+    public void should_cache_resolved_codecs_per_java_type() {
+        CodecRegistry registry = new CodecRegistry();
+        ColumnDefinitions defs = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+                new ColumnDefinitions.Definition("ks", "cf", "i", DataType.cint()),
+                new ColumnDefinitions.Definition("ks", "cf", "l", DataType.list(DataType.text()))
+        }, registry);
+        TypeToken<List<String>> listOfString = new TypeToken<List<String>>() {
+        };
+
+        for (int n = 0; n < 3; n++) {
+            assertThat(defs.codecFor(0, Integer.class)).isSameAs(TypeCodec.cint());
+            assertThat(defs.<Integer>codecFor(0)).isSameAs(TypeCodec.cint());
+            assertThat(defs.codecFor(1, listOfString)).isSameAs(registry.codecFor(DataType.list(DataType.text()), listOfString));
+        }
+
+        // More Java types than the cache can hold: older entries are evicted, lookups are still correct
+        Map<Class<?>, TypeCodec<?>> intCodecs = new LinkedHashMap<Class<?>, TypeCodec<?>>();
+        intCodecs.put(Integer.class, TypeCodec.cint());
+        for (Class<?> javaClass : new Class<?>[]{String.class, Long.class, Short.class, Double.class, BigInteger.class}) {
+            TypeCodec<?> codec = new IntMappingCodec(javaClass);
+            registry.register(codec);
+            intCodecs.put(javaClass, codec);
+        }
+        for (int n = 0; n < 2; n++) {
+            for (Map.Entry<Class<?>, TypeCodec<?>> entry : intCodecs.entrySet())
+                assertThat(defs.codecFor(0, entry.getKey())).isSameAs(entry.getValue());
+        }
+        assertThat(defs.<Integer>codecFor(0)).isSameAs(TypeCodec.cint());
+        assertThat(defs.codecFor(1, listOfString)).isSameAs(registry.codecFor(DataType.list(DataType.text()), listOfString));
+    }
+
+    // A codec for int columns with another Java type; only its identity matters
+    @SuppressWarnings("unchecked")
+    private static class IntMappingCodec extends MappingCodec<Object, Integer> {
+
+        IntMappingCodec(Class<?> javaType) {
+            super(TypeCodec.cint(), (Class<Object>) javaType);
+        }
+
+        @Override
+        protected Object deserialize(Integer value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected Integer serialize(Object value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Ensures that accessors resolve names like the by-name methods, including repeated names, and detect the
+     * metadata that they apply to.
+     *
+     * @test_category queries:result_set
+     */
+    @Test(groups = "unit")
+    public void should_resolve_accessors_once() {
+        ColumnDefinitions defs = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+                new ColumnDefinitions.Definition("ks", "cf", "k", DataType.cint()),
+                new ColumnDefinitions.Definition("ks", "cf", "foo", DataType.text()),
+                new ColumnDefinitions.Definition("ks", "cf", "FOO", DataType.cint()),
+                new ColumnDefinitions.Definition("ks", "cf", "k", DataType.cint())
+        }, CodecRegistry.DEFAULT_INSTANCE);
+
+        ColumnDefinitions.Accessor foo = defs.accessor("Foo");
+        assertThat(foo.getName()).isEqualTo("Foo");
+        assertThat(foo.getIndex()).isEqualTo(defs.getIndexOf("Foo"));
+        assertThat(foo.getType()).isEqualTo(DataType.text());
+        ColumnDefinitions.Accessor quoted = defs.accessor("\"FOO\"");
+        assertThat(quoted.getIndex()).isEqualTo(2);
+        assertThat(quoted.getIndexCount()).isEqualTo(1);
+        ColumnDefinitions.Accessor k = defs.accessor("k");
+        assertThat(k.getIndexCount()).isEqualTo(2);
+        assertThat(k.getIndex(0)).isEqualTo(0);
+        assertThat(k.getIndex(1)).isEqualTo(3);
+        try {
+            defs.accessor("bar");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // the metadata of another page of the same query
+        ColumnDefinitions sameColumns = new ColumnDefinitions(defs.asList().toArray(new ColumnDefinitions.Definition[4]),
+                CodecRegistry.DEFAULT_INSTANCE);
+        assertThat(k.appliesTo(defs)).isTrue();
+        assertThat(k.appliesTo(sameColumns)).isTrue();
+        ColumnDefinitions otherColumns = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+                new ColumnDefinitions.Definition("ks", "cf", "foo", DataType.text()),
+                new ColumnDefinitions.Definition("ks", "cf", "k", DataType.cint()),
+                new ColumnDefinitions.Definition("ks", "cf", "FOO", DataType.cint()),
+                new ColumnDefinitions.Definition("ks", "cf", "k", DataType.cint())
+        }, CodecRegistry.DEFAULT_INSTANCE);
+        assertThat(k.appliesTo(otherColumns)).isFalse();
+        assertThat(quoted.appliesTo(otherColumns)).isTrue();
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.datastax.driver.core.ProtocolVersion.V4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class ColumnarPageTest {
+
+    ColumnDefinitions metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "t", "k", DataType.text()),
+            new ColumnDefinitions.Definition("ks", "t", "l", DataType.bigint()),
+            new ColumnDefinitions.Definition("ks", "t", "i", DataType.cint()),
+            new ColumnDefinitions.Definition("ks", "t", "s", DataType.smallint()),
+            new ColumnDefinitions.Definition("ks", "t", "d", DataType.cdouble()),
+            new ColumnDefinitions.Definition("ks", "t", "f", DataType.cfloat()),
+            new ColumnDefinitions.Definition("ks", "t", "b", DataType.cboolean())
+    }, CodecRegistry.DEFAULT_INSTANCE);
+
+    /**
+     * Ensures that {@link ColumnarPage} decodes the requested columns into primitive vectors, with nulls.
+     *
+     * @test_category queries:columnar
+     */
+    @Test(groups = "unit")
+    public void should_decode_requested_columns_into_vectors() {
+        List<List<ByteBuffer>> rows = new ArrayList<List<ByteBuffer>>();
+        rows.add(row("a", 1L, 10, (short) -3, 1.5, 0.25f, true));
+        rows.add(row("b", null, null, null, null, null, null));
+        rows.add(row("c", Long.MAX_VALUE, -7, (short) 300, -2.0, -1f, false));
+
+        ColumnarPage page = ColumnarPage.decode(metadata, rows, "l", "I", "s", "d", "f", "b", "k");
+        assertThat(page.size()).isEqualTo(3);
+        assertThat(page.getColumnCount()).isEqualTo(7);
+
+        ColumnVector l = page.getColumn("l");
+        assertThat(l.getLongs()).containsExactly(1L, 0L, Long.MAX_VALUE);
+        assertThat(l.isNull(0)).isFalse();
+        assertThat(l.isNull(1)).isTrue();
+        assertThat(l.getNullCount()).isEqualTo(1);
+        assertThat(page.getColumn(1).getInts()).containsExactly(10, 0, -7);
+        assertThat(page.getColumn("\"s\"").getInts()).containsExactly(-3, 0, 300);
+        assertThat(page.getColumn("d").getDoubles()).containsExactly(1.5, 0, -2.0);
+        assertThat(page.getColumn("f").getDoubles()).containsExactly(0.25, 0, -1.0);
+        assertThat(page.getColumn("b").getBooleans()).containsExactly(true, false, false);
+        assertThat(page.getColumn("b").isNull(1)).isTrue();
+
+        ByteBuffer[] keys = page.getColumn("k").getBytesUnsafe();
+        assertThat(TypeCodec.varchar().deserialize(keys[2], V4)).isEqualTo("c");
+        // Reading the value does not affect the page
+        assertThat(rows.get(2).get(0).remaining()).isEqualTo(1);
+
+        try {
+            page.getColumn("k").getLongs();
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Ensures that {@link ColumnarPage} only accepts columns of the result set.
+     *
+     * @test_category queries:columnar
+     */
+    @Test(groups = "unit", expectedExceptions = IllegalArgumentException.class)
+    public void should_fail_if_column_does_not_exist() {
+        ColumnarPage.decode(metadata, new ArrayList<List<ByteBuffer>>(), "l", "unknown");
+    }
+
+    private static List<ByteBuffer> row(String k, Long l, Integer i, Short s, Double d, Float f, Boolean b) {
+        return Arrays.asList(
+                TypeCodec.varchar().serialize(k, V4),
+                TypeCodec.bigint().serialize(l, V4),
+                TypeCodec.cint().serialize(i, V4),
+                TypeCodec.smallInt().serialize(s, V4),
+                TypeCodec.cdouble().serialize(d, V4),
+                TypeCodec.cfloat().serialize(f, V4),
+                TypeCodec.cboolean().serialize(b, V4));
+    }
+}
@@ -16,8 +16,11 @@
 package com.datastax.driver.core;
 
 import com.datastax.driver.core.exceptions.UnsupportedFeatureException;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.testng.Assert.*;
 
 /**
@@ -59,4 +62,36 @@ public class FetchingTest extends CCMTestsSupport {
             assertEquals(cluster().getConfiguration().getProtocolOptions().getProtocolVersion(), ProtocolVersion.V1);
         }
     }
+
+    @Test(groups = "short")
+    public void should_prefetch_next_page_when_under_threshold() {
+        try {
+            String key = "prefetch_test";
+            for (int i = 0; i < 100; i++)
+                session().execute(String.format("INSERT INTO test (k, v) VALUES ('%s', %d)", key, i));
+
+            SimpleStatement st = new SimpleStatement(String.format("SELECT v FROM test WHERE k='%s'", key));
+            st.setFetchSize(5);
+            st.setPrefetchThreshold(2);
+            ResultSet rs = session().execute(st);
+
+            for (int i = 0; i < 4; i++)
+                assertEquals(rs.one().getInt(0), i);
+            // Only one row left in the first page, the next one should be fetched in the background
+            long deadline = System.currentTimeMillis() + 5000;
+            while (rs.getAvailableWithoutFetching() != 6 && System.currentTimeMillis() < deadline)
+                Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+            assertEquals(rs.getAvailableWithoutFetching(), 6);
+
+            // Rows are still returned in order, without duplicates
+            for (int i = 4; i < 100; i++)
+                assertEquals(rs.one().getInt(0), i);
+            assertTrue(rs.isExhausted());
+            assertTrue(rs.isFullyFetched());
+
+        } catch (UnsupportedFeatureException e) {
+            // This is expected when testing the protocol v1
+            assertEquals(cluster().getConfiguration().getProtocolOptions().getProtocolVersion(), ProtocolVersion.V1);
+        }
+    }
 }
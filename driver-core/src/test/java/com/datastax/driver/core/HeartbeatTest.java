@@ -72,11 +72,16 @@ public class HeartbeatTest extends CCMTestsSupport {
         }
         assertThat(logs.getNext()).doesNotContain("sending heartbeat");
 
+        Host host = cluster.getMetadata().getAllHosts().iterator().next();
+        assertThat(host.getHeartbeatLatencyNanos()).isEqualTo(-1);
+
         // Ensure heartbeat is sent after no activity.
         SECONDS.sleep(4);
         assertThat(logs.getNext())
                 .contains("sending heartbeat")
                 .contains("heartbeat query succeeded");
+        // The latency of the heartbeat was recorded
+        assertThat(host.getHeartbeatLatencyNanos()).isGreaterThan(0);
 
         // Ensure heartbeat is sent after continued inactivity.
         SECONDS.sleep(4);
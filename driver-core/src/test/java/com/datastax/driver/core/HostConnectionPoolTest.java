@@ -20,6 +20,7 @@ import com.datastax.driver.core.exceptions.BusyConnectionException;
 import com.datastax.driver.core.exceptions.ConnectionException;
 import com.datastax.driver.core.policies.ConstantReconnectionPolicy;
 import com.google.common.util.concurrent.*;
+import io.netty.channel.EventLoop;
 import org.scassandra.cql.PrimitiveType;
 import org.scassandra.http.client.PrimingRequest;
 import org.testng.annotations.BeforeClass;
@@ -211,6 +212,39 @@ public class HostConnectionPoolTest extends ScassandraTestBase.PerClassCluster {
         }
     }
 
+    /**
+     * Ensures that, when event loop affinity is enabled, a connection borrowed from an event loop is owned by that
+     * event loop.
+     *
+     * @test_category connection:connection_pool
+     */
+    @Test(groups = "short")
+    public void should_borrow_connection_owned_by_current_event_loop_when_affinity_enabled() throws Exception {
+        Cluster cluster = createClusterBuilder().build();
+        try {
+            cluster.getConfiguration().getPoolingOptions().setEventLoopAffinityEnabled(true);
+            final HostConnectionPool pool = createPool(cluster, 4, 4);
+            assertThat(pool.connections).hasSize(4);
+
+            for (Connection connection : pool.connections) {
+                final EventLoop eventLoop = connection.channel.eventLoop();
+                Connection borrowed = eventLoop.submit(new Callable<Connection>() {
+                    @Override
+                    public Connection call() throws Exception {
+                        return pool.borrowConnection(1, SECONDS);
+                    }
+                }).get(5, SECONDS);
+                try {
+                    assertThat(borrowed.channel.eventLoop()).isSameAs(eventLoop);
+                } finally {
+                    pool.returnConnection(borrowed);
+                }
+            }
+        } finally {
+            cluster.close();
+        }
+    }
+
     /**
      * Ensures that a trashed connection that has not been timed out should be resurrected into the connection pool if
      * borrowConnection is called and a new connection is needed.
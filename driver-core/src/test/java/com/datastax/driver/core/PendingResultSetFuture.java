@@ -0,0 +1,45 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.util.concurrent.AbstractFuture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ResultSetFuture} that tests complete manually, to simulate requests in flight.
+ */
+public class PendingResultSetFuture extends AbstractFuture<ResultSet> implements ResultSetFuture {
+    @Override
+    public boolean set(ResultSet value) {
+        return super.set(value);
+    }
+
+    @Override
+    public boolean setException(Throwable throwable) {
+        return super.setException(throwable);
+    }
+
+    @Override
+    public ResultSet getUninterruptibly() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResultSet getUninterruptibly(long timeout, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.scassandra.http.client.PrimingRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.scassandra.cql.PrimitiveType.INT;
+import static org.scassandra.cql.PrimitiveType.TEXT;
+import static org.scassandra.http.client.PrimingRequest.then;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+public class ReadCoalescingTest extends ScassandraTestBase.PerClassCluster {
+
+    static final String QUERY = "SELECT v FROM coalescing WHERE k = ?";
+
+    PreparedStatement prepared;
+
+    @BeforeMethod(groups = "short")
+    public void setup() {
+        primingClient.prime(PrimingRequest.preparedStatementBuilder()
+                .withQuery(QUERY)
+                .withThen(then()
+                        .withVariableTypes(INT)
+                        .withColumnTypes(column("v", TEXT))
+                        .withRows(ImmutableMap.of("v", "value1"), ImmutableMap.of("v", "value2"))
+                        .withFixedDelay(200L))
+                .build());
+        prepared = session.prepare(QUERY);
+    }
+
+    /**
+     * Ensures that identical concurrent executions of a bound statement that enables coalescing share a single
+     * request, and that each caller gets a result set that it can consume independently.
+     *
+     * @test_category queries:coalescing
+     */
+    @Test(groups = "short")
+    public void should_coalesce_identical_concurrent_reads() {
+        long coalescedBefore = cluster.getMetrics().getCoalescedRequests().getCount();
+
+        List<ResultSetFuture> futures = new ArrayList<ResultSetFuture>();
+        for (int i = 0; i < 5; i++)
+            futures.add(session.executeAsync(prepared.bind(1).setCoalescingEnabled(true)));
+        // Different value, can't be coalesced
+        futures.add(session.executeAsync(prepared.bind(2).setCoalescingEnabled(true)));
+
+        for (ResultSetFuture future : futures) {
+            ResultSet rs = future.getUninterruptibly();
+            assertThat(rs.all()).hasSize(2);
+        }
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(2);
+        assertThat(cluster.getMetrics().getCoalescedRequests().getCount()).isEqualTo(coalescedBefore + 4);
+    }
+
+    /**
+     * Ensures that a caller that consumes its result set as soon as it completes, on the thread that completes it,
+     * doesn't consume the rows of the other callers.
+     *
+     * @test_category queries:coalescing
+     */
+    @Test(groups = "short")
+    public void should_not_share_rows_with_listener_of_first_caller() {
+        final ResultSetFuture first = session.executeAsync(prepared.bind(1).setCoalescingEnabled(true));
+        final AtomicInteger firstRows = new AtomicInteger(-1);
+        first.addListener(new Runnable() {
+            @Override
+            public void run() {
+                firstRows.set(first.getUninterruptibly().all().size());
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        List<ResultSetFuture> others = new ArrayList<ResultSetFuture>();
+        for (int i = 0; i < 3; i++)
+            others.add(session.executeAsync(prepared.bind(1).setCoalescingEnabled(true)));
+
+        for (ResultSetFuture future : others)
+            assertThat(future.getUninterruptibly().all()).hasSize(2);
+        assertThat(firstRows.get()).isEqualTo(2);
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(1);
+    }
+
+    /**
+     * Ensures that executions are not coalesced unless the statement enables it.
+     *
+     * @test_category queries:coalescing
+     */
+    @Test(groups = "short")
+    public void should_not_coalesce_if_disabled() {
+        List<ResultSetFuture> futures = new ArrayList<ResultSetFuture>();
+        for (int i = 0; i < 3; i++)
+            futures.add(session.executeAsync(prepared.bind(1)));
+        for (ResultSetFuture future : futures)
+            assertThat(future.getUninterruptibly().all()).hasSize(2);
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(3);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.scassandra.http.client.PrimingRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.scassandra.cql.PrimitiveType.INT;
+import static org.scassandra.cql.PrimitiveType.TEXT;
+import static org.scassandra.http.client.PrimingRequest.then;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+public class ResultCacheTest extends ScassandraTestBase.PerClassCluster {
+
+    static final String QUERY = "SELECT v FROM reference WHERE k = ?";
+
+    PreparedStatement prepared;
+
+    @BeforeMethod(groups = "short")
+    public void setup() {
+        primingClient.prime(PrimingRequest.preparedStatementBuilder()
+                .withQuery(QUERY)
+                .withThen(then()
+                        .withVariableTypes(INT)
+                        .withColumnTypes(column("v", TEXT))
+                        .withRows(ImmutableMap.of("v", "value1"), ImmutableMap.of("v", "value2")))
+                .build());
+        prepared = session.prepare(QUERY);
+    }
+
+    /**
+     * Ensures that the result of a statement with a result cache TTL is served from the cache until it expires.
+     *
+     * @test_category queries:result_cache
+     */
+    @Test(groups = "short")
+    public void should_serve_cached_result_until_it_expires() {
+        Metrics metrics = cluster.getMetrics();
+        long hitsBefore = metrics.getResultCacheHits().getCount();
+        long missesBefore = metrics.getResultCacheMisses().getCount();
+        long evictionsBefore = metrics.getResultCacheEvictions().getCount();
+
+        for (int i = 0; i < 3; i++) {
+            ResultSet rs = session.execute(prepared.bind(1).setResultCacheTtlMillis(500));
+            assertThat(rs.all()).hasSize(2);
+        }
+        // Different value, not cached yet
+        assertThat(session.execute(prepared.bind(2).setResultCacheTtlMillis(500)).all()).hasSize(2);
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(2);
+        assertThat(metrics.getResultCacheHits().getCount()).isEqualTo(hitsBefore + 2);
+        assertThat(metrics.getResultCacheMisses().getCount()).isEqualTo(missesBefore + 2);
+
+        Uninterruptibles.sleepUninterruptibly(600, TimeUnit.MILLISECONDS);
+        assertThat(session.execute(prepared.bind(1).setResultCacheTtlMillis(500)).one().getString("v")).isEqualTo("value1");
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(3);
+        assertThat(metrics.getResultCacheEvictions().getCount()).isEqualTo(evictionsBefore + 1);
+    }
+
+    /**
+     * Ensures that cached results are invalidated when the schema of their table changes.
+     *
+     * @test_category queries:result_cache
+     */
+    @Test(groups = "short")
+    public void should_invalidate_cached_results_when_table_changes() {
+        ColumnDefinitions columns = session.execute(prepared.bind(3).setResultCacheTtlMillis(60000)).getColumnDefinitions();
+        session.execute(prepared.bind(3).setResultCacheTtlMillis(60000));
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(1);
+
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        when(keyspace.getName()).thenReturn(columns.getKeyspace(0));
+        TableMetadata table = mock(TableMetadata.class);
+        when(table.getKeyspace()).thenReturn(keyspace);
+        when(table.getName()).thenReturn(columns.getTable(0));
+        cluster.manager.metadata.triggerOnTableChanged(table, table);
+
+        session.execute(prepared.bind(3).setResultCacheTtlMillis(60000));
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(2);
+    }
+
+    /**
+     * Ensures that binding a statement again after executing it doesn't change the entry cached for its previous
+     * values.
+     *
+     * @test_category queries:result_cache
+     */
+    @Test(groups = "short")
+    public void should_not_change_cached_entry_when_statement_is_bound_again() {
+        BoundStatement statement = prepared.bind(4);
+        statement.setResultCacheTtlMillis(60000);
+        session.execute(statement);
+        statement.setInt(0, 5);
+
+        assertThat(session.execute(prepared.bind(4).setResultCacheTtlMillis(60000)).all()).hasSize(2);
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(1);
+    }
+
+    /**
+     * Ensures that results are not cached unless the statement has a result cache TTL.
+     *
+     * @test_category queries:result_cache
+     */
+    @Test(groups = "short")
+    public void should_not_cache_if_no_ttl() {
+        for (int i = 0; i < 2; i++)
+            assertThat(session.execute(prepared.bind(1)).all()).hasSize(2);
+        assertThat(activityClient.retrievePreparedStatementExecutions()).hasSize(2);
+    }
+}
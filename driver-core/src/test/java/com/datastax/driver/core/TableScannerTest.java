@@ -0,0 +1,375 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TableScannerTest {
+
+    static final Token.Factory FACTORY = Token.M3PToken.FACTORY;
+    static final PagingState PAGING_STATE = PagingState.fromString("00010001aabb0003");
+
+    Session session;
+    Metadata metadata;
+    TableMetadata table;
+    Host host1, host2;
+
+    // The responses to send for each range (keyed by end token), one per execution
+    Map<Token, Deque<Object>> responses;
+    // Statements that were executed, in order (as the end token of their range)
+    List<Token> executed;
+    // The paging states that statements were executed with (null for the first page of a range)
+    Map<Token, PagingState> pagingStates;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        responses = new ConcurrentHashMap<Token, Deque<Object>>();
+        executed = Collections.synchronizedList(new ArrayList<Token>());
+        pagingStates = new HashMap<Token, PagingState>();
+        host1 = mock(Host.class);
+        host2 = mock(Host.class);
+
+        // ring: ]-100,0] on host1, ]0,-100] on host2
+        metadata = mock(Metadata.class);
+        when(metadata.getTokenRanges()).thenReturn(ImmutableSet.of(range(-100, 0), range(0, -100)));
+        when(metadata.getReplicas(anyString(), any(TokenRange.class))).thenAnswer(new Answer<Set<Host>>() {
+            @Override
+            public Set<Host> answer(InvocationOnMock invocation) throws Throwable {
+                TokenRange range = (TokenRange) invocation.getArguments()[1];
+                return range(-100, 0).contains(range.getEnd()) ? ImmutableSet.of(host1) : ImmutableSet.of(host2);
+            }
+        });
+        when(metadata.newToken(anyString())).thenAnswer(new Answer<Token>() {
+            @Override
+            public Token answer(InvocationOnMock invocation) throws Throwable {
+                return FACTORY.fromString((String) invocation.getArguments()[0]);
+            }
+        });
+        when(metadata.newTokenRange(any(Token.class), any(Token.class))).thenAnswer(new Answer<TokenRange>() {
+            @Override
+            public TokenRange answer(InvocationOnMock invocation) throws Throwable {
+                return new TokenRange((Token) invocation.getArguments()[0], (Token) invocation.getArguments()[1], FACTORY);
+            }
+        });
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getMetadata()).thenReturn(metadata);
+
+        table = mock(TableMetadata.class);
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        when(keyspace.getName()).thenReturn("ks");
+        ColumnMetadata column = mock(ColumnMetadata.class);
+        when(column.getName()).thenReturn("k");
+        when(table.getKeyspace()).thenReturn(keyspace);
+        when(table.getName()).thenReturn("t");
+        when(table.getPartitionKey()).thenReturn(Collections.singletonList(column));
+
+        final PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.bind()).thenAnswer(new Answer<BoundStatement>() {
+            @Override
+            public BoundStatement answer(InvocationOnMock invocation) throws Throwable {
+                return boundStatement();
+            }
+        });
+        session = mock(Session.class);
+        when(session.getCluster()).thenReturn(cluster);
+        when(session.prepare(anyString())).thenReturn(prepared);
+        when(session.executeAsync(any(Statement.class))).thenAnswer(new Answer<ResultSetFuture>() {
+            @Override
+            public ResultSetFuture answer(InvocationOnMock invocation) throws Throwable {
+                Token end = ((Statement) invocation.getArguments()[0]).getRoutingToken();
+                executed.add(end);
+                Object response = responses.get(end).poll();
+                PendingResultSetFuture future = new PendingResultSetFuture();
+                if (response instanceof Throwable)
+                    future.setException((Throwable) response);
+                else
+                    future.set((ResultSet) response);
+                return future;
+            }
+        });
+    }
+
+    /**
+     * Ensures that {@link TableScanner} splits the ring, queries every sub-range with the right token bounds,
+     * follows the pages of each range and reports progress.
+     *
+     * @test_category queries:scan
+     */
+    @Test(groups = "unit")
+    public void should_scan_all_ranges() throws Exception {
+        TableScanner scanner = TableScanner.builder(session, table).withSplits(4).build();
+        List<TokenRange> ranges = scanner.getRanges();
+        // 2 ring ranges split in 2, and the range that wraps around is unwrapped
+        assertThat(ranges).hasSize(5);
+        for (TokenRange range : ranges) {
+            assertThat(range.isWrappedAround()).isFalse();
+            respond(range, page(2, true), page(1, false));
+        }
+
+        final Map<TokenRange, Integer> rowsPerRange = new ConcurrentHashMap<TokenRange, Integer>();
+        final Set<TokenRange> completed = Collections.synchronizedSet(new HashSet<TokenRange>());
+        TableScanner.Scan scan = scanner.scan(new TableScanner.RangeHandler() {
+            @Override
+            public void onRows(TokenRange range, List<Row> rows) {
+                Integer previous = rowsPerRange.get(range);
+                rowsPerRange.put(range, (previous == null ? 0 : previous) + rows.size());
+            }
+
+            @Override
+            public void onRangeCompleted(TokenRange range) {
+                completed.add(range);
+            }
+
+            @Override
+            public void onRangeFailed(TokenRange range, Throwable error) {
+                fail("Unexpected failure of range " + range, error);
+            }
+        });
+        Uninterruptibles.getUninterruptibly(scan, 5, TimeUnit.SECONDS);
+
+        verify(session).prepare("SELECT * FROM \"ks\".\"t\" WHERE token(\"k\") > ? AND token(\"k\") <= ?");
+        assertThat(completed).containsOnlyElementsOf(ranges).hasSize(5);
+        for (TokenRange range : ranges)
+            assertThat(rowsPerRange.get(range)).isEqualTo(3);
+        assertThat(executed).hasSize(10);
+        assertThat(scan.getTotalRanges()).isEqualTo(5);
+        assertThat(scan.getCompletedRanges()).isEqualTo(5);
+        assertThat(scan.getFailedRanges()).isEqualTo(0);
+        assertThat(scan.getRowCount()).isEqualTo(15);
+    }
+
+    /**
+     * Ensures that {@link TableScanner} retries a failed page, and fails the range once it runs out of retries.
+     *
+     * @test_category queries:scan
+     */
+    @Test(groups = "unit")
+    public void should_retry_failed_ranges() throws Exception {
+        TableScanner scanner = TableScanner.builder(session, table).withMaxRetries(1).build();
+        List<TokenRange> ranges = scanner.getRanges();
+        assertThat(ranges).hasSize(3);
+        Exception error = new OperationTimedOutException(InetSocketAddress.createUnresolved("localhost", 9042));
+        respond(ranges.get(0), page(1, true), error, page(1, false));
+        respond(ranges.get(1), error, error);
+        respond(ranges.get(2), page(1, false));
+
+        final List<TokenRange> failed = Collections.synchronizedList(new ArrayList<TokenRange>());
+        TableScanner.Scan scan = scanner.scan(new TableScanner.RangeHandler() {
+            @Override
+            public void onRows(TokenRange range, List<Row> rows) {
+            }
+
+            @Override
+            public void onRangeCompleted(TokenRange range) {
+            }
+
+            @Override
+            public void onRangeFailed(TokenRange range, Throwable error) {
+                failed.add(range);
+            }
+        });
+        try {
+            Uninterruptibles.getUninterruptibly(scan, 5, TimeUnit.SECONDS);
+            fail("Expected the scan to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isSameAs(error);
+        }
+        assertThat(failed).containsExactly(ranges.get(1));
+        assertThat(scan.getCompletedRanges()).isEqualTo(2);
+        assertThat(scan.getFailedRanges()).isEqualTo(1);
+        assertThat(scan.getRowCount()).isEqualTo(3);
+    }
+
+    /**
+     * Ensures that {@link TableScanner} only queries one range at a time per host by default.
+     *
+     * @test_category queries:scan
+     */
+    @Test(groups = "unit")
+    public void should_bound_concurrent_ranges_per_host() throws Exception {
+        final List<PendingResultSetFuture> pending = Collections.synchronizedList(new ArrayList<PendingResultSetFuture>());
+        doAnswer(new Answer<ResultSetFuture>() {
+            @Override
+            public ResultSetFuture answer(InvocationOnMock invocation) throws Throwable {
+                executed.add(((Statement) invocation.getArguments()[0]).getRoutingToken());
+                PendingResultSetFuture future = new PendingResultSetFuture();
+                pending.add(future);
+                return future;
+            }
+        }).when(session).executeAsync(any(Statement.class));
+        TableScanner scanner = TableScanner.builder(session, table).withSplits(8).build();
+        TableScanner.RowIterator rows = scanner.iterator();
+        TableScanner.Scan scan = rows.getScan();
+        assertThat(scan.getTotalRanges()).isEqualTo(9);
+
+        // One range per host
+        assertThat(executed).hasSize(2);
+        int count = 0;
+        while (!scan.isDone()) {
+            PendingResultSetFuture future = pending.remove(0);
+            future.set(page(1, false));
+            assertThat(rows.next()).isNotNull();
+            count += 1;
+            assertThat(pending.size()).isLessThanOrEqualTo(2);
+        }
+        assertThat(rows.hasNext()).isFalse();
+        assertThat(count).isEqualTo(9);
+    }
+
+    /**
+     * Ensures that {@link TableScanner} saves checkpoints of a scan, and that a new scan resumes from the last
+     * checkpoint: completed ranges are skipped, and ranges in progress resume from their last paging state.
+     *
+     * @test_category queries:scan
+     */
+    @Test(groups = "unit")
+    public void should_resume_scan_from_checkpoint() throws Exception {
+        final String[] saved = new String[1];
+        ScanCheckpointStore store = new ScanCheckpointStore() {
+            @Override
+            public String load() {
+                return saved[0];
+            }
+
+            @Override
+            public void save(String checkpoint) {
+                saved[0] = checkpoint;
+            }
+
+            @Override
+            public void clear() {
+                saved[0] = null;
+            }
+        };
+        TableScanner scanner = TableScanner.builder(session, table)
+                .withMaxRetries(0)
+                .withCheckpointing(store, 0, TimeUnit.MILLISECONDS)
+                .build();
+        List<TokenRange> ranges = scanner.getRanges();
+        assertThat(ranges).hasSize(3);
+        Exception error = new OperationTimedOutException(InetSocketAddress.createUnresolved("localhost", 9042));
+        respond(ranges.get(0), page(1, true), error);
+        respond(ranges.get(1), page(1, false));
+        respond(ranges.get(2), error);
+
+        TableScanner.Scan scan = scanner.scan(new NoopHandler());
+        try {
+            Uninterruptibles.getUninterruptibly(scan, 5, TimeUnit.SECONDS);
+            fail("Expected the scan to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isSameAs(error);
+        }
+        assertThat(saved[0]).isNotNull();
+        ScanCheckpoint checkpoint = ScanCheckpoint.loadOrCreate(
+                "SELECT * FROM \"ks\".\"t\" WHERE token(\"k\") > ? AND token(\"k\") <= ?",
+                Collections.<TokenRange>emptyList(), store, 0, metadata);
+        assertThat(checkpoint.getRanges()).isEqualTo(ranges);
+        assertThat(checkpoint.getPagingState(ranges.get(0)).toString()).isEqualTo(PAGING_STATE.toString());
+        assertThat(checkpoint.isCompleted(ranges.get(1))).isTrue();
+        assertThat(checkpoint.getPagingState(ranges.get(2))).isNull();
+
+        executed.clear();
+        pagingStates.clear();
+        respond(ranges.get(0), page(1, false));
+        respond(ranges.get(2), page(2, false));
+        scan = scanner.scan(new NoopHandler());
+        Uninterruptibles.getUninterruptibly(scan, 5, TimeUnit.SECONDS);
+
+        assertThat(executed).containsOnly(ranges.get(0).getEnd(), ranges.get(2).getEnd()).hasSize(2);
+        assertThat(pagingStates.get(ranges.get(0).getEnd()).toString()).isEqualTo(PAGING_STATE.toString());
+        assertThat(pagingStates.get(ranges.get(2).getEnd())).isNull();
+        assertThat(scan.getTotalRanges()).isEqualTo(3);
+        assertThat(scan.getCompletedRanges()).isEqualTo(3);
+        assertThat(scan.getRowCount()).isEqualTo(3);
+        // The scan is complete, so the checkpoint is cleared
+        assertThat(saved[0]).isNull();
+    }
+
+    private static TokenRange range(long start, long end) {
+        return new TokenRange(FACTORY.fromString(Long.toString(start)), FACTORY.fromString(Long.toString(end)), FACTORY);
+    }
+
+    private void respond(TokenRange range, Object... pages) {
+        responses.put(range.getEnd(), new ArrayDeque<Object>(Arrays.asList(pages)));
+    }
+
+    private static ResultSet page(int rows, boolean hasMorePages) {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getAvailableWithoutFetching()).thenReturn(rows);
+        when(rs.one()).thenReturn(mock(Row.class));
+        when(rs.isFullyFetched()).thenReturn(!hasMorePages);
+        if (hasMorePages) {
+            ExecutionInfo info = mock(ExecutionInfo.class);
+            when(info.getPagingState()).thenReturn(PAGING_STATE);
+            when(rs.getExecutionInfo()).thenReturn(info);
+        }
+        return rs;
+    }
+
+    // A bound statement mock whose setters return itself, and that remembers its routing token and paging state
+    private BoundStatement boundStatement() {
+        final Token[] routingToken = new Token[1];
+        return mock(BoundStatement.class, new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                String name = invocation.getMethod().getName();
+                if (name.equals("setRoutingToken"))
+                    routingToken[0] = (Token) invocation.getArguments()[0];
+                else if (name.equals("getRoutingToken"))
+                    return routingToken[0];
+                else if (name.equals("setPagingState") && invocation.getArguments()[0] instanceof PagingState)
+                    synchronized (pagingStates) {
+                        pagingStates.put(routingToken[0], (PagingState) invocation.getArguments()[0]);
+                    }
+                if (invocation.getMethod().getReturnType().isInstance(invocation.getMock()))
+                    return invocation.getMock();
+                return RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
+    }
+
+    static class NoopHandler implements TableScanner.RangeHandler {
+        @Override
+        public void onRows(TokenRange range, List<Row> rows) {
+        }
+
+        @Override
+        public void onRangeCompleted(TokenRange range) {
+        }
+
+        @Override
+        public void onRangeFailed(TokenRange range, Throwable error) {
+        }
+    }
+}
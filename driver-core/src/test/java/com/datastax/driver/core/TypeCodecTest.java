@@ -18,6 +18,7 @@ package com.datastax.driver.core;
 import com.datastax.driver.core.UserType.Field;
 import com.datastax.driver.core.exceptions.CodecNotFoundException;
 import com.datastax.driver.core.exceptions.InvalidTypeException;
+import com.datastax.driver.core.utils.UUIDs;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
@@ -26,6 +27,7 @@ import com.google.common.reflect.TypeToken;
 import org.testng.annotations.Test;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.*;
 
 import static com.datastax.driver.core.Assertions.assertThat;
@@ -280,6 +282,215 @@ public class TypeCodecTest {
                 .accepts(42.0D);
     }
 
+    /**
+     * Ensures that the built-in codecs that implement {@link TypeCodec.DirectSerializer} write the same bytes as
+     * {@link TypeCodec#serialize(Object, ProtocolVersion)}, and report the exact size of those bytes.
+     */
+    @Test(groups = "unit")
+    public void should_serialize_directly_into_buffer() {
+        for (ProtocolVersion protocolVersion : new ProtocolVersion[]{ProtocolVersion.V2, ProtocolVersion.V4}) {
+            assertSerializesDirectly(TypeCodec.cint(), 42, protocolVersion);
+            assertSerializesDirectly(TypeCodec.bigint(), Long.MIN_VALUE, protocolVersion);
+            assertSerializesDirectly(TypeCodec.cboolean(), true, protocolVersion);
+            assertSerializesDirectly(TypeCodec.cfloat(), 42.5F, protocolVersion);
+            assertSerializesDirectly(TypeCodec.cdouble(), -1.5D, protocolVersion);
+            assertSerializesDirectly(TypeCodec.timestamp(), new Date(1234567890L), protocolVersion);
+            assertSerializesDirectly(TypeCodec.date(), LocalDate.fromDaysSinceEpoch(16000), protocolVersion);
+            assertSerializesDirectly(TypeCodec.uuid(), UUID.randomUUID(), protocolVersion);
+            assertSerializesDirectly(TypeCodec.timeUUID(), UUIDs.timeBased(), protocolVersion);
+            assertSerializesDirectly(TypeCodec.blob(), ByteBuffer.wrap(new byte[]{1, 2, 3}), protocolVersion);
+            assertSerializesDirectly(TypeCodec.ascii(), "foo", protocolVersion);
+            assertSerializesDirectly(TypeCodec.varchar(), "", protocolVersion);
+            assertSerializesDirectly(TypeCodec.varchar(), "caf\u00e9 \u20ac \ud83d\ude00", protocolVersion);
+            assertSerializesDirectly(TypeCodec.list(TypeCodec.varchar()), newArrayList("foo", "", "bar"), protocolVersion);
+            assertSerializesDirectly(TypeCodec.set(TypeCodec.uuid()), Collections.singleton(UUID.randomUUID()), protocolVersion);
+            Map<Integer, String> map = new LinkedHashMap<Integer, String>();
+            map.put(1, "foo");
+            map.put(2, "bar");
+            assertSerializesDirectly(TypeCodec.map(TypeCodec.cint(), TypeCodec.varchar()), map, protocolVersion);
+        }
+        // collections are encoded the same way as before
+        assertThat(TypeCodec.list(TypeCodec.varchar()).serialize(newArrayList("foo", "bar"), V3)).isEqualTo(
+                CodecUtils.pack(new ByteBuffer[]{
+                        TypeCodec.varchar().serialize("foo", V3),
+                        TypeCodec.varchar().serialize("bar", V3)}, 2, V3));
+        // unpaired surrogates are replaced, like String.getBytes does
+        assertThat(TypeCodec.varchar().serialize("a\ud83db", V3))
+                .isEqualTo(ByteBuffer.wrap("a\ud83db".getBytes(Charset.forName("UTF-8"))));
+        // values that are invalid for the codec are rejected upfront
+        try {
+            ((TypeCodec.DirectSerializer<String>) TypeCodec.ascii()).serializedSize("caf\u00e9", V3);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void assertSerializesDirectly(TypeCodec<T> codec, T value, ProtocolVersion protocolVersion) {
+        assertThat(codec).isInstanceOf(TypeCodec.DirectSerializer.class);
+        TypeCodec.DirectSerializer<T> serializer = (TypeCodec.DirectSerializer<T>) codec;
+        ByteBuffer expected = codec.serialize(value, protocolVersion);
+        int size = serializer.serializedSize(value, protocolVersion);
+        assertThat(size).isEqualTo(expected.remaining());
+        // write at a non-zero position, to check that the codec doesn't assume a fresh buffer
+        ByteBuffer target = ByteBuffer.allocate(size + 2);
+        target.position(1);
+        serializer.serializeInto(value, target, protocolVersion);
+        assertThat(target.position()).isEqualTo(size + 1);
+        target.flip().position(1);
+        assertThat(target).isEqualTo(expected);
+    }
+
+    /**
+     * Ensures that lazy collection codecs only deserialize the elements that are accessed, and reuse the original
+     * bytes when the collection is serialized again.
+     */
+    @Test(groups = "unit")
+    public void should_deserialize_collections_lazily() {
+        CountingCodec<Integer> ints = new CountingCodec<Integer>(TypeCodec.cint());
+        CountingCodec<String> strings = new CountingCodec<String>(TypeCodec.varchar());
+        List<Integer> list = newArrayList(1, 2, 3);
+        Map<Integer, String> map = new LinkedHashMap<Integer, String>();
+        map.put(1, "foo");
+        map.put(2, "bar");
+
+        TypeCodec<List<Integer>> listCodec = TypeCodec.lazyList(ints);
+        ByteBuffer bytes = TypeCodec.list(TypeCodec.cint()).serialize(list, V3);
+        List<Integer> lazyList = listCodec.deserialize(bytes, V3);
+        assertThat(lazyList.size()).isEqualTo(3);
+        assertThat(ints.deserialized).isEqualTo(0);
+        assertThat(lazyList.get(1)).isEqualTo(2);
+        assertThat(lazyList.get(1)).isEqualTo(2);
+        assertThat(ints.deserialized).isEqualTo(1);
+        assertThat(lazyList).isEqualTo(list);
+        assertThat(listCodec.serialize(lazyList, V3)).isEqualTo(bytes);
+        assertThat(ints.serialized).isEqualTo(0);
+        // the original bytes can't be reused for another protocol version
+        assertThat(listCodec.serialize(lazyList, ProtocolVersion.V2))
+                .isEqualTo(TypeCodec.list(TypeCodec.cint()).serialize(list, ProtocolVersion.V2));
+        try {
+            lazyList.add(4);
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        TypeCodec<Set<Integer>> setCodec = TypeCodec.lazySet(TypeCodec.cint());
+        Set<Integer> lazySet = setCodec.deserialize(TypeCodec.set(TypeCodec.cint()).serialize(new LinkedHashSet<Integer>(list), V3), V3);
+        assertThat(lazySet).containsExactly(1, 2, 3);
+        assertThat(lazySet.contains(2)).isTrue();
+        assertThat(lazySet.contains(4)).isFalse();
+        assertThat(lazySet).isEqualTo(new HashSet<Integer>(list));
+
+        TypeCodec<Map<Integer, String>> mapCodec = TypeCodec.lazyMap(TypeCodec.cint(), strings);
+        bytes = TypeCodec.map(TypeCodec.cint(), TypeCodec.varchar()).serialize(map, V3);
+        Map<Integer, String> lazyMap = mapCodec.deserialize(bytes, V3);
+        assertThat(lazyMap.size()).isEqualTo(2);
+        assertThat(strings.deserialized).isEqualTo(0);
+        assertThat(lazyMap.get(2)).isEqualTo("bar");
+        assertThat(lazyMap.containsKey(3)).isFalse();
+        assertThat(lazyMap).isEqualTo(map);
+        assertThat(mapCodec.serialize(lazyMap, V3)).isEqualTo(bytes);
+
+        // malformed bytes are only detected on access
+        ByteBuffer truncated = TypeCodec.list(TypeCodec.cint()).serialize(list, V3);
+        truncated.limit(truncated.limit() - 2);
+        List<Integer> malformed = listCodec.deserialize(truncated, V3);
+        assertThat(malformed.size()).isEqualTo(3);
+        try {
+            malformed.get(0);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+
+        // lazy codecs take precedence over the default ones once registered
+        CodecRegistry registry = new CodecRegistry().register(listCodec);
+        assertThat(registry.codecFor(list(cint()))).isSameAs(listCodec);
+        TypeCodec<List<List<Integer>>> nestedCodec = registry.codecFor(list(list(cint())));
+        List<List<Integer>> nested = nestedCodec.deserialize(
+                TypeCodec.list(TypeCodec.list(TypeCodec.cint())).serialize(Collections.singletonList(list), V3), V3);
+        assertThat(nested.get(0)).isInstanceOf(LazyCollections.LazyList.class).isEqualTo(list);
+    }
+
+    /**
+     * Ensures that lazy UDT and tuple codecs only split values into fields when they are accessed, and reuse the
+     * original bytes when the value is serialized again, unless it was modified.
+     */
+    @Test(groups = "unit")
+    public void should_deserialize_udts_and_tuples_lazily() {
+        CodecRegistry codecRegistry = new CodecRegistry();
+        UserType udt = new UserType("ks", "t", Arrays.asList(
+                new UserType.Field("t", DataType.text()),
+                new UserType.Field("i", DataType.cint())
+        ), V3, codecRegistry);
+        UDTValue udtValue = udt.newValue().setString("t", "foo").setInt("i", 42);
+        ByteBuffer bytes = TypeCodec.userType(udt).serialize(udtValue, V3);
+
+        TypeCodec<UDTValue> udtCodec = TypeCodec.lazyUserType(udt);
+        UDTValue lazyUdt = udtCodec.deserialize(bytes, V3);
+        assertThat(lazyUdt.values[0]).isNull();
+        assertThat(lazyUdt.getInt("i")).isEqualTo(42);
+        assertThat(lazyUdt).isEqualTo(udtValue);
+        assertThat(udtCodec.serialize(lazyUdt, V3)).isEqualTo(bytes);
+        lazyUdt.setString("t", "bar");
+        assertThat(udtCodec.serialize(lazyUdt, V3))
+                .isEqualTo(TypeCodec.userType(udt).serialize(udtValue.setString("t", "bar"), V3));
+
+        TupleType tupleType = new TupleType(newArrayList(DataType.cint(), DataType.varchar()), V3, codecRegistry);
+        TupleValue tupleValue = tupleType.newValue(1, "foo");
+        bytes = TypeCodec.tuple(tupleType).serialize(tupleValue, V3);
+        TypeCodec<TupleValue> tupleCodec = TypeCodec.lazyTuple(tupleType);
+        TupleValue lazyTuple = tupleCodec.deserialize(bytes, V3);
+        assertThat(lazyTuple.values[1]).isNull();
+        assertThat(lazyTuple.getString(1)).isEqualTo("foo");
+        assertThat(lazyTuple).isEqualTo(tupleValue);
+        assertThat(tupleCodec.serialize(lazyTuple, V3)).isEqualTo(bytes);
+
+        ByteBuffer truncated = bytes.duplicate();
+        truncated.limit(truncated.limit() - 2);
+        try {
+            tupleCodec.deserialize(truncated, V3).getInt(0);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+    }
+
+    private static class CountingCodec<T> extends TypeCodec<T> {
+
+        private final TypeCodec<T> delegate;
+        int serialized, deserialized;
+
+        CountingCodec(TypeCodec<T> delegate) {
+            super(delegate.getCqlType(), delegate.getJavaType());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ByteBuffer serialize(T value, ProtocolVersion protocolVersion) {
+            serialized += 1;
+            return delegate.serialize(value, protocolVersion);
+        }
+
+        @Override
+        public T deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            deserialized += 1;
+            return delegate.deserialize(bytes, protocolVersion);
+        }
+
+        @Override
+        public T parse(String value) {
+            return delegate.parse(value);
+        }
+
+        @Override
+        public String format(T value) {
+            return delegate.format(value);
+        }
+    }
+
     private class ListVarcharToListListInteger extends TypeCodec<List<List<Integer>>> {
 
         private final TypeCodec<List<String>> codec = TypeCodec.list(TypeCodec.varchar());
@@ -0,0 +1,178 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.ServerError;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import static com.datastax.driver.core.policies.CircuitBreakerPolicy.BreakerState.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CircuitBreakerPolicyTest {
+
+    Host host1, host2;
+    Cluster cluster;
+    LoadBalancingPolicy childPolicy;
+    MetricRegistry registry;
+    Statement statement = mock(Statement.class);
+    InetSocketAddress address = InetSocketAddress.createUnresolved("127.0.0.1", 9042);
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        host1 = mock(Host.class);
+        host2 = mock(Host.class);
+        childPolicy = mock(LoadBalancingPolicy.class);
+        when(childPolicy.newQueryPlan(anyString(), any(Statement.class))).thenAnswer(new Answer<Iterator<Host>>() {
+            @Override
+            public Iterator<Host> answer(InvocationOnMock invocation) throws Throwable {
+                return Iterators.forArray(host1, host2);
+            }
+        });
+        registry = new MetricRegistry();
+        Metrics metrics = mock(Metrics.class);
+        when(metrics.getRegistry()).thenReturn(registry);
+        cluster = mock(Cluster.class);
+        when(cluster.getMetrics()).thenReturn(metrics);
+    }
+
+    /**
+     * Ensures that {@link CircuitBreakerPolicy} opens the circuit of a host that fails too many requests,
+     * moves it to the end of query plans, then probes it and closes the circuit once it recovers.
+     *
+     * @test_category load_balancing:circuit_breaker
+     */
+    @Test(groups = "unit")
+    public void should_open_half_open_and_close_circuit() {
+        CircuitBreakerPolicy policy = CircuitBreakerPolicy.builder(childPolicy)
+                .withMinimumRequests(10)
+                .withErrorRateThreshold(0.5)
+                .withOpenDuration(50, TimeUnit.MILLISECONDS)
+                .withProbeInterval(0, TimeUnit.MILLISECONDS)
+                .withSuccessfulProbesToClose(2)
+                .build();
+        LatencyTracker tracker = init(policy);
+
+        // Client errors are not the host's fault
+        for (int i = 0; i < 20; i++)
+            tracker.update(host1, statement, new InvalidQueryException("invalid"), 0);
+        assertThat(policy.getState(host1)).isEqualTo(CLOSED);
+
+        for (int i = 0; i < 20; i++)
+            tracker.update(host1, statement, new ServerError(address, "error"), 0);
+        assertThat(policy.getState(host1)).isEqualTo(OPEN);
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsExactly(host2, host1);
+        assertThat(gauge("open")).isEqualTo(1);
+        assertThat(registry.getCounters().get("circuit-breakers.trips").getCount()).isEqualTo(1);
+
+        Uninterruptibles.sleepUninterruptibly(60, TimeUnit.MILLISECONDS);
+        assertThat(policy.getState(host1)).isEqualTo(HALF_OPEN);
+        assertThat(gauge("half-open")).isEqualTo(1);
+        // Probe interval is 0, so every plan includes a probe to host1
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsExactly(host1, host2);
+
+        tracker.update(host1, statement, null, 0);
+        assertThat(policy.getState(host1)).isEqualTo(HALF_OPEN);
+        tracker.update(host1, statement, null, 0);
+        assertThat(policy.getState(host1)).isEqualTo(CLOSED);
+        assertThat(gauge("open")).isEqualTo(0);
+    }
+
+    /**
+     * Ensures that {@link CircuitBreakerPolicy} re-opens the circuit of a host if a probe fails, and
+     * limits the number of probes when the circuit is half-open.
+     *
+     * @test_category load_balancing:circuit_breaker
+     */
+    @Test(groups = "unit")
+    public void should_reopen_circuit_if_probe_fails() {
+        CircuitBreakerPolicy policy = CircuitBreakerPolicy.builder(childPolicy)
+                .withMinimumRequests(10)
+                .withTimeoutRateThreshold(0.2)
+                .withOpenDuration(50, TimeUnit.MILLISECONDS)
+                .withProbeInterval(1, TimeUnit.HOURS)
+                .build();
+        LatencyTracker tracker = init(policy);
+
+        for (int i = 0; i < 8; i++)
+            tracker.update(host1, statement, null, 0);
+        tracker.update(host1, statement, new OperationTimedOutException(address), 0);
+        assertThat(policy.getState(host1)).isEqualTo(CLOSED);
+        tracker.update(host1, statement, new OperationTimedOutException(address), 0);
+        assertThat(policy.getState(host1)).isEqualTo(OPEN);
+
+        Uninterruptibles.sleepUninterruptibly(60, TimeUnit.MILLISECONDS);
+        // Only one probe per interval
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsExactly(host1, host2);
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsExactly(host2, host1);
+
+        tracker.update(host1, statement, new OperationTimedOutException(address), 0);
+        assertThat(policy.getState(host1)).isEqualTo(OPEN);
+    }
+
+    /**
+     * Ensures that {@link CircuitBreakerPolicy} resets the circuit of a host when it goes down.
+     *
+     * @test_category load_balancing:circuit_breaker
+     */
+    @Test(groups = "unit")
+    public void should_reset_circuit_when_host_goes_down() {
+        CircuitBreakerPolicy policy = CircuitBreakerPolicy.builder(childPolicy)
+                .withMinimumRequests(1)
+                .build();
+        LatencyTracker tracker = init(policy);
+
+        tracker.update(host1, statement, new ServerError(address, "error"), 0);
+        assertThat(policy.getState(host1)).isEqualTo(OPEN);
+
+        policy.onDown(host1);
+        verify(childPolicy).onDown(host1);
+        assertThat(policy.getState(host1)).isEqualTo(CLOSED);
+
+        policy.close();
+        assertThat(registry.getNames()).isEmpty();
+    }
+
+    private LatencyTracker init(CircuitBreakerPolicy policy) {
+        policy.init(cluster, Lists.newArrayList(host1, host2));
+        ArgumentCaptor<LatencyTracker> captor = ArgumentCaptor.forClass(LatencyTracker.class);
+        verify(cluster).register(captor.capture());
+        return captor.getValue();
+    }
+
+    private Object gauge(String state) {
+        Gauge<?> gauge = registry.getGauges().get("circuit-breakers." + state);
+        return gauge.getValue();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import com.datastax.driver.core.*;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class LatencyAwarePolicyPercentileTest {
+
+    /**
+     * Ensures that {@link LatencyAwarePolicy} in percentile scoring mode penalizes a host that has
+     * a good average latency but a bad tail latency, and exposes per-host percentiles in its snapshot.
+     *
+     * @test_category load_balancing:latency_aware
+     */
+    @Test(groups = "unit")
+    public void should_exclude_host_with_high_tail_latency() {
+        Host host1 = mock(Host.class);
+        Host host2 = mock(Host.class);
+        LoadBalancingPolicy childPolicy = mock(LoadBalancingPolicy.class);
+        when(childPolicy.newQueryPlan(anyString(), any(Statement.class)))
+                .thenReturn(Iterators.forArray(host2, host1));
+        Cluster cluster = mock(Cluster.class);
+
+        LatencyAwarePolicy policy = LatencyAwarePolicy.builder(childPolicy)
+                .withPercentileScoring(99.0)
+                // long enough that the interval never rolls over on its own during the test
+                .withPercentileInterval(5, TimeUnit.SECONDS)
+                .withMininumMeasurements(10)
+                .build();
+        try {
+            policy.init(cluster, Lists.newArrayList(host1, host2));
+            ArgumentCaptor<LatencyTracker> captor = ArgumentCaptor.forClass(LatencyTracker.class);
+            verify(cluster).register(captor.capture());
+            LatencyTracker tracker = captor.getValue();
+
+            Statement statement = mock(Statement.class);
+            for (int i = 0; i < 100; i++) {
+                tracker.update(host1, statement, null, TimeUnit.MILLISECONDS.toNanos(1));
+                // 2% of very slow requests: the average stays low, but not the 99th percentile
+                long latency = (i % 50 == 0) ? 300 : 1;
+                tracker.update(host2, statement, null, TimeUnit.MILLISECONDS.toNanos(latency));
+            }
+            tracker.update(host1, statement, null, TimeUnit.MILLISECONDS.toNanos(1));
+            tracker.update(host2, statement, null, TimeUnit.MILLISECONDS.toNanos(1));
+            assertThat(policy.getScoresSnapshot().getAllStats()).isEmpty();
+            policy.rollOverPercentileIntervals();
+            policy.new Updater().run();
+
+            LatencyAwarePolicy.Snapshot snapshot = policy.getScoresSnapshot();
+            assertThat(snapshot.getStats(host1).getMeasurementsCount()).isEqualTo(101);
+            assertThat(snapshot.getStats(host2).getLatencyScore())
+                    .isEqualTo(snapshot.getStats(host2).getLatencyAtPercentile(99.0));
+            assertThat(TimeUnit.NANOSECONDS.toMillis(snapshot.getStats(host2).getLatencyAtPercentile(99.0)))
+                    .isBetween(297L, 303L);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(snapshot.getStats(host2).getLatencyAtPercentile(50.0)))
+                    .isEqualTo(1L);
+
+            assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement)))
+                    .containsExactly(host1, host2);
+        } finally {
+            policy.close();
+        }
+    }
+
+    /**
+     * Ensures that {@link LatencyAwarePolicy} does not expose percentiles when it uses average scoring.
+     *
+     * @test_category load_balancing:latency_aware
+     */
+    @Test(groups = "unit")
+    public void should_not_expose_percentiles_with_average_scoring() {
+        Host host = mock(Host.class);
+        Cluster cluster = mock(Cluster.class);
+        LatencyAwarePolicy policy = LatencyAwarePolicy.builder(mock(LoadBalancingPolicy.class))
+                .withMininumMeasurements(0)
+                .build();
+        try {
+            policy.init(cluster, Lists.newArrayList(host));
+            ArgumentCaptor<LatencyTracker> captor = ArgumentCaptor.forClass(LatencyTracker.class);
+            verify(cluster).register(captor.capture());
+            captor.getValue().update(host, mock(Statement.class), null, TimeUnit.MILLISECONDS.toNanos(1));
+
+            LatencyAwarePolicy.Snapshot.Stats stats = policy.getScoresSnapshot().getStats(host);
+            assertThat(stats.getLatencyScore()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+            assertThat(stats.getLatencyAtPercentile(99.0)).isEqualTo(-1L);
+        } finally {
+            policy.close();
+        }
+    }
+
+    @Test(groups = "unit", expectedExceptions = IllegalArgumentException.class)
+    public void should_fail_if_percentile_interval_not_lower_than_retry_period() {
+        LatencyAwarePolicy.builder(mock(LoadBalancingPolicy.class))
+                .withPercentileScoring(99.0)
+                .withPercentileInterval(10, TimeUnit.SECONDS)
+                .withRetryPeriod(5, TimeUnit.SECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import com.datastax.driver.core.*;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RackAwarenessTest {
+
+    Cluster cluster;
+    Metadata metadata;
+    Host rack1Host1, rack1Host2, rack2Host1, rack2Host2, remoteHost;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        cluster = mock(Cluster.class);
+        metadata = mock(Metadata.class);
+        Configuration configuration = mock(Configuration.class);
+        ProtocolOptions protocolOptions = mock(ProtocolOptions.class);
+        when(protocolOptions.getProtocolVersion()).thenReturn(ProtocolVersion.NEWEST_SUPPORTED);
+        when(configuration.getProtocolOptions()).thenReturn(protocolOptions);
+        when(configuration.getQueryOptions()).thenReturn(new QueryOptions());
+        when(configuration.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT_INSTANCE);
+        when(cluster.getConfiguration()).thenReturn(configuration);
+        when(cluster.getMetadata()).thenReturn(metadata);
+
+        rack1Host1 = host("dc1", "rack1");
+        rack1Host2 = host("dc1", "rack1");
+        rack2Host1 = host("dc1", "rack2");
+        rack2Host2 = host("dc1", "rack2");
+        remoteHost = host("dc2", "rack1");
+    }
+
+    /**
+     * Ensures that a rack-aware {@link DCAwareRoundRobinPolicy} returns the hosts of the local rack first,
+     * then the other hosts of the local DC, and then the remote hosts.
+     *
+     * @test_category load_balancing:dc_aware
+     */
+    @Test(groups = "unit")
+    public void should_return_local_rack_hosts_first() {
+        DCAwareRoundRobinPolicy policy = DCAwareRoundRobinPolicy.builder()
+                .withLocalDc("dc1")
+                .withLocalRack("rack1")
+                .withUsedHostsPerRemoteDc(1)
+                .build();
+        policy.init(cluster, Lists.newArrayList(rack1Host1, rack2Host1, rack1Host2, rack2Host2, remoteHost));
+
+        for (int i = 0; i < 4; i++) {
+            List<Host> plan = Lists.newArrayList(policy.newQueryPlan("ks", statement(ConsistencyLevel.ONE)));
+            assertThat(plan).hasSize(5);
+            assertThat(plan.subList(0, 2)).containsOnly(rack1Host1, rack1Host2);
+            assertThat(plan.subList(2, 4)).containsOnly(rack2Host1, rack2Host2);
+            assertThat(plan.get(4)).isSameAs(remoteHost);
+        }
+        assertThat(policy.distance(rack2Host1)).isEqualTo(HostDistance.LOCAL);
+        assertThat(policy.distance(remoteHost)).isEqualTo(HostDistance.REMOTE);
+    }
+
+    /**
+     * Ensures that a rack-aware {@link DCAwareRoundRobinPolicy} maintains its per-rack host lists when
+     * hosts go down and come back up.
+     *
+     * @test_category load_balancing:dc_aware
+     */
+    @Test(groups = "unit")
+    public void should_update_local_rack_hosts_on_down_and_up() {
+        DCAwareRoundRobinPolicy policy = DCAwareRoundRobinPolicy.builder()
+                .withLocalDc("dc1")
+                .withLocalRack("rack1")
+                .build();
+        policy.init(cluster, Lists.newArrayList(rack1Host1, rack2Host1));
+
+        policy.onDown(rack1Host1);
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement(ConsistencyLevel.ONE))))
+                .containsExactly(rack2Host1);
+
+        policy.onUp(rack1Host1);
+        policy.onAdd(rack1Host2);
+        List<Host> plan = Lists.newArrayList(policy.newQueryPlan("ks", statement(ConsistencyLevel.ONE)));
+        assertThat(plan).hasSize(3);
+        assertThat(plan.subList(0, 2)).containsOnly(rack1Host1, rack1Host2);
+        assertThat(plan.get(2)).isSameAs(rack2Host1);
+    }
+
+    /**
+     * Ensures that {@link TokenAwarePolicy} returns the replicas of the local rack before the other local
+     * replicas when its child policy is a rack-aware {@link DCAwareRoundRobinPolicy}.
+     *
+     * @test_category load_balancing:token_aware
+     */
+    @Test(groups = "unit")
+    public void should_prefer_local_rack_replicas_with_token_aware_policy() {
+        TokenAwarePolicy policy = new TokenAwarePolicy(DCAwareRoundRobinPolicy.builder()
+                .withLocalDc("dc1")
+                .withLocalRack("rack1")
+                .build(), false);
+        policy.init(cluster, Lists.newArrayList(rack1Host1, rack1Host2, rack2Host1, rack2Host2));
+
+        Statement statement = statement(ConsistencyLevel.ONE);
+        when(statement.getRoutingKey(any(ProtocolVersion.class), any(CodecRegistry.class)))
+                .thenReturn(ByteBuffer.allocate(4));
+        when(metadata.getReplicas(anyString(), any(ByteBuffer.class)))
+                .thenReturn(Sets.newLinkedHashSet(Lists.newArrayList(rack2Host1, rack1Host2)));
+
+        List<Host> plan = Lists.newArrayList(policy.newQueryPlan("ks", statement));
+        assertThat(plan).hasSize(4);
+        assertThat(plan.subList(0, 2)).containsExactly(rack1Host2, rack2Host1);
+        assertThat(plan.subList(2, 4)).containsOnly(rack1Host1, rack2Host2);
+    }
+
+    private static Host host(String dc, String rack) {
+        Host host = mock(Host.class);
+        when(host.getDatacenter()).thenReturn(dc);
+        when(host.getRack()).thenReturn(rack);
+        when(host.isUp()).thenReturn(true);
+        return host;
+    }
+
+    private static Statement statement(ConsistencyLevel cl) {
+        Statement statement = mock(Statement.class);
+        when(statement.getConsistencyLevel()).thenReturn(cl);
+        return statement;
+    }
+}
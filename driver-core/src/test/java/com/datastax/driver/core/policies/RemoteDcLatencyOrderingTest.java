@@ -0,0 +1,115 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import com.datastax.driver.core.*;
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RemoteDcLatencyOrderingTest {
+
+    /**
+     * Ensures that {@link DCAwareRoundRobinPolicy} tries remote DCs from the fastest to the slowest according to the
+     * heartbeat latencies of their hosts when ordering them by latency, that unmeasured DCs come last, and that the
+     * order follows the latencies when they change.
+     *
+     * @test_category load_balancing:dc_aware
+     */
+    @Test(groups = "unit")
+    public void should_order_remote_dcs_by_latency() {
+        Host local = host("dc1");
+        Host dc2 = host("dc2");
+        Host dc3 = host("dc3");
+        Host dc3bis = host("dc3");
+        Host dc4 = host("dc4");
+        List<Host> hosts = Lists.newArrayList(local, dc2, dc3, dc3bis, dc4);
+        latency(dc2, 80);
+        latency(dc3, 10);
+        latency(dc3bis, 30);
+
+        DCAwareRoundRobinPolicy policy = policy(hosts, 1, TimeUnit.NANOSECONDS);
+        assertThat(remoteDcs(policy)).containsExactly("dc3", "dc2", "dc4");
+
+        // the latencies change order
+        latency(dc2, 5);
+        latency(dc4, 15);
+        assertThat(remoteDcs(policy)).containsExactly("dc2", "dc4", "dc3");
+    }
+
+    /**
+     * Ensures that {@link DCAwareRoundRobinPolicy} only re-evaluates the order of remote DCs once per update
+     * interval.
+     *
+     * @test_category load_balancing:dc_aware
+     */
+    @Test(groups = "unit")
+    public void should_keep_order_of_remote_dcs_until_next_update() {
+        Host local = host("dc1");
+        Host dc2 = host("dc2");
+        Host dc3 = host("dc3");
+        latency(dc2, 80);
+        latency(dc3, 20);
+
+        DCAwareRoundRobinPolicy policy = policy(Lists.newArrayList(local, dc2, dc3), 1, TimeUnit.HOURS);
+        assertThat(remoteDcs(policy)).containsExactly("dc3", "dc2");
+
+        latency(dc2, 1);
+        assertThat(remoteDcs(policy)).containsExactly("dc3", "dc2");
+    }
+
+    private static DCAwareRoundRobinPolicy policy(List<Host> hosts, long updateInterval, TimeUnit unit) {
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getConfiguration()).thenReturn(mock(Configuration.class));
+        DCAwareRoundRobinPolicy policy = DCAwareRoundRobinPolicy.builder()
+                .withLocalDc("dc1")
+                .withUsedHostsPerRemoteDc(1)
+                .withRemoteDcsOrderedByLatency(updateInterval, unit)
+                .build();
+        policy.init(cluster, hosts);
+        return policy;
+    }
+
+    // The DCs of the remote hosts in the next query plan
+    private static List<String> remoteDcs(DCAwareRoundRobinPolicy policy) {
+        Statement statement = mock(Statement.class);
+        when(statement.getConsistencyLevel()).thenReturn(ConsistencyLevel.ONE);
+        List<String> dcs = Lists.newArrayList();
+        for (Host host : Lists.newArrayList(policy.newQueryPlan("ks", statement))) {
+            if (!host.getDatacenter().equals("dc1"))
+                dcs.add(host.getDatacenter());
+        }
+        return dcs;
+    }
+
+    private static Host host(String dc) {
+        Host host = mock(Host.class);
+        when(host.getDatacenter()).thenReturn(dc);
+        when(host.isUp()).thenReturn(true);
+        when(host.getHeartbeatLatencyNanos()).thenReturn(-1L);
+        return host;
+    }
+
+    private static void latency(Host host, long millis) {
+        when(host.getHeartbeatLatencyNanos()).thenReturn(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
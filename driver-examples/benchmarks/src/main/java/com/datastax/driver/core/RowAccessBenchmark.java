@@ -0,0 +1,81 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of reading the columns of a row.
+ * <p/>
+ * {@code registryLookup} resolves the codec of each column from the {@link CodecRegistry} on every access, which is
+ * what {@link Row} getters used to do; {@code rowGetters} goes through the regular getters, which resolve codecs
+ * once per {@link ColumnDefinitions}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowAccessBenchmark {
+
+    private static final ProtocolVersion PROTOCOL_VERSION = ProtocolVersion.NEWEST_SUPPORTED;
+
+    private CodecRegistry registry;
+    private ColumnDefinitions metadata;
+    private Row row;
+
+    @Setup
+    public void setup() {
+        registry = new CodecRegistry();
+        metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+                new ColumnDefinitions.Definition("ks", "t", "i", DataType.cint()),
+                new ColumnDefinitions.Definition("ks", "t", "l", DataType.bigint()),
+                new ColumnDefinitions.Definition("ks", "t", "s", DataType.text()),
+                new ColumnDefinitions.Definition("ks", "t", "d", DataType.cdouble())
+        }, registry);
+        row = ArrayBackedRow.fromData(metadata, null, PROTOCOL_VERSION, Arrays.asList(
+                TypeCodec.cint().serialize(42, PROTOCOL_VERSION),
+                TypeCodec.bigint().serialize(42L, PROTOCOL_VERSION),
+                TypeCodec.varchar().serialize("foo", PROTOCOL_VERSION),
+                TypeCodec.cdouble().serialize(4.2, PROTOCOL_VERSION)));
+    }
+
+    @Benchmark
+    public void registryLookup(Blackhole bh) {
+        bh.consume(registry.codecFor(metadata.getType(0), Integer.class).deserialize(bytes(0), PROTOCOL_VERSION));
+        bh.consume(registry.codecFor(metadata.getType(1), Long.class).deserialize(bytes(1), PROTOCOL_VERSION));
+        bh.consume(registry.codecFor(metadata.getType(2), String.class).deserialize(bytes(2), PROTOCOL_VERSION));
+        bh.consume(registry.codecFor(metadata.getType(3), Double.class).deserialize(bytes(3), PROTOCOL_VERSION));
+    }
+
+    @Benchmark
+    public void rowGetters(Blackhole bh) {
+        bh.consume(row.getInt(0));
+        bh.consume(row.getLong(1));
+        bh.consume(row.getString(2));
+        bh.consume(row.getDouble(3));
+    }
+
+    private ByteBuffer bytes(int i) {
+        return row.getBytesUnsafe(i);
+    }
+}
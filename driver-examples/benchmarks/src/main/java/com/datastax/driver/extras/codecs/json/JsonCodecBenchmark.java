@@ -0,0 +1,154 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.json;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.utils.Bytes;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.json.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of serializing and deserializing JSON documents of various sizes with {@link JacksonJsonCodec}
+ * and {@link Jsr353JsonCodec}.
+ * <p/>
+ * The {@code *Copy} benchmarks reproduce what the codecs used to do: copy the bytes to a new array before parsing
+ * them, and copy the serialized document to a new array after writing it.
+ * <p/>
+ * The {@code *Mixed} benchmarks serialize one document of the requested size followed by
+ * {@value #SMALL_DOCUMENTS} small ones, to check that a large document doesn't make the following small ones
+ * allocate large buffers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonCodecBenchmark {
+
+    private static final ProtocolVersion PROTOCOL_VERSION = ProtocolVersion.NEWEST_SUPPORTED;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int SMALL_DOCUMENTS = 9;
+
+    @Param({"1024", "10240", "102400"})
+    public int documentSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JavaType jacksonType = TypeFactory.defaultInstance().constructType(JsonNode.class);
+    private final JacksonJsonCodec<JsonNode> jacksonCodec = new JacksonJsonCodec<JsonNode>(JsonNode.class);
+    private final Jsr353JsonCodec jsr353Codec = new Jsr353JsonCodec();
+    private final JsonReaderFactory readerFactory = Json.createReaderFactory(null);
+    private final JsonWriterFactory writerFactory = Json.createWriterFactory(null);
+
+    private ByteBuffer bytes;
+    private JsonNode jacksonDocument;
+    private JsonStructure jsr353Document;
+    private JsonNode jacksonSmallDocument;
+    private JsonStructure jsr353SmallDocument;
+
+    @Setup
+    public void setup() throws IOException {
+        String json = json(documentSize);
+        bytes = ByteBuffer.wrap(json.getBytes(UTF_8));
+        jacksonDocument = objectMapper.readTree(json);
+        jsr353Document = readerFactory.createReader(new StringReader(json)).read();
+        String smallJson = json(200);
+        jacksonSmallDocument = objectMapper.readTree(smallJson);
+        jsr353SmallDocument = readerFactory.createReader(new StringReader(smallJson)).read();
+    }
+
+    // an array of small objects, up to the given size
+    private static String json(int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < size - 100; i++) {
+            if (i > 0)
+                json.append(',');
+            json.append(String.format("{\"id\":%d,\"name\":\"sensor-%d\",\"active\":%b,\"value\":%s,\"tags\":[\"a\",\"b\"]}",
+                    i, i, i % 2 == 0, i * 1.5));
+        }
+        return json.append(']').toString();
+    }
+
+    @Benchmark
+    public JsonNode jacksonDeserializeCopy() throws IOException {
+        return objectMapper.readValue(Bytes.getArray(bytes), jacksonType);
+    }
+
+    @Benchmark
+    public JsonNode jacksonDeserialize() {
+        return jacksonCodec.deserialize(bytes, PROTOCOL_VERSION);
+    }
+
+    @Benchmark
+    public ByteBuffer jacksonSerializeCopy() throws IOException {
+        return ByteBuffer.wrap(objectMapper.writeValueAsBytes(jacksonDocument));
+    }
+
+    @Benchmark
+    public ByteBuffer jacksonSerialize() {
+        return jacksonCodec.serialize(jacksonDocument, PROTOCOL_VERSION);
+    }
+
+    @Benchmark
+    public void jacksonSerializeMixed(Blackhole blackhole) {
+        blackhole.consume(jacksonCodec.serialize(jacksonDocument, PROTOCOL_VERSION));
+        for (int i = 0; i < SMALL_DOCUMENTS; i++)
+            blackhole.consume(jacksonCodec.serialize(jacksonSmallDocument, PROTOCOL_VERSION));
+    }
+
+    @Benchmark
+    public JsonStructure jsr353DeserializeCopy() {
+        return readerFactory.createReader(new ByteArrayInputStream(Bytes.getArray(bytes))).read();
+    }
+
+    @Benchmark
+    public JsonStructure jsr353Deserialize() {
+        return jsr353Codec.deserialize(bytes, PROTOCOL_VERSION);
+    }
+
+    @Benchmark
+    public ByteBuffer jsr353SerializeCopy() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writerFactory.createWriter(baos).write(jsr353Document);
+        return ByteBuffer.wrap(baos.toByteArray());
+    }
+
+    @Benchmark
+    public ByteBuffer jsr353Serialize() {
+        return jsr353Codec.serialize(jsr353Document, PROTOCOL_VERSION);
+    }
+
+    @Benchmark
+    public void jsr353SerializeMixed(Blackhole blackhole) {
+        blackhole.consume(jsr353Codec.serialize(jsr353Document, PROTOCOL_VERSION));
+        for (int i = 0; i < SMALL_DOCUMENTS; i++)
+            blackhole.consume(jsr353Codec.serialize(jsr353SmallDocument, PROTOCOL_VERSION));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.arrays;
+
+import com.datastax.driver.core.CodecUtils;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Base class for codecs that map CQL lists of fixed-size numeric types to read-only NIO buffers, such as
+ * {@link java.nio.FloatBuffer}.
+ * <p/>
+ * In the native protocol, each element of a list is preceded by its size, so the elements of a serialized list
+ * can't be exposed as a buffer as is. When deserializing, these codecs copy the elements into a single compact
+ * buffer, in one pass and without going through the element type, and return a read-only view of it; the view can
+ * be handed over as is to libraries that work with NIO buffers.
+ * <p/>
+ * When serializing, the {@link Buffer#remaining() remaining} elements of the buffer are written, and its position
+ * is left unchanged. Any kind of buffer can be serialized: heap or direct, or a view over a slice of a larger
+ * array (for example {@code FloatBuffer.wrap(array, offset, length)}), without copying it into an array first.
+ *
+ * @param <B> The Java buffer type this codec handles
+ */
+public abstract class AbstractPrimitiveBufferCodec<B extends Buffer> extends TypeCodec<B> {
+
+    private final int sizeOfComponentType;
+
+    /**
+     * @param cqlType             The CQL type. Must be a list type.
+     * @param javaClass           The Java type. Must be a buffer class.
+     * @param sizeOfComponentType The size in bytes of the buffer component type: 4 or 8.
+     */
+    protected AbstractPrimitiveBufferCodec(DataType.CollectionType cqlType, Class<B> javaClass, int sizeOfComponentType) {
+        super(cqlType, javaClass);
+        checkArgument(cqlType.getName() == DataType.Name.LIST, "Expecting CQL list type, got %s", cqlType);
+        checkArgument(sizeOfComponentType == 4 || sizeOfComponentType == 8, "Unsupported component size: %s", sizeOfComponentType);
+        this.sizeOfComponentType = sizeOfComponentType;
+    }
+
+    @Override
+    public ByteBuffer serialize(B buffer, ProtocolVersion protocolVersion) throws InvalidTypeException {
+        if (buffer == null)
+            return null;
+        boolean isProtocolV3OrAbove = protocolVersion.compareTo(ProtocolVersion.V2) > 0;
+        int length = buffer.remaining();
+        checkArgument(isProtocolV3OrAbove || length < 65536,
+                "Native protocol version %d supports up to 65535 elements in any collection - but collection contains %d elements",
+                protocolVersion.toInt(), length);
+        // See AbstractPrimitiveArrayCodec for the encoding of lists
+        int sizeOfSize = isProtocolV3OrAbove ? 4 : 2;
+        ByteBuffer output = ByteBuffer.allocate(sizeOfSize + length * (sizeOfSize + sizeOfComponentType));
+        CodecUtils.writeSize(output, length, protocolVersion);
+        serializeElements(output, buffer, protocolVersion);
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public B deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) throws InvalidTypeException {
+        if (bytes == null || bytes.remaining() == 0)
+            return view(ByteBuffer.allocate(0).asReadOnlyBuffer());
+        try {
+            ByteBuffer input = bytes.duplicate();
+            int size = CodecUtils.readSize(input, protocolVersion);
+            // check before allocating, the size of a corrupted value could be anything
+            if (size < 0 || (long) size * sizeOfComponentType > input.remaining())
+                throw new InvalidTypeException(String.format("Invalid number of elements for %s, got %d but only %d bytes remain",
+                        cqlType, size, input.remaining()));
+            ByteBuffer elements = ByteBuffer.allocate(size * sizeOfComponentType);
+            for (int i = 0; i < size; i++) {
+                int n = CodecUtils.readSize(input, protocolVersion);
+                if (n != sizeOfComponentType)
+                    throw new InvalidTypeException(String.format("Invalid size for %s element, expecting %d bytes but got %d",
+                            cqlType, sizeOfComponentType, n));
+                if (sizeOfComponentType == 4)
+                    elements.putInt(input.getInt());
+                else
+                    elements.putLong(input.getLong());
+            }
+            elements.flip();
+            return view(elements.asReadOnlyBuffer());
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize list", e);
+        }
+    }
+
+    @Override
+    public String format(B buffer) throws InvalidTypeException {
+        if (buffer == null)
+            return "NULL";
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (i != buffer.position())
+                sb.append(",");
+            formatElement(sb, buffer, i);
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    /**
+     * Write the {@link Buffer#remaining() remaining} elements of {@code buffer} to {@code output}, each preceded by
+     * its size. Implementors should use absolute reads, so that the position of {@code buffer} is left unchanged.
+     *
+     * @param output          The ByteBuffer to write to.
+     * @param buffer          The buffer to read from.
+     * @param protocolVersion The protocol version to use.
+     */
+    protected abstract void serializeElements(ByteBuffer output, B buffer, ProtocolVersion protocolVersion);
+
+    /**
+     * Return a view of the given elements as a buffer of the Java type of this codec.
+     *
+     * @param elements The read-only, big-endian elements.
+     * @return the view.
+     */
+    protected abstract B view(ByteBuffer elements);
+
+    /**
+     * Format the element at absolute position {@code index} of {@code buffer} to {@code output}.
+     *
+     * @param output The StringBuilder to write to.
+     * @param buffer The buffer to read from.
+     * @param index  The element index.
+     */
+    protected abstract void formatElement(StringBuilder output, B buffer, int index);
+
+}
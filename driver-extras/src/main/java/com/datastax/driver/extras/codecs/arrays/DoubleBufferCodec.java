@@ -0,0 +1,63 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.arrays;
+
+import com.datastax.driver.core.CodecUtils;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * A codec that maps the CQL type {@code list<double>} to the Java type {@link DoubleBuffer}.
+ * <p/>
+ * This codec is an alternative to {@link DoubleArrayCodec}: deserialized values are read-only buffers, and values to
+ * serialize can be any kind of {@link DoubleBuffer}. See {@link AbstractPrimitiveBufferCodec} for details.
+ */
+public class DoubleBufferCodec extends AbstractPrimitiveBufferCodec<DoubleBuffer> {
+
+    public static final DoubleBufferCodec instance = new DoubleBufferCodec();
+
+    public DoubleBufferCodec() {
+        super(DataType.list(DataType.cdouble()), DoubleBuffer.class, 8);
+    }
+
+    @Override
+    protected void serializeElements(ByteBuffer output, DoubleBuffer buffer, ProtocolVersion protocolVersion) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            CodecUtils.writeSize(output, 8, protocolVersion);
+            output.putDouble(buffer.get(i));
+        }
+    }
+
+    @Override
+    protected DoubleBuffer view(ByteBuffer elements) {
+        return elements.asDoubleBuffer();
+    }
+
+    @Override
+    protected void formatElement(StringBuilder output, DoubleBuffer buffer, int index) {
+        output.append(buffer.get(index));
+    }
+
+    @Override
+    public DoubleBuffer parse(String value) {
+        double[] array = DoubleArrayCodec.instance.parse(value);
+        return array == null ? null : DoubleBuffer.wrap(array).asReadOnlyBuffer();
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.arrays;
+
+import com.datastax.driver.core.CodecUtils;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * A codec that maps the CQL type {@code list<float>} to the Java type {@link FloatBuffer}.
+ * <p/>
+ * This codec is an alternative to {@link FloatArrayCodec}: deserialized values are read-only buffers, and values to
+ * serialize can be any kind of {@link FloatBuffer}. See {@link AbstractPrimitiveBufferCodec} for details.
+ */
+public class FloatBufferCodec extends AbstractPrimitiveBufferCodec<FloatBuffer> {
+
+    public static final FloatBufferCodec instance = new FloatBufferCodec();
+
+    public FloatBufferCodec() {
+        super(DataType.list(DataType.cfloat()), FloatBuffer.class, 4);
+    }
+
+    @Override
+    protected void serializeElements(ByteBuffer output, FloatBuffer buffer, ProtocolVersion protocolVersion) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            CodecUtils.writeSize(output, 4, protocolVersion);
+            output.putFloat(buffer.get(i));
+        }
+    }
+
+    @Override
+    protected FloatBuffer view(ByteBuffer elements) {
+        return elements.asFloatBuffer();
+    }
+
+    @Override
+    protected void formatElement(StringBuilder output, FloatBuffer buffer, int index) {
+        output.append(buffer.get(index));
+    }
+
+    @Override
+    public FloatBuffer parse(String value) {
+        float[] array = FloatArrayCodec.instance.parse(value);
+        return array == null ? null : FloatBuffer.wrap(array).asReadOnlyBuffer();
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.arrays;
+
+import com.datastax.driver.core.CodecUtils;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A codec that maps the CQL type {@code list<bigint>} to the Java type {@link LongBuffer}.
+ * <p/>
+ * This codec is an alternative to {@link LongArrayCodec}: deserialized values are read-only buffers, and values to
+ * serialize can be any kind of {@link LongBuffer}. See {@link AbstractPrimitiveBufferCodec} for details.
+ */
+public class LongBufferCodec extends AbstractPrimitiveBufferCodec<LongBuffer> {
+
+    public static final LongBufferCodec instance = new LongBufferCodec();
+
+    public LongBufferCodec() {
+        super(DataType.list(DataType.bigint()), LongBuffer.class, 8);
+    }
+
+    @Override
+    protected void serializeElements(ByteBuffer output, LongBuffer buffer, ProtocolVersion protocolVersion) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            CodecUtils.writeSize(output, 8, protocolVersion);
+            output.putLong(buffer.get(i));
+        }
+    }
+
+    @Override
+    protected LongBuffer view(ByteBuffer elements) {
+        return elements.asLongBuffer();
+    }
+
+    @Override
+    protected void formatElement(StringBuilder output, LongBuffer buffer, int index) {
+        output.append(buffer.get(index));
+    }
+
+    @Override
+    public LongBuffer parse(String value) {
+        long[] array = LongArrayCodec.instance.parse(value);
+        return array == null ? null : LongBuffer.wrap(array).asReadOnlyBuffer();
+    }
+
+}
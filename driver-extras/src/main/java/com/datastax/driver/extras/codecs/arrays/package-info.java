@@ -17,6 +17,6 @@
 /**
  * This package contains a collection of convenience
  * {@link com.datastax.driver.core.TypeCodec TypeCodec} instances useful for
- * serializing between CQL lists and Java arrays.
+ * serializing between CQL lists and Java arrays, or NIO buffers.
  */
 package com.datastax.driver.extras.codecs.arrays;
@@ -0,0 +1,187 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.compression;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import com.datastax.driver.core.utils.Bytes;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A codec that compresses the values of another codec with LZ4, and stores them into a CQL {@code blob} column.
+ * <p/>
+ * This is useful for large values, such as JSON or HTML documents: compressing them on the client side reduces the
+ * amount of data sent over the network, and the memory used by the coordinator to process the request. For example,
+ * to store the JSON representation of a {@code User} compressed:
+ * <pre>
+ * codecRegistry.register(new LZ4Codec&lt;User&gt;(new JacksonJsonCodec&lt;User&gt;(User.class)));
+ * </pre>
+ * Each value is prefixed with a one-byte header that indicates its format. Values whose serialized form is shorter
+ * than a given {@link #LZ4Codec(TypeCodec, int) threshold}, or that don't get any smaller when compressed, are
+ * stored as is after the header; the others are stored as their uncompressed length (4 bytes), followed by the
+ * compressed bytes. As a consequence, the column must only be written with this codec.
+ * <p/>
+ * The column must be a {@code blob} even if the wrapped codec targets another CQL type, since Cassandra rejects
+ * {@code text} values that are not valid UTF-8.
+ * <p/>
+ * This codec requires an explicit dependency on the <a href="https://github.com/jpountz/lz4-java">LZ4</a> library.
+ *
+ * @param <T> The Java type of the wrapped codec
+ */
+public class LZ4Codec<T> extends TypeCodec<T> {
+
+    /**
+     * The default size, in bytes, from which values are compressed: 512.
+     */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte LZ4 = 1;
+
+    private static final int UNCOMPRESSED_HEADER_SIZE = 1;
+    private static final int LZ4_HEADER_SIZE = 1 + 4;
+
+    // An LZ4 block can't expand more than that (a match length is encoded with one more byte every 255 bytes)
+    private static final int MAX_EXPANSION_RATIO = 255;
+
+    private final TypeCodec<T> innerCodec;
+    private final int threshold;
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    /**
+     * Creates a new instance that compresses values of {@link #DEFAULT_THRESHOLD} bytes or more.
+     *
+     * @param innerCodec the codec to serialize values with before compressing them.
+     */
+    public LZ4Codec(TypeCodec<T> innerCodec) {
+        this(innerCodec, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param innerCodec the codec to serialize values with before compressing them.
+     * @param threshold  the size, in bytes, from which serialized values are compressed.
+     */
+    public LZ4Codec(TypeCodec<T> innerCodec, int threshold) {
+        super(DataType.blob(), innerCodec.getJavaType());
+        checkArgument(threshold >= 0, "threshold must be positive");
+        this.innerCodec = innerCodec;
+        this.threshold = threshold;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.safeDecompressor();
+    }
+
+    @Override
+    public ByteBuffer serialize(T value, ProtocolVersion protocolVersion) throws InvalidTypeException {
+        ByteBuffer raw = innerCodec.serialize(value, protocolVersion);
+        if (raw == null)
+            return null;
+        int length = raw.remaining();
+        if (length >= threshold) {
+            byte[] input;
+            int offset;
+            if (raw.hasArray()) {
+                input = raw.array();
+                offset = raw.arrayOffset() + raw.position();
+            } else {
+                input = Bytes.getArray(raw);
+                offset = 0;
+            }
+            int maxCompressedLength = compressor.maxCompressedLength(length);
+            byte[] output = new byte[LZ4_HEADER_SIZE + maxCompressedLength];
+            int written = compressor.compress(input, offset, length, output, LZ4_HEADER_SIZE, maxCompressedLength);
+            if (LZ4_HEADER_SIZE + written < UNCOMPRESSED_HEADER_SIZE + length) {
+                ByteBuffer bytes = ByteBuffer.wrap(output, 0, LZ4_HEADER_SIZE + written);
+                bytes.put(0, LZ4);
+                bytes.putInt(1, length);
+                return bytes;
+            }
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(UNCOMPRESSED_HEADER_SIZE + length);
+        bytes.put(UNCOMPRESSED);
+        bytes.put(raw.duplicate());
+        bytes.flip();
+        return bytes;
+    }
+
+    @Override
+    public T deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) throws InvalidTypeException {
+        if (bytes == null || bytes.remaining() == 0)
+            return innerCodec.deserialize(bytes, protocolVersion);
+        int position = bytes.position();
+        byte format = bytes.get(position);
+        switch (format) {
+            case UNCOMPRESSED:
+                ByteBuffer raw = bytes.duplicate();
+                raw.position(position + UNCOMPRESSED_HEADER_SIZE);
+                return innerCodec.deserialize(raw, protocolVersion);
+            case LZ4:
+                if (bytes.remaining() < LZ4_HEADER_SIZE)
+                    throw new InvalidTypeException("Invalid LZ4 compressed value, expecting at least " + LZ4_HEADER_SIZE + " bytes but got " + bytes.remaining());
+                int length = bytes.getInt(position + 1);
+                int compressedLength = bytes.remaining() - LZ4_HEADER_SIZE;
+                if (length < 0)
+                    throw new InvalidTypeException("Invalid LZ4 compressed value, negative uncompressed length " + length);
+                // check before allocating, the length of a corrupted value could be anything
+                if (length > (long) compressedLength * MAX_EXPANSION_RATIO)
+                    throw new InvalidTypeException("Invalid LZ4 compressed value, " + compressedLength + " compressed bytes can't expand to " + length);
+                byte[] input;
+                int offset;
+                if (bytes.hasArray()) {
+                    input = bytes.array();
+                    offset = bytes.arrayOffset() + position;
+                } else {
+                    input = Bytes.getArray(bytes);
+                    offset = 0;
+                }
+                byte[] output = new byte[length];
+                try {
+                    int written = decompressor.decompress(input, offset + LZ4_HEADER_SIZE, compressedLength, output, 0, length);
+                    if (written != length)
+                        throw new InvalidTypeException("Invalid LZ4 compressed value, expecting " + length + " uncompressed bytes but got " + written);
+                } catch (LZ4Exception e) {
+                    throw new InvalidTypeException("Invalid LZ4 compressed value", e);
+                }
+                return innerCodec.deserialize(ByteBuffer.wrap(output), protocolVersion);
+            default:
+                throw new InvalidTypeException("Unknown compression format " + format);
+        }
+    }
+
+    @Override
+    public T parse(String value) throws InvalidTypeException {
+        return value == null || value.isEmpty() || value.equalsIgnoreCase("NULL") ? null : deserialize(Bytes.fromHexString(value), ProtocolVersion.NEWEST_SUPPORTED);
+    }
+
+    @Override
+    public String format(T value) throws InvalidTypeException {
+        ByteBuffer bytes = serialize(value, ProtocolVersion.NEWEST_SUPPORTED);
+        return bytes == null ? "NULL" : Bytes.toHexString(bytes);
+    }
+
+}
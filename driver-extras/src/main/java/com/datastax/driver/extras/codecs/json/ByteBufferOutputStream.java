@@ -0,0 +1,64 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.json;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An output stream that collects bytes into a {@link ByteBuffer}.
+ * <p/>
+ * The buffer wraps the internal array of the stream, so the bytes are not copied again once written, unless more
+ * than half of the array would be wasted. The stream can't be used anymore once the buffer is built.
+ */
+class ByteBufferOutputStream extends ByteArrayOutputStream {
+
+    ByteBufferOutputStream(int initialSize) {
+        super(initialSize);
+    }
+
+    ByteBuffer toByteBuffer() {
+        return count < buf.length / 2
+                ? ByteBuffer.wrap(toByteArray())
+                : ByteBuffer.wrap(buf, 0, count);
+    }
+
+    /**
+     * Estimates the initial size of the next stream from the sizes of the previous outputs.
+     * <p/>
+     * This is a moving average of the sizes, each capped to {@link #MAX_INITIAL_SIZE}: a single large document
+     * doesn't make the following small ones allocate (and then copy) large arrays, and the streams of large documents
+     * grow as needed.
+     */
+    static class SizeEstimator {
+
+        static final int DEFAULT_INITIAL_SIZE = 128;
+
+        static final int MAX_INITIAL_SIZE = 8192;
+
+        // Updates are not atomic, a lost update only makes the estimate a bit less accurate
+        private volatile int average = DEFAULT_INITIAL_SIZE;
+
+        int initialSize() {
+            return average;
+        }
+
+        void update(int size) {
+            int current = average;
+            average = current + (Math.min(size, MAX_INITIAL_SIZE) - current) / 8;
+        }
+    }
+}
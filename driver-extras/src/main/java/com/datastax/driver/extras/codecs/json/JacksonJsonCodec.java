@@ -20,8 +20,6 @@ import com.datastax.driver.core.ParseUtils;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.exceptions.InvalidTypeException;
-import com.datastax.driver.core.utils.Bytes;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -52,6 +50,9 @@ public class JacksonJsonCodec<T> extends TypeCodec<T> {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Sizes the output of the next serialized value from the previous ones
+    private final ByteBufferOutputStream.SizeEstimator outputSize = new ByteBufferOutputStream.SizeEstimator();
+
     public JacksonJsonCodec(Class<T> javaType) {
         super(DataType.varchar(), javaType);
     }
@@ -60,11 +61,14 @@ public class JacksonJsonCodec<T> extends TypeCodec<T> {
     public ByteBuffer serialize(T value, ProtocolVersion protocolVersion) throws InvalidTypeException {
         if (value == null)
             return null;
+        ByteBufferOutputStream output = new ByteBufferOutputStream(outputSize.initialSize());
         try {
-            return ByteBuffer.wrap(objectMapper.writeValueAsBytes(value));
-        } catch (JsonProcessingException e) {
+            objectMapper.writeValue(output, value);
+        } catch (IOException e) {
             throw new InvalidTypeException(e.getMessage(), e);
         }
+        outputSize.update(output.size());
+        return output.toByteBuffer();
     }
 
     @Override
@@ -73,7 +77,10 @@ public class JacksonJsonCodec<T> extends TypeCodec<T> {
         if (bytes == null)
             return null;
         try {
-            return (T) objectMapper.readValue(Bytes.getArray(bytes), toJacksonJavaType());
+            // parse the bytes in place, without copying them first
+            if (bytes.hasArray())
+                return (T) objectMapper.readValue(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining(), toJacksonJavaType());
+            return (T) objectMapper.readValue(new ByteBufferInputStream(bytes), toJacksonJavaType());
         } catch (IOException e) {
             throw new InvalidTypeException(e.getMessage(), e);
         }
@@ -20,11 +20,11 @@ import com.datastax.driver.core.ParseUtils;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.exceptions.InvalidTypeException;
-import com.datastax.driver.core.utils.Bytes;
 
 import javax.json.*;
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Map;
 
 /**
@@ -75,10 +75,15 @@ import java.util.Map;
  */
 public class Jsr353JsonCodec extends TypeCodec<JsonStructure> {
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     private final JsonReaderFactory readerFactory;
 
     private final JsonWriterFactory writerFactory;
 
+    // Sizes the output of the next serialized value from the previous ones
+    private final ByteBufferOutputStream.SizeEstimator outputSize = new ByteBufferOutputStream.SizeEstimator();
+
     public Jsr353JsonCodec() {
         this(null);
     }
@@ -93,21 +98,16 @@ public class Jsr353JsonCodec extends TypeCodec<JsonStructure> {
     public ByteBuffer serialize(JsonStructure value, ProtocolVersion protocolVersion) throws InvalidTypeException {
         if (value == null)
             return null;
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ByteBufferOutputStream output = new ByteBufferOutputStream(outputSize.initialSize());
         try {
-            JsonWriter writer = writerFactory.createWriter(baos);
+            JsonWriter writer = writerFactory.createWriter(output, UTF_8);
             writer.write(value);
-            return ByteBuffer.wrap(baos.toByteArray());
+            writer.close();
         } catch (JsonException e) {
             throw new InvalidTypeException(e.getMessage(), e);
-        } finally {
-            try {
-                baos.close();
-            } catch (IOException e) {
-                // cannot happen
-                throw new InvalidTypeException(e.getMessage(), e);
-            }
         }
+        outputSize.update(output.size());
+        return output.toByteBuffer();
     }
 
     @Override
@@ -115,19 +115,14 @@ public class Jsr353JsonCodec extends TypeCodec<JsonStructure> {
     public JsonStructure deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) throws InvalidTypeException {
         if (bytes == null)
             return null;
-        ByteArrayInputStream bais = new ByteArrayInputStream(Bytes.getArray(bytes));
+        // read the bytes in place, without copying them first
+        JsonReader reader = readerFactory.createReader(new ByteBufferInputStream(bytes), UTF_8);
         try {
-            JsonReader reader = readerFactory.createReader(bais);
             return reader.read();
         } catch (JsonException e) {
             throw new InvalidTypeException(e.getMessage(), e);
         } finally {
-            try {
-                bais.close();
-            } catch (IOException e) {
-                // cannot happen
-                throw new InvalidTypeException(e.getMessage(), e);
-            }
+            reader.close();
         }
     }
 
@@ -27,6 +27,10 @@
  * <td>codecs mapping CQL lists to Java arrays.</td>
  * </tr>
  * <tr>
+ * <td>{@link com.datastax.driver.extras.codecs.compression}</td>
+ * <td>codecs compressing the values of other codecs into CQL blobs.</td>
+ * </tr>
+ * <tr>
  * <td>{@link com.datastax.driver.extras.codecs.date}</td>
  * <td>codecs mapping CQL temporal types to Java primitive types.</td>
  * </tr>
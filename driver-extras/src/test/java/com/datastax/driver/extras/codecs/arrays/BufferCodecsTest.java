@@ -0,0 +1,103 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.arrays;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.*;
+
+import static com.datastax.driver.core.ProtocolVersion.V2;
+import static com.datastax.driver.core.ProtocolVersion.V4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class BufferCodecsTest {
+
+    @DataProvider(name = "BufferCodecsTest")
+    public static Object[][] parameters() {
+        return new Object[][]{
+                {IntBufferCodec.instance, IntArrayCodec.instance, IntBuffer.wrap(new int[]{0, 1, 2, 3}, 1, 3), new int[]{1, 2, 3}, "[1,2,3]"},
+                {LongBufferCodec.instance, LongArrayCodec.instance, LongBuffer.wrap(new long[]{0, 4, 5, 6}, 1, 3), new long[]{4, 5, 6}, "[4,5,6]"},
+                {FloatBufferCodec.instance, FloatArrayCodec.instance, FloatBuffer.wrap(new float[]{0, 1, 2, 3}, 1, 3), new float[]{1, 2, 3}, "[1.0,2.0,3.0]"},
+                {DoubleBufferCodec.instance, DoubleArrayCodec.instance, DoubleBuffer.wrap(new double[]{0, 4, 5, 6}, 1, 3), new double[]{4, 5, 6}, "[4.0,5.0,6.0]"}
+        };
+    }
+
+    @Test(groups = "unit", dataProvider = "BufferCodecsTest")
+    public <B extends Buffer, A> void should_serialize_and_deserialize_buffers(
+            TypeCodec<B> codec, TypeCodec<A> arrayCodec, B buffer, A array, String cql) {
+        for (ProtocolVersion protocolVersion : new ProtocolVersion[]{V2, V4}) {
+            // the remaining elements are serialized, like the equivalent array
+            ByteBuffer bytes = codec.serialize(buffer, protocolVersion);
+            assertThat(buffer.position()).isEqualTo(1);
+            assertThat(bytes).isEqualTo(arrayCodec.serialize(array, protocolVersion));
+
+            B actual = codec.deserialize(bytes, protocolVersion);
+            assertThat(actual.isReadOnly()).isTrue();
+            assertThat(actual).isEqualTo(buffer);
+            assertThat(codec.serialize(actual, protocolVersion)).isEqualTo(bytes);
+        }
+        assertThat(codec.deserialize(ByteBuffer.allocate(0), V4).remaining()).isEqualTo(0);
+        assertThat(codec.serialize(null, V4)).isNull();
+    }
+
+    @Test(groups = "unit", dataProvider = "BufferCodecsTest")
+    public <B extends Buffer, A> void should_format_and_parse_buffers(
+            TypeCodec<B> codec, TypeCodec<A> arrayCodec, B buffer, A array, String cql) {
+        assertThat(codec.format(buffer)).isEqualTo(cql);
+        assertThat(codec.format(null)).isEqualToIgnoringCase("NULL");
+        assertThat(codec.parse(cql)).isEqualTo(buffer);
+        assertThat(codec.parse("NULL")).isNull();
+    }
+
+    @Test(groups = "unit")
+    public void should_reject_elements_of_wrong_size() {
+        // a list<int> read as a list<bigint>
+        ByteBuffer bytes = IntArrayCodec.instance.serialize(new int[]{1, 2}, V4);
+        try {
+            LongBufferCodec.instance.deserialize(bytes, V4);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+        bytes.limit(bytes.limit() - 1);
+        try {
+            IntBufferCodec.instance.deserialize(bytes, V4);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_reject_invalid_number_of_elements() {
+        // negative, and larger than the remaining bytes can hold
+        for (int size : new int[]{-1, Integer.MAX_VALUE, 3}) {
+            ByteBuffer bytes = IntArrayCodec.instance.serialize(new int[]{1, 2}, V4);
+            bytes.putInt(0, size);
+            try {
+                IntBufferCodec.instance.deserialize(bytes, V4);
+                fail("Expected an InvalidTypeException");
+            } catch (InvalidTypeException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.compression;
+
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import com.google.common.base.Strings;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static com.datastax.driver.core.ProtocolVersion.V4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class LZ4CodecTest {
+
+    private static final LZ4Codec<String> codec = new LZ4Codec<String>(TypeCodec.varchar(), 64);
+
+    @Test(groups = "unit")
+    public void should_compress_values_above_threshold() {
+        String value = Strings.repeat("{\"name\":\"sensor\",\"value\":42}", 100);
+        ByteBuffer bytes = codec.serialize(value, V4);
+        assertThat(bytes.get(0)).isEqualTo((byte) 1);
+        assertThat(bytes.getInt(1)).isEqualTo(value.length());
+        assertThat(bytes.remaining()).isLessThan(value.length() / 10);
+        assertThat(codec.deserialize(bytes, V4)).isEqualTo(value);
+
+        // also works with direct buffers and buffers that don't start at the beginning of their array
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.remaining());
+        direct.put(bytes.duplicate()).flip();
+        assertThat(codec.deserialize(direct, V4)).isEqualTo(value);
+        ByteBuffer offset = ByteBuffer.allocate(bytes.remaining() + 3);
+        offset.position(3);
+        offset.put(bytes.duplicate()).position(3);
+        assertThat(codec.deserialize(offset.slice(), V4)).isEqualTo(value);
+    }
+
+    @Test(groups = "unit")
+    public void should_not_compress_small_or_incompressible_values() {
+        String small = "small";
+        ByteBuffer bytes = codec.serialize(small, V4);
+        assertThat(bytes.get(0)).isEqualTo((byte) 0);
+        assertThat(bytes.remaining()).isEqualTo(1 + small.length());
+        assertThat(codec.deserialize(bytes, V4)).isEqualTo(small);
+
+        StringBuilder random = new StringBuilder();
+        Random r = new Random(42);
+        for (int i = 0; i < 100; i++)
+            random.append((char) (' ' + r.nextInt(95)));
+        bytes = codec.serialize(random.toString(), V4);
+        assertThat(bytes.get(0)).isEqualTo((byte) 0);
+        assertThat(codec.deserialize(bytes, V4)).isEqualTo(random.toString());
+
+        assertThat(codec.serialize(null, V4)).isNull();
+        assertThat(codec.deserialize(null, V4)).isNull();
+    }
+
+    @Test(groups = "unit")
+    public void should_format_and_parse_values() {
+        String value = Strings.repeat("abc", 100);
+        assertThat(codec.format(null)).isEqualTo("NULL");
+        assertThat(codec.parse("NULL")).isNull();
+        assertThat(codec.parse(codec.format(value))).isEqualTo(value);
+    }
+
+    @Test(groups = "unit")
+    public void should_reject_corrupted_values() {
+        ByteBuffer bytes = codec.serialize(Strings.repeat("abc", 100), V4);
+        // truncated
+        ByteBuffer truncated = bytes.duplicate();
+        truncated.limit(truncated.limit() - 2);
+        assertInvalid(truncated);
+        // wrong uncompressed length
+        ByteBuffer wrongLength = ByteBuffer.allocate(bytes.remaining());
+        wrongLength.put(bytes.duplicate()).flip();
+        wrongLength.putInt(1, 400);
+        assertInvalid(wrongLength);
+        // negative or impossibly large uncompressed length, rejected before allocating
+        wrongLength.putInt(1, -1);
+        assertInvalid(wrongLength);
+        wrongLength.putInt(1, Integer.MAX_VALUE);
+        assertInvalid(wrongLength);
+        // unknown format
+        assertInvalid(ByteBuffer.wrap(new byte[]{2, 0, 0}));
+    }
+
+    private static void assertInvalid(ByteBuffer bytes) {
+        try {
+            codec.deserialize(bytes, V4);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.extras.codecs.json;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.datastax.driver.extras.codecs.json.ByteBufferOutputStream.SizeEstimator.DEFAULT_INITIAL_SIZE;
+import static com.datastax.driver.extras.codecs.json.ByteBufferOutputStream.SizeEstimator.MAX_INITIAL_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ByteBufferOutputStreamTest {
+
+    @Test(groups = "unit")
+    public void should_wrap_internal_array_unless_mostly_empty() {
+        ByteBufferOutputStream output = new ByteBufferOutputStream(4);
+        output.write(new byte[]{1, 2, 3}, 0, 3);
+        ByteBuffer bytes = output.toByteBuffer();
+        assertThat(bytes.remaining()).isEqualTo(3);
+        assertThat(bytes.array()).hasSize(4);
+
+        output = new ByteBufferOutputStream(16);
+        output.write(new byte[]{1, 2, 3}, 0, 3);
+        bytes = output.toByteBuffer();
+        assertThat(bytes.array()).isEqualTo(new byte[]{1, 2, 3});
+    }
+
+    @Test(groups = "unit")
+    public void should_not_oversize_small_outputs_after_large_one() {
+        ByteBufferOutputStream.SizeEstimator estimator = new ByteBufferOutputStream.SizeEstimator();
+        assertThat(estimator.initialSize()).isEqualTo(DEFAULT_INITIAL_SIZE);
+
+        estimator.update(10 * 1024 * 1024);
+        assertThat(estimator.initialSize()).isLessThan(MAX_INITIAL_SIZE);
+
+        for (int i = 0; i < 50; i++)
+            estimator.update(100);
+        assertThat(estimator.initialSize()).isLessThan(200);
+
+        for (int i = 0; i < 100; i++)
+            estimator.update(100 * 1024);
+        assertThat(estimator.initialSize()).isLessThanOrEqualTo(MAX_INITIAL_SIZE).isGreaterThan(MAX_INITIAL_SIZE / 2);
+    }
+}
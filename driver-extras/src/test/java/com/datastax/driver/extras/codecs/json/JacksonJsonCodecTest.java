@@ -24,6 +24,8 @@ import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
 import org.testng.annotations.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.*;
@@ -31,6 +33,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 public class JacksonJsonCodecTest extends CCMTestsSupport {
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     private static final JacksonJsonCodec<User> jsonCodec = new JacksonJsonCodec<User>(User.class);
 
     private static final User alice = new User(1, "Alice");
@@ -80,6 +84,27 @@ public class JacksonJsonCodecTest extends CCMTestsSupport {
         assertThat(codec.parse(null)).isNull();
     }
 
+    @Test(groups = "unit")
+    public void should_serialize_and_deserialize_without_intermediary_copies() {
+        JacksonJsonCodec<User> codec = new JacksonJsonCodec<User>(User.class);
+        User user = new User(1, "Z\u00e9lie");
+        byte[] json = "{\"id\":1,\"name\":\"Z\u00e9lie\"}".getBytes(UTF_8);
+        assertThat(codec.serialize(user, ProtocolVersion.V4)).isEqualTo(ByteBuffer.wrap(json));
+
+        // a slice of a larger heap array
+        ByteBuffer heap = ByteBuffer.allocate(json.length + 2);
+        heap.position(1);
+        heap.put(json);
+        heap.flip().position(1);
+        assertThat(codec.deserialize(heap, ProtocolVersion.V4)).isEqualTo(user);
+        assertThat(heap.position()).isEqualTo(1);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+        direct.put(json).flip();
+        assertThat(codec.deserialize(direct, ProtocolVersion.V4)).isEqualTo(user);
+        assertThat(direct.position()).isEqualTo(0);
+    }
+
     @Test(groups = "short")
     @CassandraVersion(major = 2.0)
     public void should_use_custom_codec_with_simple_statements() {
@@ -24,12 +24,16 @@ import org.testng.annotations.Test;
 import javax.json.*;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.*;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class Jsr353JsonCodecTest extends CCMTestsSupport {
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     private static final Jsr353JsonCodec jsonCodec = new Jsr353JsonCodec();
 
     private static final JsonObject alice = Json.createObjectBuilder().add("id", 1).add("name", "Alice").build();
@@ -81,6 +85,27 @@ public class Jsr353JsonCodecTest extends CCMTestsSupport {
         assertThat(codec.parse(null)).isNull();
     }
 
+    @Test(groups = "unit")
+    public void should_serialize_and_deserialize_without_intermediary_copies() {
+        Jsr353JsonCodec codec = new Jsr353JsonCodec();
+        JsonObject object = Json.createObjectBuilder().add("id", 1).add("name", "Z\u00e9lie").build();
+        byte[] json = "{\"id\":1,\"name\":\"Z\u00e9lie\"}".getBytes(UTF_8);
+        assertThat(codec.serialize(object, ProtocolVersion.V4)).isEqualTo(ByteBuffer.wrap(json));
+
+        // a slice of a larger heap array
+        ByteBuffer heap = ByteBuffer.allocate(json.length + 2);
+        heap.position(1);
+        heap.put(json);
+        heap.flip().position(1);
+        assertThat(codec.deserialize(heap, ProtocolVersion.V4)).isEqualTo(object);
+        assertThat(heap.position()).isEqualTo(1);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+        direct.put(json).flip();
+        assertThat(codec.deserialize(direct, ProtocolVersion.V4)).isEqualTo(object);
+        assertThat(direct.position()).isEqualTo(0);
+    }
+
     @Test(groups = "short", dataProvider = "Jsr353JsonCodecTest")
     @CassandraVersion(major = 2.0)
     public void should_use_custom_codec_with_simple_statements(JsonStructure object) throws IOException {
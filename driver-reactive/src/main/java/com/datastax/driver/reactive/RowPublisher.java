@@ -0,0 +1,273 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.reactive;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A <a href="http://www.reactive-streams.org/">Reactive Streams</a> {@link Publisher} that emits the rows of a
+ * query.
+ * <p/>
+ * Each subscriber gets its own execution of the statement. Nothing is executed until the subscriber requests
+ * rows, and pages are then fetched as the subscriber consumes rows: the publisher never buffers more than
+ * {@code maxBufferedPages} pages (the size of a page is the fetch size of the statement, see
+ * {@link Statement#setFetchSize(int)}). Cancelling the subscription stops fetching immediately.
+ * <p/>
+ * If prefetching is enabled for the statement (see {@link Statement#setPrefetchThreshold(int)}), the result set
+ * also fetches pages in the background, within the limits of its own
+ * {@link com.datastax.driver.core.QueryOptions#setMaxPrefetchedPages(int) settings}. Those pages are emitted like
+ * the others, and count towards {@code maxBufferedPages}: the publisher doesn't fetch ahead while they are
+ * buffered.
+ * <p/>
+ * Rows are emitted either on the thread that calls {@link Subscription#request(long)}, or on the driver's I/O
+ * threads when a page arrives; as with any asynchronous callback in the driver, subscribers should not block in
+ * {@link Subscriber#onNext(Object)}.
+ * <pre>
+ * Publisher&lt;Row&gt; rows = new RowPublisher(session, new SimpleStatement("SELECT * FROM ks.table").setFetchSize(500));
+ * </pre>
+ */
+public class RowPublisher implements Publisher<Row> {
+
+    /**
+     * The default maximum number of pages buffered per subscriber: 1.
+     */
+    public static final int DEFAULT_MAX_BUFFERED_PAGES = 1;
+
+    private final Session session;
+    private final Statement statement;
+    private final int maxBufferedPages;
+
+    /**
+     * Creates a new publisher that buffers at most {@link #DEFAULT_MAX_BUFFERED_PAGES} page per subscriber.
+     *
+     * @param session   the session to execute the statement with.
+     * @param statement the statement.
+     */
+    public RowPublisher(Session session, Statement statement) {
+        this(session, statement, DEFAULT_MAX_BUFFERED_PAGES);
+    }
+
+    /**
+     * Creates a new publisher.
+     *
+     * @param session          the session to execute the statement with.
+     * @param statement        the statement.
+     * @param maxBufferedPages the maximum number of pages to hold for each subscriber, including the page being
+     *                         emitted. With 1, the next page is only fetched once the current one has been consumed
+     *                         and the subscriber requests more rows; with a greater value, the next pages are
+     *                         fetched ahead while the current one is consumed.
+     * @throws IllegalArgumentException if {@code maxBufferedPages} is less than 1.
+     */
+    public RowPublisher(Session session, Statement statement, int maxBufferedPages) {
+        checkArgument(maxBufferedPages >= 1, "maxBufferedPages must be at least 1, got %s", maxBufferedPages);
+        this.session = checkNotNull(session);
+        this.statement = checkNotNull(statement);
+        this.maxBufferedPages = maxBufferedPages;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Row> subscriber) {
+        checkNotNull(subscriber);
+        RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Serializes all signals to the subscriber through {@link #drain()}: requests, page arrivals and cancellation
+     * only update the state and trigger a drain, and the thread that wins {@code wip} emits on behalf of the others.
+     */
+    private class RowSubscription implements Subscription {
+
+        private final Subscriber<? super Row> subscriber;
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        // Set by fetch callbacks, consumed by drain()
+        private volatile ResultSet fetched;
+        private volatile Throwable error;
+        private volatile ListenableFuture<ResultSet> inFlight;
+
+        // Only accessed by the draining thread
+        private ResultSet rs;
+        // The number of rows left in each buffered page
+        private final Deque<Integer> pages = new ArrayDeque<Integer>();
+        private int bufferedRows;
+        private boolean started, fetching, done;
+
+        RowSubscription(Subscriber<? super Row> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Non-positive request: " + n + " (rule 3.9)");
+            } else {
+                long current, next;
+                do {
+                    current = requested.get();
+                    next = current + n;
+                    if (next < 0)
+                        next = Long.MAX_VALUE;
+                } while (!requested.compareAndSet(current, next));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            ListenableFuture<ResultSet> future = inFlight;
+            if (future != null)
+                future.cancel(true);
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            int missed = 1;
+            while (true) {
+                if (cancelled || done) {
+                    release();
+                } else {
+                    emit();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0)
+                    return;
+            }
+        }
+
+        private void emit() {
+            ResultSet page = fetched;
+            if (page != null) {
+                fetched = null;
+                fetching = false;
+                inFlight = null;
+                rs = page;
+                countNewRows();
+            }
+
+            long r = requested.get();
+            long emitted = 0;
+            while (emitted != r && (bufferedRows > 0 || countNewRows())) {
+                if (cancelled)
+                    return;
+                Row row = rs.one();
+                bufferedRows -= 1;
+                int left = pages.removeFirst() - 1;
+                if (left > 0)
+                    pages.addFirst(left);
+                emitted += 1;
+                subscriber.onNext(row);
+            }
+            if (emitted != 0 && r != Long.MAX_VALUE)
+                r = requested.addAndGet(-emitted);
+
+            // Read this before counting the rows: once the result set is fully fetched, all its rows are available
+            boolean fullyFetched = started && !fetching && rs.isFullyFetched();
+            countNewRows();
+
+            Throwable t = error;
+            if (t != null) {
+                done = true;
+                release();
+                subscriber.onError(t);
+            } else if (fullyFetched && bufferedRows == 0) {
+                done = true;
+                release();
+                subscriber.onComplete();
+            } else if (!fetching && pages.size() < maxBufferedPages && (!started || !rs.isFullyFetched())
+                    // fetch when there is unmet demand, or ahead of it if we can buffer more than one page
+                    && (r > 0 || !pages.isEmpty())) {
+                fetch();
+            }
+        }
+
+        /**
+         * Counts the rows that the result set received since the last call as a new page. These are the pages that
+         * we fetched, but also the ones that the result set prefetched in the background (see
+         * {@link com.datastax.driver.core.QueryOptions#setPrefetchThreshold(int)}).
+         *
+         * @return whether there were new rows.
+         */
+        private boolean countNewRows() {
+            if (rs == null)
+                return false;
+            int added = rs.getAvailableWithoutFetching() - bufferedRows;
+            if (added <= 0)
+                return false;
+            pages.add(added);
+            bufferedRows += added;
+            return true;
+        }
+
+        private void fetch() {
+            ListenableFuture<ResultSet> future;
+            if (started) {
+                future = rs.fetchMoreResults();
+            } else {
+                started = true;
+                future = session.executeAsync(statement);
+            }
+            fetching = true;
+            inFlight = future;
+            Futures.addCallback(future, new FutureCallback<ResultSet>() {
+                @Override
+                public void onSuccess(ResultSet result) {
+                    fetched = result;
+                    drain();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    error = t;
+                    drain();
+                }
+            });
+            // Guard against cancel() having run before inFlight was set
+            if (cancelled)
+                future.cancel(true);
+        }
+
+        private void release() {
+            rs = null;
+            fetched = null;
+            pages.clear();
+            bufferedRows = 0;
+        }
+    }
+}
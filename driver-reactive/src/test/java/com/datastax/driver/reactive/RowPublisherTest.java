@@ -0,0 +1,295 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.reactive;
+
+import com.datastax.driver.core.*;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RowPublisherTest {
+
+    Session session;
+    Statement statement;
+    PendingFuture execution;
+    // The rows of the pages that the fake result set has received, and the pages it has not received yet
+    Deque<Row> available;
+    Deque<List<Row>> remainingPages;
+    List<SettableFuture<ResultSet>> fetches;
+    ResultSet rs;
+    // Whether the fake result set receives the next page in the background when a row is consumed
+    boolean prefetch;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        available = new ArrayDeque<Row>();
+        remainingPages = new ArrayDeque<List<Row>>();
+        fetches = new ArrayList<SettableFuture<ResultSet>>();
+        prefetch = false;
+        execution = new PendingFuture();
+        statement = mock(Statement.class);
+        session = mock(Session.class);
+        when(session.executeAsync(statement)).thenReturn(execution);
+
+        rs = mock(ResultSet.class);
+        when(rs.getAvailableWithoutFetching()).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                return available.size();
+            }
+        });
+        when(rs.one()).thenAnswer(new Answer<Row>() {
+            @Override
+            public Row answer(InvocationOnMock invocation) throws Throwable {
+                Row row = available.poll();
+                if (prefetch && !remainingPages.isEmpty())
+                    receivePage();
+                return row;
+            }
+        });
+        when(rs.isFullyFetched()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return remainingPages.isEmpty();
+            }
+        });
+        when(rs.fetchMoreResults()).thenAnswer(new Answer<ListenableFuture<ResultSet>>() {
+            @Override
+            public ListenableFuture<ResultSet> answer(InvocationOnMock invocation) throws Throwable {
+                SettableFuture<ResultSet> future = SettableFuture.create();
+                fetches.add(future);
+                return future;
+            }
+        });
+    }
+
+    /**
+     * Ensures that {@link RowPublisher} only executes the query and fetches the next page when the subscriber
+     * requests rows.
+     *
+     * @test_category queries:reactive
+     */
+    @Test(groups = "unit")
+    public void should_fetch_pages_on_demand() {
+        pages(3, 2);
+        TestSubscriber subscriber = subscribe(new RowPublisher(session, statement));
+        verify(session, never()).executeAsync(any(Statement.class));
+
+        subscriber.subscription.request(1);
+        verify(session).executeAsync(statement);
+        receivePage();
+        execution.set(rs);
+        assertThat(subscriber.rows).hasSize(1);
+        // The first page is still buffered
+        assertThat(fetches).isEmpty();
+
+        subscriber.subscription.request(5);
+        assertThat(subscriber.rows).hasSize(3);
+        assertThat(fetches).hasSize(1);
+        completeFetch(0);
+        assertThat(subscriber.rows).hasSize(5);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(fetches).hasSize(1);
+    }
+
+    /**
+     * Ensures that {@link RowPublisher} fetches pages ahead, up to the configured number of pages.
+     *
+     * @test_category queries:reactive
+     */
+    @Test(groups = "unit")
+    public void should_not_buffer_more_than_max_pages() {
+        pages(2, 2, 2);
+        TestSubscriber subscriber = subscribe(new RowPublisher(session, statement, 2));
+
+        subscriber.subscription.request(1);
+        receivePage();
+        execution.set(rs);
+        assertThat(subscriber.rows).hasSize(1);
+        // The second page is fetched ahead, but not the third
+        assertThat(fetches).hasSize(1);
+        completeFetch(0);
+        assertThat(subscriber.rows).hasSize(1);
+        assertThat(fetches).hasSize(1);
+
+        // Drains the first page, which makes room for the third
+        subscriber.subscription.request(2);
+        assertThat(subscriber.rows).hasSize(3);
+        assertThat(fetches).hasSize(2);
+        completeFetch(1);
+        assertThat(subscriber.rows).hasSize(3);
+        assertThat(subscriber.completed).isFalse();
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.rows).hasSize(6);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    /**
+     * Ensures that {@link RowPublisher} emits the rows of pages that the result set prefetched in the background,
+     * and doesn't complete before they are consumed.
+     *
+     * @test_category queries:reactive
+     */
+    @Test(groups = "unit")
+    public void should_emit_rows_prefetched_by_result_set() {
+        pages(2, 2, 2);
+        prefetch = true;
+        TestSubscriber subscriber = subscribe(new RowPublisher(session, statement));
+
+        subscriber.subscription.request(3);
+        receivePage();
+        execution.set(rs);
+        assertThat(subscriber.rows).hasSize(3);
+        // The other pages were prefetched while emitting, three rows are left
+        assertThat(remainingPages).isEmpty();
+        assertThat(subscriber.completed).isFalse();
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.rows).hasSize(6);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(fetches).isEmpty();
+    }
+
+    /**
+     * Ensures that cancelling a {@link RowPublisher} subscription cancels the pending fetch and stops emitting.
+     *
+     * @test_category queries:reactive
+     */
+    @Test(groups = "unit")
+    public void should_stop_fetching_when_cancelled() {
+        pages(1, 1, 1);
+        TestSubscriber subscriber = subscribe(new RowPublisher(session, statement));
+
+        subscriber.subscription.request(10);
+        receivePage();
+        execution.set(rs);
+        assertThat(subscriber.rows).hasSize(1);
+        assertThat(fetches).hasSize(1);
+
+        subscriber.subscription.cancel();
+        assertThat(fetches.get(0).isCancelled()).isTrue();
+        subscriber.subscription.request(10);
+        assertThat(fetches).hasSize(1);
+        assertThat(subscriber.rows).hasSize(1);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.error).isNull();
+    }
+
+    /**
+     * Ensures that {@link RowPublisher} signals query failures and invalid requests to the subscriber.
+     *
+     * @test_category queries:reactive
+     */
+    @Test(groups = "unit")
+    public void should_signal_errors() {
+        TestSubscriber subscriber = subscribe(new RowPublisher(session, statement));
+        subscriber.subscription.request(1);
+        Exception error = new RuntimeException("mock error");
+        execution.setException(error);
+        assertThat(subscriber.error).isSameAs(error);
+
+        subscriber = subscribe(new RowPublisher(session, statement));
+        subscriber.subscription.request(0);
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void pages(int... sizes) {
+        for (int size : sizes) {
+            List<Row> page = new ArrayList<Row>();
+            for (int i = 0; i < size; i++)
+                page.add(mock(Row.class));
+            remainingPages.add(page);
+        }
+    }
+
+    private void receivePage() {
+        available.addAll(remainingPages.poll());
+    }
+
+    private void completeFetch(int i) {
+        receivePage();
+        fetches.get(i).set(rs);
+    }
+
+    private static TestSubscriber subscribe(RowPublisher publisher) {
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        assertThat(subscriber.subscription).isNotNull();
+        return subscriber;
+    }
+
+    static class TestSubscriber implements Subscriber<Row> {
+        Subscription subscription;
+        final List<Row> rows = new ArrayList<Row>();
+        volatile boolean completed;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Row row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    static class PendingFuture extends AbstractFuture<ResultSet> implements ResultSetFuture {
+        @Override
+        public boolean set(ResultSet value) {
+            return super.set(value);
+        }
+
+        @Override
+        public boolean setException(Throwable throwable) {
+            return super.setException(throwable);
+        }
+
+        @Override
+        public ResultSet getUninterruptibly() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResultSet getUninterruptibly(long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}